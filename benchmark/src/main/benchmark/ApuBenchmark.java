@@ -0,0 +1,44 @@
+package benchmark;
+
+import apu.APU;
+import org.openjdk.jmh.annotations.*;
+import ppu.PPU;
+
+import java.util.concurrent.TimeUnit;
+
+// Class ApuBenchmark:
+//     One frame's worth of apu cycles, both one cycle at a time (as LOCKSTEP runs it) and in bulk with runCycles (as
+//     the other sync modes do). There are no data lines, so no sound is written.
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ApuBenchmark {
+    private static final int APU_CYCLES_PER_FRAME = (int) Math.ceil(PPU.CYCLES_PER_FRAME / 6.0);
+
+    private APU apu;
+
+    @Setup
+    public void setup() {
+        apu = new APU();
+        apu.writeMemory(0x4015, 0x0F); // enable the pulse and triangle channels
+    }
+
+    @Benchmark
+    public int cycle() {
+        for (int i = 0; i < APU_CYCLES_PER_FRAME; i++) {
+            apu.cycle();
+        }
+
+        return apu.getCycles();
+    }
+
+    @Benchmark
+    public int runCycles() {
+        apu.runCycles(APU_CYCLES_PER_FRAME);
+        return apu.getCycles();
+    }
+}
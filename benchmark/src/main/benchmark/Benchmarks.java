@@ -0,0 +1,26 @@
+package benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Class Benchmarks:
+//     The entry point of benchmarks.jar. It takes the same arguments as JMH's own main class, but always adds the GC
+//     profiler, so every result comes with the bytes allocated per operation and a regression that starts allocating
+//     on the hot path shows up even when the timing noise hides it.
+
+public final class Benchmarks {
+    // EFFECTS: makes the code coverage autobot not complain about me not instantiating a Benchmarks class.
+    private Benchmarks() {
+
+    }
+
+    // EFFECTS: runs the benchmarks selected by args (all of them by default) with the GC profiler.
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions options = new CommandLineOptions(args);
+        new Runner(new OptionsBuilder().parent(options).addProfiler(GCProfiler.class).build()).run();
+    }
+}
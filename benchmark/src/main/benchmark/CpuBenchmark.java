@@ -0,0 +1,56 @@
+package benchmark;
+
+import model.Bus;
+import model.CPU;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Class CpuBenchmark:
+//     Instruction throughput on nestest: the same 5259 instructions that Nestest.testNestestRom checks, run from the
+//     automated entry point at 0xC000 with the cpu alone (the ppu and apu aren't cycled). Every operation starts from
+//     the registers nestest.log starts with. The score is per instruction.
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class CpuBenchmark {
+    private static final int NESTEST_INSTRUCTIONS = 5259;
+    private static final int NESTEST_START        = 0xC000;
+    private static final int STACK_POINTER        = 0xFD;
+    private static final int STATUS               = 0x24;
+
+    @Param({ "true", "false" })
+    public boolean recompiler;
+
+    private CPU cpu;
+
+    @Setup
+    public void setup() throws IOException {
+        Bus bus = new Bus();
+        bus.loadCartridge(new File("./data/rom/nestest.nes"));
+        cpu = bus.getCpu();
+        cpu.setRecompilerEnabled(recompiler);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NESTEST_INSTRUCTIONS)
+    public long nestest() {
+        cpu.setRegisterA(0);
+        cpu.setRegisterX(0);
+        cpu.setRegisterY(0);
+        cpu.setRegisterS(STACK_POINTER);
+        cpu.setStatus(STATUS);
+        cpu.setRegisterPC(NESTEST_START);
+        for (int i = 0; i < NESTEST_INSTRUCTIONS; i++) {
+            cpu.processInstruction();
+        }
+
+        return cpu.getCycles();
+    }
+}
@@ -0,0 +1,42 @@
+package benchmark;
+
+import model.Emulator;
+import model.SyncMode;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Class FullFrameBenchmark:
+//     Emulates whole frames of Donkey Kong (cpu, ppu and apu together) in each sync mode, through the headless
+//     Emulator. Start is pressed every few seconds, so the game leaves the title screen and the measurement covers
+//     gameplay as well as the attract mode.
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class FullFrameBenchmark {
+    private static final int START_PERIOD = 300; // frames
+
+    @Param({ "LOCKSTEP", "CATCH_UP", "SCANLINE" })
+    public SyncMode syncMode;
+
+    private Emulator emulator;
+
+    @Setup
+    public void setup() throws IOException {
+        emulator = new Emulator();
+        emulator.getBus().setSyncMode(syncMode);
+        emulator.loadRom(new File("./data/rom/donkeykong.nes"));
+    }
+
+    @Benchmark
+    public long frame() {
+        emulator.runFrame(emulator.getFrames() % START_PERIOD == 0 ? Emulator.BUTTON_START : 0);
+        return emulator.getFrames();
+    }
+}
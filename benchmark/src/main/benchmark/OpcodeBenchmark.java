@@ -0,0 +1,111 @@
+package benchmark;
+
+import model.Bus;
+import model.CPU;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Class OpcodeBenchmark:
+//     One benchmark per mnemonic. The setup looks the mnemonic up in config/instructions.json and writes one
+//     instruction for every opcode byte it has (that is, every addressing mode) into RAM at PROGRAM_START, and each
+//     operation runs all of them once. Before each instruction the registers are put back to the same values and the
+//     PC is pointed at it, so jumps, branches and stack instructions can't wander off, and every operand points into
+//     RAM: zero page operands are ZERO_PAGE_OPERAND, absolute ones are ABSOLUTE_OPERAND, and every zero page pointer
+//     points at ABSOLUTE_OPERAND. The score is for one run through all of the mnemonic's opcodes, including putting the
+//     registers back before each.
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class OpcodeBenchmark {
+    private static final String INSTRUCTIONS_FILE = "./config/instructions.json";
+    private static final int    PROGRAM_START     = 0x0200;
+    private static final int    ZERO_PAGE_OPERAND = 0x10;
+    private static final int    ABSOLUTE_OPERAND  = 0x0300;
+    private static final int    STACK_POINTER     = 0xFD;
+    private static final int    STATUS            = 0x24;
+
+    @Param({
+        "ADC", "AND", "ASL", "BCC", "BCS", "BEQ", "BIT", "BMI", "BNE", "BPL", "BRK", "BVC", "BVS", "CLC",
+        "CLD", "CLI", "CLV", "CMP", "CPX", "CPY", "DEC", "DEX", "DEY", "EOR", "INC", "INX", "INY", "JMP",
+        "JSR", "LDA", "LDX", "LDY", "LSR", "NOP", "ORA", "PHA", "PHP", "PLA", "PLP", "ROL", "ROR", "RTI",
+        "RTS", "SBC", "SEC", "SED", "SEI", "STA", "STX", "STY", "TAX", "TAY", "TSX", "TXA", "TXS", "TYA"
+    })
+    public String mnemonic;
+
+    private CPU   cpu;
+    private int[] addresses;
+
+    @Setup
+    public void setup() throws IOException, ParseException {
+        Bus bus = new Bus();
+        bus.loadCartridge(new File("./data/rom/nestest.nes"));
+        cpu = bus.getCpu();
+
+        for (int pointer = 0; pointer < 0x100; pointer += 2) {
+            cpu.writeMemory(pointer,     ABSOLUTE_OPERAND & 0xFF);
+            cpu.writeMemory(pointer + 1, ABSOLUTE_OPERAND >> 8);
+        }
+
+        List<Integer> found = new ArrayList<>();
+        int address = PROGRAM_START;
+        try (Reader reader = new FileReader(INSTRUCTIONS_FILE)) {
+            JSONArray instructions = (JSONArray) new JSONParser().parse(reader);
+            for (int opcode = 0; opcode < instructions.size(); opcode++) {
+                JSONObject instruction = (JSONObject) instructions.get(opcode);
+                if (!mnemonic.equals(instruction.get("opcode"))) {
+                    continue;
+                }
+
+                int numArguments = Integer.parseInt((String) instruction.get("numArguments"));
+                found.add(address);
+                cpu.writeMemory(address, opcode);
+                if (numArguments == 1) {
+                    cpu.writeMemory(address + 1, ZERO_PAGE_OPERAND);
+                } else if (numArguments == 2) {
+                    cpu.writeMemory(address + 1, ABSOLUTE_OPERAND & 0xFF);
+                    cpu.writeMemory(address + 2, ABSOLUTE_OPERAND >> 8);
+                }
+                address += 1 + numArguments;
+            }
+        }
+
+        if (found.isEmpty()) {
+            throw new IllegalArgumentException(mnemonic + " isn't in " + INSTRUCTIONS_FILE);
+        }
+
+        addresses = new int[found.size()];
+        for (int i = 0; i < addresses.length; i++) {
+            addresses[i] = found.get(i);
+        }
+    }
+
+    @Benchmark
+    public long run() {
+        for (int address : addresses) {
+            cpu.setRegisterA(0);
+            cpu.setRegisterX(0);
+            cpu.setRegisterY(0);
+            cpu.setRegisterS(STACK_POINTER);
+            cpu.setStatus(STATUS);
+            cpu.setRegisterPC(address);
+            cpu.processInstruction();
+        }
+
+        return cpu.getCycles();
+    }
+}
@@ -0,0 +1,52 @@
+package benchmark;
+
+import model.Bus;
+import org.openjdk.jmh.annotations.*;
+import ppu.PPU;
+import ui.Pixels;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Class PpuBenchmark:
+//     Renders one frame of the ppu alone, in each of its paths: all at once at the start and end of the frame
+//     (canRenderFullScreen), a scanline at a time (canRenderScanlines) and dot by dot. Donkey Kong is run for
+//     WARMUP_FRAMES frames first, so that rendering is on and the nametables, palettes and sprites hold a real title
+//     screen. The cpu isn't run while measuring, so the picture stays the same from frame to frame.
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class PpuBenchmark {
+    private static final int WARMUP_FRAMES        = 120;
+    private static final int BUS_CYCLES_PER_FRAME = (int) Math.ceil(PPU.CYCLES_PER_FRAME / 6.0);
+
+    @Param({ "FULL_SCREEN", "SCANLINE", "DOT" })
+    public String renderer;
+
+    private PPU ppu;
+
+    @Setup
+    public void setup() throws IOException {
+        Bus bus = new Bus();
+        bus.loadCartridge(new File("./data/rom/donkeykong.nes"));
+        bus.getPpu().setPixels(new Pixels(1, 1, 256, 240));
+        for (int frame = 0; frame < WARMUP_FRAMES; frame++) {
+            bus.runCycles(BUS_CYCLES_PER_FRAME);
+        }
+
+        ppu = bus.getPpu();
+        ppu.setCanRenderFullScreen(renderer.equals("FULL_SCREEN"));
+        ppu.setCanRenderScanlines(renderer.equals("SCANLINE"));
+    }
+
+    @Benchmark
+    public PPU frame() {
+        ppu.runCycles(PPU.CYCLES_PER_FRAME);
+        return ppu;
+    }
+}
@@ -0,0 +1,59 @@
+package benchmark;
+
+import model.Bus;
+import org.openjdk.jmh.annotations.*;
+import persistence.BusReader;
+import persistence.BusWriter;
+import ppu.PPU;
+import ui.Pixels;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Class SavestateBenchmark:
+//     Writes a savestate of Donkey Kong in the middle of a game and reads it back, through the same files as the Save
+//     State and Load State menu items (but under SAVE_NAME, which is deleted afterwards).
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class SavestateBenchmark {
+    private static final String SAVE_NAME            = "benchmark";
+    private static final File   SAVE_FILE            = new File("./data/save/" + SAVE_NAME + ".sav");
+    private static final int    WARMUP_FRAMES        = 120;
+    private static final int    BUS_CYCLES_PER_FRAME = (int) Math.ceil(PPU.CYCLES_PER_FRAME / 6.0);
+
+    private Bus bus;
+
+    @Setup
+    public void setup() throws IOException {
+        bus = new Bus();
+        bus.loadCartridge(new File("./data/rom/donkeykong.nes"));
+        bus.getPpu().setPixels(new Pixels(1, 1, 256, 240));
+        for (int frame = 0; frame < WARMUP_FRAMES; frame++) {
+            bus.runCycles(BUS_CYCLES_PER_FRAME);
+        }
+
+        BusWriter.writeToFile(bus, SAVE_NAME);
+    }
+
+    @TearDown
+    public void tearDown() {
+        SAVE_FILE.delete();
+    }
+
+    @Benchmark
+    public Bus write() {
+        BusWriter.writeToFile(bus, SAVE_NAME);
+        return bus;
+    }
+
+    @Benchmark
+    public Bus read() {
+        return BusReader.readFromFile(bus, SAVE_NAME);
+    }
+}
@@ -9,6 +9,12 @@ public class APU {
     public static final int    SAMPLE_RATE      = 44100;
     public static final double OFFSET_INCREMENT = SAMPLE_RATE / (double) Display.APU_FPS;
 
+    // Frame sequencer (in APU cycles). Both sequences clock the length counters on FRAME_STEP_HALF and on their last
+    // step, and start over right after it.
+    private static final int FRAME_STEP_HALF        = 7456;
+    private static final int FOUR_STEP_LAST_STEP    = 14914;
+    private static final int FIVE_STEP_LAST_STEP    = 18640;
+
     private PulseChannel    pulseChannel1;
     private PulseChannel    pulseChannel2;
     private TriangleChannel triangleChannel;
@@ -25,6 +31,18 @@ public class APU {
         cycle = 0;
     }
 
+    // EFFECTS: returns an apu in the same state as this one. The copy has no data lines, so it is silent until
+    //          startDataLines is called on it.
+    public APU copy() {
+        APU copy = new APU();
+        copy.pulseChannel1   = pulseChannel1.copy();
+        copy.pulseChannel2   = pulseChannel2.copy();
+        copy.triangleChannel = triangleChannel.copy();
+        copy.mode            = mode;
+        copy.cycle           = cycle;
+        return copy;
+    }
+
     // https://wiki.nesdev.com/w/index.php/APU_Frame_Counter
     public void cycle() {
         if (mode == 0) { // 4-Step Sequence
@@ -36,28 +54,54 @@ public class APU {
 
     // https://wiki.nesdev.com/w/index.php/APU_Frame_Counter
     private void cycle4StepSequence() {
-        if (cycle == 7456 || cycle == 14914) {
+        if (cycle == FRAME_STEP_HALF || cycle == FOUR_STEP_LAST_STEP) {
             cycleLengthCounters();
         }
 
         cycle++;
-        if (cycle == 14915) {
+        if (cycle == FOUR_STEP_LAST_STEP + 1) {
             cycle = 0;
         }
     }
 
     // https://wiki.nesdev.com/w/index.php/APU_Frame_Counter
     private void cycle5StepSequence() {
-        if (cycle == 7456 || cycle == 18640) {
+        if (cycle == FRAME_STEP_HALF || cycle == FIVE_STEP_LAST_STEP) {
             cycleLengthCounters();
         }
 
         cycle++;
-        if (cycle == 18641) {
+        if (cycle == FIVE_STEP_LAST_STEP + 1) {
             cycle = 0;
         }
     }
 
+    // EFFECTS: returns the number of cycles that can run before the frame sequencer clocks the length counters; the
+    //          cycle after that many is the one that does.
+    public int getCyclesUntilFrameStep() {
+        if (cycle <= FRAME_STEP_HALF) {
+            return FRAME_STEP_HALF - cycle;
+        }
+
+        return (mode == 0 ? FOUR_STEP_LAST_STEP : FIVE_STEP_LAST_STEP) - cycle;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  same as calling cycle() numCycles times, but only runs the cycles on which the frame sequencer does
+    //           something.
+    public void runCycles(int numCycles) {
+        while (numCycles > 0) {
+            int step = Math.min(numCycles, getCyclesUntilFrameStep());
+            cycle     += step;
+            numCycles -= step;
+
+            if (numCycles > 0) {
+                cycle();
+                numCycles--;
+            }
+        }
+    }
+
     public void startDataLines() {
         pulseChannel1.startDataLine();
         pulseChannel2.startDataLine();
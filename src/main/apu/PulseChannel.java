@@ -26,7 +26,12 @@ public class PulseChannel {
     private SourceDataLine line;
     private double toneOffset;
 
-    private byte[] tone;
+    // tone is shared with copies of this channel until one of them changes it (see generateTone). toneTimer and
+    // toneDuty are the timer and duty it was generated for, or -1 if it hasn't been generated yet.
+    private byte[]  tone;
+    private boolean toneShared;
+    private int     toneTimer;
+    private int     toneDuty;
 
     private boolean enabled;
     private boolean dataLineStarted;
@@ -49,11 +54,34 @@ public class PulseChannel {
         this.toneOffset         = 0;
 
         this.enabled            = false;
+        this.toneTimer          = -1;
+        this.toneDuty           = -1;
 
         dataLineStarted = false;
         af = new AudioFormat(SAMPLE_RATE, 8, 1, true, true);
     }
 
+    // MODIFIES: this
+    // EFFECTS: returns a channel in the same state as this one, but without a data line. The copy shares tone until
+    //          either of them generates a different one.
+    PulseChannel copy() {
+        PulseChannel copy = new PulseChannel(memoryOffset);
+        copy.duty               = duty;
+        copy.envelopeLoop       = envelopeLoop;
+        copy.constantVolume     = constantVolume;
+        copy.volume             = volume;
+        copy.timer              = timer;
+        copy.lengthCounterTimer = lengthCounterTimer;
+        copy.toneOffset         = toneOffset;
+        copy.tone               = tone;
+        copy.toneShared         = true;
+        copy.toneTimer          = toneTimer;
+        copy.toneDuty           = toneDuty;
+        copy.enabled            = enabled;
+        toneShared              = true;
+        return copy;
+    }
+
     public void startDataLine() {
         dataLineStarted = true;
         try {
@@ -74,7 +102,9 @@ public class PulseChannel {
         } else if (pointer + memoryOffset == 0x4002) {
             timer = Util.maskNthBits(value, timer, 0, 0, 8);
             generateTone();
-            line.flush();
+            if (dataLineStarted) {
+                line.flush();
+            }
             enabled = true;
 
         } else if (pointer + memoryOffset == 0x4003) {
@@ -82,7 +112,9 @@ public class PulseChannel {
             enabled = true;
             timer = Util.maskNthBits(value, timer, 0, 8, 3);
             generateTone();
-            line.flush();
+            if (dataLineStarted) {
+                line.flush();
+            }
         }
     }
 
@@ -115,9 +147,23 @@ public class PulseChannel {
         }
     }
 
+    // MODIFIES: this
+    // EFFECTS:  generates one second of the square wave for the current timer and duty into tone. Games write the
+    //           timer far more often than they change it, so nothing is done if tone is already for them, and tone is
+    //           only reallocated if a copy of this channel still uses it.
     private void generateTone() {
+        if (tone != null && timer == toneTimer && duty == toneDuty) {
+            return;
+        }
+
+        if (tone == null || toneShared) {
+            tone       = new byte[SAMPLE_RATE];
+            toneShared = false;
+        }
+        toneTimer = timer;
+        toneDuty  = duty;
+
         double frequency = (Display.CYCLES_PER_FRAME * 2 * 60) / (16 * (timer + 1));
-        tone = new byte[SAMPLE_RATE];
         for (int i = 0; i < tone.length; i++) {
             tone[i] = ((double) i / (SAMPLE_RATE / frequency)) % 1 < getDutyCycle()
                     ? (byte) (APU.VOLUME * Byte.MAX_VALUE) : 0;
@@ -24,7 +24,11 @@ public class TriangleChannel {
     private SourceDataLine line;
     private double toneOffset;
 
-    private byte[] tone;
+    // tone is shared with copies of this channel until one of them changes it (see generateTone). toneTimer is the
+    // timer it was generated for, or -1 if it hasn't been generated yet.
+    private byte[]  tone;
+    private boolean toneShared;
+    private int     toneTimer;
 
     private boolean enabled;
     private boolean dataLineStarted;
@@ -45,11 +49,33 @@ public class TriangleChannel {
 
         this.lengthCounterHaltFlag   = false;
         this.linearCounterReloadFlag = false;
+        this.toneTimer               = -1;
 
         dataLineStarted = false;
         af = new AudioFormat(SAMPLE_RATE, 8, 1, true, true);
     }
 
+    // MODIFIES: this
+    // EFFECTS: returns a channel in the same state as this one, but without a data line. The copy shares tone until
+    //          either of them generates a different one.
+    TriangleChannel copy() {
+        TriangleChannel copy = new TriangleChannel();
+        copy.linearCounterTimer      = linearCounterTimer;
+        copy.timer                   = timer;
+        copy.lengthCounterTimer      = lengthCounterTimer;
+        copy.counterReloadValue      = counterReloadValue;
+        copy.lengthCounterHaltFlag   = lengthCounterHaltFlag;
+        copy.linearCounterReloadFlag = linearCounterReloadFlag;
+        copy.toneOffset              = toneOffset;
+        copy.tone                    = tone;
+        copy.toneShared              = true;
+        copy.toneTimer               = toneTimer;
+        copy.enabled                 = enabled;
+        copy.frequency               = frequency;
+        toneShared                   = true;
+        return copy;
+    }
+
     public void startDataLine() {
         dataLineStarted = true;
         try {
@@ -67,14 +93,18 @@ public class TriangleChannel {
             counterReloadValue    = value & 0x7F;
         } else if (pointer == 0x400A) {
             timer = (timer & 0x700) | (value & 0xFF);
-            line.flush();
+            if (dataLineStarted) {
+                line.flush();
+            }
             generateTone();
         } else if (pointer == 0x400B) {
             timer = (timer & 0x0FF) | ((value & 0x7) << 8);
             enabled = true;
             lengthCounterTimer = lengthCounterLoadTable[(value & 0xF8) >> 3];
             linearCounterReloadFlag = true;
-            line.flush();
+            if (dataLineStarted) {
+                line.flush();
+            }
             generateTone();
         }
     }
@@ -112,11 +142,23 @@ public class TriangleChannel {
         }
     }
 
+    // MODIFIES: this
+    // EFFECTS:  generates one second of the triangle wave for the current timer into tone. Nothing is done if tone is
+    //           already for this timer, and tone is only reallocated if a copy of this channel still uses it.
     private void generateTone() {
+        if (tone != null && timer == toneTimer) {
+            return;
+        }
+
+        if (tone == null || toneShared) {
+            tone       = new byte[SAMPLE_RATE];
+            toneShared = false;
+        }
+        toneTimer = timer;
+
         frequency = (int) (Display.CYCLES_PER_FRAME * 8 * 60) / (32 * (timer + 1));
         double sOverF = ((double)SAMPLE_RATE) / (double) frequency;
 
-        tone = new byte[SAMPLE_RATE];
         for (int i = 0; i < tone.length; i++) {
             tone[i] = (byte) (APU.VOLUME * 2 * Byte.MAX_VALUE * Math.abs((2 * (((double)i) % sOverF) / sOverF) - 1));
         }
@@ -1,17 +1,21 @@
 package mapper;
 
+import model.CPU;
 import persistence.BusSerializable;
 
 import java.util.Scanner;
 
 // Class Mapper:
 //     Mapper is an abstract, serializable class that represents a cartridge mapper for the NES.
-//     Serves as a mapping between CPU intes to the cartridge intes.
+//     Serves as a mapping between CPU intes to the cartridge intes. PRG ROM and CHR ROM never change, so forks of a
+//     mapper share them. PRG RAM is shared copy-on-write: while prgRamShared is set, it may be shared with other
+//     mappers, and has to be copied before it is written.
 
 public abstract class Mapper implements BusSerializable {
-    protected int[] prgRom;
-    protected int[] prgRam;
-    protected int[] chrRom;
+    protected byte[] prgRom;
+    protected byte[] prgRam;
+    protected byte[] chrRom;
+    protected boolean prgRamShared;
     private boolean enabled;
     private final int id;
 
@@ -20,7 +24,7 @@ public abstract class Mapper implements BusSerializable {
         this.enabled = false;
     }
 
-    public Mapper(int[] prgRom, int[] chrRom, int id) {
+    public Mapper(byte[] prgRom, byte[] chrRom, int id) {
         this.prgRom    = prgRom;
         this.chrRom    = chrRom;
         this.id        = id;
@@ -32,10 +36,43 @@ public abstract class Mapper implements BusSerializable {
 
     public abstract int readMemoryCpu(int address);
 
+    // REQUIRES: 0x4020 <= address, address + length <= 0x10000, destination has at least offset + length elements.
+    // MODIFIES: destination
+    // EFFECTS:  reads length bytes starting at address into destination, starting at offset. Same as calling
+    //           readMemoryCpu for every address; mappers that can should override this with a bulk copy.
+    public void readBlock(int address, byte[] destination, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            destination[offset + i] = (byte) readMemoryCpu(address + i);
+        }
+    }
+
     public abstract int readMemoryPpu(int address);
 
+    // MODIFIES: this
+    // EFFECTS:  returns a mapper in the same state as this one, sharing PRG ROM and CHR ROM with it. PRG RAM is shared
+    //           as well, until either mapper writes to it.
+    public abstract Mapper fork();
+
+    // EFFECTS: returns the PRG RAM. The array is replaced by a copy the first time PRG RAM is written after a fork.
+    public byte[] getPrgRam() {
+        return prgRam;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  gives this mapper a copy of PRG RAM of its own, if it is shared.
+    protected void unsharePrgRam() {
+        if (prgRamShared) {
+            prgRam       = prgRam.clone();
+            prgRamShared = false;
+        }
+    }
+
     public abstract void writeMemory(int address, int value);
 
+    // MODIFIES: cpu
+    // EFFECTS:  maps the PRG ROM and PRG RAM banks that are currently selected into the cpu's page table.
+    public abstract void mapCpuPages(CPU cpu);
+
     @Override
     public abstract String serialize(String delimiter);
 
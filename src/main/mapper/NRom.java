@@ -1,5 +1,8 @@
 package mapper;
 
+import model.CPU;
+
+import java.util.Arrays;
 import java.util.Scanner;
 
 // Class NROM:
@@ -25,13 +28,11 @@ public class NRom extends Mapper {
     // MODIFIES: this
     // EFFECTS:  initialzies header, trainer, chrRom, and prgRom as empty arrays, and sets the NROM type to NROM-256.
     //           fills the prgRam with the initial state.
-    public NRom(int[] prgRom, int[] chrRom) {
+    public NRom(byte[] prgRom, byte[] chrRom) {
         super(prgRom, chrRom, ID);
 
-        prgRam  = new int[PRG_RAM_SIZE];
-        for (int i = 0; i < PRG_RAM_SIZE; i++) {
-            prgRam[i] = INITIAL_PRG_RAM_STATE;
-        }
+        prgRam  = new byte[PRG_RAM_SIZE];
+        Arrays.fill(prgRam, (byte) INITIAL_PRG_RAM_STATE);
         isNRom128 = prgRom.length <= PRG_ROM_128_SIZE;
         enable();
     }
@@ -53,22 +54,73 @@ public class NRom extends Mapper {
         if (address < 0x6000) {            // Out of bounds
             return 0;
         } else if (address <= 0x7FFF) {    // PRG RAM
-            return prgRam[(address - 0x6000)];
+            return prgRam[(address - 0x6000)] & 0xFF;
         } else {                                                           // PRG ROM
             if (isNRom128) {
-                return prgRom[(address - 0x8000) & (PRG_ROM_128_SIZE - 1)];
+                return prgRom[(address - 0x8000) & (PRG_ROM_128_SIZE - 1)] & 0xFF;
             } else {
-                return prgRom[address - 0x8000];
+                return prgRom[address - 0x8000] & 0xFF;
             }
         }
     }
 
+    // REQUIRES: 0x4020 <= address, address + length <= 0x10000, destination has at least offset + length elements.
+    // MODIFIES: destination
+    // EFFECTS:  same as calling readMemoryCpu for every address from address to address + length - 1, but copies
+    //           straight from prgRam and prgRom (see readMemoryCpu for the memory map).
+    @Override
+    public void readBlock(int address, byte[] destination, int offset, int length) {
+        if (!getEnabled()) {
+            Arrays.fill(destination, offset, offset + length, (byte) 0);
+            return;
+        }
+
+        while (length > 0) {
+            int amount;
+            if (address < 0x6000) {            // Out of bounds
+                amount = Math.min(length, 0x6000 - address);
+                Arrays.fill(destination, offset, offset + amount, (byte) 0);
+            } else if (address <= 0x7FFF) {    // PRG RAM
+                amount = Math.min(length, 0x8000 - address);
+                System.arraycopy(prgRam, address - 0x6000, destination, offset, amount);
+            } else {                           // PRG ROM, mirrored for NROM-128.
+                int index = isNRom128 ? (address - 0x8000) & (PRG_ROM_128_SIZE - 1) : address - 0x8000;
+                int end   = isNRom128 ? PRG_ROM_128_SIZE : prgRom.length;
+                amount = Math.min(length, end - index);
+                System.arraycopy(prgRom, index, destination, offset, amount);
+            }
+
+            address += amount;
+            offset  += amount;
+            length  -= amount;
+        }
+    }
+
     // REQUIRES: address is in between 0x6000 and 0xFFFF, inclusive.
     // EFFECTS: returns the value of the memory at the given address.
     // see the table below for a detailed description of what is stored at which address.
     @Override
     public int readMemoryPpu(int address) {
-        return chrRom[address];
+        return chrRom[address] & 0xFF;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  returns an NRom in the same state as this one, sharing every array with it. PRG RAM is copied by
+    //           whichever of the two writes to it first.
+    @Override
+    public NRom fork() {
+        NRom fork = new NRom();
+        fork.prgRom    = prgRom;
+        fork.prgRam    = prgRam;
+        fork.chrRom    = chrRom;
+        fork.isNRom128 = isNRom128;
+        if (getEnabled()) {
+            fork.enable();
+        }
+
+        prgRamShared      = true;
+        fork.prgRamShared = true;
+        return fork;
     }
 
     // REQUIRES: address is in between 0x6000 and 0xFFFF, inclusive.
@@ -89,27 +141,51 @@ public class NRom extends Mapper {
         if        (address < 0x6000) {    // Out of Bounds
             throw new ArrayIndexOutOfBoundsException("int out of bounds! NROM only supports addresses >= 0x6000");
         } else if (address <= 0x7FFF) {   // PRG RAM
-            prgRam[address - 0x6000] = (rawValue);
+            unsharePrgRam();
+            prgRam[address - 0x6000] = (byte) rawValue;
         } else {                                                         // PRG ROM. mirrored for NROM-128.
             throw new ArrayIndexOutOfBoundsException("Cannot write to a Read-Only int!");
         }
     }
 
+    // MODIFIES: cpu
+    // EFFECTS:  maps PRG RAM to 0x6000 - 0x7FFF as writable pages (read-only while it is shared, so that writes come
+    //           through writeMemory) and PRG ROM to 0x8000 - 0xFFFF as read-only pages, mirroring the first 16 KB for
+    //           NROM-128.
+    @Override
+    public void mapCpuPages(CPU cpu) {
+        if (!getEnabled()) {
+            return;
+        }
+
+        for (int page = 0x60; page <= 0x7F; page++) {
+            cpu.mapPage(page, prgRam, (page - 0x60) * CPU.PAGE_SIZE, !prgRamShared);
+        }
+
+        for (int page = 0x80; page <= 0xFF; page++) {
+            int offset = (page - 0x80) * CPU.PAGE_SIZE;
+            if (isNRom128) {
+                offset &= PRG_ROM_128_SIZE - 1;
+            }
+            cpu.mapPage(page, prgRom, offset, false);
+        }
+    }
+
     // EFFECTS: serializes the NRom, storing the prgRom, prgRam, chrRom, and isNRom128 into a String.
     @Override
     public String serialize(String delimiter) {
         StringBuilder output = new StringBuilder();
         output.append(prgRom.length + delimiter);
-        for (int address : prgRom) {
-            output.append(address + delimiter);
+        for (byte address : prgRom) {
+            output.append((address & 0xFF) + delimiter);
         }
         output.append(prgRam.length + delimiter);
-        for (int address : prgRam) {
-            output.append(address + delimiter);
+        for (byte address : prgRam) {
+            output.append((address & 0xFF) + delimiter);
         }
         output.append(chrRom.length + delimiter);
-        for (int address : chrRom) {
-            output.append(address + delimiter);
+        for (byte address : chrRom) {
+            output.append((address & 0xFF) + delimiter);
         }
         output.append(isNRom128 ? 1 : 0 + delimiter);
         return output.toString();
@@ -118,17 +194,18 @@ public class NRom extends Mapper {
     // EFFECTS: deserializes the NRom to restore it from a savestate
     @Override
     public void deserialize(Scanner scanner) {
-        prgRom = new int[Integer.parseInt(scanner.next())];
+        prgRom = new byte[Integer.parseInt(scanner.next())];
         for (int i = 0; i < prgRom.length; i++) {
-            prgRom[i] = Integer.parseInt(scanner.next());
+            prgRom[i] = (byte) Integer.parseInt(scanner.next());
         }
-        prgRam = new int[Integer.parseInt(scanner.next())];
+        prgRam = new byte[Integer.parseInt(scanner.next())];
+        prgRamShared = false;
         for (int i = 0; i < prgRam.length; i++) {
-            prgRam[i] = Integer.parseInt(scanner.next());
+            prgRam[i] = (byte) Integer.parseInt(scanner.next());
         }
-        chrRom = new int[Integer.parseInt(scanner.next())];
+        chrRom = new byte[Integer.parseInt(scanner.next())];
         for (int i = 0; i < chrRom.length; i++) {
-            chrRom[i] = Integer.parseInt(scanner.next());
+            chrRom[i] = (byte) Integer.parseInt(scanner.next());
         }
         isNRom128 = scanner.next().equals("1");
         enable();
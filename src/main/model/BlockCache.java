@@ -0,0 +1,207 @@
+package model;
+
+import java.util.IdentityHashMap;
+
+// Class BlockCache:
+//     Caches the DecodedBlocks of the CPU. Blocks are stored by where their code physically lives: the backing array
+//     of the page (internal RAM, a PRG ROM bank, PRG RAM...) and the index into it, so a block is effectively keyed by
+//     both its address and the bank that is mapped there. Every backing array gets its own Region. Writes to a byte
+//     that belongs to a cached block invalidate every block in the same 256 byte page of the Region.
+
+public class BlockCache {
+    // Class Region:
+    //     The blocks decoded from one backing array. blocks[i] is the block that starts at data[i], and code[i] is
+    //     true if data[i] is part of a cached block.
+    static final class Region {
+        final byte[]         data;
+        final DecodedBlock[] blocks;
+        final boolean[]      code;
+
+        // EFFECTS: creates an empty region for data.
+        Region(byte[] data) {
+            this.data = data;
+            blocks    = new DecodedBlock[data.length];
+            code      = new boolean[data.length];
+        }
+    }
+
+    private final IdentityHashMap<byte[], Region> regions;
+
+    private long hits;
+    private long misses;
+    private long invalidations;
+
+    // EFFECTS: creates an empty block cache.
+    public BlockCache() {
+        regions = new IdentityHashMap<>();
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  returns the region for the given backing array, creating it if needed.
+    Region getRegion(byte[] data) {
+        Region region = regions.get(data);
+        if (region == null) {
+            region = new Region(data);
+            regions.put(data, region);
+        }
+
+        return region;
+    }
+
+    // REQUIRES: region.data[index] is the byte at address, and index is the first byte of address's page in
+    //           region.data plus (address & 0xFF).
+    // MODIFIES: this
+    // EFFECTS:  returns the block starting at address, decoding it first if it isn't cached. Returns null if not even
+    //           the first instruction fits in the page. The block may have been decoded through a different mirror of
+    //           region.data[index], so its startAddress isn't necessarily address (see DecodedBlock).
+    DecodedBlock lookup(Region region, int index, int address) {
+        DecodedBlock block = region.blocks[index];
+        if (block != null) {
+            hits++;
+            return block;
+        }
+
+        block = decode(region, index, address);
+        if (block == null) {
+            return null;
+        }
+
+        misses++;
+        region.blocks[index] = block;
+        return block;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  decodes the straight-line block starting at address, finds its superinstructions, checks whether it is
+    //           an idle loop, and marks its bytes as code.
+    private DecodedBlock decode(Region region, int index, int address) {
+        byte[] data = region.data;
+        int pageEnd = (index | 0xFF) + 1;
+
+        // An instruction that runs past the end of its page is looked up every time it runs, so find out that it
+        // doesn't fit before allocating anything.
+        int firstDecoded = Instruction.DECODE_TABLE[data[index] & 0xFF];
+        int firstArgs    = (firstDecoded >> Instruction.DECODED_NUM_ARGUMENTS_SHIFT) & Instruction.DECODED_NIBBLE_MASK;
+        if (index + firstArgs + 1 > pageEnd) {
+            return null;
+        }
+
+        DecodedBlock block = new DecodedBlock(address);
+        while (block.size < DecodedBlock.MAX_INSTRUCTIONS) {
+            int valueAtProgramCounter = data[index] & 0xFF;
+            int decoded      = Instruction.DECODE_TABLE[valueAtProgramCounter];
+            int opcode       = (decoded >> Instruction.DECODED_OPCODE_SHIFT)        & Instruction.DECODED_BYTE_MASK;
+            int numArguments = (decoded >> Instruction.DECODED_NUM_ARGUMENTS_SHIFT) & Instruction.DECODED_NIBBLE_MASK;
+            int numCycles    = (decoded >> Instruction.DECODED_NUM_CYCLES_SHIFT)    & Instruction.DECODED_NIBBLE_MASK;
+
+            int length = numArguments + 1;
+            if (index + length > pageEnd) {
+                break;
+            }
+
+            int lo = (numArguments > 0) ? data[index + 1] & 0xFF : 0;
+            int hi = (numArguments > 1) ? data[index + 2] & 0xFF : 0;
+            block.add(address, valueAtProgramCounter, lo, hi, length, numCycles);
+            for (int i = 0; i < length; i++) {
+                region.code[index + i] = true;
+            }
+
+            index   += length;
+            address += length;
+            if (endsBlock(opcode) || index == pageEnd) {
+                break;
+            }
+        }
+
+        if (block.size == 0) {
+            return null;
+        }
+
+        Superinstructions.fuse(block);
+        block.idleLoop = IdleLoops.isIdleLoop(block);
+        return block;
+    }
+
+    // EFFECTS: returns true if the given Opcode can change registerPC, ending a straight-line block.
+    private static boolean endsBlock(int opcode) {
+        switch (opcode) {
+            case Opcode.BCC:
+            case Opcode.BCS:
+            case Opcode.BEQ:
+            case Opcode.BMI:
+            case Opcode.BNE:
+            case Opcode.BPL:
+            case Opcode.BVC:
+            case Opcode.BVS:
+            case Opcode.BRK:
+            case Opcode.JMP:
+            case Opcode.JSR:
+            case Opcode.RTI:
+            case Opcode.RTS:
+            case Opcode.STP:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  invalidates every block that starts in the same 256 byte page as region.data[index], and clears the
+    //           code marks of that page.
+    void invalidate(Region region, int index) {
+        int pageStart = index & ~0xFF;
+        int pageEnd   = Math.min(pageStart + 0x100, region.data.length);
+        for (int i = pageStart; i < pageEnd; i++) {
+            DecodedBlock block = region.blocks[i];
+            if (block != null) {
+                block.valid = false;
+                region.blocks[i] = null;
+                invalidations++;
+            }
+            region.code[i] = false;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  invalidates every block in the cache.
+    public void clear() {
+        for (Region region : regions.values()) {
+            for (int index = 0; index < region.data.length; index += 0x100) {
+                invalidate(region, index);
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  invalidates every block decoded from data and forgets about its region. Used once data is no longer
+    //           mapped into the CPU (for example, after loading a different cartridge).
+    void release(byte[] data) {
+        Region region = regions.remove(data);
+        if (region != null) {
+            for (int index = 0; index < data.length; index += 0x100) {
+                invalidate(region, index);
+            }
+        }
+    }
+
+    // EFFECTS: returns the number of lookups that found an already decoded block.
+    public long getHits() {
+        return hits;
+    }
+
+    // EFFECTS: returns the number of lookups that had to decode a new block.
+    public long getMisses() {
+        return misses;
+    }
+
+    // EFFECTS: returns the number of blocks thrown away because their code was written to.
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    // EFFECTS: returns the fraction of lookups that were hits, or 0 if there were no lookups.
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
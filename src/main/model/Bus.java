@@ -3,18 +3,24 @@ package model;
 import apu.APU;
 import mapper.Mapper;
 import mapper.NRom;
+import persistence.TranslationCacheReader;
+import persistence.TranslationCacheWriter;
 import ppu.Mirroring;
 import ppu.PPU;
-import ui.CpuFileOutput;
 import ui.controller.Controller;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 
 // Class Bus:
 //     Bus is a class that manages the CPU, PPU, controller, and mapper. Serves as a way for these four components
-//     to communicate with each other.
+//     to communicate with each other. Every Bus is a whole console: its components only know about the bus they
+//     belong to, so a new console is just a new Bus.
 
 public class Bus {
     public static final int HEADER_SIZE           = 16;    // bytes
@@ -22,6 +28,14 @@ public class Bus {
     public static final int PRG_ROM_SIZE          = 16384; // bytes
     public static final int CHR_ROM_SIZE          = 8192;  // bytes
 
+    // Bump whenever decoding or compiling changes, so that stale translation caches are thrown away.
+    public static final String EMULATOR_VERSION   = "1.1";
+
+    private static final int PPU_CYCLES_PER_CPU_CYCLE = Scheduler.CPU_TICKS / Scheduler.PPU_TICKS;
+    private static final int CPU_CYCLES_PER_BUS_CYCLE = 2;
+    private static final int PPU_CYCLES_PER_BUS_CYCLE = PPU_CYCLES_PER_CPU_CYCLE * CPU_CYCLES_PER_BUS_CYCLE;
+    private static final int BUS_TICKS                = Scheduler.CPU_TICKS * CPU_CYCLES_PER_BUS_CYCLE; // = 1 APU cycle
+
     private CPU cpu;
     private PPU ppu;
     private APU apu;
@@ -30,53 +44,132 @@ public class Bus {
 
     private boolean cartridgeLoaded;
     private boolean controllerConnected;
+    private String  cartridgeHash;
+    private String  cartridgeName;
+    private boolean translationCacheEnabled;
+
+    // Synchronisation (see SyncMode). In CATCH_UP and SCANLINE, the ppu is ppuCyclesBehind cycles and the apu
+    // apuCyclesBehind cycles behind the cpu, and the scheduler says when they have to catch up on their own.
+    // lastApuTick is the master clock time of the last apu cycle, run or not.
+    private Scheduler scheduler;
+    private SyncMode  syncMode;
+    private int       ppuCyclesBehind;
+    private int       apuCyclesBehind;
+    private long      lastApuTick;
+
+    // Idle loop skipping (see runCycles). The stats are for the cartridge that is currently loaded.
+    private boolean idleLoopSkippingEnabled;
+    private long    idleCyclesSkipped;
+    private long    idleLoopSkips;
 
     private int trueCpuCycles;
     private int truePpuCycles;
 
     private boolean enabled;
 
-    // I decided to make the bus initialization in a static block because we're almost always going to need a Bus when
-    // running the program
-    private static Bus bus;
-
-    static {
-        hardReset();
-    }
-
     // MODIFIES: this
-    // EFFECTS:  initializes the CPU and PPU and connects them to the bus (this).
-    private Bus() {
-        cpu = new CPU();
-        ppu = new PPU();
+    // EFFECTS:  creates a console with no cartridge loaded: a CPU, PPU and APU that are connected to this bus and to
+    //           nothing else, so any number of buses can run side by side (even on different threads) without seeing
+    //           each other.
+    public Bus() {
+        cpu = new CPU(this);
+        ppu = new PPU(this);
         apu = new APU();
 
-        cpu.setLoggingOutput(new CpuFileOutput());
-
         cartridgeLoaded     = false;
         controllerConnected = false;
+        cartridgeHash       = null;
+        cartridgeName       = null;
+        translationCacheEnabled = false;
+        idleLoopSkippingEnabled = true;
+        scheduler           = new Scheduler();
+        syncMode            = SyncMode.CATCH_UP;
+        resetSync();
+        idleCyclesSkipped   = 0;
+        idleLoopSkips       = 0;
         enabled             = true;
         trueCpuCycles       = 0;
         truePpuCycles       = 0;
     }
 
-    public static Bus getInstance() {
-        return bus;
+    // MODIFIES: parent
+    // EFFECTS:  creates a console in the same state as parent (see fork).
+    private Bus(Bus parent) {
+        cpu    = parent.cpu.fork(this);
+        ppu    = parent.ppu.copy(this);
+        apu    = parent.apu.copy();
+        mapper = parent.mapper == null ? null : parent.mapper.fork();
+
+        cartridgeLoaded     = parent.cartridgeLoaded;
+        controllerConnected = false;
+        cartridgeHash       = parent.cartridgeHash;
+        cartridgeName       = parent.cartridgeName;
+        translationCacheEnabled = false;
+        idleLoopSkippingEnabled = parent.idleLoopSkippingEnabled;
+        scheduler           = parent.scheduler.copy();
+        syncMode            = parent.syncMode;
+        ppuCyclesBehind     = parent.ppuCyclesBehind;
+        apuCyclesBehind     = parent.apuCyclesBehind;
+        lastApuTick         = parent.lastApuTick;
+        idleCyclesSkipped   = parent.idleCyclesSkipped;
+        idleLoopSkips       = parent.idleLoopSkips;
+        enabled             = parent.enabled;
+        trueCpuCycles       = parent.trueCpuCycles;
+        truePpuCycles       = parent.truePpuCycles;
+
+        mapCartridge();
     }
 
     // MODIFIES: this
-    // EFFECTS:  hard resets the bus; the bus is now back at its default state.
-    public static void hardReset() {
-        bus = new Bus();
+    // EFFECTS:  returns a new console in exactly the same state as this one, which from then on runs independently of
+    //           it. Nothing is serialized: PRG ROM and CHR ROM are shared, internal RAM and PRG RAM are shared until
+    //           one of the consoles writes to them (then that one copies them), and the rest of the state is copied.
+    //           Like a new Bus, the fork has no pixels, controller or sound, and doesn't save a translation cache.
+    public Bus fork() {
+        Bus fork = new Bus(this);
+        if (mapper != null) {
+            mapper.mapCpuPages(cpu); // PRG RAM is shared now, so its pages aren't writable anymore.
+        }
+
+        return fork;
     }
 
     // MODIFIES: this
-    // EFFECTS:  loads the cartridge into the mapper and resets the cpu and ppu
+    // EFFECTS:  loads the cartridge into the mapper and resets the cpu and ppu. If the translation cache is enabled,
+    //           the blocks found while running the previous cartridge are saved first, and the ones saved for this
+    //           cartridge (if any) are restored.
     public void loadCartridge(File file) throws IOException {
+        if (translationCacheEnabled && cartridgeLoaded) {
+            TranslationCacheWriter.writeToFile(this);
+        }
+
         readCartridge(file);
+        cartridgeHash   = hashFile(file);
+        cartridgeName   = file.getName();
         cartridgeLoaded = true;
 
+        idleCyclesSkipped = 0;
+        idleLoopSkips     = 0;
+
         softReset();
+
+        if (translationCacheEnabled) {
+            TranslationCacheReader.readFromFile(this);
+        }
+    }
+
+    // EFFECTS: returns the SHA-1 of the file's contents as a lowercase hex string.
+    private static String hashFile(File file) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            StringBuilder hash = new StringBuilder();
+            for (byte value : digest.digest(Files.readAllBytes(file.toPath()))) {
+                hash.append(String.format("%02x", value & 0xFF));
+            }
+            return hash.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Every JVM has to support SHA-1.", e);
+        }
     }
 
     // MODIFIES: cpu, ppu
@@ -84,10 +177,11 @@ public class Bus {
     public void softReset() {
         cpu.reset();
         ppu.reset();
+        resetSync();
         apu.enable();
     }
 
-    // MODIFIES: mapper
+    // MODIFIES: mapper, ppu
     // EFFECTS:  reads the cartridge and sets the mapper's prgRom and chrRom according to the data read.
     private void readCartridge(File file) throws IOException {
         // https://wiki.nesdev.com/w/index.php/INES
@@ -103,10 +197,21 @@ public class Bus {
         boolean trainerPresent = Util.getNthBit(header[6], 2) == 1;
         int[] trainer = readFile(fileInputStream, 0, 0, trainerPresent ? TRAINER_SIZE : 0);
 
-        int[] prgRom = readFile(fileInputStream, 0, 8 * 4096,header[4] * PRG_ROM_SIZE);
-        int[] chrRom = readFile(fileInputStream, 0, 0, header[5] * CHR_ROM_SIZE);
+        byte[] prgRom = readBytes(fileInputStream, header[4] * PRG_ROM_SIZE);
+        byte[] chrRom = readBytes(fileInputStream, header[5] * CHR_ROM_SIZE);
         mapper = new NRom(prgRom, chrRom);
         ppu.setNametableMirroring(Mirroring.HORIZONTAL);
+        ppu.loadTiles();
+        mapCartridge();
+    }
+
+    // MODIFIES: cpu
+    // EFFECTS:  replaces the cartridge pages in the cpu's page table with the ones selected by the mapper.
+    private void mapCartridge() {
+        cpu.unmapCartridgePages();
+        if (mapper != null) {
+            mapper.mapCpuPages(cpu);
+        }
     }
 
     // REQUIRES: file has at least numBytes available, otherwise throws IOException.
@@ -121,6 +226,16 @@ public class Bus {
         return result;
     }
 
+    // REQUIRES: file has at least numBytes available, otherwise throws IOException.
+    // MODIFIES: file now has numBytes less bytes available
+    // EFFECTS: reads the next numBytes bytes of the file into a byte[]. Bytes past the end of the file are 0xFF.
+    public byte[] readBytes(FileInputStream file, int numBytes) throws IOException {
+        byte[] result = new byte[numBytes];
+        int read = file.readNBytes(result, 0, numBytes);
+        Arrays.fill(result, read, numBytes, (byte) 0xFF);
+        return result;
+    }
+
 
 
 
@@ -154,8 +269,222 @@ public class Bus {
         cycleComponents();
     }
 
-    // MODIFIES: cpu, ppu
-    // EFFECTS:  cycles the ppu 3 times and the cpu 1 time.
+    // MODIFIES: cpu, ppu, apu
+    // EFFECTS:  same as calling cycle() numCycles times. The ppu and apu are kept in step with the cpu according to
+    //           syncMode, and are always caught up by the time this returns. If idle loop skipping is enabled, whenever
+    //           the cpu is stuck in an idle loop, the cycles up to the next PPU event are skipped in bulk instead of
+    //           being run one by one. The same goes for the cycles the cpu is stalled by OAM DMA.
+    public void runCycles(int numCycles) {
+        if (!cartridgeLoaded || !enabled) {
+            return;
+        }
+
+        sync();
+        int remaining = numCycles;
+        while (remaining > 0) {
+            if (syncMode == SyncMode.CATCH_UP) {
+                cycleCpuAhead();
+            } else if (syncMode == SyncMode.SCANLINE) {
+                cycleScanlineAhead();
+            } else {
+                cycleComponents();
+            }
+            remaining--;
+
+            if (idleLoopSkippingEnabled) {
+                remaining -= skipIdleLoop(remaining);
+            }
+            remaining -= skipDma(remaining);
+        }
+        sync();
+    }
+
+    // MODIFIES: cpu, ppu, apu
+    // EFFECTS:  same as cycleComponents, except that the ppu and apu only run when their scheduler events come up (the
+    //           ppu raising an NMI, the apu clocking its length counters) or when the cpu accesses them.
+    private void cycleCpuAhead() {
+        scheduler.advance(Scheduler.CPU_TICKS);
+        ppuCyclesBehind += PPU_CYCLES_PER_CPU_CYCLE;
+        if (scheduler.getNextEventTime() < scheduler.getClock()) {
+            runEvents();
+        }
+        cpu.cycle();
+
+        scheduler.advance(Scheduler.CPU_TICKS);
+        ppuCyclesBehind += PPU_CYCLES_PER_CPU_CYCLE;
+        if (scheduler.getNextEventTime() < scheduler.getClock()) {
+            runEvents();
+        }
+        cpu.cycle();
+
+        apuCyclesBehind++;
+        lastApuTick = scheduler.getClock();
+    }
+
+    // MODIFIES: cpu, ppu, apu
+    // EFFECTS:  runs whole bus cycles until the ppu has started its next vblank, so that the frame it was drawing has
+    //           been handed to its pixels. Frames aren't a whole number of bus cycles long, so this runs until the ppu
+    //           gets there rather than for a fixed number of cycles, and never drifts away from the real frames. Does
+    //           nothing if no cartridge is loaded or the bus is disabled.
+    public void runFrame() {
+        if (!cartridgeLoaded || !enabled) {
+            return;
+        }
+
+        sync();
+        int ppuCycles = ppu.getCyclesUntilVblank();
+        runCycles((ppuCycles + PPU_CYCLES_PER_BUS_CYCLE - 1) / PPU_CYCLES_PER_BUS_CYCLE);
+    }
+
+    // MODIFIES: cpu, ppu, apu
+    // EFFECTS:  same as cycleCpuAhead, except that the ppu only ever runs whole scanlines, once the cpu has run past
+    //           the end of one. The ppu doesn't catch up when its vblank event comes up or when the cpu accesses it.
+    private void cycleScanlineAhead() {
+        scheduler.advance(BUS_TICKS);
+        cpu.cycle();
+        cpu.cycle();
+
+        ppuCyclesBehind += PPU_CYCLES_PER_BUS_CYCLE;
+        int scanlineCycles = ppu.getCyclesLeftInScanline();
+        if (ppuCyclesBehind >= scanlineCycles) {
+            ppu.runCycles(scanlineCycles);
+            ppuCyclesBehind -= scanlineCycles;
+        }
+
+        apuCyclesBehind++;
+        lastApuTick = scheduler.getClock();
+        if (scheduler.getNextEventTime() < scheduler.getClock()) {
+            runEvents();
+        }
+    }
+
+    // MODIFIES: ppu, apu
+    // EFFECTS:  catches up every component whose event was due before the current time.
+    private void runEvents() {
+        while (scheduler.getNextEventTime() < scheduler.getClock()) {
+            int event = scheduler.popEvent();
+            if (event == Scheduler.VBLANK) {
+                syncPpuForCpu();
+            } else if (event == Scheduler.APU_FRAME_STEP) {
+                syncApu();
+            }
+        }
+    }
+
+    // MODIFIES: ppu, apu
+    // EFFECTS:  catches up the ppu and the apu.
+    public void sync() {
+        syncPpu();
+        syncApu();
+    }
+
+    // MODIFIES: ppu
+    // EFFECTS:  runs the cycles the ppu is behind the cpu, if any, so that it is where it would be in lockstep, and
+    //           schedules the next time it has to catch up on its own.
+    public void syncPpu() {
+        if (ppuCyclesBehind > 0) {
+            ppu.runCycles(ppuCyclesBehind);
+            ppuCyclesBehind = 0;
+        }
+
+        long untilEvent = ppu.getCyclesUntilNextEvent();
+        scheduler.schedule(Scheduler.VBLANK, scheduler.getClock() + untilEvent * Scheduler.PPU_TICKS);
+    }
+
+    // MODIFIES: apu
+    // EFFECTS:  runs the cycles the apu is behind the cpu, if any, so that it is where it would be in lockstep, and
+    //           schedules the next time it has to catch up on its own.
+    public void syncApu() {
+        if (apuCyclesBehind > 0) {
+            apu.runCycles(apuCyclesBehind);
+            apuCyclesBehind = 0;
+        }
+
+        long untilEvent = apu.getCyclesUntilFrameStep();
+        scheduler.schedule(Scheduler.APU_FRAME_STEP, lastApuTick + (untilEvent + 1) * BUS_TICKS);
+    }
+
+    // MODIFIES: ppu
+    // EFFECTS:  catches the ppu up before the cpu sees it, unless syncMode is SCANLINE, in which case the cpu sees it
+    //           as it was at the end of the last scanline.
+    private void syncPpuForCpu() {
+        if (syncMode != SyncMode.SCANLINE) {
+            syncPpu();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  starts the master clock over with the ppu and apu caught up. Their events are scheduled by the next
+    //           sync.
+    private void resetSync() {
+        scheduler.reset();
+        ppuCyclesBehind = 0;
+        apuCyclesBehind = 0;
+        lastApuTick     = 0;
+    }
+
+    // MODIFIES: cpu, ppu, apu
+    // EFFECTS:  if the cpu is stalled by OAM DMA, skips as many whole bus cycles of the stall as fit in maxCycles bus
+    //           cycles, and catches the ppu and apu up on them. Nothing the cpu can see happens during the stall (an
+    //           NMI waits until it is over), so this is the same as running them. Returns the number of bus cycles
+    //           skipped.
+    private int skipDma(int maxCycles) {
+        int busCycles = Math.min(maxCycles, cpu.getDmaCyclesRemaining() / CPU_CYCLES_PER_BUS_CYCLE);
+        if (busCycles == 0) {
+            return 0;
+        }
+
+        scheduler.advance((long) busCycles * BUS_TICKS);
+        cpu.skipDma(busCycles * CPU_CYCLES_PER_BUS_CYCLE);
+        ppuCyclesBehind += busCycles * PPU_CYCLES_PER_BUS_CYCLE;
+        apuCyclesBehind += busCycles;
+        lastApuTick      = scheduler.getClock();
+        sync();
+        return busCycles;
+    }
+
+    // MODIFIES: cpu, ppu, apu
+    // EFFECTS:  if the cpu is stuck in an idle loop, skips as many whole trips around it as fit in maxCycles bus cycles
+    //           without running into the next PPU event. Returns the number of bus cycles skipped.
+    private int skipIdleLoop(int maxCycles) {
+        int period = cpu.getIdleLoopPeriod();
+        if (period == 0 || maxCycles == 0 || !cartridgeLoaded || !enabled) {
+            return 0;
+        }
+
+        // If the PPU did something since the trip that the cpu's current one depends on, the loop may be about to end.
+        syncPpu();
+        int untilEvent = ppu.getCyclesUntilNextEvent();
+        if (untilEvent + PPU_CYCLES_PER_CPU_CYCLE * (cpu.getIdleLoopAge() + 1) >= PPU.CYCLES_PER_FRAME) {
+            return 0;
+        }
+
+        // Only whole trips can be skipped, and they have to add up to whole bus cycles.
+        int busCycles = Math.min(maxCycles, untilEvent / PPU_CYCLES_PER_BUS_CYCLE);
+        int trips     = busCycles * CPU_CYCLES_PER_BUS_CYCLE / period;
+        if (period % CPU_CYCLES_PER_BUS_CYCLE != 0) {
+            trips -= trips % CPU_CYCLES_PER_BUS_CYCLE;
+        }
+
+        busCycles = trips * period / CPU_CYCLES_PER_BUS_CYCLE;
+        if (busCycles == 0) {
+            return 0;
+        }
+
+        scheduler.advance((long) busCycles * BUS_TICKS);
+        cpu.skipIdleLoop(busCycles * CPU_CYCLES_PER_BUS_CYCLE);
+        ppuCyclesBehind += busCycles * PPU_CYCLES_PER_BUS_CYCLE;
+        apuCyclesBehind += busCycles;
+        lastApuTick      = scheduler.getClock();
+        sync();
+
+        idleCyclesSkipped += busCycles * CPU_CYCLES_PER_BUS_CYCLE;
+        idleLoopSkips++;
+        return busCycles;
+    }
+
+    // MODIFIES: cpu, ppu, apu
+    // EFFECTS:  cycles the ppu 3 times and the cpu 1 time, twice, then cycles the apu once.
     public void cycleComponents() {
         ppu.cycle();
         ppu.cycle();
@@ -168,6 +497,9 @@ public class Bus {
         cpu.cycle();
 
         apu.cycle();
+
+        scheduler.advance(BUS_TICKS);
+        lastApuTick = scheduler.getClock();
     }
 
 
@@ -175,29 +507,43 @@ public class Bus {
 
 
     // MODIFIES: ppu
-    // EFFECTS:  reads the ppu at the given register and returns the value.
+    // EFFECTS:  catches the ppu up (see syncPpuForCpu), then reads the ppu at the given register and returns the value.
     public int ppuRead(int pointer) {
+        syncPpuForCpu();
         return ppu.readRegister(pointer);
     }
 
-    // REQUIRES: mapper is not null, caller is CPU
-    // EFFECTS:  reads the mapper at the given pointer and returns the value.
+    // REQUIRES: caller is CPU
+    // EFFECTS:  reads the mapper at the given pointer and returns the value, or 0 if no cartridge is loaded.
     public int mapperReadCpu(int pointer) {
-        try {
-            return mapper.readMemoryCpu(pointer);
-        } catch (NullPointerException e) {
+        if (mapper == null) {
             return 0;
         }
+
+        return mapper.readMemoryCpu(pointer);
     }
 
-    // REQUIRES: mapper is not null, caller is PPU
-    // EFFECTS:  reads the mapper at the given pointer and returns the value.
+    // REQUIRES: caller is CPU, 0x4020 <= pointer, pointer + length <= 0x10000
+    // MODIFIES: destination
+    // EFFECTS:  reads length bytes of the mapper starting at the given pointer into destination, starting at offset.
+    //           Reads 0s if no cartridge is loaded.
+    public void mapperReadBlock(int pointer, byte[] destination, int offset, int length) {
+        if (mapper == null) {
+            Arrays.fill(destination, offset, offset + length, (byte) 0);
+            return;
+        }
+
+        mapper.readBlock(pointer, destination, offset, length);
+    }
+
+    // REQUIRES: caller is PPU
+    // EFFECTS:  reads the mapper at the given pointer and returns the value, or 0 if no cartridge is loaded.
     public int mapperReadPpu(int pointer) {
-        try {
-            return mapper.readMemoryPpu(pointer);
-        } catch (NullPointerException e) {
+        if (mapper == null) {
             return 0;
         }
+
+        return mapper.readMemoryPpu(pointer);
     }
 
     // MODIFIES: controller
@@ -213,26 +559,37 @@ public class Bus {
     }
 
     // MODIFIES: ppu
-    // EFFECTS:  writes the ppu register at the given pointer to the value.
+    // EFFECTS:  catches the ppu up (see syncPpuForCpu), then writes the ppu register at the given pointer to the value.
     public void ppuWrite(int pointer, int value) {
+        syncPpuForCpu();
         ppu.writeRegister(pointer, value);
     }
 
     // MODIFIES: apu
-    // EFFECTS:  writes the apu channel register at the given pointer to the value.
+    // EFFECTS:  catches the apu up, then writes the apu channel register at the given pointer to the value.
     public void apuChannelWrite(int pointer, int value) {
+        syncApu();
         apu.writeChannelMemory(pointer, value);
     }
 
     // MODIFIES: apu
-    // EFFECTS:  writes the apu register at the given pointer to the value.
+    // EFFECTS:  catches the apu up, then writes the apu register at the given pointer to the value.
     public void apuWrite(int pointer, int value) {
+        syncApu();
         apu.writeMemory(pointer, value);
     }
 
-    // EFFECTS:  writes the mapper at the given pointer to the value.
+    // MODIFIES: ppu, mapper, cpu
+    // EFFECTS:  catches the ppu up (the mapper may change what it renders, see syncPpuForCpu), then writes the mapper
+    //           at the given pointer to the value.
     public void mapperWrite(int pointer, int value) {
+        syncPpuForCpu();
+        byte[] prgRam = mapper.getPrgRam();
         mapper.writeMemory(pointer, value);
+        if (mapper.getPrgRam() != prgRam) {
+            // The mapper copied PRG RAM that it shared with a fork, so the cpu has to switch to the copy.
+            cpu.remapPages(prgRam, mapper.getPrgRam(), true);
+        }
     }
 
     // MODIFIES: controller
@@ -252,12 +609,18 @@ public class Bus {
         return ppu;
     }
 
+    // REQUIRES: cpu and ppu were created with this bus.
     // MODIFIES: cpu, ppu, mapper, cartridgeLoaded
-    // EFFECTS:  sets the cpu, ppu, and mapper to the given values and sets cartridgeLoaded to true
+    // EFFECTS:  sets the cpu, ppu, and mapper to the given values, decodes the mapper's tiles into the ppu, brings
+    //           the ppu's palette up to date, and sets cartridgeLoaded to true
     public void reload(CPU cpu, PPU ppu, Mapper mapper) {
         this.cpu    = cpu;
         this.ppu    = ppu;
         this.mapper = mapper;
+        ppu.loadTiles();
+        ppu.updatePalette();
+        mapCartridge();
+        resetSync();
 
         cartridgeLoaded = true;
     }
@@ -297,8 +660,72 @@ public class Bus {
         return controllerConnected;
     }
 
-    public void ppuDma(int value) {
-        ppu.writeOam(value);
+    // EFFECTS: returns the SHA-1 of the loaded cartridge file, or null if no cartridge has been loaded.
+    public String getCartridgeHash() {
+        return cartridgeHash;
+    }
+
+    public boolean getIdleLoopSkippingEnabled() {
+        return idleLoopSkippingEnabled;
+    }
+
+    // REQUIRES: runCycles isn't running on another thread.
+    // MODIFIES: this
+    // EFFECTS:  if enabled, runCycles skips the cycles the cpu spends waiting in idle loops.
+    public void setIdleLoopSkippingEnabled(boolean idleLoopSkippingEnabled) {
+        this.idleLoopSkippingEnabled = idleLoopSkippingEnabled;
+    }
+
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    public SyncMode getSyncMode() {
+        return syncMode;
+    }
+
+    // REQUIRES: runCycles isn't running on another thread; this catches the ppu and apu up first.
+    // MODIFIES: this, ppu, apu
+    // EFFECTS:  sets how runCycles keeps the ppu and apu in step with the cpu.
+    public void setSyncMode(SyncMode syncMode) {
+        sync();
+        this.syncMode = syncMode;
+    }
+
+    // EFFECTS: returns the number of cpu cycles skipped in idle loops since the cartridge was loaded.
+    public long getIdleCyclesSkipped() {
+        return idleCyclesSkipped;
+    }
+
+    // EFFECTS: returns the number of times runCycles skipped ahead since the cartridge was loaded.
+    public long getIdleLoopSkips() {
+        return idleLoopSkips;
+    }
+
+    // EFFECTS: returns a one line summary of the idle loop stats of the loaded cartridge.
+    public String getIdleLoopReport() {
+        long cycles = cpu.getCycles() - CPU.INITIAL_CYCLES;
+        double percent = cycles <= 0 ? 0 : 100.0 * idleCyclesSkipped / cycles;
+        return String.format("%s: skipped %d of %d cpu cycles (%.1f%%) in %d idle loop skips",
+                cartridgeName, idleCyclesSkipped, cycles, percent, idleLoopSkips);
+    }
+
+    public boolean getTranslationCacheEnabled() {
+        return translationCacheEnabled;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  if enabled, loadCartridge saves and restores the blocks found in each cartridge's PRG ROM.
+    public void setTranslationCacheEnabled(boolean translationCacheEnabled) {
+        this.translationCacheEnabled = translationCacheEnabled;
+    }
+
+    // REQUIRES: page has PPU.PRIMARY_OAM_SIZE elements
+    // MODIFIES: ppu
+    // EFFECTS:  catches the ppu up (see syncPpuForCpu), then copies the page to OAM, starting at OAMADDR.
+    public void ppuDma(byte[] page) {
+        syncPpuForCpu();
+        ppu.writeOamBlock(page);
     }
 
     public APU getApu() {
@@ -0,0 +1,328 @@
+package model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+
+// Class BytecodeWriter:
+//     A very small JVM class file writer, just big enough for Recompiler. It only supports straight-line code (no
+//     jumps, so no stack map frames are ever needed), public methods, and constant pool entries for classes, methods
+//     and integers. Methods are written one at a time between beginMethod and endMethod.
+
+final class BytecodeWriter {
+    private static final int CLASS_FILE_MAGIC   = 0xCAFEBABE;
+    private static final int CLASS_FILE_VERSION = 61; // Java 17
+
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_FINAL  = 0x0010;
+    static final int ACC_SUPER  = 0x0020;
+
+    private static final int CONSTANT_UTF8               = 1;
+    private static final int CONSTANT_INTEGER            = 3;
+    private static final int CONSTANT_CLASS              = 7;
+    private static final int CONSTANT_METHODREF          = 10;
+    private static final int CONSTANT_NAME_AND_TYPE      = 12;
+
+    private static final int OP_ICONST_0      = 0x03;
+    private static final int OP_BIPUSH        = 0x10;
+    private static final int OP_SIPUSH        = 0x11;
+    private static final int OP_LDC_W         = 0x13;
+    private static final int OP_ILOAD         = 0x15;
+    private static final int OP_ALOAD         = 0x19;
+    private static final int OP_ISTORE        = 0x36;
+    private static final int OP_POP           = 0x57;
+    private static final int OP_IADD          = 0x60;
+    private static final int OP_RETURN        = 0xB1;
+    private static final int OP_INVOKEVIRTUAL = 0xB6;
+    private static final int OP_INVOKESPECIAL = 0xB7;
+    private static final int OP_INVOKESTATIC  = 0xB8;
+
+    private final ByteArrayOutputStream constantPoolBytes;
+    private final DataOutputStream      constantPool;
+    private final HashMap<String, Integer> constantIndexes;
+    private int constantPoolCount;
+
+    private final ByteArrayOutputStream methodBytes;
+    private final DataOutputStream      methods;
+    private int methodCount;
+
+    private ByteArrayOutputStream code;
+    private int methodAccess;
+    private int methodName;
+    private int methodDescriptor;
+
+    // EFFECTS: creates a writer with an empty constant pool and no methods.
+    BytecodeWriter() {
+        constantPoolBytes = new ByteArrayOutputStream();
+        constantPool      = new DataOutputStream(constantPoolBytes);
+        constantIndexes   = new HashMap<>();
+        constantPoolCount = 1;
+
+        methodBytes = new ByteArrayOutputStream();
+        methods     = new DataOutputStream(methodBytes);
+        methodCount = 0;
+    }
+
+    // ########## CONSTANT POOL ##########
+
+    // MODIFIES: this
+    // EFFECTS:  returns the index of the UTF8 constant, adding it if needed.
+    int utf8(String value) {
+        String key = "U" + value;
+        Integer index = constantIndexes.get(key);
+        if (index != null) {
+            return index;
+        }
+
+        try {
+            constantPool.writeByte(CONSTANT_UTF8);
+            constantPool.writeUTF(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return addConstant(key, 1);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  returns the index of the class constant with the given internal name (ex. "model/CPU").
+    int classReference(String internalName) {
+        int name = utf8(internalName);
+        String key = "C" + internalName;
+        Integer index = constantIndexes.get(key);
+        if (index != null) {
+            return index;
+        }
+
+        try {
+            constantPool.writeByte(CONSTANT_CLASS);
+            constantPool.writeShort(name);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return addConstant(key, 1);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  returns the index of the method reference constant.
+    int methodReference(String owner, String name, String descriptor) {
+        int ownerIndex = classReference(owner);
+        int nameIndex  = utf8(name);
+        int typeIndex  = utf8(descriptor);
+
+        String nameAndTypeKey = "N" + name + descriptor;
+        Integer nameAndType = constantIndexes.get(nameAndTypeKey);
+        try {
+            if (nameAndType == null) {
+                constantPool.writeByte(CONSTANT_NAME_AND_TYPE);
+                constantPool.writeShort(nameIndex);
+                constantPool.writeShort(typeIndex);
+                nameAndType = addConstant(nameAndTypeKey, 1);
+            }
+
+            String key = "M" + owner + "." + name + descriptor;
+            Integer index = constantIndexes.get(key);
+            if (index != null) {
+                return index;
+            }
+
+            constantPool.writeByte(CONSTANT_METHODREF);
+            constantPool.writeShort(ownerIndex);
+            constantPool.writeShort(nameAndType);
+            return addConstant(key, 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  returns the index of the integer constant.
+    int integer(int value) {
+        String key = "I" + value;
+        Integer index = constantIndexes.get(key);
+        if (index != null) {
+            return index;
+        }
+
+        try {
+            constantPool.writeByte(CONSTANT_INTEGER);
+            constantPool.writeInt(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return addConstant(key, 1);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  remembers key as the constant that was just written and returns its index.
+    private int addConstant(String key, int slots) {
+        int index = constantPoolCount;
+        constantIndexes.put(key, index);
+        constantPoolCount += slots;
+        return index;
+    }
+
+    // ########## METHODS ##########
+
+    // REQUIRES: there is no method currently being written.
+    // MODIFIES: this
+    // EFFECTS:  starts writing a new method.
+    void beginMethod(int access, String name, String descriptor) {
+        code             = new ByteArrayOutputStream();
+        methodAccess     = access;
+        methodName       = utf8(name);
+        methodDescriptor = utf8(descriptor);
+    }
+
+    // REQUIRES: a method is currently being written.
+    // MODIFIES: this
+    // EFFECTS:  finishes the current method with the given operand stack and local variable sizes.
+    void endMethod(int maxStack, int maxLocals) {
+        int codeAttribute = utf8("Code");
+        byte[] bytes = code.toByteArray();
+        try {
+            methods.writeShort(methodAccess);
+            methods.writeShort(methodName);
+            methods.writeShort(methodDescriptor);
+            methods.writeShort(1);                  // attributes_count
+            methods.writeShort(codeAttribute);
+            methods.writeInt(12 + bytes.length);    // attribute_length
+            methods.writeShort(maxStack);
+            methods.writeShort(maxLocals);
+            methods.writeInt(bytes.length);
+            methods.write(bytes);
+            methods.writeShort(0);                  // exception_table_length
+            methods.writeShort(0);                  // attributes_count
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        methodCount++;
+        code = null;
+    }
+
+    // ########## INSTRUCTIONS ##########
+
+    // MODIFIES: this
+    // EFFECTS:  pushes the reference in the given local variable.
+    void aload(int local) {
+        code.write(OP_ALOAD);
+        code.write(local);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  pushes the int in the given local variable.
+    void iload(int local) {
+        code.write(OP_ILOAD);
+        code.write(local);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  pops an int into the given local variable.
+    void istore(int local) {
+        code.write(OP_ISTORE);
+        code.write(local);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  pushes the constant value, using the shortest instruction that fits.
+    void pushInt(int value) {
+        if (value >= -1 && value <= 5) {
+            code.write(OP_ICONST_0 + value);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            code.write(OP_BIPUSH);
+            code.write(value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            code.write(OP_SIPUSH);
+            writeShort(value);
+        } else {
+            code.write(OP_LDC_W);
+            writeShort(integer(value));
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  pops the top of the stack.
+    void pop() {
+        code.write(OP_POP);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  pops two ints and pushes their sum.
+    void iadd() {
+        code.write(OP_IADD);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  returns from a void method.
+    void returnVoid() {
+        code.write(OP_RETURN);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  calls the static method.
+    void invokeStatic(String owner, String name, String descriptor) {
+        code.write(OP_INVOKESTATIC);
+        writeShort(methodReference(owner, name, descriptor));
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  calls the instance method.
+    void invokeVirtual(String owner, String name, String descriptor) {
+        code.write(OP_INVOKEVIRTUAL);
+        writeShort(methodReference(owner, name, descriptor));
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  calls the constructor or private method.
+    void invokeSpecial(String owner, String name, String descriptor) {
+        code.write(OP_INVOKESPECIAL);
+        writeShort(methodReference(owner, name, descriptor));
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  writes value to the current method's code as a big endian u2.
+    private void writeShort(int value) {
+        code.write((value >> 8) & 0xFF);
+        code.write(value & 0xFF);
+    }
+
+    // ########## CLASS FILE ##########
+
+    // MODIFIES: this
+    // EFFECTS:  returns the class file for a class with the given name, super class, interfaces, and all the methods
+    //           written so far.
+    byte[] toClassFile(int access, String name, String superName, String... interfaces) {
+        int thisClass  = classReference(name);
+        int superClass = classReference(superName);
+        int[] interfaceIndexes = new int[interfaces.length];
+        for (int i = 0; i < interfaces.length; i++) {
+            interfaceIndexes[i] = classReference(interfaces[i]);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(CLASS_FILE_MAGIC);
+            out.writeShort(0);
+            out.writeShort(CLASS_FILE_VERSION);
+            out.writeShort(constantPoolCount);
+            out.write(constantPoolBytes.toByteArray());
+            out.writeShort(access);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(interfaceIndexes.length);
+            for (int interfaceIndex : interfaceIndexes) {
+                out.writeShort(interfaceIndex);
+            }
+            out.writeShort(0);                      // fields_count
+            out.writeShort(methodCount);
+            out.write(methodBytes.toByteArray());
+            out.writeShort(0);                      // attributes_count
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+}
@@ -4,8 +4,6 @@ import ppu.PPU;
 import ui.window.CpuOutput;
 import ui.window.CpuViewer;
 
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 
 // Class CPU:
@@ -25,12 +23,12 @@ import java.util.ArrayList;
 //
 //     Flags:
 //         flagC         (the carry flag)
-//         flagZ         (the zero flag)
+//         flagZ         (the zero flag, evaluated lazily from zResult)
 //         flagI         (the interrupt disable flag)
 //         flagD         (the decimal mode flag)
 //         flagB         (the break flag)
 //         flagV         (the overflow flag)
-//         flagN         (the negative flag)
+//         flagN         (the negative flag, evaluated lazily from nResult)
 //
 //     Memory:
 //         ram
@@ -39,6 +37,8 @@ import java.util.ArrayList;
 //     Other:
 //         cycles        (the current cycle # of the CPU)
 //         enabled       (true if enabled, disabled by STP)
+//         blockCache    (the decoded blocks of straight-line code)
+//         recompiler    (compiles hot blocks into JVM classes, only used if recompilerEnabled)
 
 public class CPU {
     // Constants
@@ -75,15 +75,39 @@ public class CPU {
 
     public static final int REGISTER_A_ADDRESS        = 0x10000;
 
+    // The memory map is split into 256 byte pages. One extra page past 0xFFFF catches REGISTER_A_ADDRESS.
+    public static final int PAGE_SIZE                 = 0x0100;
+    public static final int PAGE_SHIFT                = 8;
+    public static final int PAGE_MASK                 = 0x00FF;
+    public static final int NUM_PAGES                 = 0x0101;
+    public static final int FIRST_CARTRIDGE_PAGE      = 0x0040;
+
+    // OAM DMA stalls the CPU for one cycle (two if it starts on an odd cycle) and then two cycles per byte.
+    public static final int DMA_CYCLES                = 1 + 2 * PPU.PRIMARY_OAM_SIZE;
+
     // CPU Flags
     protected int flagC;  // Carry
-    protected int flagZ;  // Zero
     protected int flagI;  // Interrupt Disable
     protected int flagD;  // Decimal
     protected int flagB;  // Break
     // 7 flags in one byte; positions 4/5 are empty. flagB is not included in the status.
     protected int flagV;  // Overflow
-    protected int flagN;  // Negative
+
+    // flagZ and flagN are lazy: instead of the flags, the byte results they come from are stored, and the flags are
+    // only worked out when they're read. flagZ is set iff zResult is zero; flagN is bit 7 of nResult.
+    protected int zResult;
+    protected int nResult;
+
+    // NZ_STATUS[value] holds the Z and N bits of the status for a result of value.
+    static final int STATUS_Z_BIT = 1 << 1;
+    static final int STATUS_N_BIT = 1 << 7;
+    static final int[] NZ_STATUS  = new int[256];
+
+    static {
+        for (int value = 0; value < NZ_STATUS.length; value++) {
+            NZ_STATUS[value] = (value == 0 ? STATUS_Z_BIT : 0) | (value & STATUS_N_BIT);
+        }
+    }
 
     // Registers / Cycles
     private int registerA;  // Accumulator for ALU
@@ -102,29 +126,220 @@ public class CPU {
     private int modeArgumentsSize;
 
     private boolean enabled;
-    private int cycle;
+    private long cycle;
     int cyclesRemaining;
     private ArrayList<Integer> breakpoints;
     protected boolean nmi;
 
-    // Memory
-    protected int[] ram;
-
+    // Memory. Like the rest of the emulated memory, ram is stored as bytes and masked with 0xFF when read. After a
+    // fork, ram is shared with the other CPU until one of them writes to it (see fork); while ramShared is set, its
+    // pages aren't writable, so that the first write goes through writeIo, which copies it.
+    protected byte[] ram;
+    private boolean  ramShared;
+
+    // Page table. If pageData[page] is null, the page is handled by readIo / writeIo. Otherwise, the byte at
+    // [page]XX is stored at pageData[page][pageOffset[page] + XX]. Writes only go straight to the array if
+    // pageWritable[page] is set, so that the mapper still sees writes to ROM.
+    private byte[][]  pageData;
+    private int[]     pageOffset;
+    private boolean[] pageWritable;
+    private BlockCache.Region[] pageRegion;
+
+    // Decoded straight-line code. currentBlock is the block being stepped through, currentBlockAddress is the address
+    // it was entered at (blocks are shared between mirrors), and currentBlockIndex is the next instruction in it.
+    private BlockCache   blockCache;
+    private DecodedBlock currentBlock;
+    private int          currentBlockAddress;
+    private int          currentBlockIndex;
+
+    private Recompiler recompiler;
+    private boolean    recompilerEnabled;
+    private long       instructionCount;
+
+    // Superinstructions. While cycling, a Superinstructions pair runs both of its instructions at once, but only the
+    // first instruction's cycles are added to cyclesRemaining; superinstructionCycles are added once the second
+    // instruction would have started. Until then, the state right after the first instruction is kept in the split*
+    // fields, so that the second instruction can be undone if an NMI comes in first.
+    private boolean superinstructionsEnabled;
+    private boolean superinstructionPending;
+    private int     superinstructionCycles;
+    private int     splitCyclesRemaining;
+    private int     splitRegisterA;
+    private int     splitRegisterPC;
+    private int     splitFlagC;
+    private int     splitFlagV;
+    private int     splitZResult;
+    private int     splitNResult;
+    private int     splitWriteAddress;
+    private int     splitWriteValue;
+    private long[]  superinstructionCounts;
+
+    // Idle loops. idleLoopBlock is the IdleLoops block the CPU keeps coming back to the top of, idleLoopState is the
+    // CPU state it had there (see saveIdleLoopState), and idleLoopCycle is the cycle it last got there on. Once the CPU
+    // has come back IDLE_LOOP_MATCHES times in a row with the same state, every trip around the loop takes
+    // idleLoopPeriod cycles and does exactly the same thing until the PPU or an NMI changes something, so the Bus can
+    // skip whole trips at once.
+    private static final int IDLE_LOOP_MATCHES = 2;
+    private DecodedBlock idleLoopBlock;
+    private int[]        idleLoopState;
+    private int          idleLoopMatches;
+    private long         idleLoopCycle;
+    private int          idleLoopPeriod;
+
+    private final Bus bus;
     private CpuOutput loggingOutput;
 
+    // OAM DMA copies the whole page as soon as it starts, and then stalls the CPU for dmaCyclesRemaining cycles. How
+    // long the stall is depends on whether its first cycle is odd, so it is only known once dmaAligned.
     private boolean dma;
-    private int     dmaPage;
-    private int     dmaIndex;
+    private boolean dmaAligned;
+    private int     dmaCyclesRemaining;
+    private byte[]  dmaBuffer;
 
     // EFFECTS: initializes the RAM and STACK and calls reset() to reset all values in the cpu to their default states.
-    public CPU() {
+    //          The cpu reaches everything outside of its RAM through bus.
+    public CPU(Bus bus) {
+        this.bus = bus;
         init();
     }
 
     // MODIFIES: ram
     // EFFECTS: initializes the RAM and STACK with their appropriate sizes.
     private void init() {
-        ram = new int[CPU.RAM_SIZE];
+        ram = new byte[CPU.RAM_SIZE];
+
+        pageData     = new byte[NUM_PAGES][];
+        pageOffset   = new int[NUM_PAGES];
+        pageWritable = new boolean[NUM_PAGES];
+        pageRegion   = new BlockCache.Region[NUM_PAGES];
+        blockCache   = new BlockCache();
+        recompiler   = new Recompiler();
+        superinstructionCounts = new long[Superinstructions.NAMES.length];
+        superinstructionsEnabled = true;
+        idleLoopState = new int[11];
+        dmaBuffer     = new byte[PPU.PRIMARY_OAM_SIZE];
+
+        mapRam();
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  maps the 2KB internal RAM, mirrored every 0x0800 bytes up to 0x1FFF. The pages are read-only while ram
+    //           is shared.
+    private void mapRam() {
+        for (int page = 0x00; page <= 0x1F; page++) {
+            mapPage(page, ram, (page * PAGE_SIZE) & (CPU.RAM_SIZE - 1), !ramShared);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  returns a CPU in the same state as this one that belongs to bus. The two CPUs share ram until either
+    //           of them writes to it, and then that one copies it. Decoded blocks count how often they run and may be
+    //           compiled, so they aren't shared: the fork decodes its own as it goes, which gives the same results.
+    //           Cartridge pages are left for the fork's bus to map.
+    CPU fork(Bus bus) {
+        CPU fork = new CPU(bus);
+        fork.blockCache.release(fork.ram);
+        fork.ram       = ram;
+        fork.ramShared = true;
+        fork.mapRam();
+        ramShared = true;
+        mapRam();
+
+        fork.flagC   = flagC;
+        fork.flagI   = flagI;
+        fork.flagD   = flagD;
+        fork.flagB   = flagB;
+        fork.flagV   = flagV;
+        fork.zResult = zResult;
+        fork.nResult = nResult;
+
+        fork.registerA  = registerA;
+        fork.registerX  = registerX;
+        fork.registerY  = registerY;
+        fork.registerPC = registerPC;
+        fork.registerS  = registerS;
+
+        fork.currentInstructionPointer = currentInstructionPointer;
+        fork.currentInstructionValue   = currentInstructionValue;
+        fork.modeArguments             = modeArguments.clone();
+        fork.modeArgumentsSize         = modeArgumentsSize;
+
+        fork.enabled         = enabled;
+        fork.cycle           = cycle;
+        fork.cyclesRemaining = cyclesRemaining;
+        fork.breakpoints     = new ArrayList<>(breakpoints);
+        fork.nmi             = nmi;
+
+        fork.recompilerEnabled = recompilerEnabled;
+        fork.instructionCount  = instructionCount;
+
+        fork.superinstructionsEnabled = superinstructionsEnabled;
+        fork.superinstructionPending  = superinstructionPending;
+        fork.superinstructionCycles   = superinstructionCycles;
+        fork.splitCyclesRemaining     = splitCyclesRemaining;
+        fork.splitRegisterA           = splitRegisterA;
+        fork.splitRegisterPC          = splitRegisterPC;
+        fork.splitFlagC               = splitFlagC;
+        fork.splitFlagV               = splitFlagV;
+        fork.splitZResult             = splitZResult;
+        fork.splitNResult             = splitNResult;
+        fork.splitWriteAddress        = splitWriteAddress;
+        fork.splitWriteValue          = splitWriteValue;
+        System.arraycopy(superinstructionCounts, 0, fork.superinstructionCounts, 0, superinstructionCounts.length);
+
+        fork.dma                = dma;
+        fork.dmaAligned         = dmaAligned;
+        fork.dmaCyclesRemaining = dmaCyclesRemaining;
+        return fork;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  gives this CPU a copy of ram of its own, if it is shared.
+    private void unshareRam() {
+        if (ramShared) {
+            byte[] shared = ram;
+            ram       = ram.clone();
+            ramShared = false;
+            remapPages(shared, ram, true);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  maps every page that is mapped onto oldData onto newData instead, at the same offset, and throws away
+    //           the blocks decoded from oldData. Used when the owner of oldData replaces it with a copy.
+    public void remapPages(byte[] oldData, byte[] newData, boolean writable) {
+        blockCache.release(oldData);
+        for (int page = 0; page < NUM_PAGES; page++) {
+            if (pageData[page] == oldData) {
+                mapPage(page, newData, pageOffset[page], writable);
+            }
+        }
+    }
+
+    // REQUIRES: 0x00 <= page <= 0xFF, data has at least offset + PAGE_SIZE elements.
+    // MODIFIES: this
+    // EFFECTS:  maps addresses [page]00 to [page]FF directly onto data, starting at offset. Writes go straight into
+    //           data if writable, and are passed on to writeIo otherwise.
+    public void mapPage(int page, byte[] data, int offset, boolean writable) {
+        pageData[page]     = data;
+        pageOffset[page]   = offset;
+        pageWritable[page] = writable;
+        pageRegion[page]   = blockCache.getRegion(data);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  unmaps every page in the cartridge space, so that they are all handled by the mapper again.
+    public void unmapCartridgePages() {
+        for (int page = FIRST_CARTRIDGE_PAGE; page < NUM_PAGES; page++) {
+            if (pageData[page] != null && pageData[page] != ram) {
+                blockCache.release(pageData[page]);
+            }
+
+            pageData[page]     = null;
+            pageOffset[page]   = 0;
+            pageWritable[page] = false;
+            pageRegion[page]   = null;
+        }
     }
 
     // MODIFIES: registerA, registerX, registerY, registerPC, registerS, cycles, ram
@@ -141,9 +356,14 @@ public class CPU {
         breakpoints = new ArrayList<>();
 
         // Note: ram state and stack pointer considered unreliable after reset.
+        unshareRam();
         for (int i = 0; i < ram.length; i++) {
-            ram[i] = CPU.INITIAL_RAM_STATE;
+            ram[i] = (byte) CPU.INITIAL_RAM_STATE;
         }
+        blockCache.clear();
+        currentBlock = null;
+        superinstructionPending = false;
+        idleLoopBlock = null;
 
         int byteOne = readMemory(0xFFFC);
         int byteTwo = readMemory(0xFFFD);
@@ -151,31 +371,25 @@ public class CPU {
         //setRegisterPC(0xC000);     // Uncomment for nestest
         enabled  = true;
         dma      = false;
-        dmaPage  = 0;
-        dmaIndex = 0;
+        dmaAligned         = false;
+        dmaCyclesRemaining = 0;
 
         modeArguments = new int[2];
     }
 
 
-    Instant previousSecond = Instant.now();
-    int frames = 0;
-
     // MODIFIES: All registers, all flags, the ram, the stack, and the mapper may change.
     // EFFECTS: Cycles the cpu through one instruction, and updates the cpu's state as necessary.
     public void cycle() {
-        frames++;
-        if (ChronoUnit.MILLIS.between(previousSecond, Instant.now()) >= 1 * 1000) {
-            previousSecond = Instant.now();
-            System.out.println("cpuwu: " + frames);
-            frames = 0;
-        }
-
         if (!dma) {
             handleNMI();
 
             if (cyclesRemaining <= 1) {
-                processInstruction();
+                if (superinstructionPending) {
+                    startSecondInstruction();
+                } else {
+                    runInstruction(true);
+                }
             } else {
                 cyclesRemaining--;
             }
@@ -186,25 +400,43 @@ public class CPU {
         incrementCycles(1);
     }
 
-    // MODIFIES: this, bus
-    // EFFECTS:  runs one cycle of DMA in the CPU, transfering the memory in 0x[dmaPage]00 to 0x[dmaPage]FF to the
-    //           PPU primary OAM.
+    // MODIFIES: this
+    // EFFECTS:  runs one cycle of the DMA stall. The transfer itself was already done by startDMA.
     private void handleDMA() {
-        //System.out.println(dmaIndex);
-        if (dmaIndex == 0) {
-            if ((cycle & 1) == 0) {
-                dmaIndex++;
-            }
-        } else {
-            if ((dmaIndex & 1) == 0) {
-                int value = readMemory((dmaPage << 8) + (dmaIndex - 1) / 2);
-                Bus.getInstance().ppuWrite(PPU.OAMDATA_ADDRESS, value);
-                if (dmaIndex == 512) {
-                    dma = false;
-                    return;
-                }
-            }
-            dmaIndex++;
+        stallDma(1);
+    }
+
+    // EFFECTS: returns the number of cycles the CPU is still stalled for by OAM DMA, or 0 if there is no DMA going on.
+    public int getDmaCyclesRemaining() {
+        if (!dma) {
+            return 0;
+        }
+
+        return dmaAligned ? dmaCyclesRemaining : DMA_CYCLES + (int) (cycle & 1);
+    }
+
+    // REQUIRES: 0 <= numCycles <= getDmaCyclesRemaining()
+    // MODIFIES: this
+    // EFFECTS:  same as calling cycle() numCycles times while the CPU is stalled by OAM DMA.
+    public void skipDma(int numCycles) {
+        stallDma(numCycles);
+        cycle += numCycles;
+    }
+
+    // REQUIRES: 0 <= numCycles <= getDmaCyclesRemaining()
+    // MODIFIES: this
+    // EFFECTS:  takes numCycles cycles off the DMA stall, ending the DMA if that was all of it. Works out how long the
+    //           stall is first if this is its first cycle.
+    private void stallDma(int numCycles) {
+        if (!dmaAligned) {
+            dmaCyclesRemaining = getDmaCyclesRemaining();
+            dmaAligned         = true;
+        }
+
+        dmaCyclesRemaining -= numCycles;
+        if (dmaCyclesRemaining == 0) {
+            dma        = false;
+            dmaAligned = false;
         }
     }
 
@@ -216,30 +448,380 @@ public class CPU {
     }
 
     // MODIFIES: processes one instruction and updates the CPU's state as necessary. An instruction is only considered
-    //           complete once the appropriate amount of cycles have been run through.
+    //           complete once the appropriate amount of cycles have been run through. Instructions are taken from the
+    //           block cache, one at a time, so that the timing is the same as decoding them every time.
+    //           Superinstructions are never used here, so that single stepping always stops at every instruction.
     public void processInstruction() {
+        if (superinstructionPending) {
+            startSecondInstruction();
+        }
+
+        runInstruction(false);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  processes the next instruction, or the next Superinstructions pair if fuse is set and there is one.
+    private void runInstruction(boolean fuse) {
         if (isBreakpoint(registerPC)) {
             setEnabled(false);
         }
 
+        DecodedBlock block = currentBlock;
+        int index = currentBlockIndex;
+        if (block == null || index >= block.size || !block.valid
+                || currentBlockAddress + block.offsets[index] != registerPC) {
+            block = lookupBlock(registerPC);
+            index = 0;
+            currentBlockAddress = registerPC;
+
+            if (block != null) {
+                if (block.executions < Integer.MAX_VALUE) {
+                    block.executions++;
+                }
+
+                trackIdleLoop(block);
+
+                if (recompilerEnabled && runCompiled(block)) {
+                    return;
+                }
+            }
+        }
+
+        instructionCount++;
+        if (block == null) {
+            currentBlock = null;
+            processUndecodedInstruction();
+            return;
+        }
+
+        if (fuse && superinstructionsEnabled && block.superinstructions[index] != Superinstructions.NONE
+                && breakpoints.isEmpty()) {
+            runSuperinstruction(block, index);
+            return;
+        }
+
+        currentBlock      = block;
+        currentBlockIndex = index + 1;
+
+        registerPC += block.lengths[index];
+        InstructionHandlers.execute(this, block.opcodes[index], block.lows[index], block.highs[index]);
+        incrementCyclesRemaining(block.cycles[index]);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  runs the Superinstructions pair starting at index in block. cyclesRemaining only gets the first
+    //           instruction's cycles for now; the second one's are added by startSecondInstruction.
+    private void runSuperinstruction(DecodedBlock block, int index) {
+        currentBlock      = block;
+        currentBlockIndex = index + 2;
+        instructionCount++;
+        superinstructionCounts[block.superinstructions[index]]++;
+
+        registerPC += block.lengths[index];
+        Superinstructions.execute(this, block, index);
+
+        superinstructionCycles = cyclesRemaining - splitCyclesRemaining + block.cycles[index + 1];
+        cyclesRemaining        = splitCyclesRemaining + block.cycles[index];
+        superinstructionPending = true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  remembers the state right after the first instruction of a superinstruction. Called by
+    //           Superinstructions in between the two instructions.
+    void splitSuperinstruction() {
+        splitCyclesRemaining = cyclesRemaining;
+        splitRegisterA       = registerA;
+        splitRegisterPC      = registerPC;
+        splitFlagC           = flagC;
+        splitFlagV           = flagV;
+        splitZResult         = zResult;
+        splitNResult         = nResult;
+        splitWriteAddress    = -1;
+    }
+
+    // REQUIRES: address is in internal RAM.
+    // MODIFIES: this
+    // EFFECTS:  remembers the byte at address before the second instruction of a superinstruction overwrites it.
+    void splitWrite(int address) {
+        splitWriteAddress = address;
+        splitWriteValue   = readMemory(address);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  the second instruction of the pending superinstruction starts now (as far as timing goes); adds its
+    //           cycles.
+    private void startSecondInstruction() {
+        cyclesRemaining += superinstructionCycles;
+        superinstructionPending = false;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  undoes the second instruction of the pending superinstruction, leaving the CPU right after the first.
+    private void undoSecondInstruction() {
+        registerA  = splitRegisterA;
+        registerPC = splitRegisterPC;
+        flagC      = splitFlagC;
+        flagV      = splitFlagV;
+        zResult    = splitZResult;
+        nResult    = splitNResult;
+        if (splitWriteAddress != -1) {
+            writeMemory(splitWriteAddress, splitWriteValue);
+        }
+
+        currentBlock = null;
+        instructionCount--;
+        superinstructionPending = false;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  called whenever the CPU enters a block from its start. Counts how many times in a row the CPU has come
+    //           back to the top of the same idle loop with the same state, taking the same number of cycles each trip.
+    private void trackIdleLoop(DecodedBlock block) {
+        if (!block.idleLoop) {
+            idleLoopBlock = null;
+            return;
+        }
+
+        long period = cycle - idleLoopCycle;
+        if (block == idleLoopBlock && isIdleLoopState() && (idleLoopMatches == 0 || period == idleLoopPeriod)) {
+            idleLoopMatches++;
+            idleLoopPeriod = (int) period;
+        } else {
+            idleLoopBlock   = block;
+            idleLoopMatches = 0;
+            saveIdleLoopState();
+        }
+
+        idleLoopCycle = cycle;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  saves every register and flag into idleLoopState.
+    private void saveIdleLoopState() {
+        idleLoopState[0]  = registerA;
+        idleLoopState[1]  = registerX;
+        idleLoopState[2]  = registerY;
+        idleLoopState[3]  = registerS;
+        idleLoopState[4]  = flagC;
+        idleLoopState[5]  = flagI;
+        idleLoopState[6]  = flagD;
+        idleLoopState[7]  = flagB;
+        idleLoopState[8]  = flagV;
+        idleLoopState[9]  = zResult;
+        idleLoopState[10] = nResult;
+    }
+
+    // EFFECTS: returns true if every register and flag is the same as in idleLoopState.
+    private boolean isIdleLoopState() {
+        return idleLoopState[0] == registerA && idleLoopState[1] == registerX && idleLoopState[2] == registerY
+                && idleLoopState[3] == registerS && idleLoopState[4] == flagC && idleLoopState[5] == flagI
+                && idleLoopState[6] == flagD && idleLoopState[7] == flagB && idleLoopState[8] == flagV
+                && idleLoopState[9] == zResult && idleLoopState[10] == nResult;
+    }
+
+    // EFFECTS: returns the number of cycles every trip around the idle loop takes if the CPU is known to be stuck in
+    //          one, and nothing (an NMI, DMA, a breakpoint or a pending superinstruction) needs it to run normally.
+    //          Returns 0 otherwise.
+    public int getIdleLoopPeriod() {
+        if (idleLoopBlock == null || idleLoopMatches < IDLE_LOOP_MATCHES || !idleLoopBlock.valid || nmi || dma
+                || !enabled || superinstructionPending || !breakpoints.isEmpty()) {
+            return 0;
+        }
+
+        return idleLoopPeriod;
+    }
+
+    // REQUIRES: getIdleLoopPeriod() > 0
+    // EFFECTS:  returns how many cycles ago the CPU came back to the top of the idle loop for the second to last time.
+    //           The trip after that one read the memory that the current trip depends on, so skipping is only safe if
+    //           the PPU hasn't changed anything since.
+    public int getIdleLoopAge() {
+        return (int) (cycle - idleLoopCycle) + idleLoopPeriod;
+    }
+
+    // REQUIRES: getIdleLoopPeriod() > 0, numCycles is a multiple of it, and nothing the idle loop reads changes
+    //           during those cycles.
+    // MODIFIES: this
+    // EFFECTS:  skips numCycles cycles of the idle loop. Since every trip around the loop does the same thing, only the
+    //           cycle count changes.
+    public void skipIdleLoop(int numCycles) {
+        cycle         += numCycles;
+        idleLoopCycle += numCycles;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  runs the compiled version of block and returns true, compiling it first if it just became hot.
+    //           Returns false if the block has to be interpreted instead: it isn't (yet) compiled, it isn't in PRG ROM,
+    //           or an NMI or a breakpoint needs the interpreter to stop in between its instructions.
+    private boolean runCompiled(DecodedBlock block) {
+        if (nmi || !breakpoints.isEmpty()) {
+            return false;
+        }
+
+        CompiledBlock compiled = block.compiled;
+        if (compiled == null) {
+            if (block.compileAttempted || block.executions < recompiler.getHotThreshold()
+                    || !isReadOnlyRom(block.startAddress)) {
+                return false;
+            }
+
+            compiled = recompiler.compile(block);
+            if (compiled == null) {
+                return false;
+            }
+        }
+
+        // When cycling, every instruction takes one more cycle than its base count: the one it is processed on.
+        // The compiled block is processed in one go, so it has to make up for the instructions after its first.
+        compiled.run(this);
+        cyclesRemaining  += block.compiledSize - 1;
+        instructionCount += block.compiledSize;
+        currentBlock      = block;
+        currentBlockIndex = block.compiledSize;
+        return true;
+    }
+
+    // EFFECTS: returns the start addresses of the decoded blocks in the PRG ROM that is currently mapped, in order.
+    public ArrayList<Integer> getRomBlockAddresses() {
+        ArrayList<Integer> addresses = new ArrayList<>();
+        for (int page = FIRST_CARTRIDGE_PAGE; page < NUM_PAGES; page++) {
+            int address = page << PAGE_SHIFT;
+            if (!isReadOnlyRom(address)) {
+                continue;
+            }
+
+            DecodedBlock[] blocks = pageRegion[page].blocks;
+            for (int i = 0; i < PAGE_SIZE; i++) {
+                // Mirrored pages share their blocks, so only report each one at the address it was decoded at.
+                DecodedBlock block = blocks[pageOffset[page] + i];
+                if (block != null && block.valid && block.startAddress == address + i) {
+                    addresses.add(address + i);
+                }
+            }
+        }
+
+        return addresses;
+    }
+
+    // EFFECTS: returns the decoded PRG ROM block starting at address, or null if there isn't one.
+    private DecodedBlock getRomBlock(int address) {
+        if (!isReadOnlyRom(address)) {
+            return null;
+        }
+
+        int page = address >> PAGE_SHIFT;
+        return pageRegion[page].blocks[pageOffset[page] + (address & PAGE_MASK)];
+    }
+
+    // EFFECTS: returns the number of instructions in the decoded PRG ROM block starting at address, or 0 if there
+    //          isn't one.
+    public int getBlockSize(int address) {
+        DecodedBlock block = getRomBlock(address);
+        return block == null ? 0 : block.size;
+    }
+
+    // EFFECTS: returns the number of bytes of code in the decoded PRG ROM block starting at address, or 0 if there
+    //          isn't one.
+    public int getBlockLength(int address) {
+        DecodedBlock block = getRomBlock(address);
+        if (block == null) {
+            return 0;
+        }
+
+        int length = 0;
+        for (int i = 0; i < block.size; i++) {
+            length += block.lengths[i];
+        }
+        return length;
+    }
+
+    // EFFECTS: returns the number of times the decoded PRG ROM block starting at address has been entered, or 0 if
+    //          there isn't one.
+    public int getBlockExecutions(int address) {
+        DecodedBlock block = getRomBlock(address);
+        return block == null ? 0 : block.executions;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  decodes the PRG ROM block starting at address ahead of time, as if it had already been entered
+    //           executions times. If the recompiler is enabled and the block is hot, it is compiled right away.
+    //           Returns the number of instructions in the block, or 0 if address isn't in PRG ROM.
+    public int warmBlock(int address, int executions) {
+        if (!isReadOnlyRom(address)) {
+            return 0;
+        }
+
+        DecodedBlock block = lookupBlock(address);
+        if (block == null) {
+            return 0;
+        }
+
+        block.executions = Math.max(block.executions, executions);
+        if (recompilerEnabled && block.compiled == null && !block.compileAttempted
+                && block.executions >= recompiler.getHotThreshold()) {
+            recompiler.compile(block);
+        }
+
+        return block.size;
+    }
+
+    // EFFECTS: returns true if address is in PRG ROM that is mapped straight into the page table. Code anywhere else
+    //          (RAM, PRG RAM, or pages the mapper handles itself) can change under a compiled block.
+    private boolean isReadOnlyRom(int address) {
+        int page = address >> PAGE_SHIFT;
+        return page >= 0x80 && pageData[page] != null && !pageWritable[page];
+    }
+
+    // MODIFIES: blockCache
+    // EFFECTS:  returns the decoded block starting at address, or null if the code there can't be cached (it isn't
+    //           in a mapped page, or the instruction runs past the end of its page).
+    private DecodedBlock lookupBlock(int address) {
+        int page = address >> PAGE_SHIFT;
+        BlockCache.Region region = pageRegion[page];
+        if (region == null) {
+            return null;
+        }
+
+        return blockCache.lookup(region, pageOffset[page] + (address & PAGE_MASK), address);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  fetches, decodes and runs the instruction at registerPC without going through the block cache.
+    private void processUndecodedInstruction() {
         int valueAtProgramCounter = readMemory(registerPC);
-        Instruction instruction = Instruction.getInstructions().get(valueAtProgramCounter);
-        //cyclesRemaining = instruction.getNumCycles();
+        int decoded = Instruction.DECODE_TABLE[valueAtProgramCounter];
+        int numArguments = (decoded >> Instruction.DECODED_NUM_ARGUMENTS_SHIFT) & Instruction.DECODED_NIBBLE_MASK;
+        int numCycles    = (decoded >> Instruction.DECODED_NUM_CYCLES_SHIFT)    & Instruction.DECODED_NIBBLE_MASK;
+
+        int lo = (numArguments > 0) ? readMemory(registerPC + 1) : 0;
+        int hi = (numArguments > 1) ? readMemory(registerPC + 2) : 0;
+        registerPC += numArguments + 1;
 
-        modeArgumentsSize = instruction.getNumArguments();
-        for (int i = 0; i < instruction.getNumArguments(); i++) {
+        InstructionHandlers.execute(this, valueAtProgramCounter, lo, hi);
+        incrementCyclesRemaining(numCycles);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  same as processInstruction, but goes through the generic Mode and Opcode tables instead of the fused
+    //           InstructionHandlers. Kept as the reference implementation that InstructionHandlers is tested against.
+    void processInstructionReference() {
+        int valueAtProgramCounter = readMemory(registerPC);
+        int decoded = Instruction.DECODE_TABLE[valueAtProgramCounter];
+        int opcode       = (decoded >> Instruction.DECODED_OPCODE_SHIFT)        & Instruction.DECODED_BYTE_MASK;
+        int mode         = (decoded >> Instruction.DECODED_MODE_SHIFT)          & Instruction.DECODED_BYTE_MASK;
+        int numArguments = (decoded >> Instruction.DECODED_NUM_ARGUMENTS_SHIFT) & Instruction.DECODED_NIBBLE_MASK;
+        int numCycles    = (decoded >> Instruction.DECODED_NUM_CYCLES_SHIFT)    & Instruction.DECODED_NIBBLE_MASK;
+
+        modeArgumentsSize = numArguments;
+        for (int i = 0; i < numArguments; i++) {
             modeArguments[i] = readMemory(registerPC + i + 1);
         }
 
-        registerPC += instruction.getNumArguments() + 1;
+        registerPC += numArguments + 1;
 
-        //System.out.println(preStatus);
-        //System.out.println(instruction.toString());
-        Mode.runMode(instruction.getMode(), modeArguments, modeArgumentsSize, this);
-        Opcode.runOpcode(instruction.getOpcode(), currentInstructionPointer, this);
-        //incrementCycles(instruction.getNumCycles());
-        //loggingOutput.log(preStatus);
-        incrementCyclesRemaining(instruction.getNumCycles()); //*/
+        Mode.runMode(mode, modeArguments, modeArgumentsSize, this);
+        Opcode.runOpcode(opcode, currentInstructionPointer, this);
+        incrementCyclesRemaining(numCycles);
     }
 
     // MODIFIES: this
@@ -247,6 +829,11 @@ public class CPU {
     //           registerPC to the vector at 0xFFFA/B
     private void handleNMI() {
         if (nmi) {
+            if (superinstructionPending) {
+                undoSecondInstruction();
+            }
+            idleLoopBlock = null;
+
             int byteOne = ((getRegisterPC()) & 0b1111111100000000) >> 8;
             int byteTwo = ((getRegisterPC()) & 0b0000000011111111);
             pushStack(byteOne);
@@ -277,27 +864,64 @@ public class CPU {
     //          $4018 - $401F | $0008 | APU and I/O functionality that is normally disabled.
     //          $4020 - $FFFF | $BFE0 | Cartridge space: PRG ROM, PRG RAM, and mapper registers
     public int readMemory(int pointer) {
-        if        (pointer <= 0x1FFF) {        // 2KB internal RAM  + its mirrors
-            while (pointer >= 0x0800) {
-                pointer -= 0x0800;
+        int page = pointer >> PAGE_SHIFT;
+        byte[] data = pageData[page];
+        if (data != null) {
+            return data[pageOffset[page] + (pointer & PAGE_MASK)] & 0xFF;
+        }
+
+        return readIo(pointer);
+    }
+
+    // REQUIRES: 0x0000 <= pointer, pointer + length <= 0x10000, destination has at least offset + length elements.
+    // MODIFIES: destination, bus
+    // EFFECTS:  same as reading every address from pointer to pointer + length - 1 with readMemory into destination,
+    //           starting at offset. Pages in the page table are copied straight from their arrays, and unmapped
+    //           cartridge pages with Mapper.readBlock.
+    public void readBlock(int pointer, byte[] destination, int offset, int length) {
+        while (length > 0) {
+            int page   = pointer >> PAGE_SHIFT;
+            int index  = pointer & PAGE_MASK;
+            int amount = Math.min(length, PAGE_SIZE - index);
+
+            byte[] data = pageData[page];
+            if (data != null) {
+                System.arraycopy(data, pageOffset[page] + index, destination, offset, amount);
+            } else if (page > FIRST_CARTRIDGE_PAGE) {
+                bus.mapperReadBlock(pointer, destination, offset, amount);
+            } else {
+                for (int i = 0; i < amount; i++) {
+                    destination[offset + i] = (byte) readIo(pointer + i);
+                }
             }
-            return ram[pointer];
+
+            pointer += amount;
+            offset  += amount;
+            length  -= amount;
+        }
+    }
+
+    // EFFECTS: returns the value of the memory at the given address, for addresses that aren't mapped in the page
+    //          table. See readMemory for the memory map.
+    private int readIo(int pointer) {
+        if        (pointer <= 0x1FFF) {        // 2KB internal RAM  + its mirrors
+            return ram[pointer & 0x07FF] & 0xFF;
         } else if (pointer <= 0x3FFF) {        // NES PPU registers + its mirrors
-            return Bus.getInstance().ppuRead(Util.getNthBits(pointer, 0, 3) + 0x2000);
+            return bus.ppuRead(Util.getNthBits(pointer, 0, 3) + 0x2000);
         } else if (pointer <= 0x4013) {
             return 0; // TODO: apu read
         } else if (pointer <= 0x4014) {
-            return Bus.getInstance().ppuRead(pointer);
+            return bus.ppuRead(pointer);
         } else if (pointer <= 0x4015) {
             return 0; // TODO: apu read
         } else if (pointer <= 0x4016) {
-            return Bus.getInstance().controllerRead(pointer);
+            return bus.controllerRead(pointer);
         } else if (pointer <= 0x4017) {       // NES APU and I/O registers
-            return Bus.getInstance().controllerRead(pointer);
+            return bus.controllerRead(pointer);
         } else if (pointer <= 0x401F) {       // APU and I/O functionality (normally disabled)
             return 0; // TODO add when the apu is implemented.
         } else if (pointer <= 0xFFFF) {
-            return Bus.getInstance().mapperReadCpu(pointer);
+            return bus.mapperReadCpu(pointer);
         } else {
             return registerA;
         }
@@ -318,35 +942,70 @@ public class CPU {
     //          $4018 - $401F | $0008 | APU and I/O functionality that is normally disabled.
     //          $4020 - $FFFF | $BFE0 | Cartridge space: PRG ROM, PRG RAM, and mapper registers
     public void writeMemory(int pointer, int value) {
+        int page = pointer >> PAGE_SHIFT;
+        if (pageWritable[page]) {
+            int index = pageOffset[page] + (pointer & PAGE_MASK);
+            pageData[page][index] = (byte) value;
+
+            BlockCache.Region region = pageRegion[page];
+            if (region.code[index]) {
+                blockCache.invalidate(region, index);
+            }
+        } else {
+            writeIo(pointer, value);
+        }
+    }
+
+    // MODIFIES: ram, bus
+    // EFFECTS: writes the value to the given address, for addresses that aren't writable in the page table. See
+    //          writeMemory for the memory map.
+    private void writeIo(int pointer, int value) {
         if        (pointer <= 0x1FFF) {        // 2KB internal RAM  + its mirrors
-            ram[pointer & 0x07FF] = value;
+            unshareRam();
+            ram[pointer & 0x07FF] = (byte) value;
         } else if (pointer <= 0x3FFF) {        // NES PPU registers + its mirrors
-            Bus.getInstance().ppuWrite(Util.getNthBits(pointer, 0, 3) + 0x2000, value);
+            bus.ppuWrite(Util.getNthBits(pointer, 0, 3) + 0x2000, value);
         } else if (pointer <= 0x4013) {
-            Bus.getInstance().apuChannelWrite(pointer, value);
+            bus.apuChannelWrite(pointer, value);
         } else if (pointer <= PPU.OAMDMA_ADDRESS) {
             startDMA(value);
         } else if (pointer <= 0x4015) {
-            Bus.getInstance().apuWrite(pointer, value);
+            bus.apuWrite(pointer, value);
         } else if (pointer <= 0x4016) {
-            Bus.getInstance().controllerWrite(pointer, value);
+            bus.controllerWrite(pointer, value);
         } else if (pointer <= 0x4017) {       // NES APU and I/O registers.
-            Bus.getInstance().apuWrite(pointer, value);
-            Bus.getInstance().controllerWrite(pointer, value);
+            bus.apuWrite(pointer, value);
+            bus.controllerWrite(pointer, value);
         } else if (pointer <= 0x401F) {       // APU and I/O functionality that is
                                                                              // normally disabled
             // TODO add when the apu is implemented.
         } else if (pointer <= 0xFFFF) {
-            Bus.getInstance().mapperWrite(pointer, value);
+            bus.mapperWrite(pointer, value);
         } else {
             registerA = value;
         }
     }
 
+    // REQUIRES: 0x00 <= value <= 0xFF
+    // MODIFIES: this, bus
+    // EFFECTS:  copies the page 0x[value]00 - 0x[value]FF to the PPU primary OAM, and stalls the CPU for as long as the
+    //           transfer takes, starting with the next cycle (plus an alignment cycle if that one is odd). Pages in RAM
+    //           or cartridge space are copied in one go, since reading them has no side effects and nothing else can
+    //           write to them while the CPU is stalled. I/O pages are still read one byte at a time, in between the OAM
+    //           writes.
     private void startDMA(int value) {
-        dma      = true;
-        dmaPage  = value;
-        dmaIndex = 0;
+        dma        = true;
+        dmaAligned = false;
+
+        int address = value << PAGE_SHIFT;
+        if (pageData[value] != null || value > FIRST_CARTRIDGE_PAGE) {
+            readBlock(address, dmaBuffer, 0, PPU.PRIMARY_OAM_SIZE);
+            bus.ppuDma(dmaBuffer);
+        } else {
+            for (int i = 0; i < PPU.PRIMARY_OAM_SIZE; i++) {
+                bus.ppuWrite(PPU.OAMDATA_ADDRESS, readMemory(address + i));
+            }
+        }
     }
 /*
     private void writeIORegisters(int pointer, int value) {
@@ -382,20 +1041,21 @@ public class CPU {
     // EFFECTS: use the flags to construct the status by concatenating them like this:
     //          VN11DIZC where the 4th and 5th bits (little endian) are 1.
     public int getStatus() {
-        return (int) (getFlagC() << 0)
-             + (int) (getFlagZ() << 1)
-             + (int) (getFlagI() << 2)
-             + (int) (getFlagD() << 3)
-             + (int) (1          << 4)
-             + (int) (1          << 5) // bit 5 in the flags byte is empty
-             + (int) (getFlagV() << 6)
-             + (int) (getFlagN() << 7);
+        return (flagC << 0)
+             | (NZ_STATUS[zResult] & STATUS_Z_BIT)
+             | (flagI << 2)
+             | (flagD << 3)
+             | (1     << 4)
+             | (1     << 5) // bit 5 in the flags byte is empty
+             | (flagV << 6)
+             | (NZ_STATUS[nResult] & STATUS_N_BIT);
     }
 
     // EFFECTS: returns whether or not the address is a breakpoint
     public boolean isBreakpoint(int breakpoint) {
-        for (int address : breakpoints) {
-            if (address == breakpoint) {
+        // Indexed, so that the check before every instruction doesn't create an iterator.
+        for (int i = 0; i < breakpoints.size(); i++) {
+            if (breakpoints.get(i) == breakpoint) {
                 return true;
             }
         }
@@ -431,7 +1091,7 @@ public class CPU {
 
     // EFFECTS: returns the Z flag
     public int getFlagZ() {
-        return flagZ;
+        return (zResult == 0) ? 1 : 0;
     }
 
     // EFFECTS: returns the I flag
@@ -456,7 +1116,7 @@ public class CPU {
 
     // EFFECTS: returns the N flag
     public int getFlagN() {
-        return flagN;
+        return (nResult >> 7) & 1;
     }
 
     // EFFECTS: returns the A Register
@@ -490,7 +1150,7 @@ public class CPU {
     }
 
     // EFFECTS: returns the number of cycles
-    public int getCycles() {
+    public long getCycles() {
         return cycle;
     }
 
@@ -545,7 +1205,7 @@ public class CPU {
     // MODIFIES: flagZ
     // EFFECTS: sets flagZ to the given value
     public void setFlagZ(int flagZ) {
-        this.flagZ = flagZ;
+        this.zResult = flagZ ^ 1;
     }
 
     // REQUIRES: flagI is either 0 or 1. Note: boolean is not used because calculations are more readable when
@@ -585,7 +1245,14 @@ public class CPU {
     // MODIFIES: flagN
     // EFFECTS: sets flagN to the given value
     public void setFlagN(int flagN) {
-        this.flagN = flagN;
+        this.nResult = flagN << 7;
+    }
+
+    // MODIFIES: zResult, nResult
+    // EFFECTS: sets flagZ if the low byte of value is zero, and flagN to bit 7 of value.
+    void setZeroAndNegative(int value) {
+        zResult = value & 0xFF;
+        nResult = zResult;
     }
 
     // MODIFIES: enabled
@@ -616,10 +1283,71 @@ public class CPU {
         return breakpoints;
     }
 
-    public void setCycles(Integer value) {
+    public void setCycles(long value) {
         this.cycle = value;
     }
 
+    public BlockCache getBlockCache() {
+        return blockCache;
+    }
+
+    public Recompiler getRecompiler() {
+        return recompiler;
+    }
+
+    public boolean isRecompilerEnabled() {
+        return recompilerEnabled;
+    }
+
+    // REQUIRES: Bus.runCycles isn't running on another thread.
+    // MODIFIES: this
+    // EFFECTS:  switches between the recompiling core and the plain interpreter. Blocks that were already compiled
+    //           are kept, but only run while the recompiler is enabled.
+    public void setRecompilerEnabled(boolean recompilerEnabled) {
+        this.recompilerEnabled = recompilerEnabled;
+    }
+
+    // EFFECTS: returns true if the second instruction of a superinstruction has already run, but its cycles haven't
+    //          started yet.
+    boolean isSuperinstructionPending() {
+        return superinstructionPending;
+    }
+
+    public boolean isSuperinstructionsEnabled() {
+        return superinstructionsEnabled;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  switches the use of superinstructions while cycling on or off. They are on by default.
+    public void setSuperinstructionsEnabled(boolean superinstructionsEnabled) {
+        this.superinstructionsEnabled = superinstructionsEnabled;
+    }
+
+    // EFFECTS: returns how many times each superinstruction has run, one line per superinstruction.
+    public String getSuperinstructionReport() {
+        StringBuilder report = new StringBuilder();
+        for (int i = Superinstructions.NONE + 1; i < Superinstructions.NAMES.length; i++) {
+            report.append(String.format("%-8s %d%n", Superinstructions.NAMES[i], superinstructionCounts[i]));
+        }
+        return report.toString();
+    }
+
+    // EFFECTS: returns the number of times the superinstruction with the given name has run, or 0 if there is no such
+    //          superinstruction.
+    public long getSuperinstructionCount(String name) {
+        for (int i = Superinstructions.NONE + 1; i < Superinstructions.NAMES.length; i++) {
+            if (Superinstructions.NAMES[i].equals(name)) {
+                return superinstructionCounts[i];
+            }
+        }
+        return 0;
+    }
+
+    // EFFECTS: returns the number of instructions run since the CPU was created, interpreted or compiled.
+    public long getInstructionCount() {
+        return instructionCount;
+    }
+
     public int getCurrentInstructionPointer() {
         return currentInstructionPointer;
     }
@@ -0,0 +1,12 @@
+package model;
+
+// Interface CompiledBlock:
+//     A DecodedBlock (or a prefix of one) that Recompiler has translated into a JVM class. run has the same effect on
+//     the CPU as interpreting the instructions one after the other through InstructionHandlers, including the cycles
+//     they take, but runs them all at once.
+
+public interface CompiledBlock {
+    // MODIFIES: cpu
+    // EFFECTS:  runs the compiled instructions. registerPC must point at the first one.
+    void run(CPU cpu);
+}
@@ -0,0 +1,77 @@
+package model;
+
+// Class DecodedBlock:
+//     A run of straight-line instructions that have already been fetched and decoded. The block ends after the first
+//     instruction that can change registerPC, at the end of its 256 byte page, or after MAX_INSTRUCTIONS instructions,
+//     whichever comes first. valid is cleared once the code under the block is written.
+//
+//     A block belongs to the bytes it was decoded from, not to an address, so every mirror of those bytes (the RAM
+//     mirrors, or both halves of a 16 KB PRG ROM) shares it. startAddress is only the address it was first decoded at;
+//     offsets[i] is where instruction i starts relative to the start of the block, and has to be added to the address
+//     the block was actually entered at.
+//
+//     When the Recompiler is enabled, executions counts how many times the block was entered, and compiled runs its
+//     first compiledSize instructions. superinstructions[i] is the Superinstructions pair that starts at instruction i,
+//     if any, and idleLoop is set if the block is a wait loop that IdleLoops allows the CPU to skip.
+
+final class DecodedBlock {
+    static final int MAX_INSTRUCTIONS = 32;
+
+    final int   startAddress;
+    final int[] offsets;
+    final int[] opcodes;
+    final int[] lows;
+    final int[] highs;
+    final int[] lengths;
+    final int[] cycles;
+    final int[] superinstructions;
+    boolean     idleLoop;
+
+    int     size;
+    int     totalCycles;
+    boolean valid;
+
+    int           executions;
+    boolean       compileAttempted;
+    CompiledBlock compiled;
+    int           compiledSize;
+
+    // EFFECTS: creates an empty block starting at startAddress.
+    DecodedBlock(int startAddress) {
+        this.startAddress = startAddress;
+
+        offsets   = new int[MAX_INSTRUCTIONS];
+        opcodes   = new int[MAX_INSTRUCTIONS];
+        lows      = new int[MAX_INSTRUCTIONS];
+        highs     = new int[MAX_INSTRUCTIONS];
+        lengths   = new int[MAX_INSTRUCTIONS];
+        cycles    = new int[MAX_INSTRUCTIONS];
+
+        superinstructions = new int[MAX_INSTRUCTIONS];
+        idleLoop          = false;
+
+        size        = 0;
+        totalCycles = 0;
+        valid       = true;
+
+        executions       = 0;
+        compileAttempted = false;
+        compiled         = null;
+        compiledSize     = 0;
+    }
+
+    // REQUIRES: size < MAX_INSTRUCTIONS
+    // MODIFIES: this
+    // EFFECTS:  appends the decoded instruction at address to the end of the block.
+    void add(int address, int opcode, int lo, int hi, int length, int numCycles) {
+        offsets[size] = address - startAddress;
+        opcodes[size] = opcode;
+        lows[size]    = lo;
+        highs[size]   = hi;
+        lengths[size] = length;
+        cycles[size]  = numCycles;
+
+        size++;
+        totalCycles += numCycles;
+    }
+}
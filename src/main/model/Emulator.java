@@ -0,0 +1,134 @@
+package model;
+
+import ui.Pixels;
+import ui.controller.ScriptedController;
+
+import java.io.File;
+import java.io.IOException;
+
+// Class Emulator:
+//     A console without a window, for running games from code: tests, tools and the headless runner. It drives a Bus
+//     one frame at a time with the controller input given for that frame, and the screen and internal RAM can be read
+//     back after every frame. Nothing here touches Swing windows, timers or sound devices, so it runs fine with
+//     java.awt.headless=true.
+
+public class Emulator {
+    public static final int SCREEN_WIDTH  = 256;
+    public static final int SCREEN_HEIGHT = 240;
+
+    // Buttons, in the order the NES reads them from the controller.
+    public static final int BUTTON_A      = 1;
+    public static final int BUTTON_B      = 1 << 1;
+    public static final int BUTTON_SELECT = 1 << 2;
+    public static final int BUTTON_START  = 1 << 3;
+    public static final int BUTTON_UP     = 1 << 4;
+    public static final int BUTTON_DOWN   = 1 << 5;
+    public static final int BUTTON_LEFT   = 1 << 6;
+    public static final int BUTTON_RIGHT  = 1 << 7;
+
+    private static final int CPU_CYCLES_PER_BUS_CYCLE = 2;
+
+    private final Bus                bus;
+    private final Pixels             pixels;
+    private final ScriptedController controller;
+    private long                     frames;
+
+    // EFFECTS: creates an emulator with no cartridge loaded.
+    public Emulator() {
+        bus        = new Bus();
+        pixels     = new Pixels(1, 1, SCREEN_WIDTH, SCREEN_HEIGHT);
+        controller = new ScriptedController();
+        bus.getPpu().setPixels(pixels);
+        bus.setController(controller);
+        frames     = 0;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  loads the cartridge in file and resets the console, throws IOException if it can't be read.
+    public void loadRom(File file) throws IOException {
+        bus.loadCartridge(file);
+        frames = 0;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  holds the given buttons (see BUTTON_A etc.) until the next frame is finished (see Bus.runFrame), and
+    //           then releases them. Does nothing if no cartridge is loaded.
+    public void runFrame(int buttons) {
+        if (!bus.getCartridgeLoaded()) {
+            return;
+        }
+
+        controller.setButtons(buttons);
+        bus.runFrame();
+        controller.setButtons(0);
+        frames++;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  runs with no buttons held until the cpu has run for at least cycle cycles since the cartridge was
+    //           loaded. Does nothing if no cartridge is loaded or the cpu is already past cycle, and stops early if
+    //           the bus is disabled, since runCycles then doesn't run at all.
+    public void runUntil(long cycle) {
+        if (!bus.getCartridgeLoaded()) {
+            return;
+        }
+
+        CPU cpu = bus.getCpu();
+        while (bus.getEnabled() && cpu.getCycles() < cycle) {
+            long busCycles = (cycle - cpu.getCycles() + CPU_CYCLES_PER_BUS_CYCLE - 1) / CPU_CYCLES_PER_BUS_CYCLE;
+            bus.runCycles((int) Math.min(busCycles, Integer.MAX_VALUE));
+        }
+    }
+
+    // EFFECTS: returns the last complete frame as SCREEN_WIDTH * SCREEN_HEIGHT ARGB colors, row by row.
+    public int[] getFrame() {
+        int[] frame = new int[SCREEN_WIDTH * SCREEN_HEIGHT];
+        pixels.copyPixels(frame);
+        return frame;
+    }
+
+    // EFFECTS: returns a copy of the 2 KB of internal RAM.
+    public byte[] getRam() {
+        return bus.getCpu().ram.clone();
+    }
+
+    // EFFECTS: returns the number of frames run since the cartridge was loaded.
+    public long getFrames() {
+        return frames;
+    }
+
+    public Bus getBus() {
+        return bus;
+    }
+
+    // EFFECTS: returns the buttons named in line, separated by whitespace: any of A, B, SELECT, START, UP, DOWN, LEFT
+    //          and RIGHT, in any case. A blank line holds no buttons. Throws IllegalArgumentException if line names
+    //          anything else.
+    public static int parseButtons(String line) {
+        int buttons = 0;
+        for (String name : line.trim().split("\\s+")) {
+            if (name.isEmpty()) {
+                continue;
+            }
+
+            int button = findButton(name);
+            if (button == -1) {
+                throw new IllegalArgumentException("Unknown button: " + name);
+            }
+            buttons |= 1 << button;
+        }
+
+        return buttons;
+    }
+
+    // EFFECTS: returns the index of the button with the given name in any case, or -1 if there isn't one.
+    private static int findButton(String name) {
+        for (int i = 0; i < ScriptedController.BUTTON_NAMES.length; i++) {
+            if (ScriptedController.BUTTON_NAMES[i].equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+}
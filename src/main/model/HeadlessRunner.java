@@ -0,0 +1,67 @@
+package model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+// Class HeadlessRunner:
+//     Runs a cartridge for a number of frames without a window or sound, and prints how long it took and how many
+//     background tiles the PPU had to draw again (see PPU.getRedrawnTiles). The input file, if one is given, has one
+//     line per frame listing the buttons held during it (see Emulator.parseButtons); frames past the end of the file
+//     hold no buttons.
+//
+//     Usage: HeadlessRunner <cartridge> <frames> [input file, or - for none] [sync mode]
+
+public class HeadlessRunner {
+    private static final double NES_FPS = 60.0988;
+
+    // EFFECTS: makes the code coverage autobot not complain about me not instantiating a HeadlessRunner class.
+    private HeadlessRunner() {
+
+    }
+
+    // EFFECTS: returns the buttons held on each frame of the input file, throws IOException if it can't be read.
+    public static int[] readInput(File file) throws IOException {
+        List<String> lines = Files.readAllLines(file.toPath());
+        int[] input = new int[lines.size()];
+        for (int frame = 0; frame < input.length; frame++) {
+            input[frame] = Emulator.parseButtons(lines.get(frame));
+        }
+
+        return input;
+    }
+
+    // EFFECTS: runs the cartridge for the given number of frames, and prints the wall time, the emulated frame rate,
+    //          and the number of background tiles drawn again.
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        if (args.length < 2) {
+            System.err.println("Usage: HeadlessRunner <cartridge> <frames> [input file, or - for none] [sync mode]");
+            System.exit(1);
+        }
+
+        int   frames = Integer.parseInt(args[1]);
+        int[] input  = args.length > 2 && !args[2].equals("-") ? readInput(new File(args[2])) : new int[0];
+
+        Emulator emulator = new Emulator();
+        if (args.length > 3) {
+            emulator.getBus().setSyncMode(SyncMode.valueOf(args[3]));
+        }
+        emulator.loadRom(new File(args[0]));
+
+        long start = System.nanoTime();
+        for (int frame = 0; frame < frames; frame++) {
+            emulator.runFrame(frame < input.length ? input[frame] : 0);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        double fps = frames / seconds;
+        System.out.printf("%s: %d frames in %.3f s, %.1f fps (%.2fx real time)%n",
+                new File(args[0]).getName(), frames, seconds, fps, fps / NES_FPS);
+
+        long redrawnTiles = emulator.getBus().getPpu().getRedrawnTiles();
+        System.out.printf("%d background tiles redrawn (%.1f per frame)%n", redrawnTiles,
+                frames == 0 ? 0.0 : (double) redrawnTiles / frames);
+    }
+}
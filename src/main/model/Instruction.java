@@ -17,6 +17,18 @@ public class Instruction {
     private static final String CONFIG_FILE = "./config/instructions.json";
     private static ArrayList<Instruction> instructions;
 
+    // Predecoded dispatch table, indexed by the opcode byte. Each entry packs the opcode, mode, number of arguments
+    // and number of cycles of one instruction into a single int, so the CPU can decode an instruction with one array
+    // load instead of a list lookup and four getter calls. Use the DECODED_* constants below to unpack an entry.
+    static final int[] DECODE_TABLE = new int[256];
+
+    static final int DECODED_OPCODE_SHIFT        = 0;
+    static final int DECODED_MODE_SHIFT          = 8;
+    static final int DECODED_NUM_ARGUMENTS_SHIFT = 16;
+    static final int DECODED_NUM_CYCLES_SHIFT    = 20;
+    static final int DECODED_BYTE_MASK           = 0xFF;
+    static final int DECODED_NIBBLE_MASK         = 0x0F;
+
     private int opcode;
     private int mode;
     private int numArguments;
@@ -75,6 +87,14 @@ public class Instruction {
         return instructions;
     }
 
+    // EFFECTS: packs the given instruction into a DECODE_TABLE entry.
+    private static int pack(Instruction instruction) {
+        return (instruction.getOpcode()       << DECODED_OPCODE_SHIFT)
+             | (instruction.getMode()         << DECODED_MODE_SHIFT)
+             | (instruction.getNumArguments() << DECODED_NUM_ARGUMENTS_SHIFT)
+             | (instruction.getNumCycles()    << DECODED_NUM_CYCLES_SHIFT);
+    }
+
     // https://crunchify.com/how-to-read-json-object-from-file-in-java/
     static {
         instructions = new ArrayList<>();
@@ -94,5 +114,9 @@ public class Instruction {
         } catch (Exception e) {
             e.printStackTrace();
         }
+
+        for (int i = 0; i < instructions.size() && i < DECODE_TABLE.length; i++) {
+            DECODE_TABLE[i] = pack(instructions.get(i));
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,1238 @@
+package model;
+
+// Class InstructionHandlers:
+//     A hand-written set of 256 specialized instruction handlers, one per opcode byte in config/instructions.json.
+//     Each handler fuses an Addressing Mode with its Opcode: it computes the effective address inline and touches
+//     the operand in memory exactly once, instead of Mode storing a pointer in the CPU and Opcode reading it back.
+//     Mode and Opcode are kept as the reference core; the behaviour here (including their quirks) must match them.
+//     The operations and addressing modes are package-private so that Recompiler's generated classes can call them.
+
+final class InstructionHandlers {
+    // EFFECTS: makes the code coverage autobot not complain about me not instantiating an InstructionHandlers class.
+    private InstructionHandlers() {
+
+    }
+
+    // REQUIRES: 0 <= opcode <= 0xFF, lo and hi are the (up to) two argument bytes that follow the opcode.
+    //           registerPC must already point at the next instruction.
+    // MODIFIES: cpu
+    // EFFECTS:  executes the instruction with the given opcode byte and arguments.
+    static void execute(CPU cpu, int opcode, int lo, int hi) {
+        int address;
+
+        switch (opcode) {
+            case 0x00: // BRK IMPLICIT
+                brk(cpu);
+                break;
+            case 0x01: // ORA INDEXED_INDIRECT
+                ora(cpu, cpu.readMemory(indexedIndirect(cpu, lo)));
+                break;
+            case 0x02: // STP IMPLICIT
+                stp(cpu);
+                break;
+            case 0x03: // NOP IMPLICIT
+                break;
+            case 0x04: // NOP ZERO_PAGE
+                break;
+            case 0x05: // ORA ZERO_PAGE
+                ora(cpu, cpu.readMemory(lo));
+                break;
+            case 0x06: // ASL ZERO_PAGE
+                address = lo;
+                cpu.writeMemory(address, asl(cpu, cpu.readMemory(address)));
+                break;
+            case 0x07: // NOP IMPLICIT
+                break;
+            case 0x08: // PHP IMPLICIT
+                php(cpu);
+                break;
+            case 0x09: // ORA IMMEDIATE
+                ora(cpu, lo);
+                break;
+            case 0x0A: // ASL ACCUMULATOR
+                cpu.setRegisterA(asl(cpu, cpu.getRegisterA()));
+                break;
+            case 0x0B: // NOP IMPLICIT
+                break;
+            case 0x0C: // NOP ABSOLUTE
+                break;
+            case 0x0D: // ORA ABSOLUTE
+                ora(cpu, cpu.readMemory(absolute(lo, hi)));
+                break;
+            case 0x0E: // ASL ABSOLUTE
+                address = absolute(lo, hi);
+                cpu.writeMemory(address, asl(cpu, cpu.readMemory(address)));
+                break;
+            case 0x0F: // NOP IMPLICIT
+                break;
+            case 0x10: // BPL RELATIVE
+                bpl(cpu, lo);
+                break;
+            case 0x11: // ORA INDIRECT_INDEXED
+                ora(cpu, cpu.readMemory(indirectIndexed(cpu, lo)));
+                break;
+            case 0x12: // STP IMPLICIT
+                stp(cpu);
+                break;
+            case 0x13: // NOP IMPLICIT
+                break;
+            case 0x14: // NOP ZERO_PAGE_INDEXED_X
+                break;
+            case 0x15: // ORA ZERO_PAGE_INDEXED_X
+                ora(cpu, cpu.readMemory(zeroPageIndexedX(cpu, lo)));
+                break;
+            case 0x16: // ASL ZERO_PAGE_INDEXED_X
+                address = zeroPageIndexedX(cpu, lo);
+                cpu.writeMemory(address, asl(cpu, cpu.readMemory(address)));
+                break;
+            case 0x17: // NOP IMPLICIT
+                break;
+            case 0x18: // CLC IMPLICIT
+                clc(cpu);
+                break;
+            case 0x19: // ORA ABSOLUTE_INDEXED_Y
+                ora(cpu, cpu.readMemory(absoluteIndexedY(cpu, lo, hi)));
+                break;
+            case 0x1A: // NOP IMPLICIT
+                break;
+            case 0x1B: // NOP IMPLICIT
+                break;
+            case 0x1C: // NOP ABSOLUTE_INDEXED_X
+                absoluteIndexedX(cpu, lo, hi);
+                break;
+            case 0x1D: // ORA ABSOLUTE_INDEXED_X
+                ora(cpu, cpu.readMemory(absoluteIndexedX(cpu, lo, hi)));
+                break;
+            case 0x1E: // ASL ABSOLUTE_INDEXED_X
+                address = absoluteIndexedX(cpu, lo, hi);
+                cpu.writeMemory(address, asl(cpu, cpu.readMemory(address)));
+                break;
+            case 0x1F: // NOP IMPLICIT
+                break;
+            case 0x20: // JSR ABSOLUTE
+                jsr(cpu, absolute(lo, hi));
+                break;
+            case 0x21: // AND INDEXED_INDIRECT
+                and(cpu, cpu.readMemory(indexedIndirect(cpu, lo)));
+                break;
+            case 0x22: // STP IMPLICIT
+                stp(cpu);
+                break;
+            case 0x23: // NOP IMPLICIT
+                break;
+            case 0x24: // BIT ZERO_PAGE
+                bit(cpu, cpu.readMemory(lo));
+                break;
+            case 0x25: // AND ZERO_PAGE
+                and(cpu, cpu.readMemory(lo));
+                break;
+            case 0x26: // ROL ZERO_PAGE
+                address = lo;
+                cpu.writeMemory(address, rol(cpu, cpu.readMemory(address)));
+                break;
+            case 0x27: // NOP IMPLICIT
+                break;
+            case 0x28: // PLP IMPLICIT
+                plp(cpu);
+                break;
+            case 0x29: // AND IMMEDIATE
+                and(cpu, lo);
+                break;
+            case 0x2A: // ROL ACCUMULATOR
+                cpu.setRegisterA(rol(cpu, cpu.getRegisterA()));
+                break;
+            case 0x2B: // NOP IMPLICIT
+                break;
+            case 0x2C: // BIT ABSOLUTE
+                bit(cpu, cpu.readMemory(absolute(lo, hi)));
+                break;
+            case 0x2D: // AND ABSOLUTE
+                and(cpu, cpu.readMemory(absolute(lo, hi)));
+                break;
+            case 0x2E: // ROL ABSOLUTE
+                address = absolute(lo, hi);
+                cpu.writeMemory(address, rol(cpu, cpu.readMemory(address)));
+                break;
+            case 0x2F: // NOP IMPLICIT
+                break;
+            case 0x30: // BMI RELATIVE
+                bmi(cpu, lo);
+                break;
+            case 0x31: // AND INDIRECT_INDEXED
+                and(cpu, cpu.readMemory(indirectIndexed(cpu, lo)));
+                break;
+            case 0x32: // STP IMPLICIT
+                stp(cpu);
+                break;
+            case 0x33: // NOP IMPLICIT
+                break;
+            case 0x34: // NOP ZERO_PAGE_INDEXED_X
+                break;
+            case 0x35: // AND ZERO_PAGE_INDEXED_X
+                and(cpu, cpu.readMemory(zeroPageIndexedX(cpu, lo)));
+                break;
+            case 0x36: // ROL ZERO_PAGE_INDEXED_X
+                address = zeroPageIndexedX(cpu, lo);
+                cpu.writeMemory(address, rol(cpu, cpu.readMemory(address)));
+                break;
+            case 0x37: // NOP IMPLICIT
+                break;
+            case 0x38: // SEC IMPLICIT
+                sec(cpu);
+                break;
+            case 0x39: // AND ABSOLUTE_INDEXED_Y
+                and(cpu, cpu.readMemory(absoluteIndexedY(cpu, lo, hi)));
+                break;
+            case 0x3A: // NOP IMPLICIT
+                break;
+            case 0x3B: // NOP IMPLICIT
+                break;
+            case 0x3C: // NOP ABSOLUTE_INDEXED_X
+                absoluteIndexedX(cpu, lo, hi);
+                break;
+            case 0x3D: // AND ABSOLUTE_INDEXED_X
+                and(cpu, cpu.readMemory(absoluteIndexedX(cpu, lo, hi)));
+                break;
+            case 0x3E: // ROL ABSOLUTE_INDEXED_X
+                address = absoluteIndexedX(cpu, lo, hi);
+                cpu.writeMemory(address, rol(cpu, cpu.readMemory(address)));
+                break;
+            case 0x3F: // NOP IMPLICIT
+                break;
+            case 0x40: // RTI IMPLICIT
+                rti(cpu);
+                break;
+            case 0x41: // EOR INDEXED_INDIRECT
+                eor(cpu, cpu.readMemory(indexedIndirect(cpu, lo)));
+                break;
+            case 0x42: // STP IMPLICIT
+                stp(cpu);
+                break;
+            case 0x43: // NOP IMPLICIT
+                break;
+            case 0x44: // NOP ZERO_PAGE
+                break;
+            case 0x45: // EOR ZERO_PAGE
+                eor(cpu, cpu.readMemory(lo));
+                break;
+            case 0x46: // LSR ZERO_PAGE
+                address = lo;
+                cpu.writeMemory(address, lsr(cpu, cpu.readMemory(address)));
+                break;
+            case 0x47: // NOP IMPLICIT
+                break;
+            case 0x48: // PHA IMPLICIT
+                pha(cpu);
+                break;
+            case 0x49: // EOR IMMEDIATE
+                eor(cpu, lo);
+                break;
+            case 0x4A: // LSR ACCUMULATOR
+                cpu.setRegisterA(lsr(cpu, cpu.getRegisterA()));
+                break;
+            case 0x4B: // NOP IMPLICIT
+                break;
+            case 0x4C: // JMP ABSOLUTE
+                cpu.setRegisterPC(absolute(lo, hi));
+                break;
+            case 0x4D: // EOR ABSOLUTE
+                eor(cpu, cpu.readMemory(absolute(lo, hi)));
+                break;
+            case 0x4E: // LSR ABSOLUTE
+                address = absolute(lo, hi);
+                cpu.writeMemory(address, lsr(cpu, cpu.readMemory(address)));
+                break;
+            case 0x4F: // NOP IMPLICIT
+                break;
+            case 0x50: // BVC RELATIVE
+                bvc(cpu, lo);
+                break;
+            case 0x51: // EOR INDIRECT_INDEXED
+                eor(cpu, cpu.readMemory(indirectIndexed(cpu, lo)));
+                break;
+            case 0x52: // STP IMPLICIT
+                stp(cpu);
+                break;
+            case 0x53: // NOP IMPLICIT
+                break;
+            case 0x54: // NOP ZERO_PAGE_INDEXED_X
+                break;
+            case 0x55: // EOR ZERO_PAGE_INDEXED_X
+                eor(cpu, cpu.readMemory(zeroPageIndexedX(cpu, lo)));
+                break;
+            case 0x56: // LSR ZERO_PAGE_INDEXED_X
+                address = zeroPageIndexedX(cpu, lo);
+                cpu.writeMemory(address, lsr(cpu, cpu.readMemory(address)));
+                break;
+            case 0x57: // NOP IMPLICIT
+                break;
+            case 0x58: // CLI IMPLICIT
+                cli(cpu);
+                break;
+            case 0x59: // EOR ABSOLUTE_INDEXED_Y
+                eor(cpu, cpu.readMemory(absoluteIndexedY(cpu, lo, hi)));
+                break;
+            case 0x5A: // NOP IMPLICIT
+                break;
+            case 0x5B: // NOP IMPLICIT
+                break;
+            case 0x5C: // NOP ABSOLUTE_INDEXED_X
+                absoluteIndexedX(cpu, lo, hi);
+                break;
+            case 0x5D: // EOR ABSOLUTE_INDEXED_X
+                eor(cpu, cpu.readMemory(absoluteIndexedX(cpu, lo, hi)));
+                break;
+            case 0x5E: // LSR ABSOLUTE_INDEXED_X
+                address = absoluteIndexedX(cpu, lo, hi);
+                cpu.writeMemory(address, lsr(cpu, cpu.readMemory(address)));
+                break;
+            case 0x5F: // NOP IMPLICIT
+                break;
+            case 0x60: // RTS IMPLICIT
+                rts(cpu);
+                break;
+            case 0x61: // ADC INDEXED_INDIRECT
+                adc(cpu, cpu.readMemory(indexedIndirect(cpu, lo)));
+                break;
+            case 0x62: // STP IMPLICIT
+                stp(cpu);
+                break;
+            case 0x63: // NOP IMPLICIT
+                break;
+            case 0x64: // NOP ZERO_PAGE
+                break;
+            case 0x65: // ADC ZERO_PAGE
+                adc(cpu, cpu.readMemory(lo));
+                break;
+            case 0x66: // ROR ZERO_PAGE
+                address = lo;
+                cpu.writeMemory(address, ror(cpu, cpu.readMemory(address)));
+                break;
+            case 0x67: // NOP IMPLICIT
+                break;
+            case 0x68: // PLA IMPLICIT
+                pla(cpu);
+                break;
+            case 0x69: // ADC IMMEDIATE
+                adc(cpu, lo);
+                break;
+            case 0x6A: // ROR ACCUMULATOR
+                cpu.setRegisterA(ror(cpu, cpu.getRegisterA()));
+                break;
+            case 0x6B: // NOP IMPLICIT
+                break;
+            case 0x6C: // JMP INDIRECT
+                cpu.setRegisterPC(indirect(cpu, lo, hi));
+                break;
+            case 0x6D: // ADC ABSOLUTE
+                adc(cpu, cpu.readMemory(absolute(lo, hi)));
+                break;
+            case 0x6E: // ROR ABSOLUTE
+                address = absolute(lo, hi);
+                cpu.writeMemory(address, ror(cpu, cpu.readMemory(address)));
+                break;
+            case 0x6F: // NOP IMPLICIT
+                break;
+            case 0x70: // BVS RELATIVE
+                bvs(cpu, lo);
+                break;
+            case 0x71: // ADC INDIRECT_INDEXED
+                adc(cpu, cpu.readMemory(indirectIndexed(cpu, lo)));
+                break;
+            case 0x72: // STP IMPLICIT
+                stp(cpu);
+                break;
+            case 0x73: // NOP IMPLICIT
+                break;
+            case 0x74: // NOP ZERO_PAGE_INDEXED_X
+                break;
+            case 0x75: // ADC ZERO_PAGE_INDEXED_X
+                adc(cpu, cpu.readMemory(zeroPageIndexedX(cpu, lo)));
+                break;
+            case 0x76: // ROR ZERO_PAGE_INDEXED_X
+                address = zeroPageIndexedX(cpu, lo);
+                cpu.writeMemory(address, ror(cpu, cpu.readMemory(address)));
+                break;
+            case 0x77: // NOP IMPLICIT
+                break;
+            case 0x78: // SEI IMPLICIT
+                sei(cpu);
+                break;
+            case 0x79: // ADC ABSOLUTE_INDEXED_Y
+                adc(cpu, cpu.readMemory(absoluteIndexedY(cpu, lo, hi)));
+                break;
+            case 0x7A: // NOP IMPLICIT
+                break;
+            case 0x7B: // NOP IMPLICIT
+                break;
+            case 0x7C: // NOP ABSOLUTE_INDEXED_X
+                absoluteIndexedX(cpu, lo, hi);
+                break;
+            case 0x7D: // ADC ABSOLUTE_INDEXED_X
+                adc(cpu, cpu.readMemory(absoluteIndexedX(cpu, lo, hi)));
+                break;
+            case 0x7E: // ROR ABSOLUTE_INDEXED_X
+                address = absoluteIndexedX(cpu, lo, hi);
+                cpu.writeMemory(address, ror(cpu, cpu.readMemory(address)));
+                break;
+            case 0x7F: // NOP IMPLICIT
+                break;
+            case 0x80: // NOP IMMEDIATE
+                break;
+            case 0x81: // STA INDEXED_INDIRECT
+                cpu.writeMemory(indexedIndirect(cpu, lo), cpu.getRegisterA());
+                break;
+            case 0x82: // NOP IMMEDIATE
+                break;
+            case 0x83: // NOP IMPLICIT
+                break;
+            case 0x84: // STY ZERO_PAGE
+                cpu.writeMemory(lo, cpu.getRegisterY());
+                break;
+            case 0x85: // STA ZERO_PAGE
+                cpu.writeMemory(lo, cpu.getRegisterA());
+                break;
+            case 0x86: // STX ZERO_PAGE
+                cpu.writeMemory(lo, cpu.getRegisterX());
+                break;
+            case 0x87: // NOP IMPLICIT
+                break;
+            case 0x88: // DEY IMPLICIT
+                dey(cpu);
+                break;
+            case 0x89: // NOP IMMEDIATE
+                break;
+            case 0x8A: // TXA IMPLICIT
+                txa(cpu);
+                break;
+            case 0x8B: // NOP IMPLICIT
+                break;
+            case 0x8C: // STY ABSOLUTE
+                cpu.writeMemory(absolute(lo, hi), cpu.getRegisterY());
+                break;
+            case 0x8D: // STA ABSOLUTE
+                cpu.writeMemory(absolute(lo, hi), cpu.getRegisterA());
+                break;
+            case 0x8E: // STX ABSOLUTE
+                cpu.writeMemory(absolute(lo, hi), cpu.getRegisterX());
+                break;
+            case 0x8F: // NOP IMPLICIT
+                break;
+            case 0x90: // BCC RELATIVE
+                bcc(cpu, lo);
+                break;
+            case 0x91: // STA INDIRECT_INDEXED
+                cpu.writeMemory(indirectIndexed(cpu, lo), cpu.getRegisterA());
+                break;
+            case 0x92: // STP IMPLICIT
+                stp(cpu);
+                break;
+            case 0x93: // NOP IMPLICIT
+                break;
+            case 0x94: // STY ZERO_PAGE_INDEXED_X
+                cpu.writeMemory(zeroPageIndexedX(cpu, lo), cpu.getRegisterY());
+                break;
+            case 0x95: // STA ZERO_PAGE_INDEXED_X
+                cpu.writeMemory(zeroPageIndexedX(cpu, lo), cpu.getRegisterA());
+                break;
+            case 0x96: // STX ZERO_PAGE_INDEXED_Y
+                cpu.writeMemory(zeroPageIndexedY(cpu, lo), cpu.getRegisterX());
+                break;
+            case 0x97: // NOP IMPLICIT
+                break;
+            case 0x98: // TYA IMPLICIT
+                tya(cpu);
+                break;
+            case 0x99: // STA ABSOLUTE_INDEXED_Y
+                cpu.writeMemory(absoluteIndexedY(cpu, lo, hi), cpu.getRegisterA());
+                break;
+            case 0x9A: // TXS IMPLICIT
+                txs(cpu);
+                break;
+            case 0x9B: // NOP IMPLICIT
+                break;
+            case 0x9C: // SHY ABSOLUTE_INDEXED_X
+                absoluteIndexedX(cpu, lo, hi);
+                break;
+            case 0x9D: // STA ABSOLUTE_INDEXED_X
+                cpu.writeMemory(absoluteIndexedX(cpu, lo, hi), cpu.getRegisterA());
+                break;
+            case 0x9E: // SHX ABSOLUTE_INDEXED_Y
+                absoluteIndexedY(cpu, lo, hi);
+                break;
+            case 0x9F: // NOP IMPLICIT
+                break;
+            case 0xA0: // LDY IMMEDIATE
+                ldy(cpu, lo);
+                break;
+            case 0xA1: // LDA INDEXED_INDIRECT
+                lda(cpu, cpu.readMemory(indexedIndirect(cpu, lo)));
+                break;
+            case 0xA2: // LDX IMMEDIATE
+                ldx(cpu, lo);
+                break;
+            case 0xA3: // NOP IMPLICIT
+                break;
+            case 0xA4: // LDY ZERO_PAGE
+                ldy(cpu, cpu.readMemory(lo));
+                break;
+            case 0xA5: // LDA ZERO_PAGE
+                lda(cpu, cpu.readMemory(lo));
+                break;
+            case 0xA6: // LDX ZERO_PAGE
+                ldx(cpu, cpu.readMemory(lo));
+                break;
+            case 0xA7: // NOP IMPLICIT
+                break;
+            case 0xA8: // TAY IMPLICIT
+                tay(cpu);
+                break;
+            case 0xA9: // LDA IMMEDIATE
+                lda(cpu, lo);
+                break;
+            case 0xAA: // TAX IMPLICIT
+                tax(cpu);
+                break;
+            case 0xAB: // NOP IMPLICIT
+                break;
+            case 0xAC: // LDY ABSOLUTE
+                ldy(cpu, cpu.readMemory(absolute(lo, hi)));
+                break;
+            case 0xAD: // LDA ABSOLUTE
+                lda(cpu, cpu.readMemory(absolute(lo, hi)));
+                break;
+            case 0xAE: // LDX ABSOLUTE
+                ldx(cpu, cpu.readMemory(absolute(lo, hi)));
+                break;
+            case 0xAF: // NOP IMPLICIT
+                break;
+            case 0xB0: // BCS RELATIVE
+                bcs(cpu, lo);
+                break;
+            case 0xB1: // LDA INDIRECT_INDEXED
+                lda(cpu, cpu.readMemory(indirectIndexed(cpu, lo)));
+                break;
+            case 0xB2: // STP IMPLICIT
+                stp(cpu);
+                break;
+            case 0xB3: // NOP IMPLICIT
+                break;
+            case 0xB4: // LDY ZERO_PAGE_INDEXED_X
+                ldy(cpu, cpu.readMemory(zeroPageIndexedX(cpu, lo)));
+                break;
+            case 0xB5: // LDA ZERO_PAGE_INDEXED_X
+                lda(cpu, cpu.readMemory(zeroPageIndexedX(cpu, lo)));
+                break;
+            case 0xB6: // LDX ZERO_PAGE_INDEXED_Y
+                ldx(cpu, cpu.readMemory(zeroPageIndexedY(cpu, lo)));
+                break;
+            case 0xB7: // NOP IMPLICIT
+                break;
+            case 0xB8: // CLV IMPLICIT
+                clv(cpu);
+                break;
+            case 0xB9: // LDA ABSOLUTE_INDEXED_Y
+                lda(cpu, cpu.readMemory(absoluteIndexedY(cpu, lo, hi)));
+                break;
+            case 0xBA: // TSX IMPLICIT
+                tsx(cpu);
+                break;
+            case 0xBB: // NOP IMPLICIT
+                break;
+            case 0xBC: // LDY ABSOLUTE_INDEXED_X
+                ldy(cpu, cpu.readMemory(absoluteIndexedX(cpu, lo, hi)));
+                break;
+            case 0xBD: // LDA ABSOLUTE_INDEXED_X
+                lda(cpu, cpu.readMemory(absoluteIndexedX(cpu, lo, hi)));
+                break;
+            case 0xBE: // LDX ABSOLUTE_INDEXED_Y
+                ldx(cpu, cpu.readMemory(absoluteIndexedY(cpu, lo, hi)));
+                break;
+            case 0xBF: // NOP IMPLICIT
+                break;
+            case 0xC0: // CPY IMMEDIATE
+                cpy(cpu, lo);
+                break;
+            case 0xC1: // CMP INDEXED_INDIRECT
+                cmp(cpu, cpu.readMemory(indexedIndirect(cpu, lo)));
+                break;
+            case 0xC2: // NOP IMMEDIATE
+                break;
+            case 0xC3: // NOP IMPLICIT
+                break;
+            case 0xC4: // CPY ZERO_PAGE
+                cpy(cpu, cpu.readMemory(lo));
+                break;
+            case 0xC5: // CMP ZERO_PAGE
+                cmp(cpu, cpu.readMemory(lo));
+                break;
+            case 0xC6: // DEC ZERO_PAGE
+                address = lo;
+                cpu.writeMemory(address, dec(cpu, cpu.readMemory(address)));
+                break;
+            case 0xC7: // NOP IMPLICIT
+                break;
+            case 0xC8: // INY IMPLICIT
+                iny(cpu);
+                break;
+            case 0xC9: // CMP IMMEDIATE
+                cmp(cpu, lo);
+                break;
+            case 0xCA: // DEX IMPLICIT
+                dex(cpu);
+                break;
+            case 0xCB: // NOP IMPLICIT
+                break;
+            case 0xCC: // CPY ABSOLUTE
+                cpy(cpu, cpu.readMemory(absolute(lo, hi)));
+                break;
+            case 0xCD: // CMP ABSOLUTE
+                cmp(cpu, cpu.readMemory(absolute(lo, hi)));
+                break;
+            case 0xCE: // DEC ABSOLUTE
+                address = absolute(lo, hi);
+                cpu.writeMemory(address, dec(cpu, cpu.readMemory(address)));
+                break;
+            case 0xCF: // NOP IMPLICIT
+                break;
+            case 0xD0: // BNE RELATIVE
+                bne(cpu, lo);
+                break;
+            case 0xD1: // CMP INDIRECT_INDEXED
+                cmp(cpu, cpu.readMemory(indirectIndexed(cpu, lo)));
+                break;
+            case 0xD2: // STP IMPLICIT
+                stp(cpu);
+                break;
+            case 0xD3: // NOP IMPLICIT
+                break;
+            case 0xD4: // NOP ZERO_PAGE_INDEXED_X
+                break;
+            case 0xD5: // CMP ZERO_PAGE_INDEXED_X
+                cmp(cpu, cpu.readMemory(zeroPageIndexedX(cpu, lo)));
+                break;
+            case 0xD6: // DEC ZERO_PAGE_INDEXED_X
+                address = zeroPageIndexedX(cpu, lo);
+                cpu.writeMemory(address, dec(cpu, cpu.readMemory(address)));
+                break;
+            case 0xD7: // NOP IMPLICIT
+                break;
+            case 0xD8: // CLD IMPLICIT
+                cld(cpu);
+                break;
+            case 0xD9: // CMP ABSOLUTE_INDEXED_Y
+                cmp(cpu, cpu.readMemory(absoluteIndexedY(cpu, lo, hi)));
+                break;
+            case 0xDA: // NOP IMPLICIT
+                break;
+            case 0xDB: // NOP IMPLICIT
+                break;
+            case 0xDC: // NOP ABSOLUTE_INDEXED_X
+                absoluteIndexedX(cpu, lo, hi);
+                break;
+            case 0xDD: // CMP ABSOLUTE_INDEXED_X
+                cmp(cpu, cpu.readMemory(absoluteIndexedX(cpu, lo, hi)));
+                break;
+            case 0xDE: // DEC ABSOLUTE_INDEXED_X
+                address = absoluteIndexedX(cpu, lo, hi);
+                cpu.writeMemory(address, dec(cpu, cpu.readMemory(address)));
+                break;
+            case 0xDF: // NOP IMPLICIT
+                break;
+            case 0xE0: // CPX IMMEDIATE
+                cpx(cpu, lo);
+                break;
+            case 0xE1: // SBC INDEXED_INDIRECT
+                sbc(cpu, cpu.readMemory(indexedIndirect(cpu, lo)));
+                break;
+            case 0xE2: // NOP IMMEDIATE
+                break;
+            case 0xE3: // NOP IMPLICIT
+                break;
+            case 0xE4: // CPX ZERO_PAGE
+                cpx(cpu, cpu.readMemory(lo));
+                break;
+            case 0xE5: // SBC ZERO_PAGE
+                sbc(cpu, cpu.readMemory(lo));
+                break;
+            case 0xE6: // INC ZERO_PAGE
+                address = lo;
+                cpu.writeMemory(address, inc(cpu, cpu.readMemory(address)));
+                break;
+            case 0xE7: // NOP IMPLICIT
+                break;
+            case 0xE8: // INX IMPLICIT
+                inx(cpu);
+                break;
+            case 0xE9: // SBC IMMEDIATE
+                sbc(cpu, lo);
+                break;
+            case 0xEA: // NOP IMPLICIT
+                break;
+            case 0xEB: // NOP IMPLICIT
+                break;
+            case 0xEC: // CPX ABSOLUTE
+                cpx(cpu, cpu.readMemory(absolute(lo, hi)));
+                break;
+            case 0xED: // SBC ABSOLUTE
+                sbc(cpu, cpu.readMemory(absolute(lo, hi)));
+                break;
+            case 0xEE: // INC ABSOLUTE
+                address = absolute(lo, hi);
+                cpu.writeMemory(address, inc(cpu, cpu.readMemory(address)));
+                break;
+            case 0xEF: // NOP IMPLICIT
+                break;
+            case 0xF0: // BEQ RELATIVE
+                beq(cpu, lo);
+                break;
+            case 0xF1: // SBC INDIRECT_INDEXED
+                sbc(cpu, cpu.readMemory(indirectIndexed(cpu, lo)));
+                break;
+            case 0xF2: // STP IMPLICIT
+                stp(cpu);
+                break;
+            case 0xF3: // NOP IMPLICIT
+                break;
+            case 0xF4: // NOP ZERO_PAGE_INDEXED_X
+                break;
+            case 0xF5: // SBC ZERO_PAGE_INDEXED_X
+                sbc(cpu, cpu.readMemory(zeroPageIndexedX(cpu, lo)));
+                break;
+            case 0xF6: // INC ZERO_PAGE_INDEXED_X
+                address = zeroPageIndexedX(cpu, lo);
+                cpu.writeMemory(address, inc(cpu, cpu.readMemory(address)));
+                break;
+            case 0xF7: // NOP IMPLICIT
+                break;
+            case 0xF8: // SED IMPLICIT
+                sed(cpu);
+                break;
+            case 0xF9: // SBC ABSOLUTE_INDEXED_Y
+                sbc(cpu, cpu.readMemory(absoluteIndexedY(cpu, lo, hi)));
+                break;
+            case 0xFA: // NOP IMPLICIT
+                break;
+            case 0xFB: // NOP IMPLICIT
+                break;
+            case 0xFC: // NOP ABSOLUTE_INDEXED_X
+                absoluteIndexedX(cpu, lo, hi);
+                break;
+            case 0xFD: // SBC ABSOLUTE_INDEXED_X
+                sbc(cpu, cpu.readMemory(absoluteIndexedX(cpu, lo, hi)));
+                break;
+            case 0xFE: // INC ABSOLUTE_INDEXED_X
+                address = absoluteIndexedX(cpu, lo, hi);
+                cpu.writeMemory(address, inc(cpu, cpu.readMemory(address)));
+                break;
+            case 0xFF: // NOP IMPLICIT
+                break;
+            default:
+                break;
+        }
+    }
+
+    // ########## ADDRESSING MODES ##########
+
+    // EFFECTS: returns the little endian address represented by lo and hi.
+    static int absolute(int lo, int hi) {
+        return lo + hi * 256;
+    }
+
+    // EFFECTS: returns lo + registerX on the zero page.
+    static int zeroPageIndexedX(CPU cpu, int lo) {
+        return (lo + cpu.getRegisterX()) & 0xFF;
+    }
+
+    // EFFECTS: returns lo + registerY on the zero page.
+    static int zeroPageIndexedY(CPU cpu, int lo) {
+        return (lo + cpu.getRegisterY()) & 0xFF;
+    }
+
+    // MODIFIES: cpu.cyclesRemaining
+    // EFFECTS:  returns the absolute address plus registerX. Costs an extra cycle if registerX is not zero.
+    static int absoluteIndexedX(CPU cpu, int lo, int hi) {
+        int registerX = cpu.getRegisterX();
+        if (registerX != 0) {
+            cpu.incrementCyclesRemaining(1);
+        }
+
+        return (lo + hi * 256 + registerX) & 0xFFFF;
+    }
+
+    // MODIFIES: cpu.cyclesRemaining
+    // EFFECTS:  returns the absolute address plus registerY. Costs an extra cycle if registerY is not zero.
+    static int absoluteIndexedY(CPU cpu, int lo, int hi) {
+        int registerY = cpu.getRegisterY();
+        if (registerY != 0) {
+            cpu.incrementCyclesRemaining(1);
+        }
+
+        return (lo + hi * 256 + registerY) & 0xFFFF;
+    }
+
+    // EFFECTS: returns the 2-byte address stored on the zero page at (lo + registerX).
+    static int indexedIndirect(CPU cpu, int lo) {
+        int pointerOne = (lo + cpu.getRegisterX()) & 0xFF;
+        int pointerTwo = (pointerOne + 1) & 0xFF;
+        return cpu.readMemory(pointerOne) + cpu.readMemory(pointerTwo) * 256;
+    }
+
+    // MODIFIES: cpu.cyclesRemaining
+    // EFFECTS:  returns the 2-byte address stored on the zero page at lo, plus registerY. Costs an extra cycle if
+    //           registerY is not zero.
+    static int indirectIndexed(CPU cpu, int lo) {
+        int pointerOne = cpu.readMemory(lo);
+        int pointerTwo = cpu.readMemory((lo + 1) & 0xFF);
+        int registerY  = cpu.getRegisterY();
+        if (registerY != 0) {
+            cpu.incrementCyclesRemaining(1);
+        }
+
+        return (pointerOne + pointerTwo * 256 + registerY) & 0xFFFF;
+    }
+
+    // EFFECTS: returns the 2-byte address stored at the absolute address, reproducing the 6502 page wrap bug:
+    //          http://www.obelisk.me.uk/6502/reference.html#JMP
+    static int indirect(CPU cpu, int lo, int hi) {
+        int pointerOne = lo + hi * 256;
+        int pointerTwo = (lo == 0xFF) ? pointerOne + 1 - 0x100 : pointerOne + 1;
+        return cpu.readMemory(pointerOne) + cpu.readMemory(pointerTwo) * 256;
+    }
+
+    // EFFECTS: returns lo (interpreted as a signed byte) added to registerPC.
+    static int relative(CPU cpu, int lo) {
+        int signedArgument  = lo < 128 ? lo : lo - 256;
+        int possiblePointer = signedArgument + cpu.getRegisterPC();
+
+        while (possiblePointer > 65536) {
+            possiblePointer -= 65536 + 1;
+        }
+
+        while (possiblePointer < 0) {
+            possiblePointer += 65536 + 1;
+        }
+
+        return possiblePointer;
+    }
+
+    // ########## OPERATIONS ##########
+
+    // MODIFIES: cpu.registerA, cpu.flagV, cpu.flagZ, cpu.flagC, cpu.flagN
+    // EFFECTS:  adds value and the carry to registerA.
+    static void adc(CPU cpu, int value) {
+        int oldRegisterA = cpu.getRegisterA();
+        int newValueRaw  = oldRegisterA + value + cpu.flagC;
+        int registerA    = newValueRaw & 0xFF;
+        cpu.setRegisterA(registerA);
+
+        int oldRegisterASign = (oldRegisterA >> 7) & 1;
+        int registerASign    = (registerA >> 7) & 1;
+        int argumentSign     = (value >> 7) & 1;
+        cpu.flagV = (oldRegisterASign == argumentSign && oldRegisterASign != registerASign) ? 1 : 0;
+        cpu.flagC = (newValueRaw > registerA) ? 1 : 0;
+        setZeroAndNegative(cpu, registerA);
+    }
+
+    // MODIFIES: cpu.registerA, cpu.flagV, cpu.flagZ, cpu.flagC, cpu.flagN
+    // EFFECTS:  subtracts value and the borrow from registerA.
+    static void sbc(CPU cpu, int value) {
+        int oldRegisterA = cpu.getRegisterA();
+        int newValueRaw  = oldRegisterA - value - (1 - cpu.flagC);
+        int registerA    = newValueRaw & 0xFF;
+        cpu.setRegisterA(registerA);
+
+        int oldRegisterASign = (oldRegisterA >> 7) & 1;
+        int registerASign    = (registerA >> 7) & 1;
+        int argumentSign     = (-(value + 1) >> 7) & 1;
+        cpu.flagV = (oldRegisterASign == argumentSign && oldRegisterASign != registerASign) ? 1 : 0;
+        cpu.flagC = (newValueRaw >= 0) ? 1 : 0;
+        setZeroAndNegative(cpu, registerA);
+    }
+
+    // MODIFIES: cpu.registerA, cpu.flagZ, cpu.flagN
+    // EFFECTS:  sets registerA to registerA AND value.
+    static void and(CPU cpu, int value) {
+        int registerA = cpu.getRegisterA() & value;
+        cpu.setRegisterA(registerA);
+        setZeroAndNegative(cpu, registerA);
+    }
+
+    // MODIFIES: cpu.registerA, cpu.flagZ, cpu.flagN
+    // EFFECTS:  sets registerA to registerA XOR value.
+    static void eor(CPU cpu, int value) {
+        int registerA = cpu.getRegisterA() ^ value;
+        cpu.setRegisterA(registerA);
+        setZeroAndNegative(cpu, registerA);
+    }
+
+    // MODIFIES: cpu.registerA, cpu.flagZ, cpu.flagN
+    // EFFECTS:  sets registerA to registerA OR value.
+    static void ora(CPU cpu, int value) {
+        int registerA = cpu.getRegisterA() | value;
+        cpu.setRegisterA(registerA);
+        setZeroAndNegative(cpu, registerA);
+    }
+
+    // MODIFIES: cpu.flagZ, cpu.flagV, cpu.flagN
+    // EFFECTS:  tests value against registerA.
+    static void bit(CPU cpu, int value) {
+        cpu.zResult = cpu.getRegisterA() & value & 0xFF;
+        cpu.flagV = (value >> 6) & 1;
+        cpu.nResult = value & 0xFF;
+    }
+
+    // MODIFIES: cpu.flagC, cpu.flagZ, cpu.flagN
+    // EFFECTS:  compares registerA with value.
+    static void cmp(CPU cpu, int value) {
+        compare(cpu, cpu.getRegisterA(), value);
+    }
+
+    // MODIFIES: cpu.flagC, cpu.flagZ, cpu.flagN
+    // EFFECTS:  compares registerX with value.
+    static void cpx(CPU cpu, int value) {
+        compare(cpu, cpu.getRegisterX(), value);
+    }
+
+    // MODIFIES: cpu.flagC, cpu.flagZ, cpu.flagN
+    // EFFECTS:  compares registerY with value.
+    static void cpy(CPU cpu, int value) {
+        compare(cpu, cpu.getRegisterY(), value);
+    }
+
+    // MODIFIES: cpu.flagC, cpu.flagZ, cpu.flagN
+    // EFFECTS:  sets the flags according to register - value.
+    static void compare(CPU cpu, int register, int value) {
+        int result = register - value;
+        cpu.flagC = (result >= 0) ? 1 : 0;
+        setZeroAndNegative(cpu, result);
+    }
+
+    // MODIFIES: cpu.registerA, cpu.flagZ, cpu.flagN
+    // EFFECTS:  loads value into registerA.
+    static void lda(CPU cpu, int value) {
+        cpu.setRegisterA(value);
+        setZeroAndNegative(cpu, value);
+    }
+
+    // MODIFIES: cpu.registerX, cpu.flagZ, cpu.flagN
+    // EFFECTS:  loads value into registerX.
+    static void ldx(CPU cpu, int value) {
+        cpu.setRegisterX(value);
+        setZeroAndNegative(cpu, value);
+    }
+
+    // MODIFIES: cpu.registerY, cpu.flagZ, cpu.flagN
+    // EFFECTS:  loads value into registerY.
+    static void ldy(CPU cpu, int value) {
+        cpu.setRegisterY(value);
+        setZeroAndNegative(cpu, value);
+    }
+
+    // MODIFIES: cpu.flagC, cpu.flagZ, cpu.flagN
+    // EFFECTS:  returns value shifted left by one.
+    static int asl(CPU cpu, int value) {
+        int newValue = (value << 1) & 0xFF;
+        cpu.flagC = (value >> 7) & 1;
+        setZeroAndNegative(cpu, newValue);
+        return newValue;
+    }
+
+    // MODIFIES: cpu.flagC, cpu.flagZ, cpu.flagN
+    // EFFECTS:  returns value shifted right by one.
+    static int lsr(CPU cpu, int value) {
+        int newValue = value >> 1;
+        cpu.flagC = value & 1;
+        setZeroAndNegative(cpu, newValue);
+        return newValue;
+    }
+
+    // MODIFIES: cpu.flagC, cpu.flagZ, cpu.flagN
+    // EFFECTS:  returns value rotated left through the carry. Like Opcode's ROL, flagZ is taken from the unmasked
+    //           9-bit result.
+    static int rol(CPU cpu, int value) {
+        int newValue = value << 1 | cpu.flagC;
+        cpu.flagC = (value >> 7) & 1;
+        cpu.zResult = (newValue | newValue >> 8) & 0xFF;
+        cpu.nResult = newValue & 0xFF;
+        return newValue & 0xFF;
+    }
+
+    // MODIFIES: cpu.flagC, cpu.flagZ, cpu.flagN
+    // EFFECTS:  returns value rotated right through the carry.
+    static int ror(CPU cpu, int value) {
+        int newValue = value >> 1 | cpu.flagC << 7;
+        cpu.flagC = value & 1;
+        setZeroAndNegative(cpu, newValue);
+        return newValue;
+    }
+
+    // MODIFIES: cpu.flagZ, cpu.flagN
+    // EFFECTS:  returns value + 1, wrapped around to a byte.
+    static int inc(CPU cpu, int value) {
+        int newValue = (value + 1) & 0xFF;
+        setZeroAndNegative(cpu, newValue);
+        return newValue;
+    }
+
+    // MODIFIES: cpu.flagZ, cpu.flagN
+    // EFFECTS:  returns value - 1, wrapped around to a byte.
+    static int dec(CPU cpu, int value) {
+        int newValue = (value - 1) & 0xFF;
+        setZeroAndNegative(cpu, newValue);
+        return newValue;
+    }
+
+    // MODIFIES: cpu.registerPC, cpu.cyclesRemaining
+    // EFFECTS:  branches to the relative address given by lo if flagC is 0.
+    static void bcc(CPU cpu, int lo) {
+        branch(cpu, cpu.flagC == 0, lo);
+    }
+
+    // MODIFIES: cpu.registerPC, cpu.cyclesRemaining
+    // EFFECTS:  branches to the relative address given by lo if flagC is 1.
+    static void bcs(CPU cpu, int lo) {
+        branch(cpu, cpu.flagC == 1, lo);
+    }
+
+    // MODIFIES: cpu.registerPC, cpu.cyclesRemaining
+    // EFFECTS:  branches to the relative address given by lo if flagZ is 1.
+    static void beq(CPU cpu, int lo) {
+        branch(cpu, cpu.zResult == 0, lo);
+    }
+
+    // MODIFIES: cpu.registerPC, cpu.cyclesRemaining
+    // EFFECTS:  branches to the relative address given by lo if flagN is 1.
+    static void bmi(CPU cpu, int lo) {
+        branch(cpu, (cpu.nResult & 0x80) != 0, lo);
+    }
+
+    // MODIFIES: cpu.registerPC, cpu.cyclesRemaining
+    // EFFECTS:  branches to the relative address given by lo if flagZ is 0.
+    static void bne(CPU cpu, int lo) {
+        branch(cpu, cpu.zResult != 0, lo);
+    }
+
+    // MODIFIES: cpu.registerPC, cpu.cyclesRemaining
+    // EFFECTS:  branches to the relative address given by lo if flagN is 0.
+    static void bpl(CPU cpu, int lo) {
+        branch(cpu, (cpu.nResult & 0x80) == 0, lo);
+    }
+
+    // MODIFIES: cpu.registerPC, cpu.cyclesRemaining
+    // EFFECTS:  branches to the relative address given by lo if flagV is 0.
+    static void bvc(CPU cpu, int lo) {
+        branch(cpu, cpu.flagV == 0, lo);
+    }
+
+    // MODIFIES: cpu.registerPC, cpu.cyclesRemaining
+    // EFFECTS:  branches to the relative address given by lo if flagV is 1.
+    static void bvs(CPU cpu, int lo) {
+        branch(cpu, cpu.flagV == 1, lo);
+    }
+
+    // MODIFIES: cpu.registerPC, cpu.cyclesRemaining
+    // EFFECTS:  branches to the relative address given by lo if condition is true. Taking the branch costs a cycle.
+    static void branch(CPU cpu, boolean condition, int lo) {
+        if (condition) {
+            cpu.incrementCyclesRemaining(1);
+            cpu.setRegisterPC(relative(cpu, lo));
+        }
+    }
+
+    // MODIFIES: cpu.registerPC, cpu.stack
+    // EFFECTS:  pushes registerPC - 1 and jumps to address.
+    static void jsr(CPU cpu, int address) {
+        int returnAddress = cpu.getRegisterPC() - 1;
+        cpu.pushStack((returnAddress & 0xFF00) >> 8);
+        cpu.pushStack(returnAddress & 0x00FF);
+        cpu.setRegisterPC(address);
+    }
+
+    // MODIFIES: cpu.stack, cpu.registerPC, cpu.flagB
+    // EFFECTS:  same as Opcode's BRK, byte order included.
+    static void brk(CPU cpu) {
+        int returnAddress = cpu.getRegisterPC() + 3;
+        cpu.pushStack(returnAddress & 0x00FF);
+        cpu.pushStack((returnAddress & 0xFF00) >> 8);
+        cpu.pushStack(cpu.getStatus());
+
+        cpu.setRegisterPC(cpu.readMemory(0xFFFE) * 256 + cpu.readMemory(0xFFFF));
+        cpu.setFlagB(1);
+    }
+
+    // MODIFIES: cpu.stack, all 7 cpu flags, cpu.registerPC
+    // EFFECTS:  pulls the status and then registerPC from the stack.
+    static void rti(CPU cpu) {
+        cpu.setStatus(cpu.pullStack());
+        int byteTwo = cpu.pullStack();
+        int byteOne = cpu.pullStack();
+        cpu.setRegisterPC(byteOne * 256 + byteTwo);
+    }
+
+    // MODIFIES: cpu.stack, cpu.registerPC
+    // EFFECTS:  pulls registerPC from the stack and adds one.
+    static void rts(CPU cpu) {
+        int byteTwo = cpu.pullStack();
+        int byteOne = cpu.pullStack();
+        cpu.setRegisterPC(byteOne * 256 + byteTwo + 1);
+    }
+
+    // MODIFIES: cpu.stack
+    // EFFECTS:  pushes registerA onto the stack.
+    static void pha(CPU cpu) {
+        cpu.pushStack(cpu.getRegisterA());
+    }
+
+    // MODIFIES: cpu.stack
+    // EFFECTS:  pushes the status onto the stack.
+    static void php(CPU cpu) {
+        cpu.pushStack(cpu.getStatus());
+    }
+
+    // MODIFIES: cpu.stack, cpu.registerA, cpu.flagZ, cpu.flagN
+    // EFFECTS:  pulls registerA from the stack.
+    static void pla(CPU cpu) {
+        int registerA = cpu.pullStack();
+        cpu.setRegisterA(registerA);
+        setZeroAndNegative(cpu, registerA);
+    }
+
+    // MODIFIES: cpu.stack, all 7 cpu flags
+    // EFFECTS:  pulls the status from the stack.
+    static void plp(CPU cpu) {
+        cpu.setStatus(cpu.pullStack());
+    }
+
+    // MODIFIES: cpu.registerX, cpu.flagZ, cpu.flagN
+    // EFFECTS:  decrements registerX.
+    static void dex(CPU cpu) {
+        int registerX = (cpu.getRegisterX() - 1) & 0xFF;
+        cpu.setRegisterX(registerX);
+        setZeroAndNegative(cpu, registerX);
+    }
+
+    // MODIFIES: cpu.registerY, cpu.flagZ, cpu.flagN
+    // EFFECTS:  decrements registerY.
+    static void dey(CPU cpu) {
+        int registerY = (cpu.getRegisterY() - 1) & 0xFF;
+        cpu.setRegisterY(registerY);
+        setZeroAndNegative(cpu, registerY);
+    }
+
+    // MODIFIES: cpu.registerX, cpu.flagZ, cpu.flagN
+    // EFFECTS:  increments registerX.
+    static void inx(CPU cpu) {
+        int registerX = (cpu.getRegisterX() + 1) & 0xFF;
+        cpu.setRegisterX(registerX);
+        setZeroAndNegative(cpu, registerX);
+    }
+
+    // MODIFIES: cpu.registerY, cpu.flagZ, cpu.flagN
+    // EFFECTS:  increments registerY.
+    static void iny(CPU cpu) {
+        int registerY = (cpu.getRegisterY() + 1) & 0xFF;
+        cpu.setRegisterY(registerY);
+        setZeroAndNegative(cpu, registerY);
+    }
+
+    // MODIFIES: cpu.registerX, cpu.flagZ, cpu.flagN
+    // EFFECTS:  transfers registerA to registerX.
+    static void tax(CPU cpu) {
+        int registerX = cpu.getRegisterA();
+        cpu.setRegisterX(registerX);
+        setZeroAndNegative(cpu, registerX);
+    }
+
+    // MODIFIES: cpu.registerY, cpu.flagZ, cpu.flagN
+    // EFFECTS:  transfers registerA to registerY.
+    static void tay(CPU cpu) {
+        int registerY = cpu.getRegisterA();
+        cpu.setRegisterY(registerY);
+        setZeroAndNegative(cpu, registerY);
+    }
+
+    // MODIFIES: cpu.registerX, cpu.flagZ, cpu.flagN
+    // EFFECTS:  transfers registerS to registerX.
+    static void tsx(CPU cpu) {
+        int registerX = cpu.getRegisterS();
+        cpu.setRegisterX(registerX);
+        setZeroAndNegative(cpu, registerX);
+    }
+
+    // MODIFIES: cpu.registerA, cpu.flagZ, cpu.flagN
+    // EFFECTS:  transfers registerX to registerA.
+    static void txa(CPU cpu) {
+        int registerA = cpu.getRegisterX();
+        cpu.setRegisterA(registerA);
+        setZeroAndNegative(cpu, registerA);
+    }
+
+    // MODIFIES: cpu.registerS
+    // EFFECTS:  transfers registerX to registerS.
+    static void txs(CPU cpu) {
+        cpu.setRegisterS(cpu.getRegisterX());
+    }
+
+    // MODIFIES: cpu.registerA, cpu.flagZ, cpu.flagN
+    // EFFECTS:  transfers registerY to registerA.
+    static void tya(CPU cpu) {
+        int registerA = cpu.getRegisterY();
+        cpu.setRegisterA(registerA);
+        setZeroAndNegative(cpu, registerA);
+    }
+
+    // MODIFIES: cpu.flagC
+    // EFFECTS:  clears the carry flag.
+    static void clc(CPU cpu) {
+        cpu.flagC = 0;
+    }
+
+    // MODIFIES: cpu.flagD
+    // EFFECTS:  clears the decimal flag.
+    static void cld(CPU cpu) {
+        cpu.flagD = 0;
+    }
+
+    // MODIFIES: cpu.flagI
+    // EFFECTS:  clears the interrupt disable flag.
+    static void cli(CPU cpu) {
+        cpu.flagI = 0;
+    }
+
+    // MODIFIES: cpu.flagV
+    // EFFECTS:  clears the overflow flag.
+    static void clv(CPU cpu) {
+        cpu.flagV = 0;
+    }
+
+    // MODIFIES: cpu.flagC
+    // EFFECTS:  sets the carry flag.
+    static void sec(CPU cpu) {
+        cpu.flagC = 1;
+    }
+
+    // MODIFIES: cpu.flagD
+    // EFFECTS:  sets the decimal flag.
+    static void sed(CPU cpu) {
+        cpu.flagD = 1;
+    }
+
+    // MODIFIES: cpu.flagI
+    // EFFECTS:  sets the interrupt disable flag.
+    static void sei(CPU cpu) {
+        cpu.flagI = 1;
+    }
+
+    // MODIFIES: cpu.enabled
+    // EFFECTS:  disables the cpu.
+    static void stp(CPU cpu) {
+        cpu.setEnabled(false);
+    }
+
+    // MODIFIES: cpu.flagZ, cpu.flagN
+    // EFFECTS:  sets flagZ if the low byte of value is zero and flagN to bit 7 of value.
+    static void setZeroAndNegative(CPU cpu, int value) {
+        cpu.setZeroAndNegative(value);
+    }
+}
@@ -0,0 +1,189 @@
+package model;
+
+import ppu.PPU;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+// Class MemoryFootprint:
+//     Estimates how much heap one emulator takes up, by walking everything that can be reached from it with
+//     reflection. Sizes are for a 64-bit JVM with compressed references: 12 byte object headers, 16 byte array headers,
+//     4 byte references, and everything rounded up to 8 bytes. Static fields are shared by every instance, so they
+//     aren't counted, and neither are classes or the Swing, AWT and Java Sound objects that the UI hangs off the
+//     emulator. The JDK's own collections can't be looked into with reflection, so they are counted as their elements
+//     plus a reference (and for maps, a 32 byte entry) per element.
+
+public final class MemoryFootprint {
+    private static final int OBJECT_HEADER = 12;
+    private static final int ARRAY_HEADER  = 16;
+    private static final int REFERENCE     = 4;
+    private static final int ALIGNMENT     = 8;
+    private static final int MAP_ENTRY     = 32;
+
+    private static final String[] SKIPPED_PACKAGES = {
+        "java.awt.", "javax.", "sun.", "jdk.", "java.lang.Class", "java.lang.Thread", "java.lang.ClassLoader",
+        "java.lang.reflect.", "java.lang.invoke.", "java.io."
+    };
+
+    private static final int    FRAMES           = 60;
+    private static final int    CYCLES_PER_FRAME = (int) Math.ceil(PPU.CYCLES_PER_FRAME / 6.0);
+    private static final String CARTRIDGE        = "./data/rom/donkeykong.nes";
+
+    // EFFECTS: makes the code coverage autobot not complain about me not instantiating a MemoryFootprint class.
+    private MemoryFootprint() {
+
+    }
+
+    // EFFECTS: returns an estimate of the number of bytes taken up by root and everything reachable from it.
+    public static long estimate(Object root) {
+        IdentityHashMap<Object, Boolean> visited = new IdentityHashMap<>();
+        ArrayDeque<Object> pending = new ArrayDeque<>();
+        long total = 0;
+
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Object object = pending.pop();
+            if (object == null || visited.containsKey(object) || isSkipped(object.getClass())) {
+                continue;
+            }
+
+            visited.put(object, Boolean.TRUE);
+            total += sizeOf(object, pending);
+        }
+
+        return total;
+    }
+
+    // EFFECTS: returns a report of the estimated footprint of bus and each of its components, one per line.
+    public static String getReport(Bus bus) {
+        return String.format("cpu:    %,9d bytes%n", estimate(bus.getCpu()))
+             + String.format("ppu:    %,9d bytes%n", estimate(bus.getPpu()))
+             + String.format("apu:    %,9d bytes%n", estimate(bus.getApu()))
+             + String.format("mapper: %,9d bytes%n", estimate(bus.getMapper()))
+             + String.format("total:  %,9d bytes", estimate(bus));
+    }
+
+    // MODIFIES: pending
+    // EFFECTS:  returns the shallow size of object, and adds every object it refers to to pending.
+    private static long sizeOf(Object object, ArrayDeque<Object> pending) {
+        Class<?> type = object.getClass();
+        if (type.isArray()) {
+            Class<?> component = type.getComponentType();
+            int length = Array.getLength(object);
+            if (!component.isPrimitive()) {
+                for (Object element : (Object[]) object) {
+                    push(pending, element);
+                }
+            }
+            return align(ARRAY_HEADER + (long) length * sizeOfType(component));
+        }
+
+        if (object instanceof Collection && type.getName().startsWith("java.")) {
+            Collection<?> collection = (Collection<?>) object;
+            for (Object element : collection) {
+                push(pending, element);
+            }
+            return shallowSize(type) + align(ARRAY_HEADER + (long) collection.size() * REFERENCE);
+        }
+
+        if (object instanceof Map && type.getName().startsWith("java.")) {
+            Map<?, ?> map = (Map<?, ?>) object;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                push(pending, entry.getKey());
+                push(pending, entry.getValue());
+            }
+            return shallowSize(type) + align(ARRAY_HEADER + (long) map.size() * (REFERENCE + MAP_ENTRY));
+        }
+
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || field.getType().isPrimitive()) {
+                    continue;
+                }
+
+                try {
+                    field.setAccessible(true);
+                    push(pending, field.get(object));
+                } catch (RuntimeException | IllegalAccessException e) {
+                    // Do nothing; the field belongs to a JDK class that can't be opened, so only its slot is counted.
+                }
+            }
+        }
+
+        return shallowSize(type);
+    }
+
+    // MODIFIES: pending
+    // EFFECTS:  adds object to pending if it isn't null.
+    private static void push(ArrayDeque<Object> pending, Object object) {
+        if (object != null) {
+            pending.push(object);
+        }
+    }
+
+    // EFFECTS: returns the size of an instance of type, not counting anything it refers to.
+    private static long shallowSize(Class<?> type) {
+        long size = OBJECT_HEADER;
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    size += sizeOfType(field.getType());
+                }
+            }
+        }
+
+        return align(size);
+    }
+
+    // EFFECTS: returns the number of bytes a field or array element of the given type takes up.
+    private static int sizeOfType(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        } else if (type == int.class || type == float.class) {
+            return 4;
+        } else if (type == short.class || type == char.class) {
+            return 2;
+        } else if (type == byte.class || type == boolean.class) {
+            return 1;
+        }
+
+        return REFERENCE;
+    }
+
+    // EFFECTS: rounds size up to the next multiple of ALIGNMENT.
+    private static long align(long size) {
+        return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    // EFFECTS: returns true if instances of type aren't part of the emulator.
+    private static boolean isSkipped(Class<?> type) {
+        String name = type.getName();
+        for (String skipped : SKIPPED_PACKAGES) {
+            if (name.startsWith(skipped)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    // EFFECTS: runs the cartridge given (or donkeykong) for FRAMES frames, so that the block cache is warm, and prints
+    //          the footprint report.
+    public static void main(String[] args) throws IOException {
+        Bus bus = new Bus();
+        bus.loadCartridge(new File(args.length > 0 ? args[0] : CARTRIDGE));
+        bus.getPpu().setPixels(new ui.Pixels(1, 1, 256, 240));
+        for (int frame = 0; frame < FRAMES; frame++) {
+            bus.runCycles(CYCLES_PER_FRAME);
+        }
+
+        System.out.println(getReport(bus));
+    }
+}
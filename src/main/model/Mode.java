@@ -18,27 +18,72 @@ public class Mode {
     // REQUIRES: arguments is a valid argument for the specified ModeAction.
     // details given for what a "valid argument" is under each ModeAction definition.
     // EFFECTS: Runs the given Addressing Mode with the given argument, and returns the proper value from the cpu.
+    //          Dispatches through a switch rather than the modes array so that every call site only ever sees one
+    //          ModeAction, which keeps the calls monomorphic and lets the JIT inline them.
     public static void runMode(int mode, int[] arguments, int argumentsSize, CPU cpu) {
-        modes[mode].run(arguments, argumentsSize, cpu);
+        switch (mode) {
+            case IMPLICIT:
+                getImplicit.run(arguments, argumentsSize, cpu);
+                break;
+            case ACCUMULATOR:
+                getAccumulator.run(arguments, argumentsSize, cpu);
+                break;
+            case IMMEDIATE:
+                getImmediate.run(arguments, argumentsSize, cpu);
+                break;
+            case ZERO_PAGE:
+                getZeroPage.run(arguments, argumentsSize, cpu);
+                break;
+            case ABSOLUTE:
+                getAbsolute.run(arguments, argumentsSize, cpu);
+                break;
+            case RELATIVE:
+                getRelative.run(arguments, argumentsSize, cpu);
+                break;
+            case INDIRECT:
+                getIndirect.run(arguments, argumentsSize, cpu);
+                break;
+            case ZERO_PAGE_INDEXED_X:
+                getZeroPageIndexedX.run(arguments, argumentsSize, cpu);
+                break;
+            case ZERO_PAGE_INDEXED_Y:
+                getZeroPageIndexedY.run(arguments, argumentsSize, cpu);
+                break;
+            case ABSOLUTE_INDEXED_X:
+                getAbsoluteIndexedX.run(arguments, argumentsSize, cpu);
+                break;
+            case ABSOLUTE_INDEXED_Y:
+                getAbsoluteIndexedY.run(arguments, argumentsSize, cpu);
+                break;
+            case INDEXED_INDIRECT:
+                getIndexedIndirect.run(arguments, argumentsSize, cpu);
+                break;
+            case INDIRECT_INDEXED:
+                getIndirectIndexed.run(arguments, argumentsSize, cpu);
+                break;
+            default:
+                modes[mode].run(arguments, argumentsSize, cpu);
+                break;
+        }
     }
 
     // REQUIRES: arguments has a length of 0.
     // EFFECTS: An instruction with an implicit addressing mode won't use its argument anyway,
     //          so it doesn't matter what's returned here. Nevertheless, returns 0.
-    public static ModeAction getImplicit = (int[] arguments, int argumentsSize, CPU cpu) -> {
+    public static final ModeAction getImplicit = (int[] arguments, int argumentsSize, CPU cpu) -> {
         cpu.setCurrentInstructionPointer(-1);
         cpu.setCurrentInstructionValue(0);
     };
 
     // REQUIRES: arguments has a length of 0.
     // EFFECTS: returns the value of the accumulator.
-    public static ModeAction getAccumulator = (int[] arguments, int argumentsSize, CPU cpu) -> {
+    public static final ModeAction getAccumulator = (int[] arguments, int argumentsSize, CPU cpu) -> {
         cpu.setCurrentInstructionPointer(cpu.REGISTER_A_ADDRESS);
     };
 
     // REQUIRES: arguments has a length of 0 or 1.
     // EFFECTS: returns the first argument in the list of arguments.
-    public static ModeAction getImmediate = (int[] arguments, int argumentsSize, CPU cpu) -> {
+    public static final ModeAction getImmediate = (int[] arguments, int argumentsSize, CPU cpu) -> {
         if (argumentsSize == 0) {
             cpu.setCurrentInstructionPointer(-1);
             cpu.setCurrentInstructionValue(0);
@@ -51,20 +96,20 @@ public class Mode {
     // REQUIRES: arguments has a length of 1.
     // EFFECTS: returns the value in memory at arguments[0]. Since arguments has a length of 1, this is by default
     // the zero-page and no extra correction is needed.
-    public static ModeAction getZeroPage = (int[] arguments, int argumentsSize, CPU cpu) -> {
+    public static final ModeAction getZeroPage = (int[] arguments, int argumentsSize, CPU cpu) -> {
         cpu.setCurrentInstructionPointer(arguments[0]);
     };
 
     // REQUIRES: arguments has a length of 2.
     // EFFECTS: returns the little endian number represented by the two arguments given.
-    public static ModeAction getAbsolute = (int[] arguments, int argumentsSize, CPU cpu) -> {
+    public static final ModeAction getAbsolute = (int[] arguments, int argumentsSize, CPU cpu) -> {
         int pointer = arguments[0] + arguments[1] * 256;
         cpu.setCurrentInstructionPointer(pointer);
     };
 
     // REQUIRES: arguments has a length of 1.
     // EFFECTS: returns the argument (interpreted as a signed bit) added to the program counter (registerPC)
-    public static ModeAction getRelative = (int[] arguments, int argumentsSize, CPU cpu) -> {
+    public static final ModeAction getRelative = (int[] arguments, int argumentsSize, CPU cpu) -> {
         int signedArgument = arguments[0] < 128 ? arguments[0] : arguments[0] - 256;
         int possiblePointer = signedArgument + cpu.getRegisterPC();
 
@@ -81,7 +126,7 @@ public class Mode {
 
     // REQUIRES: arguments has a length of 2.
     // EFFECTS: returns the little endian number represented by the two arguments given.
-    public static ModeAction getIndirect = (int[] arguments, int argumentsSize, CPU cpu) -> {
+    public static final ModeAction getIndirect = (int[] arguments, int argumentsSize, CPU cpu) -> {
         int pointerOne = arguments[0] + arguments[1] * 256;
         int pointerTwo = pointerOne + 1;
 
@@ -101,7 +146,7 @@ public class Mode {
     // REQUIRES: arguments has a length of 1.
     // EFFECTS: adds the little endian number represented by the two arguments given added to registerX and returns
     //          the associated address on the zero page
-    public static ModeAction getZeroPageIndexedX = (int[] arguments, int argumentsSize, CPU cpu) -> {
+    public static final ModeAction getZeroPageIndexedX = (int[] arguments, int argumentsSize, CPU cpu) -> {
         int rawAddress = (arguments[0] + cpu.getRegisterX());
         int zeroPageAddress = rawAddress & 0xFF;
 
@@ -111,7 +156,7 @@ public class Mode {
     // REQUIRES: arguments has a length of 1.
     // EFFECTS: adds the little endian number represented by the two arguments given added to registerY and returns
     //          the associated address on the zero page
-    public static ModeAction getZeroPageIndexedY = (int[] arguments, int argumentsSize, CPU cpu) -> {
+    public static final ModeAction getZeroPageIndexedY = (int[] arguments, int argumentsSize, CPU cpu) -> {
         int rawAddress = (arguments[0] + cpu.getRegisterY());
         int zeroPageAddress = rawAddress & 0xFF;
 
@@ -120,7 +165,7 @@ public class Mode {
 
     // REQUIRES: arguments has a length of 2.
     // EFFECTS: returns the little endian number represented by the two arguments given added to registerX.
-    public static ModeAction getAbsoluteIndexedX = (int[] arguments, int argumentsSize, CPU cpu) -> {
+    public static final ModeAction getAbsoluteIndexedX = (int[] arguments, int argumentsSize, CPU cpu) -> {
         int pointer = arguments[0] + arguments[1] * 256 + cpu.getRegisterX();
         if (cpu.getRegisterX() != 0) {
             cpu.incrementCyclesRemaining(1);
@@ -132,7 +177,7 @@ public class Mode {
 
     // REQUIRES: arguments has a length of 2.
     // EFFECTS: returns the little endian number represented by the two arguments given added to registerY.
-    public static ModeAction getAbsoluteIndexedY = (int[] arguments, int argumentsSize, CPU cpu) -> {
+    public static final ModeAction getAbsoluteIndexedY = (int[] arguments, int argumentsSize, CPU cpu) -> {
         int pointer = arguments[0] + arguments[1] * 256 + cpu.getRegisterY();
         if (cpu.getRegisterY() != 0) {
             cpu.incrementCyclesRemaining(1);
@@ -145,7 +190,7 @@ public class Mode {
     // REQUIRES: arguments has a length of 1.
     // EFFECTS: first fetches the 2-byte value in memory at address (argument + registerX) on the zero page. Then,
     // fetches and returns the value in memory at that 2-byte address.
-    public static ModeAction getIndexedIndirect = (int[] arguments, int argumentsSize, CPU cpu) -> {
+    public static final ModeAction getIndexedIndirect = (int[] arguments, int argumentsSize, CPU cpu) -> {
         int pointerOne = (arguments[0] + cpu.getRegisterX()) & 0x00FF;
         int pointerTwo = (pointerOne + 1) & 0xFF;
         int fullPointer = cpu.readMemory(pointerOne) + cpu.readMemory(pointerTwo) * 256;
@@ -155,7 +200,7 @@ public class Mode {
     // REQUIRES: arguments has a length of 1.
     // EFFECTS: fetches the 2-byte value in memory at the argument on the zero page. Then, fetches and returns the value
     // in memory at (that 2-byte address + registerY).
-    public static ModeAction getIndirectIndexed = (int[] arguments, int argumentsSize, CPU cpu) -> {
+    public static final ModeAction getIndirectIndexed = (int[] arguments, int argumentsSize, CPU cpu) -> {
         int addressOne = arguments[0] & 0xFF;
         int addressTwo = (addressOne + 1) & 0xFF;
 
@@ -9,7 +9,6 @@ import java.util.List;
 @SuppressWarnings("CodeBlock2Expr")
 public class Opcode {
     private static OpcodeAction[] opcodes;
-    static int currentOpcode = 0;
 
     public interface OpcodeAction {
         void run(int pointer, CPU cpu);
@@ -18,11 +17,191 @@ public class Opcode {
 
     // MODIFIES: cpu
     // EFFECTS: Runs the given opcode with the given argument, modifying the CPU flags/registers/RAM as necessary.
+    //          Dispatches through a switch rather than the opcodes array so that every call site only ever sees one
+    //          OpcodeAction, which keeps the calls monomorphic and lets the JIT inline them.
     public static void runOpcode(int opcode, int pointer, CPU cpu) {
-        //List<Entry<String, OpcodeAction>> list = new ArrayList<>();
-        //list.addAll(opcodes.entrySet());
-        //list.get(currentOpcode).getValue().run(argument, cpu);
-        opcodes[opcode].run(pointer, cpu);
+        switch (opcode) {
+            case ADC:
+                runADC.run(pointer, cpu);
+                break;
+            case AND:
+                runAND.run(pointer, cpu);
+                break;
+            case ASL:
+                runASL.run(pointer, cpu);
+                break;
+            case BCC:
+                runBCC.run(pointer, cpu);
+                break;
+            case BCS:
+                runBCS.run(pointer, cpu);
+                break;
+            case BEQ:
+                runBEQ.run(pointer, cpu);
+                break;
+            case BIT:
+                runBIT.run(pointer, cpu);
+                break;
+            case BMI:
+                runBMI.run(pointer, cpu);
+                break;
+            case BNE:
+                runBNE.run(pointer, cpu);
+                break;
+            case BPL:
+                runBPL.run(pointer, cpu);
+                break;
+            case BRK:
+                runBRK.run(pointer, cpu);
+                break;
+            case BVC:
+                runBVC.run(pointer, cpu);
+                break;
+            case BVS:
+                runBVS.run(pointer, cpu);
+                break;
+            case CLC:
+                runCLC.run(pointer, cpu);
+                break;
+            case CLD:
+                runCLD.run(pointer, cpu);
+                break;
+            case CLI:
+                runCLI.run(pointer, cpu);
+                break;
+            case CLV:
+                runCLV.run(pointer, cpu);
+                break;
+            case CMP:
+                runCMP.run(pointer, cpu);
+                break;
+            case CPX:
+                runCPX.run(pointer, cpu);
+                break;
+            case CPY:
+                runCPY.run(pointer, cpu);
+                break;
+            case DEC:
+                runDEC.run(pointer, cpu);
+                break;
+            case DEX:
+                runDEX.run(pointer, cpu);
+                break;
+            case DEY:
+                runDEY.run(pointer, cpu);
+                break;
+            case EOR:
+                runEOR.run(pointer, cpu);
+                break;
+            case INC:
+                runINC.run(pointer, cpu);
+                break;
+            case INX:
+                runINX.run(pointer, cpu);
+                break;
+            case INY:
+                runINY.run(pointer, cpu);
+                break;
+            case JMP:
+                runJMP.run(pointer, cpu);
+                break;
+            case JSR:
+                runJSR.run(pointer, cpu);
+                break;
+            case LDA:
+                runLDA.run(pointer, cpu);
+                break;
+            case LDX:
+                runLDX.run(pointer, cpu);
+                break;
+            case LDY:
+                runLDY.run(pointer, cpu);
+                break;
+            case LSR:
+                runLSR.run(pointer, cpu);
+                break;
+            case NOP:
+                runNOP.run(pointer, cpu);
+                break;
+            case ORA:
+                runORA.run(pointer, cpu);
+                break;
+            case PHA:
+                runPHA.run(pointer, cpu);
+                break;
+            case PHP:
+                runPHP.run(pointer, cpu);
+                break;
+            case PLA:
+                runPLA.run(pointer, cpu);
+                break;
+            case PLP:
+                runPLP.run(pointer, cpu);
+                break;
+            case ROL:
+                runROL.run(pointer, cpu);
+                break;
+            case ROR:
+                runROR.run(pointer, cpu);
+                break;
+            case RTI:
+                runRTI.run(pointer, cpu);
+                break;
+            case RTS:
+                runRTS.run(pointer, cpu);
+                break;
+            case SBC:
+                runSBC.run(pointer, cpu);
+                break;
+            case SEC:
+                runSEC.run(pointer, cpu);
+                break;
+            case SED:
+                runSED.run(pointer, cpu);
+                break;
+            case SEI:
+                runSEI.run(pointer, cpu);
+                break;
+            case SHX:
+                runNOP.run(pointer, cpu);
+                break;
+            case SHY:
+                runNOP.run(pointer, cpu);
+                break;
+            case STA:
+                runSTA.run(pointer, cpu);
+                break;
+            case STP:
+                runSTP.run(pointer, cpu);
+                break;
+            case STX:
+                runSTX.run(pointer, cpu);
+                break;
+            case STY:
+                runSTY.run(pointer, cpu);
+                break;
+            case TAX:
+                runTAX.run(pointer, cpu);
+                break;
+            case TAY:
+                runTAY.run(pointer, cpu);
+                break;
+            case TSX:
+                runTSX.run(pointer, cpu);
+                break;
+            case TXA:
+                runTXA.run(pointer, cpu);
+                break;
+            case TXS:
+                runTXS.run(pointer, cpu);
+                break;
+            case TYA:
+                runTYA.run(pointer, cpu);
+                break;
+            default:
+                opcodes[opcode].run(pointer, cpu);
+                break;
+        }
     }
 
     // MODIFIES: cpu.registerA, cpu.flagV, cpu.flagZ, cpu.flagC, cpu.flagN
@@ -31,7 +210,7 @@ public class Opcode {
     //          flagZ: if the result is zero.
     //          flagC: if there was overflow.
     //          flagN: if the result is negative.
-    private static OpcodeAction runADC = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runADC = (int pointer, CPU cpu) -> {
         int value = cpu.getCurrentInstructionValue();
         int oldRegisterA = cpu.getRegisterA();
         int newValueRaw  = cpu.getRegisterA() + value + cpu.getFlagC();
@@ -41,21 +220,19 @@ public class Opcode {
         int registerASign    = Util.getNthBit(cpu.getRegisterA(), 7);
         int argumentSign     = Util.getNthBit(value,7);
         cpu.flagV = (oldRegisterASign == argumentSign && oldRegisterASign != registerASign) ? 1 : 0;
-        cpu.flagZ = (cpu.getRegisterA() == 0)           ? 1 : 0;
         cpu.flagC = (newValueRaw > cpu.getRegisterA())  ? 1 : 0;
-        cpu.flagN = (Util.getNthBit(cpu.getRegisterA(), 7));
+        cpu.setZeroAndNegative(cpu.getRegisterA());
     };
 
     // MODIFIES: cpu.getRegisterA, cpu.flagZ, cpu.flagN
     // EFFECTS: does a bitwise AND on registerA and the argument, and sets registerA to that value
     //          flagZ set if registerA is zero     after the operation.
     //          flagN set if registerA is negative after the operation.
-    private static OpcodeAction runAND = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runAND = (int pointer, CPU cpu) -> {
         int value = cpu.getCurrentInstructionValue();
         cpu.setRegisterA(cpu.getRegisterA() & value);
 
-        cpu.flagZ = (cpu.getRegisterA() == 0)  ? 1 : 0;
-        cpu.flagN = (cpu.getRegisterA() > 127) ? 1 : 0;
+        cpu.setZeroAndNegative(cpu.getRegisterA());
     };
 
     // MODIFIES: the argument, cpu.flagC, cpu.flagZ, cpu.flagN
@@ -63,7 +240,7 @@ public class Opcode {
     //          flagC set if to the lost bit in the argument (bit 7)
     //          flagZ set if the result is zero
     //          flagN set if the result is negative.
-    private static OpcodeAction runASL = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runASL = (int pointer, CPU cpu) -> {
         int value = cpu.getCurrentInstructionValue();
         //argument = argument.getReference();
         //int oldValue = value;
@@ -74,14 +251,13 @@ public class Opcode {
 
         cpu.writeMemory(pointer, newValue);
         cpu.flagC = Util.getNthBit(value, 7);
-        cpu.flagZ = ((newValue * 2) == 0) ? 1 : 0;
-        cpu.flagN = (Util.getNthBit(newValue, 7));
+        cpu.setZeroAndNegative(newValue);
     };
 
     // MODIFIES: cpu.registerPC
     // EFFECTS: adds argument to registerPC to cause a branch to a new location if:
     //          flagC is 0.
-    private static OpcodeAction runBCC = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runBCC = (int pointer, CPU cpu) -> {
         int value = cpu.getCurrentInstructionPointer();
         if (cpu.flagC == 0) {
             cpu.incrementCyclesRemaining(1);
@@ -92,7 +268,7 @@ public class Opcode {
     // MODIFIES: cpu.registerPC
     // EFFECTS: adds argument to registerPC to cause a branch to a new location if:
     //          flagC is 1.
-    private static OpcodeAction runBCS = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runBCS = (int pointer, CPU cpu) -> {
         int value = cpu.getCurrentInstructionPointer();
         if (cpu.flagC == 1) {
             cpu.incrementCyclesRemaining(1);
@@ -103,9 +279,9 @@ public class Opcode {
     // MODIFIES: cpu.registerPC
     // EFFECTS: adds argument to registerPC to cause a branch to a new location if:
     //          flagZ is 1.
-    private static OpcodeAction runBEQ = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runBEQ = (int pointer, CPU cpu) -> {
         int value = cpu.getCurrentInstructionPointer();
-        if (cpu.flagZ == 1) {
+        if (cpu.zResult == 0) {
             cpu.incrementCyclesRemaining(1);
             cpu.setRegisterPC(value);
         }
@@ -116,20 +292,20 @@ public class Opcode {
     // flagZ is set if the result is 0.
     // flagV is set to the 6th bit of the value in memory using argument as the address.
     // flagN is set to the 7th bit of the value in memory using argument as the address.
-    private static OpcodeAction runBIT = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runBIT = (int pointer, CPU cpu) -> {
         int value = cpu.getCurrentInstructionValue();
         int result = cpu.getRegisterA() & value;
-        cpu.flagZ = (result == 0) ? 1 : 0;
+        cpu.zResult = result & 0xFF;
         cpu.flagV = Util.getNthBit(value, 6);
-        cpu.flagN = Util.getNthBit(value, 7);
+        cpu.nResult = value & 0xFF;
     };
 
     // MODIFIES: cpu.registerPC
     // EFFECTS: adds argument to registerPC to cause a branch to a new location if:
     //          flagN is 1.
-    private static OpcodeAction runBMI = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runBMI = (int pointer, CPU cpu) -> {
         int value = cpu.getCurrentInstructionPointer();
-        if (cpu.flagN == 1) {
+        if ((cpu.nResult & 0x80) != 0) {
             cpu.incrementCyclesRemaining(1);
             cpu.setRegisterPC(value);
         }
@@ -138,9 +314,9 @@ public class Opcode {
     // MODIFIES: cpu.registerPC
     // EFFECTS: adds argument to registerPC to cause a branch to a new location if:
     //          flagZ is 0.
-    private static OpcodeAction runBNE = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runBNE = (int pointer, CPU cpu) -> {
         int value = cpu.getCurrentInstructionPointer();
-        if (cpu.flagZ == 0) {
+        if (cpu.zResult != 0) {
             cpu.incrementCyclesRemaining(1);
             cpu.setRegisterPC(value);
         }
@@ -149,9 +325,9 @@ public class Opcode {
     // MODIFIES: cpu.registerPC
     // EFFECTS: adds argument to registerPC to cause a branch to a new location if:
     //          flagN is 0.
-    private static OpcodeAction runBPL = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runBPL = (int pointer, CPU cpu) -> {
         int value = cpu.getCurrentInstructionPointer();
-        if (cpu.flagN == 0) {
+        if ((cpu.nResult & 0x80) == 0) {
             cpu.incrementCyclesRemaining(1);
             cpu.setRegisterPC(value);
         }
@@ -161,7 +337,7 @@ public class Opcode {
     // EFFECTS: registerPC is pushed onto the stack, followed by the cpu status.
     // then, registerPC is set to the value in memory at address "FFFE" and
     // flagB (the break flag) is set to 1.
-    private static OpcodeAction runBRK = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runBRK = (int pointer, CPU cpu) -> {
         int byteOne = ((cpu.getRegisterPC() + 3) & 0b0000000011111111);
         int byteTwo = ((cpu.getRegisterPC() + 3) & 0b1111111100000000) >> 8;
         cpu.pushStack(byteOne);
@@ -177,7 +353,7 @@ public class Opcode {
     // MODIFIES: cpu.registerPC
     // EFFECTS: adds argument to registerPC to cause a branch to a new location if:
     //          flagV is 0.
-    private static OpcodeAction runBVC = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runBVC = (int pointer, CPU cpu) -> {
         int value = cpu.getCurrentInstructionPointer();
         if (cpu.flagV == 0) {
             cpu.incrementCyclesRemaining(1);
@@ -188,7 +364,7 @@ public class Opcode {
     // MODIFIES: cpu.registerPC
     // EFFECTS: adds argument to registerPC to cause a branch to a new location if:
     //          flagV is 1.
-    private static OpcodeAction runBVS = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runBVS = (int pointer, CPU cpu) -> {
         int value = cpu.getCurrentInstructionPointer();
         if (cpu.flagV == 1) {
             cpu.incrementCyclesRemaining(1);
@@ -198,25 +374,25 @@ public class Opcode {
 
     // MODIFIES: cpu.flagC
     // EFFECTS: sets flagC to 0
-    private static OpcodeAction runCLC = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runCLC = (int pointer, CPU cpu) -> {
         cpu.flagC = 0;
     };
 
     // MODIFIES: cpu.flagD
     // EFFECTS: sets flagD to 0
-    private static OpcodeAction runCLD = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runCLD = (int pointer, CPU cpu) -> {
         cpu.flagD = 0;
     };
 
     // MODIFIES: cpu.flagI
     // EFFECTS: sets flagI to 0
-    private static OpcodeAction runCLI = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runCLI = (int pointer, CPU cpu) -> {
         cpu.flagI = 0;
     };
 
     // MODIFIES: cpu.flagV
     // EFFECTS: sets flagV to 0
-    private static OpcodeAction runCLV = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runCLV = (int pointer, CPU cpu) -> {
         cpu.flagV = 0;
     };
 
@@ -225,14 +401,13 @@ public class Opcode {
     //          if the result is negative,      flagC is set.
     //          if the result is zero,          flagZ is set.
     //          if the result's 7th bit is set, flagN is set.
-    private static OpcodeAction runCMP = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runCMP = (int pointer, CPU cpu) -> {
         int value = cpu.getCurrentInstructionValue();
         int result = cpu.getRegisterA() - value;
 
         //result = Util.wrapInt(result, 0, 255);
         cpu.flagC = (result >= 0) ? 1 : 0;
-        cpu.flagZ = (result == 0) ? 1 : 0;
-        cpu.flagN = (Util.getNthBit(result, 7));
+        cpu.setZeroAndNegative(result);
     };
 
     // MODIFIES: cpu.flagC, cpu.flagZ, cpu.flagN
@@ -240,13 +415,12 @@ public class Opcode {
     //          if the result is negative,      flagC is set.
     //          if the result is zero,          flagZ is set.
     //          if the result's 7th bit is set, flagN is set.
-    private static OpcodeAction runCPX = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runCPX = (int pointer, CPU cpu) -> {
         int value = cpu.getCurrentInstructionValue();
         int result = cpu.getRegisterX() - value;
 
         cpu.flagC = (result >= 0) ? 1 : 0;
-        cpu.flagZ = (result == 0) ? 1 : 0;
-        cpu.flagN = (Util.getNthBit(result, 7));
+        cpu.setZeroAndNegative(result);
     };
 
     // MODIFIES: cpu.flagC, cpu.flagZ, cpu.flagN
@@ -254,20 +428,19 @@ public class Opcode {
     //          if the result is negative,      flagC is set.
     //          if the result is zero,          flagZ is set.
     //          if the result's 7th bit is set, flagN is set.
-    private static OpcodeAction runCPY = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runCPY = (int pointer, CPU cpu) -> {
         int value = cpu.getCurrentInstructionValue();
         int result = cpu.getRegisterY() - value;
 
         cpu.flagC = (result >= 0) ? 1 : 0;
-        cpu.flagZ = (result == 0) ? 1 : 0;
-        cpu.flagN = (Util.getNthBit(result, 7));
+        cpu.setZeroAndNegative(result);
     };
 
     // MODIFIES: cpu's memory
     // EFFECTS: decreases the value in the cpu's memory by one, using argument as an address.
     //          flagZ set if the new value in memory is zero     after the operation.
     //          flagN set if the new value in memory is negative after the operation.
-    private static OpcodeAction runDEC = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runDEC = (int pointer, CPU cpu) -> {
         int value = cpu.getCurrentInstructionValue();
         int newValue = value - 1;
         newValue = Util.wrapInt(newValue, 0, 255);
@@ -275,49 +448,45 @@ public class Opcode {
         //argument.setValue(value + 1);
         cpu.writeMemory(pointer, newValue);
 
-        cpu.flagZ = (newValue == 0) ? 1 : 0;
-        cpu.flagN = (Util.getNthBit(newValue, 7));
+        cpu.setZeroAndNegative(newValue);
     };
 
     // MODIFIES: cpu.getRegisterX
     // EFFECTS: decreases registerX by one.
     //          flagZ set if registerX is zero,
     //          flagN set if the 7th bit of registerX is set.
-    private static OpcodeAction runDEX = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runDEX = (int pointer, CPU cpu) -> {
         cpu.setRegisterX((cpu.getRegisterX() - 1) & 0xFF);
 
-        cpu.flagZ = (cpu.getRegisterX() == 0) ? 1 : 0;
-        cpu.flagN = (Util.getNthBit(cpu.getRegisterX(), 7));
+        cpu.setZeroAndNegative(cpu.getRegisterX());
     };
 
     // MODIFIES: cpu.registerY
     // EFFECTS: decreases registerY by one.
     //          flagZ set if registerY is zero,
     //          flagN set if the 7th bit of registerY is set.
-    private static OpcodeAction runDEY = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runDEY = (int pointer, CPU cpu) -> {
         cpu.setRegisterY((cpu.getRegisterY() - 1) & 0xFF);
 
-        cpu.flagZ = (cpu.getRegisterY() == 0) ? 1 : 0;
-        cpu.flagN = (Util.getNthBit(cpu.getRegisterY(), 7));
+        cpu.setZeroAndNegative(cpu.getRegisterY());
     };
 
     // MODIFIES: cpu.registerA, cpu.flagZ, cpu.flagN
     // EFFECTS: does a bitwise XOR on registerA and the argument, and sets registerA to that value
     //          flagZ set if registerA is zero     after the operation.
     //          flagN set if registerA is negative after the operation.
-    private static OpcodeAction runEOR = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runEOR = (int pointer, CPU cpu) -> {
         int value = cpu.getCurrentInstructionValue();
         cpu.setRegisterA(cpu.getRegisterA() ^ value);
 
-        cpu.flagZ = (cpu.getRegisterA() == 0)  ? 1 : 0;
-        cpu.flagN = (cpu.getRegisterA() > 127) ? 1 : 0;
+        cpu.setZeroAndNegative(cpu.getRegisterA());
     };
 
     // MODIFIES: cpu's memory
     // EFFECTS: increases the value in the cpu's memory by one, using argument as an address.
     //          flagZ set if the new value in memory is zero     after the operation.
     //          flagN set if the new value in memory is negative after the operation.
-    private static OpcodeAction runINC = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runINC = (int pointer, CPU cpu) -> {
         int value = cpu.getCurrentInstructionValue();
         int newValue = value + 1;
         newValue = Util.wrapInt(newValue, 0, 255);
@@ -325,42 +494,39 @@ public class Opcode {
         //argument.setValue(value + 1);
         cpu.writeMemory(pointer, newValue);
 
-        cpu.flagZ = (newValue == 0) ? 1 : 0;
-        cpu.flagN = (Util.getNthBit(newValue, 7));
+        cpu.setZeroAndNegative(newValue);
     };
 
     // MODIFIES: cpu.registerX
     // EFFECTS: increases registerX by one.
     //          flagZ set if registerX is zero     after the operation.
     //          flagN set if registerX is negative after the operation.
-    private static OpcodeAction runINX = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runINX = (int pointer, CPU cpu) -> {
         cpu.setRegisterX((cpu.getRegisterX() + 1) & 0xFF);
 
-        cpu.flagZ = (cpu.getRegisterX() == 0) ? 1 : 0;
-        cpu.flagN = (Util.getNthBit(cpu.getRegisterX(), 7));
+        cpu.setZeroAndNegative(cpu.getRegisterX());
     };
 
     // MODIFIES: cpu.registerY
     // EFFECTS: increases registerY by one.
     //          flagZ set if registerY is zero     after the operation.
     //          flagN set if registerY is negative after the operation.
-    private static OpcodeAction runINY = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runINY = (int pointer, CPU cpu) -> {
         cpu.setRegisterY((cpu.getRegisterY() + 1) & 0xFF);
 
-        cpu.flagZ = (cpu.getRegisterY() == 0) ? 1 : 0;
-        cpu.flagN = (Util.getNthBit(cpu.getRegisterY(), 7));
+        cpu.setZeroAndNegative(cpu.getRegisterY());
     };
 
     // MODIFIES: cpu.registerPC
     // EFFECTS: sets registerPC (the program counter) to the argument specified, minus 3.
-    private static OpcodeAction runJMP = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runJMP = (int pointer, CPU cpu) -> {
         cpu.setRegisterPC(pointer);
     };
 
     // MODIFIES: cpu.registerPC, cpu.stack
     // EFFECTS: pushes the current value of registerPC (the program counter) to the stack, minus one.
     //          then, sets registerPC to the argument specified, minus 3.
-    private static OpcodeAction runJSR = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runJSR = (int pointer, CPU cpu) -> {
         int byteOne = ((cpu.getRegisterPC() - 1) & 0b1111111100000000) >> 8;
         int byteTwo = ((cpu.getRegisterPC() - 1) & 0b0000000011111111);
         cpu.pushStack(byteOne);
@@ -372,36 +538,33 @@ public class Opcode {
     // EFFECTS: sets registerA to the argument
     //          sets flagZ if registerA is 0
     //          sets flagN if the 7th bit of registerA is 1
-    private static OpcodeAction runLDA = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runLDA = (int pointer, CPU cpu) -> {
         int value = cpu.getCurrentInstructionValue();
         cpu.setRegisterA(value);
 
-        cpu.flagZ = (cpu.getRegisterA() == 0) ? 1 : 0;
-        cpu.flagN = (Util.getNthBit(cpu.getRegisterA(), 7));
+        cpu.setZeroAndNegative(cpu.getRegisterA());
     };
 
     // MODIFIES: cpu.registerX, flagZ, flagN
     // EFFECTS: sets registerX to the argument
     //          sets flagZ if registerA is 0
     //          sets flagN if the 7th bit of registerA is 1
-    private static OpcodeAction runLDX = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runLDX = (int pointer, CPU cpu) -> {
         int value = cpu.getCurrentInstructionValue();
         cpu.setRegisterX(value);
 
-        cpu.flagZ = (cpu.getRegisterX() == 0) ? 1 : 0;
-        cpu.flagN = (Util.getNthBit(cpu.getRegisterX(), 7));
+        cpu.setZeroAndNegative(cpu.getRegisterX());
     };
 
     // MODIFIES: cpu.registerY, flagZ, flagN
     // EFFECTS: sets registerY to the argument
     //          sets flagZ if registerA is 0
     //          sets flagN if the 7th bit of registerA is 1
-    private static OpcodeAction runLDY = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runLDY = (int pointer, CPU cpu) -> {
         int value = cpu.getCurrentInstructionValue();
         cpu.setRegisterY(value);
 
-        cpu.flagZ = (cpu.getRegisterY() == 0) ? 1 : 0;
-        cpu.flagN = (Util.getNthBit(cpu.getRegisterY(), 7));
+        cpu.setZeroAndNegative(cpu.getRegisterY());
     };
 
     // MODIFIES: the argument, cpu.flagC, cpu.flagZ, cpu.flagN
@@ -409,7 +572,7 @@ public class Opcode {
     //          flagC set if to the lost bit in the argument (bit 0)
     //          flagZ set if the result is zero
     //          flagN set if the result is negative.
-    private static OpcodeAction runLSR = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runLSR = (int pointer, CPU cpu) -> {
         int value = cpu.getCurrentInstructionValue();
         //argument = argument.getReference();
         //int oldValue = value;
@@ -420,52 +583,49 @@ public class Opcode {
 
         cpu.writeMemory(pointer, newValue);
         cpu.flagC = Util.getNthBit(value, 0);
-        cpu.flagZ = (newValue == 0) ? 1 : 0;
-        cpu.flagN = (Util.getNthBit(newValue, 7));
+        cpu.setZeroAndNegative(newValue);
     };
 
     // EFFECTS: doesn't modify the cpu in any way.
-    private static OpcodeAction runNOP = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runNOP = (int pointer, CPU cpu) -> {
     };
 
     // MODIFIES: cpu.getRegisterA, cpu.flagZ, cpu.flagN
     // EFFECTS: does a bitwise OR on registerA and the argument, and sets registerA to that value
     //          flagZ set if registerA is zero     after the operation.
     //          flagN set if registerA is negative after the operation.
-    private static OpcodeAction runORA = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runORA = (int pointer, CPU cpu) -> {
         int value = cpu.getCurrentInstructionValue();
         cpu.setRegisterA(cpu.getRegisterA() | value);
 
-        cpu.flagZ = (cpu.getRegisterA() == 0)  ? 1 : 0;
-        cpu.flagN = (cpu.getRegisterA() > 127) ? 1 : 0;
+        cpu.setZeroAndNegative(cpu.getRegisterA());
     };
 
     // MODIFIES: cpu.getRegisterS, cpu.stack
     // EFFECTS: pushes cpu.getRegisterA onto the cpu stack.
-    private static OpcodeAction runPHA = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runPHA = (int pointer, CPU cpu) -> {
         cpu.pushStack(cpu.getRegisterA());
     };
 
     // MODIFIES: cpu.stack
     // EFFECTS: concatenates the cpu flags in this order: CZID11VN, where bits 4 and 5 is 1. pushes the result onto
     //          the stack.
-    private static OpcodeAction runPHP = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runPHP = (int pointer, CPU cpu) -> {
         cpu.pushStack(cpu.getStatus());
     };
 
     // MODIFIES: cpu.getRegisterA cpu.getRegisterS, cpu.stack
     // EFFECTS: pulls from the cpu stack and sets the value to cpu.getRegisterA
-    private static OpcodeAction runPLA = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runPLA = (int pointer, CPU cpu) -> {
         cpu.setRegisterA(cpu.pullStack());
 
-        cpu.flagZ = (cpu.getRegisterA() == 0)  ? 1 : 0;
-        cpu.flagN = (cpu.getRegisterA() > 127) ? 1 : 0;
+        cpu.setZeroAndNegative(cpu.getRegisterA());
     };
 
     // MODIFIES: cpu.flagC, cpu.flagZ, cpu,flagI, cpu.flagD, cpu.flagB, cpu.flagV, cpu.flagN
     // EFFECTS: pulls from the stack. assigns the flags in this order: CZID11VN, where bits 4 and 5 are 1.
     // for example, if 10110110 was pulled from the stack, cpu.flagC would be 0, cpu.flagZ would be 1, etc.
-    private static OpcodeAction runPLP = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runPLP = (int pointer, CPU cpu) -> {
         cpu.setStatus(cpu.pullStack());
     };
 
@@ -474,7 +634,7 @@ public class Opcode {
     //          flagC set if to the lost bit in the argument (bit 7)
     //          flagZ set if the result is zero
     //          flagN set if the result is negative.
-    private static OpcodeAction runROL = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runROL = (int pointer, CPU cpu) -> {
         int value = cpu.getCurrentInstructionValue();
         //argument = argument.getReference();
         //int oldValue = value;
@@ -482,10 +642,10 @@ public class Opcode {
 
         int newValue = value << 1 | cpu.getFlagC();
         cpu.writeMemory(pointer, newValue & 0xFF);
-        // TODO: change all flags to setFlag
         cpu.setFlagC((Util.getNthBit(value, 7)));
-        cpu.setFlagZ((newValue == 0) ? 1 : 0);
-        cpu.setFlagN((Util.getNthBit(newValue, 7)));
+        // flagZ is taken from the 9 bit result, so bit 8 is folded into the low byte to keep it non-zero.
+        cpu.zResult = (newValue | newValue >> 8) & 0xFF;
+        cpu.nResult = newValue & 0xFF;
     };
 
     // MODIFIES: the argument, cpu.flagC, cpu.flagZ, cpu.flagN
@@ -493,7 +653,7 @@ public class Opcode {
     //          flagC set if to the lost bit in the argument (bit 0)
     //          flagZ set if the result is zero
     //          flagN set if the result is negative.
-    private static OpcodeAction runROR = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runROR = (int pointer, CPU cpu) -> {
         int value = cpu.getCurrentInstructionValue();
         //argument = argument.getReference();
         //int oldValue = value;
@@ -502,13 +662,12 @@ public class Opcode {
         int newValue = value >> 1 | cpu.getFlagC() << 7;
         cpu.writeMemory(pointer, newValue & 0xFF);
         cpu.setFlagC((Util.getNthBit(value, 0)));
-        cpu.setFlagZ((newValue == 0) ? 1 : 0);
-        cpu.setFlagN((Util.getNthBit(newValue, 7)));
+        cpu.setZeroAndNegative(newValue);
     };
 
     // MODIFIES: cpu.stack, all 7 cpu flags, cpu.registerPC
     // EFFECTS: the cpu flags are pulled from the stack, then the registerPC is pulled from the stack.
-    private static OpcodeAction runRTI = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runRTI = (int pointer, CPU cpu) -> {
         cpu.setStatus(cpu.pullStack());
         int byteTwo = cpu.pullStack();
         int byteOne = cpu.pullStack();
@@ -519,7 +678,7 @@ public class Opcode {
     // MODIFIES: cpu.registerPC, cpu.stack
     // EFFECTS: returns from the subroutine by pulling from the stack and setting
     // registerPC to that value (minus one to account for argument length)
-    private static OpcodeAction runRTS = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runRTS = (int pointer, CPU cpu) -> {
         int byteTwo = cpu.pullStack();
         int byteOne = cpu.pullStack();
         int fullByte = byteOne * 256 + byteTwo;
@@ -532,7 +691,7 @@ public class Opcode {
     //          flagZ: if the result is zero.
     //          flagC: if there was overflow.
     //          flagN: if the result is negative.
-    private static OpcodeAction runSBC = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runSBC = (int pointer, CPU cpu) -> {
         int value = cpu.getCurrentInstructionValue();
         int oldRegisterA = cpu.getRegisterA();
         int newValueRaw  = cpu.getRegisterA() - value - (1 - cpu.getFlagC());
@@ -542,50 +701,49 @@ public class Opcode {
         int registerASign    = Util.getNthBit(cpu.getRegisterA(),7);
         int argumentSign     = Util.getNthBit(-(value + 1),7);
         cpu.flagV = (oldRegisterASign == argumentSign && oldRegisterASign != registerASign) ? 1 : 0;
-        cpu.flagZ = (cpu.getRegisterA() == 0) ? 1 : 0;
         cpu.flagC = (newValueRaw >= 0) ? 1 : 0;
-        cpu.flagN = (Util.getNthBit(cpu.getRegisterA(), 7));
+        cpu.setZeroAndNegative(cpu.getRegisterA());
     };
 
     // MODIFIES: cpu.flagC
     // EFFECTS: sets flagC to 1
-    private static OpcodeAction runSEC = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runSEC = (int pointer, CPU cpu) -> {
         cpu.flagC = 1;
     };
 
     // MODIFIES: cpu.flagD
     // EFFECTS: sets flagD to 1
-    private static OpcodeAction runSED = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runSED = (int pointer, CPU cpu) -> {
         cpu.flagD = 1;
     };
 
     // MODIFIES: cpu.flagI
     // EFFECTS: sets flagI to 1
-    private static OpcodeAction runSEI = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runSEI = (int pointer, CPU cpu) -> {
         cpu.flagI = 1;
     };
 
     // MODIFIES: cpu's memory
     // EFFECTS: writes cpu.registerA in memory using the argument as the address.
-    private static OpcodeAction runSTA = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runSTA = (int pointer, CPU cpu) -> {
         cpu.writeMemory(pointer, cpu.getRegisterA());
     };
 
     // MODIFIES: cpu.enabled
     // EFFECTS: disables the cpu.
-    private static OpcodeAction runSTP = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runSTP = (int pointer, CPU cpu) -> {
         cpu.setEnabled(false);
     };
 
     // MODIFIES: cpu's memory
     // EFFECTS: writes cpu.registerX in memory using the argument as the address.
-    private static OpcodeAction runSTX = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runSTX = (int pointer, CPU cpu) -> {
         cpu.writeMemory(pointer, cpu.getRegisterX());
     };
 
     // MODIFIES: cpu's memory
     // EFFECTS: writes cpu.registerY in memory using the argument as the address.
-    private static OpcodeAction runSTY = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runSTY = (int pointer, CPU cpu) -> {
         cpu.writeMemory(pointer, cpu.getRegisterY());
     };
 
@@ -593,49 +751,45 @@ public class Opcode {
     // EFFECTS: transfers cpu.getRegisterA to cpu.getRegisterX
     //          flagZ set if registerX is zero     after the operation.
     //          flagN set if registerX is negative after the operation.
-    private static OpcodeAction runTAX = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runTAX = (int pointer, CPU cpu) -> {
         cpu.setRegisterX(cpu.getRegisterA());
 
-        cpu.flagZ = (cpu.getRegisterX() == 0) ? 1 : 0;
-        cpu.flagN = (cpu.getRegisterX() >> 7) & 1; // is 7th bit set?
+        cpu.setZeroAndNegative(cpu.getRegisterX());
     };
 
     // MODIFIES: cpu.getRegisterA, cpu.getRegisterY, cpu.flagZ, cpu.flagN
     // EFFECTS: transfers cpu.getRegisterA to cpu.getRegisterY
     //          flagZ set if registerY is zero     after the operation.
     //          flagN set if registerY is negative after the operation.
-    private static OpcodeAction runTAY = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runTAY = (int pointer, CPU cpu) -> {
         cpu.setRegisterY(cpu.getRegisterA());
 
-        cpu.flagZ = (cpu.getRegisterY() == 0) ? 1 : 0;
-        cpu.flagN = (cpu.getRegisterY() >> 7) & 1; // is 7th bit set?
+        cpu.setZeroAndNegative(cpu.getRegisterY());
     };
 
     // MODIFIES: cpu.getRegisterS, cpu.getRegisterX, cpu.flagZ, cpu.flagN
     // EFFECTS: transfers cpu.getRegisterS to cpu.getRegisterX
     //          flagZ set if registerX is zero     after the operation.
     //          flagN set if registerX is negative after the operation.
-    private static OpcodeAction runTSX = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runTSX = (int pointer, CPU cpu) -> {
         cpu.setRegisterX(cpu.getRegisterS());
 
-        cpu.flagZ = (cpu.getRegisterX() == 0) ? 1 : 0;
-        cpu.flagN = (cpu.getRegisterX() >> 7) & 1; // is 7th bit set?
+        cpu.setZeroAndNegative(cpu.getRegisterX());
     };
 
     // MODIFIES: cpu.getRegisterS, cpu.getRegisterX, cpu.flagZ, cpu.flagN
     // EFFECTS: transfers cpu.getRegisterX to cpu.getRegisterA
     //          flagZ set if registerA is zero     after the operation.
     //          flagN set if registerA is negative after the operation.
-    private static OpcodeAction runTXA = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runTXA = (int pointer, CPU cpu) -> {
         cpu.setRegisterA(cpu.getRegisterX());
 
-        cpu.flagZ = (cpu.getRegisterA() == 0) ? 1 : 0;
-        cpu.flagN = (cpu.getRegisterA() >> 7) & 1; // is 7th bit set?
+        cpu.setZeroAndNegative(cpu.getRegisterA());
     };
 
     // MODIFIES: cpu.getRegisterX, cpu.getRegisterS
     // EFFECTS: transfers cpu.getRegisterX to cpu.getRegisterS
-    private static OpcodeAction runTXS = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runTXS = (int pointer, CPU cpu) -> {
         cpu.setRegisterS(cpu.getRegisterX());
     };
 
@@ -643,11 +797,10 @@ public class Opcode {
     // EFFECTS: transfers cpu.getRegisterY to cpu.getRegisterA
     //          flagZ set if registerA is zero     after the operation.
     //          flagN set if registerA is negative after the operation.
-    private static OpcodeAction runTYA = (int pointer, CPU cpu) -> {
+    private static final OpcodeAction runTYA = (int pointer, CPU cpu) -> {
         cpu.setRegisterA(cpu.getRegisterY());
 
-        cpu.flagZ = (cpu.getRegisterY() == 0) ? 1 : 0;
-        cpu.flagN = (cpu.getRegisterY() >> 7) & 1; // is 7th bit set?
+        cpu.setZeroAndNegative(cpu.getRegisterY());
     };
 
     public static final int ADC = 0;
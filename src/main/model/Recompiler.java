@@ -0,0 +1,399 @@
+package model;
+
+import java.lang.invoke.MethodHandles;
+
+// Class Recompiler:
+//     An optional recompiling core. Once a DecodedBlock in PRG ROM has been entered HOT_THRESHOLD times, it is
+//     translated into a hidden JVM class whose run method calls the same InstructionHandlers operations as the
+//     interpreter, with every operand and cycle count that is known ahead of time folded into constants. registerPC
+//     isn't one of them: mirrors share their blocks (see DecodedBlock), so it is worked out from the address the block
+//     was entered at. Only instructions that can't touch I/O are compiled: reads have to stay inside RAM, PRG RAM or
+//     PRG ROM, and writes inside RAM. A block is compiled up to its first instruction that doesn't qualify, and the
+//     interpreter takes over from there.
+//
+//     Compiled blocks run all of their instructions at once, so an interrupt can only be taken in between blocks.
+//     The interpreter is still the accuracy baseline, and the CPU only uses the Recompiler when it is enabled.
+
+public class Recompiler {
+    public static final int DEFAULT_HOT_THRESHOLD = 16;
+
+    private static final String CPU_CLASS      = "model/CPU";
+    private static final String HANDLERS_CLASS = "model/InstructionHandlers";
+    private static final String BLOCK_CLASS    = "model/CompiledBlock";
+    private static final String OBJECT_CLASS   = "java/lang/Object";
+    private static final String CLASS_PREFIX   = "model/CompiledBlock$";
+
+    private static final String CPU_TO_VOID     = "(Lmodel/CPU;)V";
+    private static final String CPU_INT_TO_VOID = "(Lmodel/CPU;I)V";
+    private static final String CPU_INT_TO_INT  = "(Lmodel/CPU;I)I";
+
+    // Local variables of the generated run method.
+    private static final int LOCAL_CPU     = 1;
+    private static final int LOCAL_ADDRESS = 2;
+    private static final int MAX_LOCALS    = 3;
+    private static final int MAX_STACK     = 8;
+
+    // The InstructionHandlers method that implements each Opcode, indexed by its constant in Opcode.
+    private static final String[] OPERATION_NAMES = {
+        "adc", "and", "asl", "bcc", "bcs", "beq", "bit", "bmi", "bne", "bpl",
+        "brk", "bvc", "bvs", "clc", "cld", "cli", "clv", "cmp", "cpx", "cpy",
+        "dec", "dex", "dey", "eor", "inc", "inx", "iny", "jmp", "jsr", "lda",
+        "ldx", "ldy", "lsr", "nop", "ora", "pha", "php", "pla", "plp", "rol",
+        "ror", "rti", "rts", "sbc", "sec", "sed", "sei", "shx", "shy", "sta",
+        "stp", "stx", "sty", "tax", "tay", "tsx", "txa", "txs", "tya"
+    };
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private int  hotThreshold;
+    private long compiledBlocks;
+    private long compiledInstructions;
+    private long failedBlocks;
+
+    // EFFECTS: creates a recompiler that compiles blocks after DEFAULT_HOT_THRESHOLD executions.
+    public Recompiler() {
+        hotThreshold = DEFAULT_HOT_THRESHOLD;
+    }
+
+    // REQUIRES: block.compileAttempted is false, and every instruction in block is in PRG ROM.
+    // MODIFIES: this, block
+    // EFFECTS:  compiles the longest prefix of block that can be compiled, and stores it in block.compiled. Returns
+    //           the compiled block, or null if not even its first instruction could be compiled.
+    CompiledBlock compile(DecodedBlock block) {
+        block.compileAttempted = true;
+
+        int size = 0;
+        while (size < block.size && isCompilable(block.opcodes[size], block.lows[size], block.highs[size])) {
+            size++;
+        }
+
+        if (size == 0) {
+            return null;
+        }
+
+        CompiledBlock compiled;
+        try {
+            byte[] classFile = generate(block, size, CLASS_PREFIX + Integer.toHexString(block.startAddress));
+            MethodHandles.Lookup lookup = LOOKUP.defineHiddenClass(classFile, true);
+            compiled = lookup.lookupClass().asSubclass(CompiledBlock.class).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | IllegalArgumentException | ClassFormatError e) {
+            // Anything else, like a VerifyError from a bug in generate, is left to propagate.
+            failedBlocks++;
+            return null;
+        }
+
+        block.compiled     = compiled;
+        block.compiledSize = size;
+        compiledBlocks++;
+        compiledInstructions += size;
+        return compiled;
+    }
+
+    // EFFECTS: returns true if the instruction with the given opcode byte and arguments can be compiled, which is the
+    //          case if it can't possibly read or write I/O registers.
+    static boolean isCompilable(int valueAtProgramCounter, int lo, int hi) {
+        int decoded   = Instruction.DECODE_TABLE[valueAtProgramCounter];
+        int operation = (decoded >> Instruction.DECODED_OPCODE_SHIFT) & Instruction.DECODED_BYTE_MASK;
+        int mode      = (decoded >> Instruction.DECODED_MODE_SHIFT)   & Instruction.DECODED_BYTE_MASK;
+        int address   = InstructionHandlers.absolute(lo, hi);
+
+        switch (mode) {
+            case Mode.IMPLICIT:
+            case Mode.ACCUMULATOR:
+            case Mode.IMMEDIATE:
+            case Mode.RELATIVE:
+            case Mode.ZERO_PAGE:
+            case Mode.ZERO_PAGE_INDEXED_X:
+            case Mode.ZERO_PAGE_INDEXED_Y:
+                return true;
+            case Mode.ABSOLUTE:
+                if (operation == Opcode.JMP || operation == Opcode.JSR || operation == Opcode.NOP) {
+                    return true;
+                }
+                return isRead(operation) ? isReadable(address) : isRam(address);
+            case Mode.ABSOLUTE_INDEXED_X:
+            case Mode.ABSOLUTE_INDEXED_Y:
+                if (operation == Opcode.NOP || operation == Opcode.SHX || operation == Opcode.SHY) {
+                    return true;
+                }
+                // Anything past 0xFFFF wraps around to the zero page, which is RAM.
+                if (isRead(operation)) {
+                    return address >= 0x6000 || isRam(address + 0xFF);
+                }
+                return isRam(address + 0xFF);
+            case Mode.INDIRECT:
+                int pointerTwo = (lo == 0xFF) ? address + 1 - 0x100 : address + 1;
+                return isReadable(address) && isReadable(pointerTwo);
+            default:
+                return false;
+        }
+    }
+
+    // EFFECTS: returns true if the operation only reads its operand.
+    private static boolean isRead(int operation) {
+        switch (operation) {
+            case Opcode.ADC:
+            case Opcode.AND:
+            case Opcode.BIT:
+            case Opcode.CMP:
+            case Opcode.CPX:
+            case Opcode.CPY:
+            case Opcode.EOR:
+            case Opcode.LDA:
+            case Opcode.LDX:
+            case Opcode.LDY:
+            case Opcode.ORA:
+            case Opcode.SBC:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // EFFECTS: returns true if the operation reads its operand, changes it and writes it back.
+    private static boolean isReadModifyWrite(int operation) {
+        switch (operation) {
+            case Opcode.ASL:
+            case Opcode.DEC:
+            case Opcode.INC:
+            case Opcode.LSR:
+            case Opcode.ROL:
+            case Opcode.ROR:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // EFFECTS: returns true if address is in the internal RAM or its mirrors.
+    static boolean isRam(int address) {
+        return address < 0x2000;
+    }
+
+    // EFFECTS: returns true if reading address has no side effects (internal RAM, PRG RAM or PRG ROM).
+    static boolean isReadable(int address) {
+        return address < 0x2000 || (address >= 0x6000 && address <= 0xFFFF);
+    }
+
+    // ########## CODE GENERATION ##########
+
+    // REQUIRES: the first size instructions of block are compilable.
+    // EFFECTS:  returns the class file of a CompiledBlock that runs the first size instructions of block.
+    private static byte[] generate(DecodedBlock block, int size, String className) {
+        BytecodeWriter writer = new BytecodeWriter();
+
+        writer.beginMethod(BytecodeWriter.ACC_PUBLIC, "<init>", "()V");
+        writer.aload(0);
+        writer.invokeSpecial(OBJECT_CLASS, "<init>", "()V");
+        writer.returnVoid();
+        writer.endMethod(1, 1);
+
+        writer.beginMethod(BytecodeWriter.ACC_PUBLIC, "run", CPU_TO_VOID);
+        int cycles = 0;
+        for (int i = 0; i < size; i++) {
+            // Only the last instruction of a block can depend on registerPC (branches, jumps, BRK...). Until then,
+            // registerPC is still the address the block was entered at, which may be a mirror of the one it was
+            // decoded at.
+            if (i == size - 1) {
+                writer.aload(LOCAL_CPU);
+                writer.aload(LOCAL_CPU);
+                writer.invokeVirtual(CPU_CLASS, "getRegisterPC", "()I");
+                writer.pushInt(block.offsets[i] + block.lengths[i]);
+                writer.iadd();
+                writer.invokeVirtual(CPU_CLASS, "setRegisterPC", "(I)V");
+            }
+
+            generateInstruction(writer, block.opcodes[i], block.lows[i], block.highs[i]);
+            cycles += block.cycles[i];
+        }
+
+        writer.aload(LOCAL_CPU);
+        writer.pushInt(cycles);
+        writer.invokeVirtual(CPU_CLASS, "incrementCyclesRemaining", "(I)V");
+        writer.returnVoid();
+        writer.endMethod(MAX_STACK, MAX_LOCALS);
+
+        return writer.toClassFile(BytecodeWriter.ACC_PUBLIC | BytecodeWriter.ACC_FINAL | BytecodeWriter.ACC_SUPER,
+                                  className, OBJECT_CLASS, BLOCK_CLASS);
+    }
+
+    // MODIFIES: writer
+    // EFFECTS:  writes the code for one instruction. The generated code has the same effect as the corresponding
+    //           case in InstructionHandlers.execute.
+    private static void generateInstruction(BytecodeWriter writer, int valueAtProgramCounter, int lo, int hi) {
+        int decoded   = Instruction.DECODE_TABLE[valueAtProgramCounter];
+        int operation = (decoded >> Instruction.DECODED_OPCODE_SHIFT) & Instruction.DECODED_BYTE_MASK;
+        int mode      = (decoded >> Instruction.DECODED_MODE_SHIFT)   & Instruction.DECODED_BYTE_MASK;
+        String name   = OPERATION_NAMES[operation];
+
+        if (isRead(operation)) {
+            writer.aload(LOCAL_CPU);
+            if (mode == Mode.IMMEDIATE) {
+                writer.pushInt(lo);
+            } else {
+                writer.aload(LOCAL_CPU);
+                generateAddress(writer, mode, lo, hi);
+                writer.invokeVirtual(CPU_CLASS, "readMemory", "(I)I");
+            }
+            writer.invokeStatic(HANDLERS_CLASS, name, CPU_INT_TO_VOID);
+        } else if (isReadModifyWrite(operation)) {
+            generateReadModifyWrite(writer, mode, name, lo, hi);
+        } else {
+            switch (operation) {
+                case Opcode.STA:
+                    generateStore(writer, mode, "getRegisterA", lo, hi);
+                    break;
+                case Opcode.STX:
+                    generateStore(writer, mode, "getRegisterX", lo, hi);
+                    break;
+                case Opcode.STY:
+                    generateStore(writer, mode, "getRegisterY", lo, hi);
+                    break;
+                case Opcode.BCC:
+                case Opcode.BCS:
+                case Opcode.BEQ:
+                case Opcode.BMI:
+                case Opcode.BNE:
+                case Opcode.BPL:
+                case Opcode.BVC:
+                case Opcode.BVS:
+                    writer.aload(LOCAL_CPU);
+                    writer.pushInt(lo);
+                    writer.invokeStatic(HANDLERS_CLASS, name, CPU_INT_TO_VOID);
+                    break;
+                case Opcode.JMP:
+                    writer.aload(LOCAL_CPU);
+                    generateAddress(writer, mode, lo, hi);
+                    writer.invokeVirtual(CPU_CLASS, "setRegisterPC", "(I)V");
+                    break;
+                case Opcode.JSR:
+                    writer.aload(LOCAL_CPU);
+                    generateAddress(writer, mode, lo, hi);
+                    writer.invokeStatic(HANDLERS_CLASS, name, CPU_INT_TO_VOID);
+                    break;
+                case Opcode.NOP:
+                case Opcode.SHX:
+                case Opcode.SHY:
+                    // Only the indexed absolute versions do anything: they can cost an extra cycle.
+                    if (mode == Mode.ABSOLUTE_INDEXED_X || mode == Mode.ABSOLUTE_INDEXED_Y) {
+                        generateAddress(writer, mode, lo, hi);
+                        writer.pop();
+                    }
+                    break;
+                default:
+                    writer.aload(LOCAL_CPU);
+                    writer.invokeStatic(HANDLERS_CLASS, name, CPU_TO_VOID);
+                    break;
+            }
+        }
+    }
+
+    // MODIFIES: writer
+    // EFFECTS:  writes the code for a read-modify-write operation like ASL.
+    private static void generateReadModifyWrite(BytecodeWriter writer, int mode, String name, int lo, int hi) {
+        if (mode == Mode.ACCUMULATOR) {
+            writer.aload(LOCAL_CPU);
+            writer.aload(LOCAL_CPU);
+            writer.aload(LOCAL_CPU);
+            writer.invokeVirtual(CPU_CLASS, "getRegisterA", "()I");
+            writer.invokeStatic(HANDLERS_CLASS, name, CPU_INT_TO_INT);
+            writer.invokeVirtual(CPU_CLASS, "setRegisterA", "(I)V");
+            return;
+        }
+
+        generateAddress(writer, mode, lo, hi);
+        writer.istore(LOCAL_ADDRESS);
+
+        writer.aload(LOCAL_CPU);
+        writer.iload(LOCAL_ADDRESS);
+        writer.aload(LOCAL_CPU);
+        writer.aload(LOCAL_CPU);
+        writer.iload(LOCAL_ADDRESS);
+        writer.invokeVirtual(CPU_CLASS, "readMemory", "(I)I");
+        writer.invokeStatic(HANDLERS_CLASS, name, CPU_INT_TO_INT);
+        writer.invokeVirtual(CPU_CLASS, "writeMemory", "(II)V");
+    }
+
+    // MODIFIES: writer
+    // EFFECTS:  writes the code for a store of the register returned by getter.
+    private static void generateStore(BytecodeWriter writer, int mode, String getter, int lo, int hi) {
+        writer.aload(LOCAL_CPU);
+        generateAddress(writer, mode, lo, hi);
+        writer.aload(LOCAL_CPU);
+        writer.invokeVirtual(CPU_CLASS, getter, "()I");
+        writer.invokeVirtual(CPU_CLASS, "writeMemory", "(II)V");
+    }
+
+    // MODIFIES: writer
+    // EFFECTS:  writes the code that pushes the effective address of the given addressing mode. Addresses that don't
+    //           depend on the registers are pushed as constants.
+    private static void generateAddress(BytecodeWriter writer, int mode, int lo, int hi) {
+        switch (mode) {
+            case Mode.ZERO_PAGE:
+                writer.pushInt(lo);
+                break;
+            case Mode.ABSOLUTE:
+                writer.pushInt(InstructionHandlers.absolute(lo, hi));
+                break;
+            case Mode.ZERO_PAGE_INDEXED_X:
+                writer.aload(LOCAL_CPU);
+                writer.pushInt(lo);
+                writer.invokeStatic(HANDLERS_CLASS, "zeroPageIndexedX", CPU_INT_TO_INT);
+                break;
+            case Mode.ZERO_PAGE_INDEXED_Y:
+                writer.aload(LOCAL_CPU);
+                writer.pushInt(lo);
+                writer.invokeStatic(HANDLERS_CLASS, "zeroPageIndexedY", CPU_INT_TO_INT);
+                break;
+            case Mode.ABSOLUTE_INDEXED_X:
+                writer.aload(LOCAL_CPU);
+                writer.pushInt(lo);
+                writer.pushInt(hi);
+                writer.invokeStatic(HANDLERS_CLASS, "absoluteIndexedX", "(Lmodel/CPU;II)I");
+                break;
+            case Mode.ABSOLUTE_INDEXED_Y:
+                writer.aload(LOCAL_CPU);
+                writer.pushInt(lo);
+                writer.pushInt(hi);
+                writer.invokeStatic(HANDLERS_CLASS, "absoluteIndexedY", "(Lmodel/CPU;II)I");
+                break;
+            case Mode.INDIRECT:
+                writer.aload(LOCAL_CPU);
+                writer.pushInt(lo);
+                writer.pushInt(hi);
+                writer.invokeStatic(HANDLERS_CLASS, "indirect", "(Lmodel/CPU;II)I");
+                break;
+            default:
+                throw new IllegalArgumentException("Mode " + mode + " has no compilable address.");
+        }
+    }
+
+    // ########## SETTINGS AND STATS ##########
+
+    // EFFECTS: returns the number of times a block has to be entered before it is compiled.
+    public int getHotThreshold() {
+        return hotThreshold;
+    }
+
+    // REQUIRES: hotThreshold >= 1
+    // MODIFIES: this
+    // EFFECTS:  sets the number of times a block has to be entered before it is compiled.
+    public void setHotThreshold(int hotThreshold) {
+        this.hotThreshold = hotThreshold;
+    }
+
+    // EFFECTS: returns the number of blocks compiled so far.
+    public long getCompiledBlocks() {
+        return compiledBlocks;
+    }
+
+    // EFFECTS: returns the number of instructions in all blocks compiled so far.
+    public long getCompiledInstructions() {
+        return compiledInstructions;
+    }
+
+    // EFFECTS: returns the number of blocks that were compilable but couldn't be defined as a class.
+    public long getFailedBlocks() {
+        return failedBlocks;
+    }
+}
@@ -0,0 +1,179 @@
+package model;
+
+// Class Scheduler:
+//     The master clock of the NES and the events that are due on it. The clock counts NTSC master clock ticks (about
+//     21.47 MHz): a CPU cycle is CPU_TICKS ticks and a PPU cycle is PPU_TICKS ticks, so it takes a long time for the
+//     clock to overflow (tens of thousands of years). Every event kind has at most one pending time, and the pending
+//     events are kept in a binary min-heap so that the next one can be found without looking at all of them. The Bus
+//     advances the clock and runs the components up to the next event, instead of having them check their state on
+//     every cycle.
+
+public class Scheduler {
+    // Constants
+    public static final int  CPU_TICKS  = 12;
+    public static final int  PPU_TICKS  = 4;
+    public static final long NEVER      = Long.MAX_VALUE;
+
+    // Events
+    public static final int  VBLANK         = 0; // the PPU sets the vblank flag and raises NMI
+    public static final int  APU_FRAME_STEP = 1; // the APU frame sequencer clocks the length counters
+    public static final int  NUM_EVENTS     = 2;
+
+    private long clock;
+
+    // times[event] is when event is due. heap holds the pending events, ordered by time, and heapIndex[event] is
+    // where event is in heap, or -1 if it isn't pending.
+    private final long[] times;
+    private final int[]  heap;
+    private final int[]  heapIndex;
+    private int          size;
+
+    // EFFECTS: creates a scheduler at clock 0 with no pending events.
+    public Scheduler() {
+        times     = new long[NUM_EVENTS];
+        heap      = new int[NUM_EVENTS];
+        heapIndex = new int[NUM_EVENTS];
+        reset();
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  sets the clock back to 0 and cancels every event.
+    public void reset() {
+        clock = 0;
+        size  = 0;
+        for (int event = 0; event < NUM_EVENTS; event++) {
+            times[event]     = NEVER;
+            heapIndex[event] = -1;
+        }
+    }
+
+    // EFFECTS: returns a scheduler with the same clock and the same pending events.
+    public Scheduler copy() {
+        Scheduler copy = new Scheduler();
+        copy.clock = clock;
+        copy.size  = size;
+        System.arraycopy(times,     0, copy.times,     0, NUM_EVENTS);
+        System.arraycopy(heap,      0, copy.heap,      0, NUM_EVENTS);
+        System.arraycopy(heapIndex, 0, copy.heapIndex, 0, NUM_EVENTS);
+        return copy;
+    }
+
+    public long getClock() {
+        return clock;
+    }
+
+    // REQUIRES: ticks >= 0
+    // MODIFIES: this
+    // EFFECTS:  moves the clock ticks ticks forward. Events that become due are left for the caller to pop.
+    public void advance(long ticks) {
+        clock += ticks;
+    }
+
+    // REQUIRES: 0 <= event < NUM_EVENTS
+    // MODIFIES: this
+    // EFFECTS:  makes event due at time, replacing the time it was due at before (if any).
+    public void schedule(int event, long time) {
+        if (heapIndex[event] == -1) {
+            heap[size]       = event;
+            heapIndex[event] = size;
+            size++;
+        }
+
+        long previous = times[event];
+        times[event] = time;
+        if (time < previous) {
+            siftUp(heapIndex[event]);
+        } else {
+            siftDown(heapIndex[event]);
+        }
+    }
+
+    // REQUIRES: 0 <= event < NUM_EVENTS
+    // MODIFIES: this
+    // EFFECTS:  cancels event if it is pending.
+    public void cancel(int event) {
+        int index = heapIndex[event];
+        if (index == -1) {
+            return;
+        }
+
+        size--;
+        times[event]     = NEVER;
+        heapIndex[event] = -1;
+        if (index != size) {
+            int last = heap[size];
+            heap[index]     = last;
+            heapIndex[last] = index;
+            siftUp(index);
+            siftDown(heapIndex[last]);
+        }
+    }
+
+    // EFFECTS: returns the time the next event is due at, or NEVER if there are no pending events.
+    public long getNextEventTime() {
+        return size == 0 ? NEVER : times[heap[0]];
+    }
+
+    // EFFECTS: returns the event that is due next, or -1 if there are no pending events.
+    public int getNextEvent() {
+        return size == 0 ? -1 : heap[0];
+    }
+
+    // EFFECTS: returns the time event is due at, or NEVER if it isn't pending.
+    public long getEventTime(int event) {
+        return times[event];
+    }
+
+    // REQUIRES: there is at least one pending event.
+    // MODIFIES: this
+    // EFFECTS:  removes the event that is due next and returns it.
+    public int popEvent() {
+        int event = heap[0];
+        cancel(event);
+        return event;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  moves the event at index up the heap until its parent is due no later than it.
+    private void siftUp(int index) {
+        int event = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (times[heap[parent]] <= times[event]) {
+                break;
+            }
+
+            heap[index] = heap[parent];
+            heapIndex[heap[index]] = index;
+            index = parent;
+        }
+
+        heap[index]      = event;
+        heapIndex[event] = index;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  moves the event at index down the heap until its children are due no earlier than it.
+    private void siftDown(int index) {
+        int event = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && times[heap[child + 1]] < times[heap[child]]) {
+                child++;
+            }
+            if (times[event] <= times[heap[child]]) {
+                break;
+            }
+
+            heap[index] = heap[child];
+            heapIndex[heap[index]] = index;
+            index = child;
+        }
+
+        heap[index]      = event;
+        heapIndex[event] = index;
+    }
+}
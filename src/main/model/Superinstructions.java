@@ -0,0 +1,157 @@
+package model;
+
+// Class Superinstructions:
+//     Fused handlers for pairs of instructions that show up all the time in game code (LDA/STA copies, DEX/BNE and
+//     DEY/BNE countdown loops, CLC/ADC additions, and the LDA/CMP, CMP/BNE halves of polling loops). Pairs are
+//     recognised when a DecodedBlock is decoded, and the CPU runs a pair with a single dispatch while it is cycling
+//     freely.
+//
+//     Timing is kept exact by only fusing pairs whose second instruction can't be seen by anything but the CPU: it
+//     only ever changes registerA, registerPC, the C, V, Z and N flags, and at most one byte of internal RAM, and it
+//     never reads I/O. Every handler calls cpu.splitSuperinstruction() in between the two instructions, so that the
+//     CPU can still account for the second instruction's cycles separately, and can undo it if an NMI turns out to
+//     come in before it would have started.
+
+final class Superinstructions {
+    static final int NONE    = 0;
+    static final int LDA_STA = 1;
+    static final int DEX_BNE = 2;
+    static final int DEY_BNE = 3;
+    static final int CLC_ADC = 4;
+    static final int LDA_CMP = 5;
+    static final int CMP_BNE = 6;
+
+    static final String[] NAMES = { "NONE", "LDA/STA", "DEX/BNE", "DEY/BNE", "CLC/ADC", "LDA/CMP", "CMP/BNE" };
+
+    private static final int LDA_IMMEDIATE = 0xA9;
+    private static final int LDA_ZERO_PAGE = 0xA5;
+    private static final int LDA_ABSOLUTE  = 0xAD;
+    private static final int STA_ZERO_PAGE = 0x85;
+    private static final int STA_ABSOLUTE  = 0x8D;
+    private static final int ADC_IMMEDIATE = 0x69;
+    private static final int ADC_ZERO_PAGE = 0x65;
+    private static final int ADC_ABSOLUTE  = 0x6D;
+    private static final int CMP_IMMEDIATE = 0xC9;
+    private static final int BNE_RELATIVE  = 0xD0;
+    private static final int CLC_IMPLICIT  = 0x18;
+    private static final int DEX_IMPLICIT  = 0xCA;
+    private static final int DEY_IMPLICIT  = 0x88;
+
+    // EFFECTS: makes the code coverage autobot not complain about me not instantiating a Superinstructions class.
+    private Superinstructions() {
+
+    }
+
+    // MODIFIES: block
+    // EFFECTS:  marks every superinstruction in block, pairing instructions greedily from the start of the block.
+    static void fuse(DecodedBlock block) {
+        int index = 0;
+        while (index + 1 < block.size) {
+            int superinstruction = match(block, index);
+            block.superinstructions[index] = superinstruction;
+            index += (superinstruction == NONE) ? 1 : 2;
+        }
+    }
+
+    // REQUIRES: index + 1 < block.size
+    // EFFECTS:  returns the superinstruction made of the instructions at index and index + 1 in block, or NONE.
+    static int match(DecodedBlock block, int index) {
+        int first  = block.opcodes[index];
+        int second = block.opcodes[index + 1];
+        int lo     = block.lows[index + 1];
+        int hi     = block.highs[index + 1];
+        boolean firstIsLda = first == LDA_IMMEDIATE || first == LDA_ZERO_PAGE || first == LDA_ABSOLUTE;
+
+        if (firstIsLda && (second == STA_ZERO_PAGE
+                || (second == STA_ABSOLUTE && Recompiler.isRam(InstructionHandlers.absolute(lo, hi))))) {
+            return LDA_STA;
+        } else if (first == DEX_IMPLICIT && second == BNE_RELATIVE) {
+            return DEX_BNE;
+        } else if (first == DEY_IMPLICIT && second == BNE_RELATIVE) {
+            return DEY_BNE;
+        } else if (first == CLC_IMPLICIT && (second == ADC_IMMEDIATE || second == ADC_ZERO_PAGE
+                || (second == ADC_ABSOLUTE && Recompiler.isReadable(InstructionHandlers.absolute(lo, hi))))) {
+            return CLC_ADC;
+        } else if (firstIsLda && second == CMP_IMMEDIATE) {
+            return LDA_CMP;
+        } else if (first == CMP_IMMEDIATE && second == BNE_RELATIVE) {
+            return CMP_BNE;
+        }
+
+        return NONE;
+    }
+
+    // REQUIRES: block.superinstructions[index] != NONE, registerPC points right after the first instruction.
+    // MODIFIES: cpu
+    // EFFECTS:  runs both instructions of the superinstruction at index, without their base cycles. Leaves registerPC
+    //           right after the second instruction, in whichever mirror the block was entered through.
+    static void execute(CPU cpu, DecodedBlock block, int index) {
+        int second = index + 1;
+        int lo     = block.lows[index];
+        int hi     = block.highs[index];
+        int afterSecond = cpu.getRegisterPC() + block.lengths[second];
+
+        switch (block.superinstructions[index]) {
+            case LDA_STA:
+                lda(cpu, block.opcodes[index], lo, hi);
+                cpu.splitSuperinstruction();
+                cpu.setRegisterPC(afterSecond);
+                int address = InstructionHandlers.absolute(block.lows[second], block.highs[second]);
+                cpu.splitWrite(address);
+                cpu.writeMemory(address, cpu.getRegisterA());
+                break;
+            case DEX_BNE:
+                InstructionHandlers.dex(cpu);
+                cpu.splitSuperinstruction();
+                cpu.setRegisterPC(afterSecond);
+                InstructionHandlers.bne(cpu, block.lows[second]);
+                break;
+            case DEY_BNE:
+                InstructionHandlers.dey(cpu);
+                cpu.splitSuperinstruction();
+                cpu.setRegisterPC(afterSecond);
+                InstructionHandlers.bne(cpu, block.lows[second]);
+                break;
+            case CLC_ADC:
+                InstructionHandlers.clc(cpu);
+                cpu.splitSuperinstruction();
+                cpu.setRegisterPC(afterSecond);
+                InstructionHandlers.adc(cpu, operand(cpu, block.opcodes[second], block.lows[second],
+                                                     block.highs[second]));
+                break;
+            case LDA_CMP:
+                lda(cpu, block.opcodes[index], lo, hi);
+                cpu.splitSuperinstruction();
+                cpu.setRegisterPC(afterSecond);
+                InstructionHandlers.cmp(cpu, block.lows[second]);
+                break;
+            case CMP_BNE:
+                InstructionHandlers.cmp(cpu, lo);
+                cpu.splitSuperinstruction();
+                cpu.setRegisterPC(afterSecond);
+                InstructionHandlers.bne(cpu, block.lows[second]);
+                break;
+            default:
+                break;
+        }
+    }
+
+    // MODIFIES: cpu
+    // EFFECTS:  runs the immediate, zero page or absolute LDA with the given opcode byte.
+    private static void lda(CPU cpu, int opcode, int lo, int hi) {
+        InstructionHandlers.lda(cpu, operand(cpu, opcode, lo, hi));
+    }
+
+    // EFFECTS: returns the operand of an immediate, zero page or absolute instruction, using the low nibble of the
+    //          opcode byte to tell them apart (9: immediate, 5: zero page, D: absolute).
+    private static int operand(CPU cpu, int opcode, int lo, int hi) {
+        switch (opcode & 0x0F) {
+            case 0x09:
+                return lo;
+            case 0x05:
+                return cpu.readMemory(lo);
+            default:
+                return cpu.readMemory(InstructionHandlers.absolute(lo, hi));
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package model;
+
+// Enum SyncMode:
+//     How Bus.runCycles keeps the PPU and APU in step with the CPU. LOCKSTEP runs three PPU cycles before every CPU
+//     cycle and an APU cycle after every second one. CATCH_UP lets the CPU run ahead, and only brings the PPU and APU
+//     up to the current time when the difference could be seen: when the CPU touches one of their registers (or the
+//     mapper), when their next Scheduler event comes up, and at the end of runCycles. Both are exact.
+//
+//     SCANLINE is the fast, inexact tier: the CPU runs a scanline's worth of cycles (341 PPU cycles, about 113.67 CPU
+//     cycles) on its own, and then the PPU runs that whole scanline in one go. The CPU sees the PPU as it was at the
+//     end of the last scanline, so PPUSTATUS and NMI can come up to a scanline late. Most games don't care, but the
+//     ones that time mid-frame effects to the cycle will look different; SyncModeReport tells which is which.
+
+public enum SyncMode {
+    LOCKSTEP, CATCH_UP, SCANLINE
+}
@@ -0,0 +1,142 @@
+package model;
+
+import ui.Pixels;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+// Class SyncModeReport:
+//     SyncModeReport runs a cartridge for a number of frames in two sync modes, and compares the frames that come out
+//     of each. Since SCANLINE only approximates the exact modes, this is how to tell whether a game is safe to run in
+//     it: if every frame matches, the player can't tell the difference. Both runs start on a new console, with no
+//     controller input, so the only thing that differs between them is the sync mode.
+
+public class SyncModeReport {
+    public  static final int    DEFAULT_FRAMES       = 600;
+    private static final int    SCREEN_WIDTH         = 256;
+    private static final int    SCREEN_HEIGHT        = 240;
+    private static final String CARTRIDGE_FOLDER     = "./data/rom/";
+
+    private final String   cartridgeName;
+    private final SyncMode exactMode;
+    private final SyncMode fastMode;
+    private final int      frames;
+    private final int      divergedFrames;
+    private final int      firstDivergedFrame;
+
+    // EFFECTS: creates a report of fastMode against exactMode. firstDivergedFrame is -1 if no frame diverged.
+    private SyncModeReport(String cartridgeName, SyncMode exactMode, SyncMode fastMode, int frames,
+                           int divergedFrames, int firstDivergedFrame) {
+        this.cartridgeName      = cartridgeName;
+        this.exactMode          = exactMode;
+        this.fastMode           = fastMode;
+        this.frames             = frames;
+        this.divergedFrames     = divergedFrames;
+        this.firstDivergedFrame = firstDivergedFrame;
+    }
+
+    // REQUIRES: frames > 0
+    // EFFECTS:  runs the cartridge for the given number of frames in exactMode and then in fastMode, and reports which
+    //           frames differ. Each run gets a console of its own.
+    public static SyncModeReport compare(File cartridge, SyncMode exactMode, SyncMode fastMode, int frames)
+            throws IOException {
+        long[] expected = hashFrames(cartridge, exactMode, frames);
+        long[] actual   = hashFrames(cartridge, fastMode, frames);
+
+        int divergedFrames     = 0;
+        int firstDivergedFrame = -1;
+        for (int frame = 0; frame < frames; frame++) {
+            if (expected[frame] != actual[frame]) {
+                divergedFrames++;
+                if (firstDivergedFrame == -1) {
+                    firstDivergedFrame = frame;
+                }
+            }
+        }
+
+        String name = cartridge.getName().replaceFirst("\\.nes$", "");
+        return new SyncModeReport(name, exactMode, fastMode, frames, divergedFrames, firstDivergedFrame);
+    }
+
+    // REQUIRES: frames > 0
+    // EFFECTS:  runs the cartridge on a new console with the given sync mode one frame at a time (see Bus.runFrame),
+    //           and returns a hash of the screen after every frame.
+    private static long[] hashFrames(File cartridge, SyncMode syncMode, int frames) throws IOException {
+        Bus bus = new Bus();
+        bus.loadCartridge(cartridge);
+        Pixels pixels = new Pixels(1, 1, SCREEN_WIDTH, SCREEN_HEIGHT);
+        bus.getPpu().setPixels(pixels);
+        bus.setSyncMode(syncMode);
+
+        long[] hashes = new long[frames];
+        for (int frame = 0; frame < frames; frame++) {
+            bus.runFrame();
+
+            long hash = 0;
+            for (int x = 0; x < SCREEN_WIDTH; x++) {
+                for (int y = 0; y < SCREEN_HEIGHT; y++) {
+                    hash = hash * 31 + pixels.getRGB(x, y);
+                }
+            }
+            hashes[frame] = hash;
+        }
+
+        return hashes;
+    }
+
+    public String getCartridgeName() {
+        return cartridgeName;
+    }
+
+    public int getFrames() {
+        return frames;
+    }
+
+    public int getDivergedFrames() {
+        return divergedFrames;
+    }
+
+    // EFFECTS: returns the first frame (counting from 0) that differs between the two modes, or -1 if none do.
+    public int getFirstDivergedFrame() {
+        return firstDivergedFrame;
+    }
+
+    // EFFECTS: returns true if every frame was the same in both modes.
+    public boolean isSafe() {
+        return divergedFrames == 0;
+    }
+
+    // EFFECTS: returns a one line summary of the report.
+    @Override
+    public String toString() {
+        if (isSafe()) {
+            return String.format("%s: %s matches %s on all %d frames", cartridgeName, fastMode, exactMode, frames);
+        }
+
+        return String.format("%s: %s differs from %s on %d of %d frames, starting at frame %d", cartridgeName,
+                fastMode, exactMode, divergedFrames, frames, firstDivergedFrame);
+    }
+
+    // EFFECTS: prints a SCANLINE against CATCH_UP report for every cartridge given, or for every cartridge in
+    //          CARTRIDGE_FOLDER if none are.
+    public static void main(String[] args) throws IOException {
+        File[] cartridges;
+        if (args.length > 0) {
+            cartridges = new File[args.length];
+            for (int i = 0; i < args.length; i++) {
+                cartridges[i] = new File(args[i]);
+            }
+        } else {
+            cartridges = new File(CARTRIDGE_FOLDER).listFiles((dir, name) -> name.endsWith(".nes"));
+            if (cartridges == null) {
+                cartridges = new File[0];
+            }
+            Arrays.sort(cartridges);
+        }
+
+        for (File cartridge : cartridges) {
+            System.out.println(compare(cartridge, SyncMode.CATCH_UP, SyncMode.SCANLINE, DEFAULT_FRAMES));
+        }
+    }
+}
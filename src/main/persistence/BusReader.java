@@ -27,9 +27,10 @@ public class BusReader {
     }
 
     // REQUIRES: fileName.EXTENSION exists in SAVE_DIRECTORY
-    // EFFECTS: saves the NES' state to a file at filename. Throws IOException if the file could not be read from.
-    public static Bus readFromFile(String fileName) {
-        Bus bus = Bus.getInstance();
+    // MODIFIES: bus
+    // EFFECTS: loads the NES' state saved at filename into bus, and returns bus. If the file could not be read from,
+    //          bus is left soft reset.
+    public static Bus readFromFile(Bus bus, String fileName) {
         bus.softReset();
 
         try {
@@ -83,7 +84,7 @@ public class BusReader {
     //           in the scanner.
     // EFFECTS: reads the scanner to set the CPU's state. (cycles and breakpoints)
     private static void readCpuState(CPU cpu, Scanner scanner) {
-        cpu.setCycles(Integer.parseInt(scanner.next()));
+        cpu.setCycles(Long.parseLong(scanner.next()));
 
         int numBreakpoints = Integer.parseInt(scanner.next());
         for (int i = 0; i < numBreakpoints; i++) {
@@ -156,11 +157,16 @@ public class BusReader {
     }
 
     // REQUIRES: scanner has at least 0x0020 * 2 + 1 delimited integers.
-    // EFFECTS: reads the scanner to set the PPU's palette ram indexes
+    // EFFECTS: reads the scanner to set the PPU's palette ram indexes. Older savestates stored 0x200 indexes, of which
+    //          only the first 0x20 were ever used, so the rest are skipped.
     private static void readPpuPaletteRamIndexes(PPU ppu, Scanner scanner) throws IOException {
+        byte[] indexes = ppu.getPaletteRamIndexes().getIndexes();
         int length = Integer.parseInt(scanner.next());
         for (int i = 0; i < length; i++) {
-            ppu.getPaletteRamIndexes().getIndexes()[i] = Integer.parseInt(scanner.next());
+            int value = Integer.parseInt(scanner.next());
+            if (i < indexes.length) {
+                indexes[i] = (byte) value;
+            }
         }
     }
 
@@ -73,7 +73,7 @@ public class BusWriter {
     // REQUIRES: fileWriter is open and can be written to.
     // EFFECTS: writes the CPU's flags to the fileWriter
     private static void writeCpuFlags(CPU cpu, FileWriter fileWriter) throws IOException {
-        fileWriter.write(cpu.getStatus());
+        fileWriter.write(Integer.toString(cpu.getStatus()));
         fileWriter.write(DELIMITER);
     }
 
@@ -104,10 +104,12 @@ public class BusWriter {
         }
     }
 
-    // MODIFIES: fileWriter
+    // MODIFIES: fileWriter, ppu
     // REQUIRES: fileWriter is open and can be written to.
-    // EFFECTS:  writes the PPU's state to the fileWriter
+    // EFFECTS:  writes the PPU's state to the fileWriter, after running any cycles it put off in the middle of a
+    //           scanline.
     private static void writePpu(PPU ppu, FileWriter fileWriter) throws IOException {
+        ppu.finishDeferredCycles();
         writePpuLatches(ppu, fileWriter);
         writePpuInternalRegisters(ppu, fileWriter);
         writePpuShiftRegisters(ppu, fileWriter);
@@ -183,8 +185,8 @@ public class BusWriter {
     private static void writePpuNametables(PPU ppu, FileWriter fileWriter) throws IOException {
         fileWriter.write(ppu.getNametable().length + "");
         fileWriter.write(DELIMITER);
-        for (int address : ppu.getNametable()) {
-            fileWriter.write(address + "");
+        for (byte address : ppu.getNametable()) {
+            fileWriter.write((address & 0xFF) + "");
             fileWriter.write(DELIMITER);
         }
 
@@ -198,8 +200,8 @@ public class BusWriter {
     private static void writePpuPaletteRamIndexes(PPU ppu, FileWriter fileWriter) throws IOException {
         fileWriter.write(ppu.getPaletteRamIndexes().getIndexes().length + "");
         fileWriter.write(DELIMITER);
-        for (int address : ppu.getPaletteRamIndexes().getIndexes()) {
-            fileWriter.write(address);
+        for (byte address : ppu.getPaletteRamIndexes().getIndexes()) {
+            fileWriter.write((address & 0xFF) + "");
             fileWriter.write(DELIMITER);
         }
     }
@@ -210,14 +212,14 @@ public class BusWriter {
     private static void writePpuOam(PPU ppu, FileWriter fileWriter) throws IOException {
         fileWriter.write(ppu.getPrimaryOam().length + "");
         fileWriter.write(DELIMITER);
-        for (int address : ppu.getPrimaryOam()) {
-            fileWriter.write(address + "");
+        for (byte address : ppu.getPrimaryOam()) {
+            fileWriter.write((address & 0xFF) + "");
             fileWriter.write(DELIMITER);
         }
         fileWriter.write(ppu.getSecondaryOam().length + "");
         fileWriter.write(DELIMITER);
-        for (int address : ppu.getSecondaryOam()) {
-            fileWriter.write(address + "");
+        for (byte address : ppu.getSecondaryOam()) {
+            fileWriter.write((address & 0xFF) + "");
             fileWriter.write(DELIMITER);
         }
     }
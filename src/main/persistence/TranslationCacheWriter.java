@@ -0,0 +1,103 @@
+package persistence;
+
+import model.Bus;
+import model.CPU;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+
+// Class TranslationCacheWriter
+//     TranslationCacheWriter saves the blocks the CPU has decoded in the cartridge's PRG ROM (where each one starts,
+//     how many instructions it has, its code, and how many times it was entered) to CACHE_DIRECTORY/<rom sha1>/.
+//     TranslationCacheReader uses the file to warm up the block cache and the recompiler the next time the same
+//     cartridge is loaded.
+//
+//     File format (one line each, values separated by DELIMITER):
+//         MAGIC Bus.EMULATOR_VERSION <rom sha1> <number of blocks>
+//         <address> <executions> <number of instructions> <number of bytes> <byte 0> <byte 1> ...   (once per block)
+//         END
+
+public class TranslationCacheWriter {
+    // Constants
+    protected static final String CACHE_DIRECTORY = "./data/cache/";
+    protected static final String FILE_NAME       = "blocks.cache";
+    protected static final String MAGIC           = "NESBLOCKS";
+    protected static final String END             = "END";
+    protected static final String DELIMITER       = " ";
+
+    // EFFECTS: makes the code coverage autobot not complain about me not instantiating a TranslationCacheWriter class.
+    public TranslationCacheWriter() {
+
+    }
+
+    // EFFECTS: writes the blocks of the loaded cartridge to CACHE_DIRECTORY. Returns true if the file was written.
+    public static boolean writeToFile(Bus bus) {
+        return writeToFile(bus, CACHE_DIRECTORY);
+    }
+
+    // EFFECTS: writes the blocks of the loaded cartridge to cacheDirectory/<rom sha1>/FILE_NAME. The file is written
+    //          next to the old one and then moved over it, so a crash never leaves half a cache behind. Returns true if
+    //          the file was written.
+    public static boolean writeToFile(Bus bus, String cacheDirectory) {
+        String hash = bus.getCartridgeHash();
+        if (hash == null) {
+            return false;
+        }
+
+        File directory = new File(cacheDirectory, hash);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            return false;
+        }
+
+        File file      = new File(directory, FILE_NAME);
+        File temporary = new File(directory, FILE_NAME + ".tmp");
+        try {
+            FileWriter fileWriter = new FileWriter(temporary, false);
+            writeBlocks(bus.getCpu(), hash, fileWriter);
+            fileWriter.flush();
+            fileWriter.close();
+
+            Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        } catch (IOException e) {
+            // Failed to write the cache; the next run will just have to warm up again.
+            temporary.delete();
+            return false;
+        }
+    }
+
+    // MODIFIES: fileWriter
+    // REQUIRES: fileWriter is open and can be written to.
+    // EFFECTS:  writes the header, every decoded PRG ROM block in cpu, and the end marker to fileWriter.
+    private static void writeBlocks(CPU cpu, String hash, FileWriter fileWriter) throws IOException {
+        ArrayList<Integer> addresses = cpu.getRomBlockAddresses();
+
+        fileWriter.write(MAGIC + DELIMITER + Bus.EMULATOR_VERSION + DELIMITER + hash + DELIMITER + addresses.size());
+        fileWriter.write("\n");
+
+        for (int address : addresses) {
+            int length = cpu.getBlockLength(address);
+            StringBuilder line = new StringBuilder();
+            line.append(address).append(DELIMITER);
+            line.append(cpu.getBlockExecutions(address)).append(DELIMITER);
+            line.append(cpu.getBlockSize(address)).append(DELIMITER);
+            line.append(length);
+
+            byte[] code = new byte[length];
+            cpu.readBlock(address, code, 0, length);
+            for (byte value : code) {
+                line.append(DELIMITER).append(value & 0xFF);
+            }
+
+            fileWriter.write(line.toString());
+            fileWriter.write("\n");
+        }
+
+        fileWriter.write(END);
+        fileWriter.write("\n");
+    }
+}
@@ -0,0 +1,116 @@
+package ppu;
+
+import java.util.Arrays;
+
+// Class BackgroundLayer:
+//     The background of all four nametables drawn into one 512x480 picture, laid out the way scrolling sees them:
+//     nametables 0 and 1 side by side on top, 2 and 3 below them. Every pixel is kept as its palette ram index, so
+//     palette changes never make the picture out of date; only a change to a tile's nametable byte, its attribute
+//     byte or its pattern does. The PPU marks those tiles dirty as they change, and draws just the dirty ones again
+//     before it copies a frame out of the layer.
+
+public class BackgroundLayer {
+    public static final int WIDTH         = 512;
+    public static final int HEIGHT        = 480;
+    public static final int TILES_ACROSS  = 64;
+    public static final int TILES_DOWN    = 60;
+    private static final int NAMETABLE_TILES_ACROSS = 32;
+    private static final int NAMETABLE_TILES_DOWN   = 30;
+    private static final int ATTRIBUTE_OFFSET       = 0x03C0;
+
+    private final byte[] pixels;
+    private final boolean[] dirtyTiles;
+    private final boolean[] dirtyPatterns;
+    private boolean isDirty;
+
+    // EFFECTS: creates a layer where every tile is dirty.
+    public BackgroundLayer() {
+        pixels        = new byte[WIDTH * HEIGHT];
+        dirtyTiles    = new boolean[TILES_ACROSS * TILES_DOWN];
+        dirtyPatterns = new boolean[TileCache.NUM_TILES];
+        markAll();
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  marks every tile dirty.
+    public void markAll() {
+        Arrays.fill(dirtyTiles, true);
+        isDirty = true;
+    }
+
+    // REQUIRES: 0 <= nametable < 4, 0 <= offset < 0x400
+    // MODIFIES: this
+    // EFFECTS:  marks the tiles that the byte at offset in the given nametable belongs to dirty: one tile for a
+    //           nametable byte, and the 4x4 tiles it covers for an attribute byte.
+    public void markNametableByte(int nametable, int offset) {
+        int left = (nametable & 1) * NAMETABLE_TILES_ACROSS;
+        int top  = (nametable >> 1) * NAMETABLE_TILES_DOWN;
+        if (offset < ATTRIBUTE_OFFSET) {
+            markTile(left + offset % NAMETABLE_TILES_ACROSS, top + offset / NAMETABLE_TILES_ACROSS);
+            return;
+        }
+
+        int attribute = offset - ATTRIBUTE_OFFSET;
+        int blockX = (attribute & 0x7) * 4;
+        int blockY = (attribute >> 3) * 4;
+        for (int y = blockY; y < Math.min(blockY + 4, NAMETABLE_TILES_DOWN); y++) {
+            for (int x = blockX; x < blockX + 4; x++) {
+                markTile(left + x, top + y);
+            }
+        }
+    }
+
+    // REQUIRES: 0 <= tileX < TILES_ACROSS, 0 <= tileY < TILES_DOWN
+    // MODIFIES: this
+    // EFFECTS:  marks the tile at (tileX, tileY) dirty.
+    public void markTile(int tileX, int tileY) {
+        dirtyTiles[tileY * TILES_ACROSS + tileX] = true;
+        isDirty = true;
+    }
+
+    // REQUIRES: 0 <= tile < TileCache.NUM_TILES
+    // MODIFIES: this
+    // EFFECTS:  marks every tile drawn with the given pattern dirty.
+    public void markPattern(int tile) {
+        dirtyPatterns[tile] = true;
+        isDirty = true;
+    }
+
+    // EFFECTS: returns true if any tile may need to be drawn again.
+    public boolean isDirty() {
+        return isDirty;
+    }
+
+    // REQUIRES: 0 <= tileX < TILES_ACROSS, 0 <= tileY < TILES_DOWN, 0 <= tile < TileCache.NUM_TILES
+    // EFFECTS:  returns true if the tile at (tileX, tileY), drawn with the given pattern, needs to be drawn again.
+    public boolean isTileDirty(int tileX, int tileY, int tile) {
+        return dirtyTiles[tileY * TILES_ACROSS + tileX] || dirtyPatterns[tile];
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  marks every tile clean, once the dirty ones have been drawn again.
+    public void clean() {
+        Arrays.fill(dirtyTiles, false);
+        Arrays.fill(dirtyPatterns, false);
+        isDirty = false;
+    }
+
+    // REQUIRES: 0 <= tileX < TILES_ACROSS, 0 <= tileY < TILES_DOWN, 0 <= tile < TileCache.NUM_TILES,
+    //           0 <= palette < 4
+    // MODIFIES: this
+    // EFFECTS:  draws the given tile from the tile cache at (tileX, tileY) with the given background palette.
+    public void drawTile(int tileX, int tileY, int tile, int palette, TileCache tileCache) {
+        int start = tileY * TileCache.ROWS_PER_TILE * WIDTH + tileX * TileCache.TILE_WIDTH;
+        for (int row = 0; row < TileCache.ROWS_PER_TILE; row++) {
+            for (int x = 0; x < TileCache.TILE_WIDTH; x++) {
+                pixels[start + row * WIDTH + x] = (byte) (tileCache.getPixel(tile, row, x) + palette * 4);
+            }
+        }
+    }
+
+    // REQUIRES: 0 <= x < WIDTH, 0 <= y < HEIGHT
+    // EFFECTS:  returns the palette ram index of the pixel at (x, y).
+    public int getPixel(int x, int y) {
+        return pixels[y * WIDTH + x];
+    }
+}
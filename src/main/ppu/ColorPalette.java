@@ -3,13 +3,47 @@ package ppu;
 import java.awt.*;
 
 // Class ColorPalette:
-//     A static list of colors that maps a number to a color.
+//     A static list of colors that maps a number to a color. Every color also comes as an ARGB int under each of the
+//     8 combinations of the color emphasis bits in PPUMASK (bit 0 is red, bit 1 is green and bit 2 is blue).
+//     Emphasizing a channel darkens the other two; the black colors ($xE and $xF) are left alone.
 
 public class ColorPalette {
+    // Constants
+    public  static final int    NUM_COLORS   = 64;
+    public  static final int    NUM_EMPHASES = 8;
+    private static final double EMPHASIS_ATTENUATION = 0.816328;
+
     public static Color getColor(int color) {
         return colorPalette[color];
     }
 
+    // EFFECTS: returns the color with the given number as an ARGB int.
+    public static int getRGB(int color) {
+        return rgbPalette[color];
+    }
+
+    // REQUIRES: 0 <= color < NUM_COLORS, 0 <= emphasis < NUM_EMPHASES
+    // EFFECTS:  returns the color with the given number as an ARGB int, with the given color emphasis applied.
+    public static int getRGB(int color, int emphasis) {
+        return rgbPalette[emphasis * NUM_COLORS + color];
+    }
+
+    // REQUIRES: 0 <= emphasis < NUM_EMPHASES
+    // EFFECTS:  returns the color as an ARGB int, with every channel that isn't emphasized darkened if any is.
+    private static int emphasize(Color color, int emphasis) {
+        double red   = color.getRed();
+        double green = color.getGreen();
+        double blue  = color.getBlue();
+
+        if (emphasis != 0) {
+            red   *= (emphasis & 0b001) == 0 ? EMPHASIS_ATTENUATION : 1;
+            green *= (emphasis & 0b010) == 0 ? EMPHASIS_ATTENUATION : 1;
+            blue  *= (emphasis & 0b100) == 0 ? EMPHASIS_ATTENUATION : 1;
+        }
+
+        return new Color((int) Math.round(red), (int) Math.round(green), (int) Math.round(blue)).getRGB();
+    }
+
     private static Color[] colorPalette = new Color[]{
             new Color(84, 84, 84),
             new Color(0, 30, 116),
@@ -76,4 +110,15 @@ public class ColorPalette {
             new Color(0, 0, 0),
             new Color(0, 0, 0)
     };
+
+    private static int[] rgbPalette = new int[NUM_EMPHASES * NUM_COLORS];
+
+    static {
+        for (int emphasis = 0; emphasis < NUM_EMPHASES; emphasis++) {
+            for (int color = 0; color < NUM_COLORS; color++) {
+                boolean isBlack = (color & 0x0F) >= 0x0E;
+                rgbPalette[emphasis * NUM_COLORS + color] = emphasize(colorPalette[color], isBlack ? 0 : emphasis);
+            }
+        }
+    }
 }
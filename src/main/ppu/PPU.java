@@ -5,10 +5,8 @@ import model.Bus;
 import model.Util;
 import ui.Pixels;
 
-import java.awt.*;
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Scanner;
 
 // Lots of information about how the PPU works comes from this video:
@@ -16,7 +14,16 @@ import java.util.Scanner;
 
 // Class PPU:
 //     Models the 2C02 PPU in the NES. Renders 8x8 sprites onto the screen and renders the background on the screen.
-//     Currently does not support color masking in ppuMask.
+//     Supports greyscale and color emphasis in ppuMask, but not hiding the leftmost 8 pixels.
+//
+//     There are three ways of rendering, from fastest to most exact: the full screen at once (the default), a
+//     scanline at a time, and dot by dot. Rendering a scanline at a time puts off the visible cycles of a scanline
+//     until its last one, and then draws the whole scanline in one go, which ends up exactly where running them dot by
+//     dot would. If anything reads or writes the PPU in the middle of the scanline, the cycles put off so far are run
+//     dot by dot first, and so is the rest of the scanline. The full screen shortcut can't show anything that changes
+//     while the screen is drawn, so once a game writes a register that changes the picture in the middle of a frame,
+//     the PPU goes on a scanline at a time from the next frame on. Rendering the full screen at once copies the
+//     scrolled screen out of a BackgroundLayer, which only draws the tiles that changed since the last frame again.
 
 public class PPU {
     // Constants
@@ -55,6 +62,14 @@ public class PPU {
     private static final int NUM_CYCLES = 341;
     private static final int NUM_SCANLINES = 261;
 
+    // Scanlines go from -1 (pre-render) to 260, so a frame is one scanline longer than NUM_SCANLINES.
+    public  static final int CYCLES_PER_FRAME = NUM_CYCLES * (NUM_SCANLINES + 1);
+    private static final int VBLANK_SCANLINE  = 241;
+    private static final int VBLANK_CYCLE     = 1;
+    private static final int CLEAR_CYCLE      = 1;   // when the pre-render scanline clears ppuStatus
+    private static final int EVALUATE_CYCLE   = 65;  // when a visible scanline evaluates the sprites
+    private static final int LAST_DRAW_CYCLE  = 256; // the last cycle of a visible scanline that draws a pixel
+
     private int latchNametable;
     private int latchAttributeTable;
     private int latchPatternTableLow;
@@ -80,13 +95,18 @@ public class PPU {
     public int ppuDataBuffer;
 
     // Memory
-    private int[] nametable;
+    private byte[] nametable;
     private Mirroring nametableMirroring;
     protected PaletteRamIndexes paletteRamIndexes;
-    private int[] primaryOam;
-    private int[] secondaryOam;
+    private int[] currentPalette; // the ARGB color of every palette ram index under the current ppuMask.
+    private byte[] primaryOam;
+    private byte[] secondaryOam;
     private Sprite[] sprites;
 
+    // The pattern tables, decoded (see TileCache). Forks share it until one of them has to decode a tile again.
+    private TileCache tileCache;
+    private boolean tileCacheShared;
+
     // Cycling
     protected int cycle;
     protected int scanline;
@@ -101,16 +121,39 @@ public class PPU {
     // essentially, we can skip rendering pixel by pixel and just put the nametable on
     // the screen directly.
     private boolean canRenderFullScreen;
-    private int[] backgroundCache; // used to draw the sprites after the background is rendered. contains background data.
+    // used to draw the sprites after the background is rendered. contains background data.
+    private byte[] backgroundCache;
+    private int splitRow;           // the first row of tiles that was drawn after the last frame was finished.
+    private BackgroundLayer backgroundLayer; // the nametables, drawn. made the first time the full screen is rendered.
+    private long redrawnTiles;               // the number of tiles drawn into backgroundLayer since reset.
+    private long redrawnTilesAtFrameStart;   // the same, when the last frame was finished.
+    private int redrawnTilesLastFrame;       // the number of tiles drawn into backgroundLayer for the last frame.
+    // true if a register that changes the picture was written while drawing the screen.
+    private boolean isSplitDetected;
+
+    // true if we render a scanline at a time when we can't render the full screen at once, false if dot by dot.
+    private boolean canRenderScanlines;
+    private boolean isLineDeferred;  // true if the cycles of this scanline since cycle 1 were put off until cycle 256.
+    private int[] spritePixels;      // the sprite color address of each pixel of the scanline, see loadSpritePixels.
+    private int[] frontSpritePixels; // the same, but only for sprites in front of the background.
+
+    private final Bus bus;
 
     // MODIFIES: this
     // EFFECTS: initializes the ppu, connects it to the bus, and resets it.
-    public PPU() {
-        nametable = new int[NUM_NAMETABLES * NAMETABLE_SIZE];
+    public PPU(Bus bus) {
+        this.bus = bus;
+        nametable = new byte[NUM_NAMETABLES * NAMETABLE_SIZE];
         paletteRamIndexes = new PaletteRamIndexes();
-        primaryOam = new int[PRIMARY_OAM_SIZE];
-        secondaryOam = new int[SECONDARY_OAM_SIZE];
+        currentPalette = new int[PALETTE_RAM_SIZE];
+        primaryOam = new byte[PRIMARY_OAM_SIZE];
+        secondaryOam = new byte[SECONDARY_OAM_SIZE];
         sprites = new Sprite[8];
+        tileCache = new TileCache();
+        tileCacheShared = false;
+        canRenderScanlines = true;
+        spritePixels = new int[LAST_DRAW_CYCLE];
+        frontSpritePixels = new int[LAST_DRAW_CYCLE];
 
         shiftRegisterSmall0 = new ShiftRegister(SHIFT_REGISTER_SMALL_SIZE);
         shiftRegisterSmall1 = new ShiftRegister(SHIFT_REGISTER_SMALL_SIZE);
@@ -120,6 +163,66 @@ public class PPU {
         reset();
     }
 
+    // MODIFIES: this
+    // EFFECTS:  returns a ppu in the same state as this one that is connected to bus. The copy has no pixels to draw
+    //           on; give it some with setPixels before running it. The two share the tile cache until either has to
+    //           decode a tile again. Cycles put off in the current scanline are run first (see finishDeferredCycles).
+    public PPU copy(Bus bus) {
+        finishDeferredCycles();
+        PPU copy = new PPU(bus);
+        copy.latchNametable        = latchNametable;
+        copy.latchAttributeTable   = latchAttributeTable;
+        copy.latchPatternTableLow  = latchPatternTableLow;
+        copy.latchPatternTableHigh = latchPatternTableHigh;
+
+        copy.registerV = registerV;
+        copy.registerT = registerT;
+        copy.registerX = registerX;
+        copy.registerW = registerW;
+
+        copy.shiftRegisterSmall0 = shiftRegisterSmall0.copy();
+        copy.shiftRegisterSmall1 = shiftRegisterSmall1.copy();
+        copy.shiftRegisterLarge0 = shiftRegisterLarge0.copy();
+        copy.shiftRegisterLarge1 = shiftRegisterLarge1.copy();
+
+        copy.ppuCtrl       = ppuCtrl;
+        copy.ppuMask       = ppuMask;
+        copy.ppuStatus     = ppuStatus;
+        copy.oamAddr       = oamAddr;
+        copy.ppuScroll     = ppuScroll;
+        copy.ppuData       = ppuData;
+        copy.ppuDataBuffer = ppuDataBuffer;
+
+        System.arraycopy(nametable,    0, copy.nametable,    0, nametable.length);
+        System.arraycopy(primaryOam,   0, copy.primaryOam,   0, primaryOam.length);
+        System.arraycopy(secondaryOam, 0, copy.secondaryOam, 0, secondaryOam.length);
+        copy.nametableMirroring = nametableMirroring;
+        copy.paletteRamIndexes  = paletteRamIndexes.copy();
+        System.arraycopy(currentPalette, 0, copy.currentPalette, 0, currentPalette.length);
+        copy.tileCache          = tileCache;
+        copy.tileCacheShared    = true;
+        tileCacheShared         = true;
+        for (int i = 0; i < sprites.length; i++) {
+            copy.sprites[i] = sprites[i].copy();
+        }
+
+        copy.cycle      = cycle;
+        copy.scanline   = scanline;
+        copy.drawX      = drawX;
+        copy.drawY      = drawY;
+        copy.isOddFrame = isOddFrame;
+
+        copy.canRenderFullScreen = canRenderFullScreen;
+        System.arraycopy(backgroundCache, 0, copy.backgroundCache, 0, backgroundCache.length);
+        copy.splitRow = splitRow;
+        copy.redrawnTiles             = redrawnTiles;
+        copy.redrawnTilesAtFrameStart = redrawnTilesAtFrameStart;
+        copy.redrawnTilesLastFrame    = redrawnTilesLastFrame;
+        copy.isSplitDetected    = isSplitDetected;
+        copy.canRenderScanlines = canRenderScanlines;
+        return copy;
+    }
+
     // MODIFIES: this
     // EFFECTS: resets all registers, latches, and cycling data of the PPU to their default values
     public void reset() {
@@ -145,28 +248,39 @@ public class PPU {
 
         // used for optimization
         canRenderFullScreen = true;
-        backgroundCache = new int[256 * 240];
+        backgroundCache = new byte[256 * 240];
+        splitRow = 0;
+        isSplitDetected = false;
+        isLineDeferred = false;
+        redrawnTiles = 0;
+        redrawnTilesAtFrameStart = 0;
+        redrawnTilesLastFrame = 0;
 
         resetNametables();
         resetPrimaryOam();
         resetSecondaryOam();
         resetSprites();
         setupInternalRegisters();
+        updatePalette();
     }
 
-    // MODIFIES: nametable
+    // MODIFIES: nametable, backgroundLayer
     // EFFECTS: resets the nametables to their default values
     private void resetNametables() {
         for (int i = 0; i < nametable.length; i++) {
             nametable[i] = 0;
         }
+
+        if (backgroundLayer != null) {
+            backgroundLayer.markAll();
+        }
     }
 
     // MODIFIES: primaryOam
     // EFFECTS: resets the primary OAM to its default value
     private void resetPrimaryOam() {
         for (int i = 0; i < primaryOam.length; i++) {
-            primaryOam[i] = 0xFF;
+            primaryOam[i] = (byte) 0xFF;
         }
     }
 
@@ -174,15 +288,20 @@ public class PPU {
     // EFFECTS:  resets the secondary OAM to its default value
     private void resetSecondaryOam() {
         for (int i = 0; i < secondaryOam.length; i++) {
-            secondaryOam[i] = 0xFF;
+            secondaryOam[i] = (byte) 0xFF;
         }
     }
 
     // MODIFIES: sprites
-    // EFFECTS: resets the sprites to their default value
+    // EFFECTS: resets the sprites to their default value. The sprites are created once and reused from then on, since
+    //          this runs on every scanline.
     private void resetSprites() {
         for (int i = 0; i < sprites.length; i++) {
-            sprites[i] = new Sprite(0, 0, 255, 256, 255, false, false);
+            if (sprites[i] == null) {
+                sprites[i] = new Sprite(0, 0, 255, 256, 255, false, false);
+            } else {
+                sprites[i].set(0, 0, 255, 256, 255, false, false);
+            }
         }
     }
 
@@ -202,33 +321,51 @@ public class PPU {
     // EFFECTS: runs the appropriate scanline and increments the cycle. Increments scanline if cycle overflows, and
     //          toggles isOddFrame when scanline overflows.
     public void cycle() {
+        if (canRenderFullScreen && isSplitDetected && scanline == -1 && cycle == 0) {
+            // the last frame changed something while it was being drawn (a scroll split, most likely), which can't be
+            // shown when rendering the full screen at once.
+            canRenderFullScreen = false;
+        }
+
         if (canRenderFullScreen) {
             // if we can optimize by rendering the full screen, we can just go straight to rendering.
             if (scanline == 0) {
                 if (cycle == 0) {
                     // get sprite zero's y position
-                    int sprite0Y = primaryOam[0];
+                    int sprite0Y = primaryOam[0] & 0xFF;
 
-                    // render the whole screen till there.
-                    renderScreenNametables(0, sprite0Y >> 3, pixels);
+                    // render the whole screen till there. the rows after that were drawn when the last frame was
+                    // finished, but only from splitRow on, so the ones in between have to be drawn now. the frame
+                    // buffer is handed off without being copied, so they would be left over from an older frame.
+                    renderScreenNametables(0, Math.max(sprite0Y >> 3, splitRow), pixels);
                     // as well as the sprites, those most likely wont be affected by sprite0 hits.
                     renderSprites(pixels);
                 }
             } else if (scanline == 240) {
                 if (cycle == 0) {
                     // get sprite zero's location
-                    int sprite0Y = primaryOam[0];
+                    int sprite0Y = primaryOam[0] & 0xFF;
 
                     pixels.storeBuffer();
-                    renderScreenNametables(sprite0Y >> 3, 32, pixels);
+                    redrawnTilesLastFrame    = (int) (redrawnTiles - redrawnTilesAtFrameStart);
+                    redrawnTilesAtFrameStart = redrawnTiles;
+                    splitRow = sprite0Y >> 3;
+                    renderScreenNametables(splitRow, 32, pixels);
                 }
             } else if (241 <= scanline && scanline <= 260) { // Vertical Blanking Scanlines
                 runVerticalBlankingScanline();
             }
 
 
+        } else if (isLineDeferred) {
+            if (cycle == LAST_DRAW_CYCLE) {
+                renderScanline();
+            }
         } else {
-            if (scanline <= -1 && Util.getNthBit(ppuMask, 3) == 1) { // Pre-Render Scanlines
+            if (canRenderScanlines && cycle == 1 && 0 <= scanline && scanline <= 239
+                    && Util.getNthBit(ppuMask, 3) == 1) { // Visible Scanlines, drawn all at once at cycle 256
+                isLineDeferred = true;
+            } else if (scanline <= -1 && Util.getNthBit(ppuMask, 3) == 1) { // Pre-Render Scanlines
                 runPreRenderScanline();
             } else if (scanline <= 239 && Util.getNthBit(ppuMask, 3) == 1) { // Visible Scanlines
                 runVisibleScanline();
@@ -239,17 +376,249 @@ public class PPU {
             }
         }
 
-        cycle++;
-        if (cycle == 341) {
+        incrementCycle(1);
+    }
+
+    // REQUIRES: cycle + numCycles <= NUM_CYCLES
+    // MODIFIES: this
+    // EFFECTS:  moves numCycles ahead in the current scanline. Increments scanline if cycle overflows, and toggles
+    //           isOddFrame when scanline overflows.
+    private void incrementCycle(int numCycles) {
+        cycle += numCycles;
+        if (cycle == NUM_CYCLES) {
             cycle = 0;
             scanline++;
         }
-        if (scanline == 261) {
+        if (scanline == NUM_SCANLINES) {
             isOddFrame = !isOddFrame;
             scanline = -1;
         }
     }
 
+    // EFFECTS: returns the number of cycles that can run before the PPU changes something the CPU can see (PPUSTATUS or
+    //          the NMI line), or 0 if it isn't known. When rendering the full screen at once, that only happens when
+    //          vblank starts. When rendering a scanline at a time, it also happens when the pre-render scanline clears
+    //          ppuStatus and when a visible scanline evaluates the sprites (which may set the sprite overflow flag),
+    //          as long as rendering is on. When rendering dot by dot, it isn't known.
+    public int getCyclesUntilNextEvent() {
+        if (!canRenderFullScreen && !canRenderScanlines) {
+            return 0;
+        }
+
+        int position = (scanline + 1) * NUM_CYCLES + cycle;
+        int cycles   = getCyclesUntilVblank() - 1;
+        if (canRenderFullScreen || Util.getNthBit(ppuMask, 3) == 0) {
+            return cycles;
+        }
+
+        cycles = Math.min(cycles, Math.floorMod(CLEAR_CYCLE - position, CYCLES_PER_FRAME));
+        int evaluationScanline = cycle <= EVALUATE_CYCLE ? scanline : scanline + 1;
+        if (0 <= evaluationScanline && evaluationScanline <= 239) {
+            cycles = Math.min(cycles, (evaluationScanline - scanline) * NUM_CYCLES + EVALUATE_CYCLE - cycle);
+        }
+
+        return cycles;
+    }
+
+    // EFFECTS: returns the number of cycles to run for vblank to start, counting the cycle that starts it. That is the
+    //          end of a frame: the frame drawn before it has been handed to pixels by then, whichever way it was
+    //          rendered.
+    public int getCyclesUntilVblank() {
+        int position = (scanline + 1) * NUM_CYCLES + cycle;
+        int vblank   = (VBLANK_SCANLINE + 1) * NUM_CYCLES + VBLANK_CYCLE;
+        return Math.floorMod(vblank - position, CYCLES_PER_FRAME) + 1;
+    }
+
+    // EFFECTS: returns the number of cycles left before the PPU moves on to the next scanline.
+    public int getCyclesLeftInScanline() {
+        return NUM_CYCLES - cycle;
+    }
+
+    // MODIFIES: this, bus
+    // EFFECTS:  same as calling cycle() numCycles times, but skips over the cycles that can't do anything (see
+    //           getIdleCycles) instead of running them.
+    public void runCycles(int numCycles) {
+        while (numCycles > 0) {
+            int idleCycles = getIdleCycles();
+            if (idleCycles == 0) {
+                cycle();
+                numCycles--;
+            } else {
+                int step = Math.min(numCycles, idleCycles);
+                incrementCycle(step);
+                numCycles -= step;
+            }
+        }
+    }
+
+    // EFFECTS: returns the number of cycles from this one on, in this scanline, that would do nothing but move ahead if
+    //          they were run. When rendering the full screen at once, those are all but the first two cycles of each
+    //          scanline. Otherwise, they are the cycles put off until the end of the scanline being drawn, the
+    //          scanlines that don't render (all of them but vblank starting, if rendering is off), and the stretches
+    //          of the other scanlines that don't fetch or restore anything.
+    private int getIdleCycles() {
+        if (canRenderFullScreen) {
+            return cycle <= VBLANK_CYCLE ? 0 : NUM_CYCLES - cycle;
+        } else if (isLineDeferred) {
+            return LAST_DRAW_CYCLE - cycle;
+        } else if (scanline >= 240 || Util.getNthBit(ppuMask, 3) == 0) {
+            return scanline == VBLANK_SCANLINE && cycle <= VBLANK_CYCLE ? 0 : NUM_CYCLES - cycle;
+        } else if (scanline == -1) {
+            return CLEAR_CYCLE < cycle && cycle <= 257 ? 258 - cycle : 0;
+        } else if (257 < cycle && cycle <= 320) {
+            return 321 - cycle;
+        } else if (336 < cycle) {
+            return NUM_CYCLES - cycle;
+        }
+
+        return 0;
+    }
+
+    // MODIFIES: this, pixels
+    // EFFECTS:  if the cycles of the current scanline were put off to be drawn all at once, runs the ones that should
+    //           have run by now dot by dot, and has the rest of the scanline run dot by dot as well. Anything that
+    //           reads or changes the state of the PPU in the middle of a scanline has to call this first; the register
+    //           and OAM accesses already do.
+    public void finishDeferredCycles() {
+        if (!isLineDeferred) {
+            return;
+        }
+
+        isLineDeferred = false;
+        int currentCycle = cycle;
+        for (cycle = 1; cycle < currentCycle; cycle++) {
+            runVisibleScanline();
+        }
+        cycle = currentCycle;
+    }
+
+    // REQUIRES: 0 <= scanline <= 239, cycle == 256, and cycles 1 to 255 of this scanline were put off
+    // MODIFIES: this, pixels
+    // EFFECTS:  runs cycles 1 to 256 of the scanline all at once: evaluates the sprites for the next scanline, and
+    //           draws the scanline from registerV, registerX and ppuCtrl straight out of the tile cache. Leaves the PPU
+    //           in exactly the state that running the cycles dot by dot would.
+    private void renderScanline() {
+        isLineDeferred = false;
+        resetSecondaryOam();
+        evaluateSprites();
+        boolean hasSprites = loadSpritePixels();
+
+        int fineX = registerX;
+        int patternTableOffset = Util.getNthBit(ppuCtrl, 4) * 0x0100;
+        int v = registerV;
+        int x = drawX;
+        int y = drawY;
+        int nametableByte = latchNametable;
+        int attributeByte = latchAttributeTable;
+        int patternLow    = latchPatternTableLow;
+        int patternHigh   = latchPatternTableHigh;
+        int small0 = shiftRegisterSmall0.getValue();
+        int small1 = shiftRegisterSmall1.getValue();
+        int large0 = shiftRegisterLarge0.getValue();
+        int large1 = shiftRegisterLarge1.getValue();
+
+        for (int dot = 1; dot <= LAST_DRAW_CYCLE; dot++) {
+            if (dot == LAST_DRAW_CYCLE && scanline != 0) { // Increment fineY, and coarseY if fineY overflows
+                v = (v + 0b001000000000000) & 0x7FFF;
+                if ((v >> 12) == 0) {
+                    v = (v & ~0x03E0) | ((v + 0x0020) & 0x03E0);
+                }
+                y++;
+            }
+
+            int colorAddress = ((small0 >> fineX) & 1) << 2 | ((small1 >> fineX) & 1) << 3
+                    | ((large0 >> fineX) & 1) | ((large1 >> fineX) & 1) << 1;
+            if (hasSprites) {
+                int spriteColorAddress = (colorAddress & 0x3) == 0 ? spritePixels[dot - 1] : frontSpritePixels[dot - 1];
+                if (spriteColorAddress != -1) {
+                    colorAddress = spriteColorAddress;
+                }
+            }
+            pixels.setPixel(x & 0xFF, y % 240, currentPalette[colorAddress]);
+
+            x++;
+            small0 >>= 1;
+            small1 >>= 1;
+            large0 >>= 1;
+            large1 >>= 1;
+            switch ((dot - 1) & 0x7) {
+                case 1:
+                    nametableByte = readNametable(v & 0x0FFF);
+                    break;
+                case 3:
+                    attributeByte = readNametable(((v >> 10) & 0x3) * NAMETABLE_SIZE + 0x03C0
+                            + ((v & 0x1F) >> 2) + 8 * (((v >> 5) & 0x1F) >> 2));
+                    break;
+                case 5:
+                    patternLow = tileCache.getLowPlane(patternTableOffset + nametableByte, v >> 12);
+                    break;
+                case 7:
+                    patternHigh = tileCache.getHighPlane(patternTableOffset + nametableByte, v >> 12);
+                    int attributeShift = (((v >> 6) & 1) * 2 + ((v >> 1) & 1)) << 1;
+                    small0 = (small0 & ~0xFF) | (((attributeByte >> attributeShift) & 1) == 1 ? 0xFF : 0);
+                    small1 = (small1 & ~0xFF) | (((attributeByte >> (attributeShift + 1)) & 1) == 1 ? 0xFF : 0);
+                    large0 = (large0 & ~0xFF00) | (patternLow << 8);
+                    large1 = (large1 & ~0xFF00) | (patternHigh << 8);
+                    break;
+            }
+
+            if ((x & 0x7) == 0) { // Increment coarseX
+                v = (v & ~0x1F) | ((v + 1) & 0x1F);
+            }
+        }
+
+        setRegisterV(v);
+        drawX = x;
+        drawY = y;
+        latchNametable        = nametableByte;
+        latchAttributeTable   = attributeByte;
+        latchPatternTableLow  = patternLow;
+        latchPatternTableHigh = patternHigh;
+        shiftRegisterSmall0.setNthBits(0, SHIFT_REGISTER_SMALL_SIZE, small0);
+        shiftRegisterSmall1.setNthBits(0, SHIFT_REGISTER_SMALL_SIZE, small1);
+        shiftRegisterLarge0.setNthBits(0, SHIFT_REGISTER_LARGE_SIZE, large0);
+        shiftRegisterLarge1.setNthBits(0, SHIFT_REGISTER_LARGE_SIZE, large1);
+        for (Sprite sprite : sprites) {
+            sprite.skipPixels(LAST_DRAW_CYCLE);
+        }
+        oamAddr = 0;
+    }
+
+    // MODIFIES: spritePixels, frontSpritePixels
+    // EFFECTS:  works out what getColorAddressUsingPriority would make of the sprites for each of the next 256 pixels:
+    //           spritePixels[i] is the color address of pixel i if the background there is transparent, and
+    //           frontSpritePixels[i] if it isn't. -1 means that the background shows through. Returns false, without
+    //           filling anything in, if none of the sprites are on the pixels.
+    private boolean loadSpritePixels() {
+        boolean hasSprites = false;
+        for (Sprite sprite : sprites) {
+            int first = Math.max(sprite.getCounter(), 0);
+            int last  = Math.min(sprite.getCounter() + 7, LAST_DRAW_CYCLE - 1);
+            if (first > last) {
+                continue;
+            }
+
+            if (!hasSprites) {
+                Arrays.fill(spritePixels, -1);
+                Arrays.fill(frontSpritePixels, -1);
+                hasSprites = true;
+            }
+
+            // later sprites win, like they do in getColorAddressUsingPriority.
+            for (int pixel = first; pixel <= last; pixel++) {
+                int colorAddress = sprite.peekColorAddressAsInt(pixel - first);
+                if ((colorAddress & 0x3) != 0) {
+                    spritePixels[pixel] = colorAddress;
+                    if (sprite.getPriority() == 0) {
+                        frontSpritePixels[pixel] = colorAddress;
+                    }
+                }
+            }
+        }
+
+        return hasSprites;
+    }
+
     // REQUIRES: 0 <= cycle <= 340
     // MODIFIES: this
     // EFFECTS: runs the appropriate visible scanline cycle based on the value of cycle
@@ -291,7 +660,7 @@ public class PPU {
         // https://wiki.nesdev.com/w/index.php/PPU_sprite_evaluation
         int secondaryOamIndex = 0;
         for (int i = 0; i < 64; i++) { // Loop through all the sprites
-            int spriteY = primaryOam[i * 4 + 0];
+            int spriteY = primaryOam[i * 4 + 0] & 0xFF;
             if (drawY - 6 <= spriteY && spriteY <= drawY + 1) { // Are we drawing the sprite on the next scanline?
                 for (int j = 0; j < 4; j++) {
                     if (secondaryOamIndex >= 32) { // Should the sprite overflow flag be set?
@@ -313,26 +682,26 @@ public class PPU {
         int offset = patternTableSelect * 0x0100;
 
         for (int i = 0; i < 8; i++) {
-            int spriteY = secondaryOam[i * 4 + 0];
+            int spriteY = secondaryOam[i * 4 + 0] & 0xFF;
             if (spriteY >= 0xEF) { // TODO: >= or >?
                 continue;
             }
 
-            int patternTableAddress = secondaryOam[i * 4 + 1];
-            int attribute = Util.getNthBits(secondaryOam[i * 4 + 2], 0, 2) + 4;
-            int spriteX = secondaryOam[i * 4 + 3];
+            int patternTableAddress = secondaryOam[i * 4 + 1] & 0xFF;
+            int attribute = Util.getNthBits(secondaryOam[i * 4 + 2] & 0xFF, 0, 2) + 4;
+            int spriteX = secondaryOam[i * 4 + 3] & 0xFF;
 
             int fineY = drawY - spriteY;
-            boolean isMirroredVertically = Util.getNthBit(secondaryOam[i * 4 + 2], 7) == 1;
+            boolean isMirroredVertically = Util.getNthBit(secondaryOam[i * 4 + 2] & 0xFF, 7) == 1;
             if (isMirroredVertically) {
                 fineY = 7 - fineY;
             }
-            int priority = Util.getNthBit(secondaryOam[i * 4 + 2], 5);
+            int priority = Util.getNthBit(secondaryOam[i * 4 + 2] & 0xFF, 5);
 
-            int patternTableLow = Util.reverse(getTileLow(offset + patternTableAddress)[fineY], 8);
-            int patternTableHigh = Util.reverse(getTileHigh(offset + patternTableAddress)[fineY], 8);
-            boolean isMirroredHorizontally = Util.getNthBit(secondaryOam[i * 4 + 2], 6) == 1;
-            sprites[i] = new Sprite(patternTableLow, patternTableHigh, attribute, spriteX, priority,
+            int patternTableLow = tileCache.getLowPlane(offset + patternTableAddress, fineY);
+            int patternTableHigh = tileCache.getHighPlane(offset + patternTableAddress, fineY);
+            boolean isMirroredHorizontally = Util.getNthBit(secondaryOam[i * 4 + 2] & 0xFF, 6) == 1;
+            sprites[i].set(patternTableLow, patternTableHigh, attribute, spriteX, priority,
                     isMirroredHorizontally, isMirroredVertically);
         }
     }
@@ -399,8 +768,7 @@ public class PPU {
 
         int patternTableSelect = Util.getNthBit(ppuCtrl, 4);
         int offset = patternTableSelect * 0x0100;
-        int patternTableLow = Util.reverse(getTileLow(offset + address)[fineY], 8);
-        latchPatternTableLow = patternTableLow;
+        latchPatternTableLow = tileCache.getLowPlane(offset + address, fineY);
     }
 
     private int getFineY() {
@@ -416,9 +784,7 @@ public class PPU {
 
         int patternTableSelect = Util.getNthBit(ppuCtrl, 4);
         int offset = patternTableSelect * 0x0100;
-        int patternTableHigh = Util.reverse(getTileHigh(offset + address)[fineY], 8);
-
-        latchPatternTableHigh = patternTableHigh;
+        latchPatternTableHigh = tileCache.getHighPlane(offset + address, fineY);
     }
 
     // MODIFIES: shiftRegisterSmall0, shiftRegisterSmall1, shiftRegisterLarge0, shiftRegisterLarge1
@@ -490,7 +856,7 @@ public class PPU {
         int bitFour = Util.getNthBit(shiftRegisterLarge1.getValue(), fineX);
         int fullByte = bitOne * 4 + bitTwo * 8 + bitThree * 1 + bitFour * 2;
 
-        Color color = getColor(getColorAddressUsingPriority(fullByte));
+        int color = getColor(getColorAddressUsingPriority(fullByte));
         pixels.setPixel(drawX & 0xFF, drawY % 240, color);
 
         drawX++;
@@ -530,9 +896,23 @@ public class PPU {
         return returnByte;
     }
 
-    // EFFECTS: returns the color associated with the given paletteRamIndexes address
-    private Color getColor(int address) {
-        return ColorPalette.getColor(paletteRamIndexes.readMemory(address));
+    // REQUIRES: 0 <= address < PALETTE_RAM_SIZE
+    // EFFECTS:  returns the ARGB color associated with the given paletteRamIndexes address
+    private int getColor(int address) {
+        return currentPalette[address];
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  works out the ARGB color of every palette ram index, applying greyscale (ppuMask bit 0) and color
+    //           emphasis (ppuMask bits 5 - 7). Has to be called whenever the palette ram or ppuMask changes, which
+    //           writeMemory and writeRegister take care of.
+    public void updatePalette() {
+        int greyscaleMask = Util.getNthBit(ppuMask, 0) == 1 ? 0x30 : 0x3F;
+        int emphasis      = Util.getNthBits(ppuMask, 5, 3);
+        for (int address = 0; address < PALETTE_RAM_SIZE; address++) {
+            int color = paletteRamIndexes.readMemory(address) & greyscaleMask;
+            currentPalette[address] = ColorPalette.getRGB(color, emphasis);
+        }
     }
 
     // REQUIRES: 257 <= cycle <= 320
@@ -579,13 +959,20 @@ public class PPU {
 
     }
 
-    // MODIFIES: this, bus
-    // EFFECTS: sets bus NMI if the 7th bit of PPUStatus is set, scanline == 241, and cycle == 1
+    // MODIFIES: this, bus, pixels
+    // EFFECTS: sets bus NMI if the 7th bit of PPUStatus is set, scanline == 241, and cycle == 1. At the same time,
+    //          publishes the frame drawn dot by dot, if there is one.
     private void runVerticalBlankingScanline() {
         if (scanline == 241 && cycle == 1) {
             ppuStatus = (ppuStatus | 0b10000000);
             if (Util.getNthBit(ppuCtrl, 7) == 1) {
-                Bus.getInstance().setNmi(true);
+                bus.setNmi(true);
+            }
+
+            // when rendering dot by dot, the frame is finished once vblank starts. if rendering is off, no pixels
+            // were drawn, so the last frame stays up.
+            if (!canRenderFullScreen && Util.getNthBit(ppuMask, 3) == 1) {
+                pixels.storeBuffer();
             }
         }
     }
@@ -619,6 +1006,9 @@ public class PPU {
     // MODIFIES: this:
     // EFFECTS: writes the value to the appropriate PPU register.
     public void writeRegister(int pointer, int value) {
+        finishDeferredCycles();
+        detectSplit(pointer, value);
+
         if (pointer == PPUCTRL_ADDRESS) {
             setPpuCtrl(value);
         } else if (pointer == PPUMASK_ADDRESS) {
@@ -638,15 +1028,36 @@ public class PPU {
         }
     }
 
-    // MODIFIES: ppuCtrl
-    // EFFECTS:  setsPpuCtrl to the value and updates registerT accordingly
+    // MODIFIES: this
+    // EFFECTS:  when rendering the full screen at once, notes if writing the value to the register at pointer changes
+    //           the picture while the background is being drawn, so that the next frame can be rendered a scanline at a
+    //           time instead. Writing ppuCtrl only changes the picture if it changes the nametable or a pattern table.
+    private void detectSplit(int pointer, int value) {
+        boolean isDrawing = 0 <= scanline && scanline <= 239 && Util.getNthBit(ppuMask, 3) == 1;
+        boolean changesPicture = pointer == PPUSCROLL_ADDRESS || pointer == PPUADDR_ADDRESS
+                || pointer == PPUDATA_ADDRESS || (pointer == PPUMASK_ADDRESS && value != ppuMask)
+                || (pointer == PPUCTRL_ADDRESS && ((value ^ ppuCtrl) & 0b00111011) != 0);
+        if (canRenderFullScreen && isDrawing && changesPicture) {
+            isSplitDetected = true;
+        }
+    }
+
+    // MODIFIES: ppuCtrl, registerT, backgroundLayer
+    // EFFECTS:  setsPpuCtrl to the value and updates registerT accordingly. If the background pattern table changes,
+    //           every tile in backgroundLayer is out of date.
     private void setPpuCtrl(int value) {
+        if (backgroundLayer != null && Util.getNthBit(value ^ ppuCtrl, 4) == 1) {
+            backgroundLayer.markAll();
+        }
         ppuCtrl = value;
         setRegisterT(Util.maskNthBits(value, registerT, 0, 10, 2));
     }
 
+    // MODIFIES: this
+    // EFFECTS:  sets ppuMask to the value and updates the current palette, in case greyscale or emphasis changed.
     private void setPpuMask(int value) {
         ppuMask = value;
+        updatePalette();
     }
 
     private void setPpuStatus(int value) {
@@ -658,10 +1069,10 @@ public class PPU {
     }
 
     // MODIFIES: primaryOam, oamAddr
-    // EFFECTS: sets primaryOam at index oamAddr to the value and increments oamAddr
+    // EFFECTS: sets primaryOam at index oamAddr to the value and increments oamAddr, wrapping around to 0
     private void setOamData(int value) {
-        primaryOam[oamAddr] = value;
-        oamAddr = (oamAddr + 1);
+        primaryOam[oamAddr] = (byte) value;
+        oamAddr = (oamAddr + 1) & (PRIMARY_OAM_SIZE - 1);
     }
 
     // MODIFIES: registerT, registerX, registerW
@@ -712,6 +1123,7 @@ public class PPU {
     // MODIFIES: this
     // EFFECTS: returns the value accessed from the specific register. Some accesses modify the PPU's state
     public int readRegister(int pointer) {
+        finishDeferredCycles();
         if (pointer == PPUCTRL_ADDRESS) {
             return getPpuCtrl();
         } else if (pointer == PPUMASK_ADDRESS) {
@@ -754,7 +1166,7 @@ public class PPU {
     }
 
     public int getOamData() {
-        return primaryOam[oamAddr]; // TODO: something about only incrementing oamAddr during vblank?
+        return primaryOam[oamAddr] & 0xFF; // TODO: something about only incrementing oamAddr during vblank?
     }
 
     public int getPpuScroll() {
@@ -827,7 +1239,7 @@ public class PPU {
         // $3F20 - $3FFF | $BFE0 | Mirrors of $3F00-$3F1F
 
         if (pointer <= 0x1FFF) {
-            return Bus.getInstance().mapperReadPpu(pointer);
+            return bus.mapperReadPpu(pointer);
         } else if (pointer <= 0x2FFF) {
             return readNametable(pointer - 0x2000);
         } else if (pointer <= 0x3EFF) {
@@ -854,8 +1266,10 @@ public class PPU {
 
         if (pointer <= 0x0FFF) {
             // patternTables[0].writeMemory(pointer, value);
+            invalidateTile(pointer >> 4);
         } else if (pointer <= 0x1FFF) {
             // patternTables[1].writeMemory(pointer - 0x1000, value);
+            invalidateTile(pointer >> 4);
         } else if (pointer <= 0x2FFF) {
             writeNametable(pointer - 0x2000, value);
         } else if (pointer <= 0x3EFF) {
@@ -866,17 +1280,23 @@ public class PPU {
             // System.out.print(Integer.toHexString(0x3F00 + mirroredAddress) + " : ");
             // System.out.println(value);
             paletteRamIndexes.writeMemory(mirroredAddress, value);
+            updatePalette();
         }
     }
 
 
+    // MODIFIES: this
+    // EFFECTS:  sets the nametable mirroring. Every tile in backgroundLayer may be out of date after this.
     public void setNametableMirroring(Mirroring nametableMirroring) {
         this.nametableMirroring = nametableMirroring;
+        if (backgroundLayer != null) {
+            backgroundLayer.markAll();
+        }
     }
 
-    // EFFECTS: mirrors the pointer according to the nametableMirroring and returns the value at that pointer in the
-    //          nametable
-    protected int readNametable(int pointer) {
+    // EFFECTS: returns where the pointer ends up in the nametable after mirroring it according to the
+    //          nametableMirroring
+    private int mirrorNametable(int pointer) {
         int rawPointer = pointer;
         switch (nametableMirroring) {
             case HORIZONTAL:
@@ -888,25 +1308,38 @@ public class PPU {
                 break;
         }
 
-        return nametable[pointer];
+        return pointer;
+    }
+
+    // EFFECTS: mirrors the pointer according to the nametableMirroring and returns the value at that pointer in the
+    //          nametable
+    protected int readNametable(int pointer) {
+        return nametable[mirrorNametable(pointer)] & 0xFF;
     }
 
-    // MODIFIES: nametable
+    // MODIFIES: nametable, backgroundLayer
     // EFFECTS:  mirrors the pointer according to the nametableMirroring and writes the value at that pointer in the
     //           nametable
     protected void writeNametable(int pointer, int value) {
-        int rawPointer = pointer;
-        switch (nametableMirroring) {
-            case HORIZONTAL:
-                pointer = pointer & 0x03FF;
-                pointer += (rawPointer > 0x8000) ? 0x0800 : 0;
-                break;
-            case VERTICAL:
-                pointer = pointer & 0x07FF;
-                break;
+        int mirroredPointer = mirrorNametable(pointer);
+        nametable[mirroredPointer] = (byte) value;
+        markNametableByte(mirroredPointer);
+    }
+
+    // MODIFIES: backgroundLayer
+    // EFFECTS:  marks the tiles in backgroundLayer that come from the byte at index i of the nametable dirty, in every
+    //           nametable that is mirrored onto it.
+    private void markNametableByte(int i) {
+        if (backgroundLayer == null) {
+            return;
         }
 
-        nametable[pointer] = value;
+        int offset = i & (NAMETABLE_SIZE - 1);
+        for (int logicalNametable = 0; logicalNametable < NUM_NAMETABLES; logicalNametable++) {
+            if (mirrorNametable(logicalNametable * NAMETABLE_SIZE + offset) == i) {
+                backgroundLayer.markNametableByte(logicalNametable, offset);
+            }
+        }
     }
 
     // MODIFIES: pixels
@@ -915,6 +1348,7 @@ public class PPU {
     public void renderPatternTables(Pixels pixels, int basePalette) {
         renderPatternTable(pixels, 0, 0,   0, basePalette);
         renderPatternTable(pixels, 1, 128, 0, basePalette);
+        pixels.storeBuffer();
     }
 
     // MODIFIES: pixels
@@ -924,21 +1358,15 @@ public class PPU {
 
         for (int i = 0; i < 16; i++) {
             for (int j = 0; j < 16; j++) {
-                int[] low = getTileLow(offset + i + j * 16);
-                int[] high = getTileHigh(offset + i + j * 16);
-                for (int k = 0; k < 8; k++) {
-                    for (int l = 0; l < 8; l++) {
-                        int formattedLow = Util.getNthBit(low[l], 7 - k);
-                        int formattedHigh = Util.getNthBit(high[l], 7 - k);
-                        int palette = formattedLow + formattedHigh * 2 + basePalette * 4;
-                        Color color = getColor(palette);
+                for (int l = 0; l < 8; l++) {
+                    for (int k = 0; k < 8; k++) {
+                        int palette = tileCache.getPixel(offset + i + j * 16, l, k) + basePalette * 4;
+                        int color = getColor(palette);
                         pixels.setPixel(i * 8 + k + offsetX, j * 8 + l + offsetY, color);
                     }
                 }
             }
         }
-
-        pixels.storeBuffer();
     }
 
     // MODIFIES: pixels
@@ -953,15 +1381,10 @@ public class PPU {
                 for (int k = 0; k < 32; k++) {
                     for (int l = 0; l < 30; l++) {
                         int address = readNametable(((2 * i + j) << 10) + (l << 5) + (k << 0));
-                        int[] low = getTileLow(offset + address);
-                        int[] high = getTileHigh(offset + address);
-
-                        for (int m = 0; m < 8; m++) {
-                            for (int n = 0; n < 8; n++) {
-                                int formattedLow = Util.getNthBit(low[n], 7 - m);
-                                int formattedHigh = Util.getNthBit(high[n], 7 - m);
-                                int palette = formattedLow + formattedHigh * 2 + basePalette * 4;
-                                Color color = getColor(palette);
+                        for (int n = 0; n < 8; n++) {
+                            for (int m = 0; m < 8; m++) {
+                                int palette = tileCache.getPixel(offset + address, n, m) + basePalette * 4;
+                                int color = getColor(palette);
                                 pixels.setPixel(k * 8 + m + (i * 256), l * 8 + n + (j * 256), color);
                             }
                         }
@@ -973,44 +1396,68 @@ public class PPU {
         pixels.storeBuffer();
     }
 
+    // MODIFIES: this, pixels
+    // EFFECTS:  draws the rows of tiles from y1 up to (not including) y2 of the screen, scrolled the way registerT and
+    //           registerX say. Draws the tiles that changed since the last time into backgroundLayer first, and then
+    //           copies the screen out of it. Also keeps the palette ram index of every pixel in backgroundCache, for
+    //           renderSprites.
     private void renderScreenNametables(int y1, int y2, Pixels pixels) {
-        // this chunk of code renders the nametables
-        // its the same as the renderNametables function, just without the outer
-        // four loops and with a few lines of code that determines the base palette for each tile.
-        int patternTableSelect = Util.getNthBit(ppuCtrl, 4);
-        int offset = patternTableSelect * 0x0100;
+        updateBackgroundLayer();
 
         // y2 might be at max 32, because of how sprite data is stored in the NES PPU.
         // so this corrects it if that is the case.
         if (y2 > 30)
             y2 = 30;
 
-        for (int k = 0; k < 32; k++) {
-            for (int l = y1; l < y2; l++) {
-                int address = readNametable((2 << 10) + (l << 5) + (k << 0));
-                int[] low = getTileLow(offset + address);
-                int[] high = getTileHigh(offset + address);
+        int scrollX = Util.getNthBit(registerT, 10) * 256 + (Util.getNthBits(registerT, 0, 5) << 3) + registerX;
+        int scrollY = Util.getNthBit(registerT, 11) * 240 + (Util.getNthBits(registerT, 5, 5) << 3)
+                + Util.getNthBits(registerT, 12, 3);
+        for (int y = y1 * 8; y < y2 * 8; y++) {
+            int layerY = (scrollY + y) % BackgroundLayer.HEIGHT;
+            for (int x = 0; x < 256; x++) {
+                int palette = backgroundLayer.getPixel((scrollX + x) & (BackgroundLayer.WIDTH - 1), layerY);
 
-                int attributeTableOffset = Util.getNthBits(registerV, 10, 2) * NAMETABLE_SIZE + 0x03C0;
-                int attributeTableData = readNametable(attributeTableOffset + (k >> 2) + 8 * (l >> 2));
-                int attributeTableLow  = Util.getNthBit(attributeTableData, ((((k & 2) >> 1) + ((l & 2))) << 1) + 0);
-                int attributeTableHigh = Util.getNthBit(attributeTableData, ((((k & 2) >> 1) + ((l & 2))) << 1) + 1);
+                backgroundCache[x + y * 256] = (byte) palette;
+                pixels.setPixel(x, y, getColor(palette));
+            }
+        }
+    }
 
-                for (int m = 0; m < 8; m++) {
-                    for (int n = 0; n < 8; n++) {
-                        int formattedLow = Util.getNthBit(low[n], 7 - m);
-                        int formattedHigh = Util.getNthBit(high[n], 7 - m);
+    // MODIFIES: this
+    // EFFECTS:  draws every dirty tile of the four nametables into backgroundLayer again (making it first, if there
+    //           isn't one yet), and counts them in redrawnTiles.
+    private void updateBackgroundLayer() {
+        if (backgroundLayer == null) {
+            backgroundLayer = new BackgroundLayer();
+        }
+        if (!backgroundLayer.isDirty()) {
+            return;
+        }
 
-                        int basePalette = attributeTableLow + (attributeTableHigh << 1);
-                        int palette = formattedLow + formattedHigh * 2 + basePalette * 4;
+        int patternTableSelect = Util.getNthBit(ppuCtrl, 4);
+        int offset = patternTableSelect * 0x0100;
 
-                        backgroundCache[(k * 8 + m) + (l * 8 + n) * 256] = palette;
-                        Color color = getColor(palette);
-                        pixels.setPixel(k * 8 + m, l * 8 + n, color);
-                    }
+        for (int tileY = 0; tileY < BackgroundLayer.TILES_DOWN; tileY++) {
+            for (int tileX = 0; tileX < BackgroundLayer.TILES_ACROSS; tileX++) {
+                int k = tileX & 31;
+                int l = tileY % 30;
+                int nametableAddress = ((tileY / 30) * 2 + (tileX >> 5)) * NAMETABLE_SIZE;
+                int address = readNametable(nametableAddress + (l << 5) + k);
+                if (!backgroundLayer.isTileDirty(tileX, tileY, offset + address)) {
+                    continue;
                 }
+
+                int attributeTableData = readNametable(nametableAddress + 0x03C0 + (k >> 2) + 8 * (l >> 2));
+                int attributeTableLow  = Util.getNthBit(attributeTableData, ((((k & 2) >> 1) + ((l & 2))) << 1) + 0);
+                int attributeTableHigh = Util.getNthBit(attributeTableData, ((((k & 2) >> 1) + ((l & 2))) << 1) + 1);
+
+                int basePalette = attributeTableLow + (attributeTableHigh << 1);
+                backgroundLayer.drawTile(tileX, tileY, offset + address, basePalette, tileCache);
+                redrawnTiles++;
             }
         }
+
+        backgroundLayer.clean();
     }
 
     private void renderSprites(Pixels pixels) {
@@ -1019,29 +1466,25 @@ public class PPU {
 
         for (int i = 0; i < 64; i++) {
             // get the relevant data from primaryOam
-            int spriteX                    =  primaryOam[i * 4 + 3];
-            int spriteY                    =  primaryOam[i * 4 + 0];
-            int tileNumber                 =  primaryOam[i * 4 + 1];
+            int spriteX                    =  primaryOam[i * 4 + 3] & 0xFF;
+            int spriteY                    =  primaryOam[i * 4 + 0] & 0xFF;
+            int tileNumber                 =  primaryOam[i * 4 + 1] & 0xFF;
             int palette                    = (primaryOam[i * 4 + 2] & 0x3) + 4;
             boolean isMirroredVertically   = (primaryOam[i * 4 + 2] & 0x80) != 0;
             boolean isMirroredHorizontally = (primaryOam[i * 4 + 2] & 0x40) != 0;
             int priority                   = (primaryOam[i * 4 + 2] & 0x20);
 
-            // get the pattern table data
-            int[] low  = getTileLow (offsetSprites + tileNumber);
-            int[] high = getTileHigh(offsetSprites + tileNumber);
-
             // loop through the bounds of the current sprite and begin rendering
-            for (int x = 0; x < 8; x++) {
-                for (int y = 0; y < 8; y++) {
-                    int formattedLow =  Util.getNthBit( low[isMirroredVertically ? 7 - y : y],
-                            isMirroredHorizontally ? x : 7 - x);
-                    int formattedHigh = Util.getNthBit(high[isMirroredVertically ? 7 - y : y],
-                            isMirroredHorizontally ? x : 7 - x);
+            for (int y = 0; y < 8; y++) {
+                int row = isMirroredVertically ? 7 - y : y;
+                for (int x = 0; x < 8; x++) {
+                    int pixel = isMirroredHorizontally
+                            ? tileCache.getFlippedPixel(offsetSprites + tileNumber, row, x)
+                            : tileCache.getPixel(offsetSprites + tileNumber, row, x);
 
                     // use priority to determine if we should just skip this sprite or not (i.e., render the background
                     // instead of the sprite)
-                    int spriteFullByte = (palette << 2) + (formattedHigh << 1) + formattedLow;
+                    int spriteFullByte = (palette << 2) + pixel;
 
                     int index = (spriteX + x) + (spriteY + y) * 256;
                     if (index > 256 * 240) continue;
@@ -1049,7 +1492,7 @@ public class PPU {
                     int bgPixelLow = Util.getNthBits(backgroundCache[index], 0, 2);
                     int spritePixelLow = Util.getNthBits(spriteFullByte, 0, 2);
                     if (spritePixelLow != 0 && (bgPixelLow == 0 || priority == 0)) {
-                        Color color = getColor(spriteFullByte);
+                        int color = getColor(spriteFullByte);
                         pixels.setPixel(spriteX + x, spriteY + y, color);
                     }
                 }
@@ -1065,16 +1508,12 @@ public class PPU {
 
         for (int i = 0; i < 8; i++) {
             for (int j = 0; j < 8; j++) {
-                int attribute = Util.getNthBits(primaryOam[i * 4 + 2], 0, 2) + 4;
-                int address = primaryOam[i * 4 * 8 + j * 4 + 1];
-                int[] low = getTileLow(offset + address);
-                int[] high = getTileHigh(offset + address);
-                for (int k = 0; k < 8; k++) {
-                    for (int l = 0; l < 8; l++) {
-                        int formattedLow = Util.getNthBit(low[l], 7 - k);
-                        int formattedHigh = Util.getNthBit(high[l], 7 - k);
-                        int fullByte = (attribute << 2) + (formattedHigh << 1) + formattedLow;
-                        Color color = getColor(fullByte);
+                int attribute = Util.getNthBits(primaryOam[i * 4 + 2] & 0xFF, 0, 2) + 4;
+                int address = primaryOam[i * 4 * 8 + j * 4 + 1] & 0xFF;
+                for (int l = 0; l < 8; l++) {
+                    for (int k = 0; k < 8; k++) {
+                        int fullByte = (attribute << 2) + tileCache.getPixel(offset + address, l, k);
+                        int color = getColor(fullByte);
                         for (int m = 0; m < scaleX; m++) {
                             for (int n = 0; n < scaleY; n++) {
                                 pixels.setPixel((i * 8 + k) * scaleX + m, (j * 8 + l) * scaleY + n, color);
@@ -1088,40 +1527,110 @@ public class PPU {
         pixels.storeBuffer();
     }
 
-    // REQUIRES: 0x0000 <= pointer <= 0x1FFF
-    // EFFECTS:  returns the 8 low bits of the given tile at the pointer in memory.
-    private int[] getTileLow(int pointer) {
-        int offset = pointer << 4;
+    // MODIFIES: this
+    // EFFECTS:  decodes every tile in the pattern tables into the tile cache. Has to be called whenever the pattern
+    //           tables are swapped out as a whole, like when a cartridge is loaded.
+    public void loadTiles() {
+        tileCache       = new TileCache();
+        tileCacheShared = false;
+        for (int tile = 0; tile < TileCache.NUM_TILES; tile++) {
+            decodeTile(tile);
+        }
 
-        int[] tileLow = new int[8];
-        for (int i = 0; i < 8; i++) {
-            tileLow[i - 0] = readMemory(offset + i);
+        if (backgroundLayer != null) {
+            backgroundLayer.markAll();
         }
-        return tileLow;
     }
 
-    // REQUIRES: 0x0000 <= pointer <= 0x1FFF
-    // EFFECTS:  returns the 8 high bits of the given tile at the pointer in memory.
-    private int[] getTileHigh(int pointer) {
-        int tile = pointer;
-        int offset = pointer << 4;
+    // REQUIRES: 0 <= tile < TileCache.NUM_TILES
+    // MODIFIES: this
+    // EFFECTS:  decodes the tile into the tile cache again, copying the cache first if it is shared, and marks where
+    //           it is drawn in backgroundLayer dirty. Has to be called whenever one of the tile's bytes changes.
+    private void invalidateTile(int tile) {
+        if (tileCacheShared) {
+            tileCache       = tileCache.copy();
+            tileCacheShared = false;
+        }
+
+        decodeTile(tile);
+        if (backgroundLayer != null) {
+            backgroundLayer.markPattern(tile);
+        }
+    }
 
-        int[] tileHigh = new int[8];
-        for (int i = 8; i < 16; i++) {
-            tileHigh[i - 8] = readMemory(offset + i);
+    // REQUIRES: 0 <= tile < TileCache.NUM_TILES
+    // MODIFIES: this
+    // EFFECTS:  reads the tile's 16 bytes from the pattern tables and decodes them into the tile cache.
+    private void decodeTile(int tile) {
+        for (int row = 0; row < TileCache.ROWS_PER_TILE; row++) {
+            tileCache.decodeRow(tile, row, readMemory((tile << 4) + row), readMemory((tile << 4) + 8 + row));
         }
-        return tileHigh;
+    }
+
+    public TileCache getTileCache() {
+        return tileCache;
+    }
+
+    public BackgroundLayer getBackgroundLayer() {
+        return backgroundLayer;
+    }
+
+    // EFFECTS: returns the number of background tiles drawn again when rendering the full screen at once, since reset.
+    public long getRedrawnTiles() {
+        return redrawnTiles;
+    }
+
+    // EFFECTS: returns the number of background tiles drawn again for the last frame rendered as a full screen at once.
+    public int getRedrawnTilesLastFrame() {
+        return redrawnTilesLastFrame;
     }
 
     public void setPixels(Pixels pixels) {
         this.pixels = pixels;
     }
 
+    public boolean getCanRenderFullScreen() {
+        return canRenderFullScreen;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  chooses between rendering the whole screen at once (true) and rendering it a scanline at a time or dot
+    //           by dot (false, see setCanRenderScanlines). reset goes back to rendering the whole screen at once.
+    public void setCanRenderFullScreen(boolean canRenderFullScreen) {
+        finishDeferredCycles();
+        this.canRenderFullScreen = canRenderFullScreen;
+    }
+
+    public boolean getCanRenderScanlines() {
+        return canRenderScanlines;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  chooses between rendering a scanline at a time (true) and rendering dot by dot (false), for when the
+    //           whole screen isn't rendered at once. Both draw the same pixels. reset leaves this as it is.
+    public void setCanRenderScanlines(boolean canRenderScanlines) {
+        finishDeferredCycles();
+        this.canRenderScanlines = canRenderScanlines;
+    }
+
     // MODIFIES: primaryOam
-    // EFFECTS: writes the value to the primaryOam at the address specified in oamAddr, and increments oamAddr
+    // EFFECTS: writes the value to the primaryOam at the address specified in oamAddr, and increments oamAddr, wrapping
+    //          around to 0
     public void writeOam(int value) {
-        primaryOam[oamAddr] = value;
-        oamAddr = (oamAddr + 1);
+        finishDeferredCycles();
+        primaryOam[oamAddr] = (byte) value;
+        oamAddr = (oamAddr + 1) & (PRIMARY_OAM_SIZE - 1);
+    }
+
+    // REQUIRES: page has PRIMARY_OAM_SIZE elements
+    // MODIFIES: primaryOam
+    // EFFECTS: same as calling writeOam for every value in page: copies page into primaryOam starting at oamAddr and
+    //          wrapping around to 0. oamAddr goes all the way around, so it ends up where it started.
+    public void writeOamBlock(byte[] page) {
+        finishDeferredCycles();
+        int firstPart = PRIMARY_OAM_SIZE - oamAddr;
+        System.arraycopy(page, 0, primaryOam, oamAddr, firstPart);
+        System.arraycopy(page, firstPart, primaryOam, 0, oamAddr);
     }
 
     public void setRegisterT(int value) {
@@ -1196,7 +1705,7 @@ public class PPU {
         return ppuDataBuffer;
     }
 
-    public int[] getNametable() {
+    public byte[] getNametable() {
         return nametable;
     }
 
@@ -1208,11 +1717,11 @@ public class PPU {
         return paletteRamIndexes;
     }
 
-    public int[] getPrimaryOam() {
+    public byte[] getPrimaryOam() {
         return primaryOam;
     }
 
-    public int[] getSecondaryOam() {
+    public byte[] getSecondaryOam() {
         return secondaryOam;
     }
 
@@ -1277,14 +1786,15 @@ public class PPU {
     }
 
     public void setNametable(int i, int value) {
-        nametable[i] = value;
+        nametable[i] = (byte) value;
+        markNametableByte(i);
     }
 
     public void setPrimaryOam(int i, int value) {
-        primaryOam[i] = value;
+        primaryOam[i] = (byte) value;
     }
 
     public void setSecondaryOam(int i, int value) {
-        secondaryOam[i] = value;
+        secondaryOam[i] = (byte) value;
     }
 }
\ No newline at end of file
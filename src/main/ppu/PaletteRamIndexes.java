@@ -2,22 +2,23 @@ package ppu;
 
 // Class PaletteRamIndexes:
 //     A list of indexes into ColorPalette.java. Contains 8 palettes of 4 colors each; the bottom half is for
-//     background and the top half is for sprites.
+//     background and the top half is for sprites. Only the 32 bytes of palette RAM are stored; pointers past them wrap
+//     around, the same as the mirrors at $3F20 - $3FFF.
 
 public class PaletteRamIndexes {
     // Constants
-    protected static final int PALETTE_RAM_INDEXES_SIZE = 0x0200;
+    protected static final int PALETTE_RAM_INDEXES_SIZE = 0x0020;
     protected static final int INITIAL_INDEX_VALUE      = 0x00;
 
     // Fields
-    private int[] indexes;
+    private byte[] indexes;
 
     // MODIFIES: this
     // EFFECTS:  initializes all the palette ram indexes and sets up the mirrors.
     public PaletteRamIndexes() {
-        indexes = new int[PALETTE_RAM_INDEXES_SIZE];
+        indexes = new byte[PALETTE_RAM_INDEXES_SIZE];
         for (int i = 0; i < PALETTE_RAM_INDEXES_SIZE; i++) {
-            indexes[i] = INITIAL_INDEX_VALUE;
+            indexes[i] = (byte) INITIAL_INDEX_VALUE;
         }
 
         // Setting up mirrors
@@ -28,23 +29,30 @@ public class PaletteRamIndexes {
     }
 
     public void writeMemory(int pointer, int value) {
-        indexes[pointer] = (value);
+        indexes[pointer & (PALETTE_RAM_INDEXES_SIZE - 1)] = (byte) value;
     }
 
     // EFFECTS: returns the value in memory at indexes, taking into account n % 4 mirrors.
     public int readMemory(int pointer) {
         if ((pointer & 0x3) == 0) {
-            return indexes[0];
+            return indexes[0] & 0xFF;
         }
 
-        return indexes[pointer];
+        return indexes[pointer & (PALETTE_RAM_INDEXES_SIZE - 1)] & 0xFF;
     }
 
-    public int[] getIndexes() {
+    public byte[] getIndexes() {
         return indexes;
     }
 
+    // EFFECTS: returns a copy of the palette ram indexes.
+    public PaletteRamIndexes copy() {
+        PaletteRamIndexes copy = new PaletteRamIndexes();
+        System.arraycopy(indexes, 0, copy.indexes, 0, PALETTE_RAM_INDEXES_SIZE);
+        return copy;
+    }
+
     public int peekMemory(int pointer) {
-        return indexes[pointer];
+        return indexes[pointer & (PALETTE_RAM_INDEXES_SIZE - 1)] & 0xFF;
     }
 }
\ No newline at end of file
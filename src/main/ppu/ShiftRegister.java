@@ -44,6 +44,14 @@ public class ShiftRegister implements BusSerializable {
         return value;
     }
 
+    // EFFECTS: returns a shift register of the same size holding the same value.
+    public ShiftRegister copy() {
+        ShiftRegister copy = new ShiftRegister(0);
+        copy.value = value;
+        copy.max   = max;
+        return copy;
+    }
+
     // EFFECTS:  serializes using the format value + delimiter + max + delimiter.
     @Override
     public String serialize(String delimiter) {
@@ -30,6 +30,14 @@ public class Sprite implements BusSerializable {
         shiftRegister0 = new ShiftRegister(SHIFT_REGISTER_SIZE);
         shiftRegister1 = new ShiftRegister(SHIFT_REGISTER_SIZE);
 
+        set(patternTableData0, patternTableData1, attribute, spriteX, priority, isMirroredHorizontally,
+                isMirroredVertically);
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  sets all the fields according to the given data, as if this sprite had just been created with it.
+    public void set(int patternTableData0, int patternTableData1, int attribute, int spriteX, int priority,
+                    boolean isMirroredHorizontally, boolean isMirroredVertically) {
         shiftRegister0.setNthBits(0, SHIFT_REGISTER_SIZE, patternTableData0);
         shiftRegister1.setNthBits(0, SHIFT_REGISTER_SIZE, patternTableData1);
         latch          = attribute;
@@ -40,6 +48,14 @@ public class Sprite implements BusSerializable {
         this.isMirroredVertically   = isMirroredVertically;
     }
 
+    // EFFECTS: returns a sprite in the same state as this one.
+    public Sprite copy() {
+        Sprite copy = new Sprite(0, 0, latch, counter, priority, isMirroredHorizontally, isMirroredVertically);
+        copy.shiftRegister0 = shiftRegister0.copy();
+        copy.shiftRegister1 = shiftRegister1.copy();
+        return copy;
+    }
+
     public void decrementCounter() {
         counter--;
     }
@@ -79,6 +95,30 @@ public class Sprite implements BusSerializable {
         return fullByte;
     }
 
+    // REQUIRES: 0 <= n < SHIFT_REGISTER_SIZE
+    // EFFECTS:  returns the color address that getNextColorAddressAsInt will return n calls from now, without shifting
+    //           the shift registers.
+    public int peekColorAddressAsInt(int n) {
+        int bit = isMirroredHorizontally ? 7 - n : n;
+        int patternTableLow  = Util.getNthBit(shiftRegister0.getValue(), bit);
+        int patternTableHigh = Util.getNthBit(shiftRegister1.getValue(), bit);
+        return (latch << 2) + (patternTableHigh << 1) + patternTableLow;
+    }
+
+    // REQUIRES: numPixels >= 0
+    // MODIFIES: this
+    // EFFECTS:  same as drawing numPixels pixels: calling getNextColorAddressAsInt whenever the sprite is active, and
+    //           then decrementCounter, numPixels times.
+    public void skipPixels(int numPixels) {
+        int firstActive = Math.max(counter, 0);
+        int lastActive  = Math.min(counter + 7, numPixels - 1);
+        for (int i = firstActive; i <= lastActive; i++) {
+            shiftRegisters();
+        }
+
+        counter -= numPixels;
+    }
+
     // EFFECTS: serializes the sprite's data into a string
     @Override
     public String serialize(String delimiter) {
@@ -0,0 +1,85 @@
+package ppu;
+
+// Class TileCache:
+//     Holds the 512 tiles of the two pattern tables already decoded, so that rendering doesn't have to read and
+//     untangle the two bit planes of a row every time it draws one. Every row of a tile is kept as 8 2-bit color
+//     indexes from left to right, as the same 8 indexes from right to left (for horizontally flipped sprites), and as
+//     the two bit planes with their bits reversed, so that bit x is the pixel at x (the way the shift registers and
+//     sprites take them). Tiles are numbered like the PPU numbers them: 0x000 - 0x0FF is pattern table 0, and
+//     0x100 - 0x1FF is pattern table 1.
+
+public class TileCache {
+    public static final int NUM_TILES     = 512;
+    public static final int ROWS_PER_TILE = 8;
+    public static final int TILE_WIDTH    = 8;
+
+    private final byte[] pixels;
+    private final byte[] flippedPixels;
+    private final byte[] lowPlanes;
+    private final byte[] highPlanes;
+
+    // EFFECTS: creates a cache where every tile is blank.
+    public TileCache() {
+        pixels        = new byte[NUM_TILES * ROWS_PER_TILE * TILE_WIDTH];
+        flippedPixels = new byte[NUM_TILES * ROWS_PER_TILE * TILE_WIDTH];
+        lowPlanes     = new byte[NUM_TILES * ROWS_PER_TILE];
+        highPlanes    = new byte[NUM_TILES * ROWS_PER_TILE];
+    }
+
+    // EFFECTS: returns a cache holding the same tiles as this one.
+    public TileCache copy() {
+        TileCache copy = new TileCache();
+        System.arraycopy(pixels,        0, copy.pixels,        0, pixels.length);
+        System.arraycopy(flippedPixels, 0, copy.flippedPixels, 0, flippedPixels.length);
+        System.arraycopy(lowPlanes,     0, copy.lowPlanes,     0, lowPlanes.length);
+        System.arraycopy(highPlanes,    0, copy.highPlanes,    0, highPlanes.length);
+        return copy;
+    }
+
+    // REQUIRES: 0 <= tile < NUM_TILES, 0 <= row < ROWS_PER_TILE, 0 <= low, high <= 0xFF
+    // MODIFIES: this
+    // EFFECTS:  decodes the given row of the tile from its low and high bit planes, as they are stored in the pattern
+    //           table (bit 7 is the leftmost pixel).
+    public void decodeRow(int tile, int row, int low, int high) {
+        int rowIndex = tile * ROWS_PER_TILE + row;
+        int reversedLow  = 0;
+        int reversedHigh = 0;
+
+        for (int x = 0; x < TILE_WIDTH; x++) {
+            int lowBit  = (low  >> (7 - x)) & 1;
+            int highBit = (high >> (7 - x)) & 1;
+            reversedLow  |= lowBit  << x;
+            reversedHigh |= highBit << x;
+
+            pixels       [rowIndex * TILE_WIDTH + x]     = (byte) (lowBit | (highBit << 1));
+            flippedPixels[rowIndex * TILE_WIDTH + 7 - x] = (byte) (lowBit | (highBit << 1));
+        }
+
+        lowPlanes [rowIndex] = (byte) reversedLow;
+        highPlanes[rowIndex] = (byte) reversedHigh;
+    }
+
+    // REQUIRES: 0 <= tile < NUM_TILES, 0 <= row < ROWS_PER_TILE, 0 <= x < TILE_WIDTH
+    // EFFECTS:  returns the 2-bit color index of the pixel at x in the given row of the tile.
+    public int getPixel(int tile, int row, int x) {
+        return pixels[(tile * ROWS_PER_TILE + row) * TILE_WIDTH + x];
+    }
+
+    // REQUIRES: 0 <= tile < NUM_TILES, 0 <= row < ROWS_PER_TILE, 0 <= x < TILE_WIDTH
+    // EFFECTS:  returns the 2-bit color index of the pixel at x in the given row of the tile, flipped horizontally.
+    public int getFlippedPixel(int tile, int row, int x) {
+        return flippedPixels[(tile * ROWS_PER_TILE + row) * TILE_WIDTH + x];
+    }
+
+    // REQUIRES: 0 <= tile < NUM_TILES, 0 <= row < ROWS_PER_TILE
+    // EFFECTS:  returns the low bit plane of the given row of the tile, with bit x being the pixel at x.
+    public int getLowPlane(int tile, int row) {
+        return lowPlanes[tile * ROWS_PER_TILE + row] & 0xFF;
+    }
+
+    // REQUIRES: 0 <= tile < NUM_TILES, 0 <= row < ROWS_PER_TILE
+    // EFFECTS:  returns the high bit plane of the given row of the tile, with bit x being the pixel at x.
+    public int getHighPlane(int tile, int row) {
+        return highPlanes[tile * ROWS_PER_TILE + row] & 0xFF;
+    }
+}
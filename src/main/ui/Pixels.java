@@ -2,24 +2,33 @@ package ui;
 
 import javax.swing.*;
 import java.awt.*;
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
-import java.util.ArrayList;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Class Pixels:
+//     A panel that shows a grid of pixelsPerRow by pixelsPerCol pixels, each drawn as a pixelWidth by pixelHeight
+//     block. Pixels are ARGB ints, stored row by row.
+//
+//     Frames are handed from the thread that draws them to the thread that shows them through three buffers, without
+//     locks or copies. The drawing thread only ever touches the back buffer, and the showing thread only ever touches
+//     the front buffer. The third buffer holds the latest finished frame: storeBuffer() swaps it with the back buffer,
+//     and the showing thread swaps it with the front buffer when there is a frame in it that it hasn't taken yet. Both
+//     swaps are a single atomic exchange, so a frame is never shown half drawn. Every buffer backs a BufferedImage, so
+//     painting the panel is a single scaled drawImage.
+//
+//     Only one thread may draw (setPixel, storeBuffer) and only one thread may show frames (painting, getRGB,
+//     getPixel, copyPixels) at a time.
 
 public class Pixels extends JPanel {
-    // Classes
-    private class Point {
-        protected int row;
-        protected int col;
-
-        public Point(int row, int col) {
-            this.row = row;
-            this.col = col;
-        }
-    }
-
     // Constants
-    private static final Color DEFAULT_COLOR = new Color(0,0,0);
+    private static final int DEFAULT_COLOR = new Color(0, 0, 0).getRGB();
+    private static final int NUM_BUFFERS   = 3;
+    private static final int INDEX_MASK    = 0b011;
+    // set in latest while the latest frame hasn't been taken by the showing thread
+    private static final int FRESH         = 0b100;
 
     // Fields
     private int pixelWidth;
@@ -27,9 +36,14 @@ public class Pixels extends JPanel {
     private int pixelsPerRow;
     private int pixelsPerCol;
 
-    private Color[][] pixels;       // this array is the one that is actually repainted.
-    private Color[][] pixelsBuffer; // can be freely edited without fear of repainting mid-frame. can be copied over
-                                    // to pixels[][] using storeBuffer()
+    private BufferedImage[] images;
+    private int[][] buffers;       // buffers[i] backs images[i].
+    private int back;              // the buffer being drawn. only used by the drawing thread.
+    private int front;             // the buffer being shown. only used by the showing thread.
+    private AtomicInteger latest;  // the index of the buffer with the latest finished frame, or'd with FRESH.
+
+    private AtomicLong droppedFrames;    // frames that were replaced before they were shown
+    private AtomicLong duplicatedFrames; // paints that showed the same frame as the paint before them
 
     public Pixels(int pixelWidth, int pixelHeight, int pixelsPerRow, int pixelsPerCol) {
         this.pixelWidth   = pixelWidth;
@@ -39,51 +53,97 @@ public class Pixels extends JPanel {
 
         setPreferredSize(new Dimension(getDisplayWidth(), getDisplayHeight()));
 
-        pixels       = new Color[pixelsPerRow][pixelsPerCol];
-        pixelsBuffer = new Color[pixelsPerRow][pixelsPerCol];
-        for (int i = 0; i < pixelsPerRow; i++) {
-            for (int j = 0; j < pixelsPerCol; j++) {
-                pixels      [i][j] = new Color(DEFAULT_COLOR.getRGB()); // Creates a copy of DEFAULT_COLOR
-                pixelsBuffer[i][j] = new Color(DEFAULT_COLOR.getRGB());
-            }
+        images  = new BufferedImage[NUM_BUFFERS];
+        buffers = new int[NUM_BUFFERS][];
+        for (int i = 0; i < NUM_BUFFERS; i++) {
+            images[i]  = new BufferedImage(pixelsPerRow, pixelsPerCol, BufferedImage.TYPE_INT_RGB);
+            buffers[i] = ((DataBufferInt) images[i].getRaster().getDataBuffer()).getData();
+            Arrays.fill(buffers[i], DEFAULT_COLOR);
         }
+
+        back   = 0;
+        latest = new AtomicInteger(1);
+        front  = 2;
+
+        droppedFrames    = new AtomicLong(0);
+        duplicatedFrames = new AtomicLong(0);
     }
 
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
-        for (int col = 0; col < pixelsPerRow; col++) {
-            for (int row = 0; row < pixelsPerCol; row++) {
-                Color state = pixels[col][row];
-                int x = col * pixelHeight;
-                int y = row * pixelWidth;
-
-                g.setColor(state);
-                g.fillRect(x, y, pixelWidth, pixelHeight);
-            }
+        if (!takeLatestFrame()) {
+            duplicatedFrames.incrementAndGet();
         }
 
-        g.fillRect(0, 0, pixelWidth, pixelHeight);
+        g.drawImage(images[front], 0, 0, getDisplayWidth(), getDisplayHeight(), null);
     }
 
     public void repaint() {
         int x = 2;
     }
 
-    public void setPixel(int x, int y, Color color) {
-        if (x >= 240 || y >= 256) return;
-        pixelsBuffer[x][y] = color;
+    // MODIFIES: this
+    // EFFECTS:  sets the pixel at (x, y) in the back buffer to the given ARGB color. Pixels outside the grid are
+    //           ignored.
+    public void setPixel(int x, int y, int color) {
+        if (x >= pixelsPerRow || y >= pixelsPerCol) return;
+        buffers[back][y * pixelsPerRow + x] = color;
     }
 
+    // MODIFIES: this
+    // EFFECTS:  publishes the back buffer as the latest finished frame, and carries on drawing in the buffer that held
+    //           the frame before it. Counts a dropped frame if that frame was never shown. The new back buffer holds
+    //           an older frame, so whatever is drawn next has to cover all of the pixels that are meant to change.
     public void storeBuffer() {
-        for (int col = 0; col < pixelsPerRow; col++) {
-            for (int row = 0; row < pixelsPerCol; row++) {
-                pixels[col][row] = pixelsBuffer[col][row];
-            }
+        int previous = latest.getAndSet(back | FRESH);
+        if ((previous & FRESH) != 0) {
+            droppedFrames.incrementAndGet();
+        }
+
+        back = previous & INDEX_MASK;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  makes the latest finished frame the front buffer if it hasn't been taken yet. Returns true if it was.
+    private boolean takeLatestFrame() {
+        if ((latest.get() & FRESH) == 0) {
+            return false;
         }
+
+        front = latest.getAndSet(front) & INDEX_MASK;
+        return true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  returns the ARGB color of the pixel at (x, y) in the latest finished frame.
+    public int getRGB(int x, int y) {
+        takeLatestFrame();
+        return buffers[front][y * pixelsPerRow + x];
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  returns the color of the pixel at (x, y) in the latest finished frame. Makes a new Color every time, so
+    //           prefer getRGB.
+    public Color getPixel(int x, int y) {
+        return new Color(getRGB(x, y));
+    }
+
+    // REQUIRES: destination has at least pixelsPerRow * pixelsPerCol elements.
+    // MODIFIES: this, destination
+    // EFFECTS:  copies the latest finished frame into destination as ARGB colors, row by row.
+    public void copyPixels(int[] destination) {
+        takeLatestFrame();
+        System.arraycopy(buffers[front], 0, destination, 0, pixelsPerRow * pixelsPerCol);
+    }
+
+    // EFFECTS: returns the number of finished frames that were replaced by a newer one before they were shown.
+    public long getDroppedFrames() {
+        return droppedFrames.get();
     }
 
-    public Color getPixel(int i, int j) {
-        return pixels[i][j];
+    // EFFECTS: returns the number of times the panel was painted without a new frame since the last time.
+    public long getDuplicatedFrames() {
+        return duplicatedFrames.get();
     }
 
     public int getDisplayWidth() {
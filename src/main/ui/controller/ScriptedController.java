@@ -0,0 +1,36 @@
+package ui.controller;
+
+import java.awt.event.KeyEvent;
+
+// Class ScriptedController:
+//     A standard controller that isn't driven by the keyboard: whoever runs the emulator says which buttons are held
+//     with setButtons, for example once per frame from an input file. None of its keys are mapped to a keyboard key.
+
+public class ScriptedController extends StandardController {
+    // The buttons in the order the NES reads them, named the way key maps and input files name them.
+    public static final String[] BUTTON_NAMES = { "A", "B", "Select", "Start", "Up", "Down", "Left", "Right" };
+
+    // EFFECTS: creates a controller with no buttons held.
+    public ScriptedController() {
+        super(createKeyMap());
+    }
+
+    // EFFECTS: returns a key map with every button unmapped.
+    private static Key[] createKeyMap() {
+        Key[] keyMap = new Key[BUTTON_NAMES.length];
+        for (int i = 0; i < keyMap.length; i++) {
+            keyMap[i] = new Key(KeyEvent.VK_UNDEFINED, BUTTON_NAMES[i]);
+        }
+
+        return keyMap;
+    }
+
+    // MODIFIES: this
+    // EFFECTS:  holds the buttons whose bits are set in buttons and releases the rest. Bit i is the i-th button the
+    //           NES reads: A, B, Select, Start, Up, Down, Left, Right.
+    public void setButtons(int buttons) {
+        for (int i = 0; i < keyState.length; i++) {
+            keyState[i] = ((buttons >> i) & 1) == 1;
+        }
+    }
+}
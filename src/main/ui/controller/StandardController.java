@@ -19,7 +19,12 @@ public class StandardController extends Controller {
     private int     pollingIndex;
 
     public StandardController() {
-        super(ControllerConfig.getKeyMap("standard"));
+        this(ControllerConfig.getKeyMap("standard"));
+    }
+
+    // EFFECTS: creates a standard controller with the given key map, without reading the controller config.
+    protected StandardController(Key[] keyMap) {
+        super(keyMap);
 
         isPolling    = false;
         pollingIndex = 0;
@@ -1,8 +1,10 @@
 package ui.window;
 
 import model.Bus;
+import model.SyncMode;
 import persistence.BusReader;
 import persistence.BusWriter;
+import persistence.TranslationCacheWriter;
 import ui.controller.Controller;
 import ui.controller.StandardController;
 
@@ -12,11 +14,14 @@ import java.io.File;
 import java.awt.event.ActionEvent;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.io.IOException;
 import java.util.TimerTask;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class Display extends PixelWindow implements KeyListener {
     // Constants
@@ -43,6 +48,14 @@ public class Display extends PixelWindow implements KeyListener {
     private TimerTask  apuTask;
     private Controller controller;
 
+    // The sync mode picked in the menu, until cycleTask switches the bus over to it in between two runCycles calls.
+    // Switching syncs the ppu and apu, which must not happen while cycleTask is running them on the timer thread.
+    private final AtomicReference<SyncMode> pendingSyncMode = new AtomicReference<>();
+
+    // Same for the recompiler and idle loop checkboxes: cycleTask reads both flags on the timer thread as it runs.
+    private final AtomicReference<Boolean> pendingRecompilerEnabled       = new AtomicReference<>();
+    private final AtomicReference<Boolean> pendingIdleLoopSkippingEnabled = new AtomicReference<>();
+
     private PatternTableViewer patternTableViewer;
     private NameTableViewer    nameTableViewer;
     private OamViewer          oamViewer;
@@ -74,7 +87,7 @@ public class Display extends PixelWindow implements KeyListener {
     JMenuItem fileLoadState      = new JMenuItem(new AbstractAction("Load State") {
         @Override
         public void actionPerformed(ActionEvent e) {
-            bus = BusReader.readFromFile("savestate");
+            bus = BusReader.readFromFile(bus, "savestate");
             try {
                 setupBus();
             } catch (IOException ex) {
@@ -126,6 +139,22 @@ public class Display extends PixelWindow implements KeyListener {
         }
     });
 
+    JCheckBoxMenuItem settingsRecompiler = new JCheckBoxMenuItem(new AbstractAction("Recompiler") {
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            pendingRecompilerEnabled.set(settingsRecompiler.isSelected());
+        }
+    });
+
+    JCheckBoxMenuItem settingsIdleLoops = new JCheckBoxMenuItem(new AbstractAction("Skip Idle Loops") {
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            pendingIdleLoopSkippingEnabled.set(settingsIdleLoops.isSelected());
+        }
+    });
+
+    JMenu settingsSyncMode = new JMenu("Sync Mode");
+
     JButton   pauseButton        = new JButton(new AbstractAction() {
 
         @Override
@@ -154,6 +183,19 @@ public class Display extends PixelWindow implements KeyListener {
         setupBus();
         setFocusable(true);
         addKeyListener(this);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                // cycleTask holds its own lock while it runs, so once it's cancelled and the lock is free, the
+                // translation cache can't change under the writer.
+                cycleTask.cancel();
+                synchronized (cycleTask) {
+                    if (bus.getTranslationCacheEnabled()) {
+                        TranslationCacheWriter.writeToFile(bus);
+                    }
+                }
+            }
+        });
 
         pack();
         setVisible(true);
@@ -163,21 +205,26 @@ public class Display extends PixelWindow implements KeyListener {
 
         cycleTask = new TimerTask() {
             @Override
-            public void run() {
-                for (int i = 0; i < CYCLES_PER_FRAME; i++) {
-                    bus.cycle();
+            public synchronized void run() {
+                SyncMode syncMode = pendingSyncMode.getAndSet(null);
+                if (syncMode != null) {
+                    bus.setSyncMode(syncMode);
+                }
+
+                Boolean recompilerEnabled = pendingRecompilerEnabled.getAndSet(null);
+                if (recompilerEnabled != null) {
+                    bus.getCpu().setRecompilerEnabled(recompilerEnabled);
+                }
+
+                Boolean idleLoopSkippingEnabled = pendingIdleLoopSkippingEnabled.getAndSet(null);
+                if (idleLoopSkippingEnabled != null) {
+                    bus.setIdleLoopSkippingEnabled(idleLoopSkippingEnabled);
                 }
+
+                bus.runFrame();
             }
         };
         schedule(cycleTask, CYCLING_FPS);
-/*
-        scheduledExecutorService.scheduleAtFixedRate(
-                () -> {
-                    for (int i = 0; i < CYCLES_PER_FRAME; i++) {
-                        bus.cycle();
-                    }
-                },
-                0, (long) (1000 / CYCLING_FPS), TimeUnit.MILLISECONDS);*/
 
         bus.startDataLines();
         int period = 1000 / APU_FPS;
@@ -201,15 +248,43 @@ public class Display extends PixelWindow implements KeyListener {
         view.add(viewNameTables);
         view.add(viewOAM);
 
+        JMenu settings = new JMenu("Settings");
+        settingsRecompiler.setSelected(bus.getCpu().isRecompilerEnabled());
+        settingsIdleLoops.setSelected(bus.getIdleLoopSkippingEnabled());
+        settings.add(settingsController);
+        settings.add(settingsRecompiler);
+        settings.add(settingsIdleLoops);
+        settings.add(settingsSyncMode);
+        setupSyncModeMenu();
+
         pauseButton.setIcon(ICON_PAUSE);
         pauseButton.setBorder(BorderFactory.createEmptyBorder());
 
         menuBar.add(file);
         menuBar.add(view);
+        menuBar.add(settings);
         menuBar.add(pauseButton);
         getContentPane().add(BorderLayout.NORTH, menuBar);
     }
 
+    // MODIFIES: this
+    // EFFECTS:  adds one radio button per sync mode to the sync mode menu, with the bus' current mode selected. Picking
+    //           one only queues it for cycleTask (see pendingSyncMode).
+    private void setupSyncModeMenu() {
+        ButtonGroup group = new ButtonGroup();
+        for (SyncMode syncMode : SyncMode.values()) {
+            JRadioButtonMenuItem item = new JRadioButtonMenuItem(new AbstractAction(syncMode.toString()) {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    pendingSyncMode.set(syncMode);
+                }
+            });
+            item.setSelected(bus.getSyncMode() == syncMode);
+            group.add(item);
+            settingsSyncMode.add(item);
+        }
+    }
+
     private void setupBus() throws IOException {
         controller = new StandardController();
 
@@ -226,7 +301,8 @@ public class Display extends PixelWindow implements KeyListener {
     }
 
     public static void main(String[] args) throws IOException {
-        Bus bus = Bus.getInstance();
+        Bus bus = new Bus();
+        bus.setTranslationCacheEnabled(true);
         //bus.loadCartridge(new File("./data/rom/donkeykong.nes"));
         new Display(bus);
     }
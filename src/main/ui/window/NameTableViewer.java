@@ -13,8 +13,8 @@ public class NameTableViewer extends PixelWindow implements KeyListener {
     private static final int   FPS                   = 10;
     private static final int   NUMBER_OF_PALETTES    = 8;
     private static final int   CHOSEN_PALETTE_HEIGHT = 4;
-    private static final Color CHOSEN_PALETTE_COLOR  = Color.GREEN;
-    private static final Color BACKGROUND_COLOR      = Color.GRAY;
+    private static final int   CHOSEN_PALETTE_COLOR  = Color.GREEN.getRGB();
+    private static final int   BACKGROUND_COLOR      = Color.GRAY.getRGB();
 
     private static final int KEY_CHANGE_PALETTE = KeyEvent.VK_SPACE;
 
@@ -44,7 +44,7 @@ public class NameTableViewer extends PixelWindow implements KeyListener {
 
         // Draw Palette
         for (int i = 0; i < 4 * 8; i++) {
-            Color color = ColorPalette.getColor(ppu.readMemory(0x3F00 + i));
+            int color = ColorPalette.getRGB(ppu.readMemory(0x3F00 + i));
             for (int x = 0; x < 16; x++) {
                 for (int y = 0; y < 16; y++) {
                     pixels.setPixel(i * 16 + x, 32 * 8 * 2 + y, color);
@@ -56,7 +56,7 @@ public class NameTableViewer extends PixelWindow implements KeyListener {
         for (int x = 0; x < 32 * 16; x++) {
             for (int y = 0; y < CHOSEN_PALETTE_HEIGHT; y++) {
                 boolean isCurrentPalette = (0 <= x - currentPalette * 64 && x - currentPalette * 64 <= 63);
-                Color color = isCurrentPalette ? CHOSEN_PALETTE_COLOR : BACKGROUND_COLOR;
+                int color = isCurrentPalette ? CHOSEN_PALETTE_COLOR : BACKGROUND_COLOR;
                 pixels.setPixel(x, 32 * 8 * 2 + 16 + y, color);
             }
         }
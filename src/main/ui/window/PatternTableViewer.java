@@ -14,8 +14,8 @@ public class PatternTableViewer extends PixelWindow implements KeyListener {
     private static final int   FPS                   = 10;
     private static final int   NUMBER_OF_PALETTES    = 8;
     private static final int   CHOSEN_PALETTE_HEIGHT = 2;
-    private static final Color CHOSEN_PALETTE_COLOR  = Color.GREEN;
-    private static final Color BACKGROUND_COLOR      = Color.GRAY;
+    private static final int   CHOSEN_PALETTE_COLOR  = Color.GREEN.getRGB();
+    private static final int   BACKGROUND_COLOR      = Color.GRAY.getRGB();
 
     private static final int   KEY_CHANGE_PALETTE    = KeyEvent.VK_SPACE;
 
@@ -44,7 +44,7 @@ public class PatternTableViewer extends PixelWindow implements KeyListener {
 
         // Draw Palette
         for (int i = 0; i < 4 * 8; i++) {
-            Color color = ColorPalette.getColor(ppu.readMemory(0x3F00 + i));
+            int color = ColorPalette.getRGB(ppu.readMemory(0x3F00 + i));
             for (int x = 0; x < 8; x++) {
                 for (int y = 0; y < 8; y++) {
                     pixels.setPixel(i * 8 + x, 128 + y, color);
@@ -56,7 +56,7 @@ public class PatternTableViewer extends PixelWindow implements KeyListener {
         for (int x = 0; x < 32 * 8; x++) {
             for (int y = 0; y < CHOSEN_PALETTE_HEIGHT; y++) {
                 boolean isCurrentPalette = (0 <= x - currentPalette * 32 && x - currentPalette * 32 <= 31);
-                Color color = isCurrentPalette ? CHOSEN_PALETTE_COLOR : BACKGROUND_COLOR;
+                int color = isCurrentPalette ? CHOSEN_PALETTE_COLOR : BACKGROUND_COLOR;
                 pixels.setPixel(x, 128 + 8 + y, color);
             }
         }
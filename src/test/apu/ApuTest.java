@@ -39,6 +39,48 @@ public class ApuTest {
         }
     }
 
+    @Test
+    void testCopy() {
+        apu.writeMemory(0x4017, 1 << 7);
+        apu.runCycles(100);
+        APU copy = apu.copy();
+        assertEquals(100, copy.getCycles());
+        assertEquals(apu.getCyclesUntilFrameStep(), copy.getCyclesUntilFrameStep());
+
+        copy.runCycles(50);
+        assertEquals(150, copy.getCycles());
+        assertEquals(100, apu.getCycles());
+    }
+
+    @Test
+    void testRunCycles() {
+        APU expected = new APU();
+        for (int mode = 0; mode <= 1; mode++) {
+            apu.writeMemory(0x4017, mode << 7);
+            expected.writeMemory(0x4017, mode << 7);
+            for (int step : new int[] { 0, 1, 7456, 7457, 3, 18640, 14914, 20000 }) {
+                for (int i = 0; i < step; i++) {
+                    expected.cycle();
+                }
+                apu.runCycles(step);
+                assertEquals(expected.getCycles(), apu.getCycles());
+            }
+        }
+    }
+
+    @Test
+    void testGetCyclesUntilFrameStep() {
+        assertEquals(7456, apu.getCyclesUntilFrameStep());
+        apu.runCycles(7456);
+        assertEquals(0, apu.getCyclesUntilFrameStep());
+        apu.cycle();
+        assertEquals(14914 - 7457, apu.getCyclesUntilFrameStep());
+
+        apu.writeMemory(0x4017, 1 << 7);
+        apu.runCycles(7457);
+        assertEquals(18640 - 7457, apu.getCyclesUntilFrameStep());
+    }
+
     @Test
     void testWriteMemory$4015() {
         apu.writeMemory(0x4015, 0); // Reset
@@ -17,7 +17,7 @@ public class NRomTest {
 
     @BeforeEach
     void runBefore() {
-        Bus bus = Bus.getInstance();
+        Bus bus = new Bus();
         try {
             bus.loadCartridge(new File("./data/test/TestLoadRomTrainerNotPresentSmall.nes"));
             nrom = (NRom) bus.getMapper();
@@ -47,4 +47,17 @@ public class NRomTest {
             // Good!
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void testReadBlock() {
+        nrom.writeMemory(0x6005, 42);
+
+        int length = 0x10000 - 0x4020;
+        byte[] block = new byte[length + 2];
+        nrom.readBlock(0x4020, block, 1, length);
+        for (int i = 0; i < length; i++) {
+            assertEquals(nrom.readMemoryCpu(0x4020 + i), block[1 + i] & 0xFF);
+        }
+        assertEquals(42, block[1 + 0x6005 - 0x4020] & 0xFF);
+    }
+}
@@ -0,0 +1,142 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BlockCacheTest {
+    Bus bus;
+    CPU cpu;
+    BlockCache blockCache;
+
+    @BeforeEach
+    void runBefore() {
+        try {
+            bus = new Bus();
+            cpu = bus.getCpu();
+            bus.loadCartridge(new File("data/test/TestLoadRomTrainerPresent.nes"));
+        } catch (IOException e) {
+            fail();
+        }
+
+        blockCache = cpu.getBlockCache();
+    }
+
+    // MODIFIES: cpu
+    // EFFECTS:  writes program to RAM at address and points registerPC at it.
+    private void loadProgram(int address, int... program) {
+        for (int i = 0; i < program.length; i++) {
+            cpu.writeMemory(address + i, program[i]);
+        }
+        cpu.setRegisterPC(address);
+    }
+
+    @Test
+    void testHitsAndMisses() {
+        // 0x0300: INX; INX; JMP $0300
+        loadProgram(0x0300, 0xE8, 0xE8, 0x4C, 0x00, 0x03);
+        long misses = blockCache.getMisses();
+        long hits   = blockCache.getHits();
+
+        for (int i = 0; i < 3 * 10; i++) {
+            cpu.processInstruction();
+        }
+
+        assertEquals(20, cpu.getRegisterX());
+        assertEquals(misses + 1, blockCache.getMisses());
+        assertEquals(hits + 9,   blockCache.getHits());
+    }
+
+    @Test
+    void testBlockEndsAtBranch() {
+        // 0x0300: INX; BNE $0300 (-3)
+        loadProgram(0x0300, 0xE8, 0xD0, 0xFD, 0xE8);
+        cpu.processInstruction();
+        cpu.processInstruction();
+        assertEquals(0x0300, cpu.getRegisterPC());
+
+        BlockCache.Region region = blockCache.getRegion(cpu.ram);
+        assertEquals(2, region.blocks[0x0300].size);
+        assertFalse(region.code[0x0303]);
+    }
+
+    @Test
+    void testSelfModifyingCode() {
+        // 0x0300: INX; STA $0301; JMP $0300
+        loadProgram(0x0300, 0xE8, 0x8D, 0x01, 0x03, 0x4C, 0x00, 0x03);
+        cpu.setRegisterA(0xC8); // INY
+        long invalidations = blockCache.getInvalidations();
+
+        for (int i = 0; i < 3; i++) {
+            cpu.processInstruction();
+        }
+        assertEquals(invalidations + 1, blockCache.getInvalidations());
+
+        // The STA is now an INY followed by ORA ($03,X), and the block has to be re-decoded.
+        cpu.processInstruction();
+        cpu.processInstruction();
+        assertEquals(1, cpu.getRegisterY());
+        assertEquals(0x0302, cpu.getRegisterPC());
+    }
+
+    @Test
+    void testWriteThroughMirrorInvalidates() {
+        // 0x0300: INX; JMP $0300
+        loadProgram(0x0300, 0xE8, 0x4C, 0x00, 0x03);
+        cpu.processInstruction();
+        cpu.processInstruction();
+
+        // Turn INX into INY through the mirror at 0x0B00.
+        cpu.writeMemory(0x0B00, 0xC8);
+        cpu.processInstruction();
+        assertEquals(1, cpu.getRegisterX());
+        assertEquals(1, cpu.getRegisterY());
+    }
+
+    @Test
+    void testMirrorsShareBlock() {
+        // 0x0300: INX; INX; JMP $0B00, where 0x0B00 mirrors 0x0300.
+        loadProgram(0x0300, 0xE8, 0xE8, 0x4C, 0x00, 0x0B);
+        long misses = blockCache.getMisses();
+        long hits   = blockCache.getHits();
+
+        int[] expectedPCs = { 0x0301, 0x0302, 0x0B00, 0x0B01, 0x0B02, 0x0B00, 0x0B01 };
+        for (int expectedPC : expectedPCs) {
+            cpu.processInstruction();
+            assertEquals(expectedPC, cpu.getRegisterPC());
+        }
+
+        // The block decoded at 0x0300 is stepped through at 0x0B00 without decoding the rest of it again.
+        assertEquals(5, cpu.getRegisterX());
+        assertEquals(misses + 1, blockCache.getMisses());
+        assertEquals(hits + 2,   blockCache.getHits());
+        assertEquals(0x0300, blockCache.getRegion(cpu.ram).blocks[0x0300].startAddress);
+    }
+
+    @Test
+    void testUncachedInstructionAcrossPages() {
+        // LDA #$2A straddles 0x03FF and 0x0400, so it can't be cached.
+        loadProgram(0x03FF, 0xA9, 0x2A);
+        long misses = blockCache.getMisses();
+        cpu.processInstruction();
+        assertEquals(0x2A, cpu.getRegisterA());
+        assertEquals(0x0401, cpu.getRegisterPC());
+        assertEquals(misses, blockCache.getMisses());
+    }
+
+    @Test
+    void testClear() {
+        loadProgram(0x0300, 0xE8, 0x4C, 0x00, 0x03);
+        cpu.processInstruction();
+
+        BlockCache.Region region = blockCache.getRegion(cpu.ram);
+        assertNotNull(region.blocks[0x0300]);
+        blockCache.clear();
+        assertNull(region.blocks[0x0300]);
+        assertFalse(region.code[0x0300]);
+    }
+}
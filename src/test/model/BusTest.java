@@ -2,12 +2,23 @@ package model;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import ppu.PPU;
+import ui.Pixels;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.fail;
 
 public class BusTest {
@@ -15,8 +26,7 @@ public class BusTest {
 
     @BeforeEach
     void runBefore() {
-        Bus.hardReset();
-        bus = Bus.getInstance();
+        bus = new Bus();
     }
 
     @Test
@@ -47,4 +57,177 @@ public class BusTest {
             fail("Bus failed to cycle!");
         }
     }
+
+    @Test
+    void testRunCyclesNotEnabled() {
+        bus.runCycles(10);
+        assertEquals(0, bus.getCpu().getCycles());
+    }
+
+    @Test
+    void testRunCycles() {
+        try {
+            bus.loadCartridge(new File("./data/test/TestLoadRomTrainerNotPresentSmall.nes"));
+            bus.getPpu().setPixels(new Pixels(1, 1, 256, 240));
+            bus.runCycles(1);
+            assertEquals(9, bus.getCpu().getCycles());
+            assertEquals(6, bus.getPpu().getCycle());
+        } catch (IOException e) {
+            fail("Bus failed to cycle!");
+        }
+    }
+
+    @Test
+    void testRunCyclesScanline() {
+        try {
+            bus.loadCartridge(new File("./data/rom/nestest.nes"));
+            bus.getPpu().setPixels(new Pixels(1, 1, 256, 240));
+            bus.setSyncMode(SyncMode.SCANLINE);
+            assertEquals(SyncMode.SCANLINE, bus.getSyncMode());
+
+            bus.runCycles(100);
+            assertEquals(207, bus.getCpu().getCycles());
+            assertEquals(259, bus.getPpu().getCycle());
+        } catch (IOException e) {
+            fail("Bus failed to cycle!");
+        }
+    }
+
+    @Test
+    void testCatchUpMatchesLockstepNestest() {
+        assertArrayEquals(run("./data/rom/nestest.nes", SyncMode.LOCKSTEP),
+                          run("./data/rom/nestest.nes", SyncMode.CATCH_UP));
+    }
+
+    @Test
+    void testCatchUpMatchesLockstepDonkeyKong() {
+        assertArrayEquals(run("./data/rom/donkeykong.nes", SyncMode.LOCKSTEP),
+                          run("./data/rom/donkeykong.nes", SyncMode.CATCH_UP));
+    }
+
+    @Test
+    void testIndependentBusesInParallel() throws Exception {
+        String[] roms = { "./data/rom/nestest.nes", "./data/rom/donkeykong.nes",
+                          "./data/rom/nestest.nes", "./data/rom/donkeykong.nes" };
+        ExecutorService executor = Executors.newFixedThreadPool(roms.length);
+        try {
+            List<Future<long[]>> results = new ArrayList<>();
+            for (String rom : roms) {
+                results.add(executor.submit(() -> run(rom, SyncMode.CATCH_UP)));
+            }
+
+            for (int i = 0; i < roms.length; i++) {
+                assertArrayEquals(run(roms[i], SyncMode.CATCH_UP), results.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testForkRunsLikeParent() throws IOException {
+        Bus reference = new Bus();
+        Pixels referencePixels = new Pixels(1, 1, 256, 240);
+        reference.getPpu().setPixels(referencePixels);
+        bus.getPpu().setPixels(new Pixels(1, 1, 256, 240));
+        for (Bus console : new Bus[] { bus, reference }) {
+            console.loadCartridge(new File("./data/rom/donkeykong.nes"));
+            console.runCycles(30 * 1000 + 7);
+        }
+
+        Bus fork = bus.fork();
+        Pixels pixels = new Pixels(1, 1, 256, 240);
+        fork.getPpu().setPixels(pixels);
+        assertEquals(hash(bus, null), hash(fork, null));
+
+        for (int i = 0; i < 20 * 15; i++) {
+            reference.runCycles(1000);
+            bus.runCycles(1000);
+            fork.runCycles(1000);
+            assertEquals(hash(reference, null), hash(bus, null));
+            assertEquals(hash(reference, null), hash(fork, null));
+        }
+
+        // The fork's screen only fills in from the first whole frame it draws.
+        for (int x = 0; x < 256; x++) {
+            for (int y = 0; y < 240; y++) {
+                assertEquals(referencePixels.getPixel(x, y).getRGB(), pixels.getPixel(x, y).getRGB());
+            }
+        }
+    }
+
+    @Test
+    void testForkSharesPrgRamUntilWritten() throws IOException {
+        bus.loadCartridge(new File("./data/rom/nestest.nes"));
+        CPU cpu = bus.getCpu();
+        cpu.writeMemory(0x6000, 1);
+
+        Bus fork = bus.fork();
+        assertSame(bus.getMapper().getPrgRam(), fork.getMapper().getPrgRam());
+
+        fork.getCpu().writeMemory(0x6000, 2);
+        assertNotSame(bus.getMapper().getPrgRam(), fork.getMapper().getPrgRam());
+        assertEquals(1, cpu.readMemory(0x6000));
+        assertEquals(2, fork.getCpu().readMemory(0x6000));
+        assertEquals(2, fork.getMapper().readMemoryCpu(0x6000));
+
+        cpu.writeMemory(0x6000, 3);
+        assertEquals(3, cpu.readMemory(0x6000));
+        assertEquals(3, bus.getMapper().readMemoryCpu(0x6000));
+        assertEquals(2, fork.getCpu().readMemory(0x6000));
+    }
+
+    // EFFECTS: runs the rom on a new bus for 60 frames with the given sync mode and no idle loop skipping. Returns a
+    //          hash of the cpu, ppu and screen after every 1000 bus cycles.
+    private long[] run(String rom, SyncMode syncMode) {
+        Bus console = new Bus();
+        try {
+            console.loadCartridge(new File(rom));
+        } catch (IOException e) {
+            fail("Bus failed to load the rom!");
+        }
+        Pixels pixels = new Pixels(1, 1, 256, 240);
+        console.getPpu().setPixels(pixels);
+        console.setSyncMode(syncMode);
+        console.setIdleLoopSkippingEnabled(false);
+
+        long[] states = new long[60 * 15];
+        for (int i = 0; i < states.length; i++) {
+            console.runCycles(1000);
+            states[i] = hash(console, pixels);
+        }
+
+        return states;
+    }
+
+    // EFFECTS: returns a hash of the cpu, ppu and apu state of console, and of pixels if it isn't null.
+    private static long hash(Bus console, Pixels pixels) {
+        CPU cpu = console.getCpu();
+        PPU ppu = console.getPpu();
+
+        long state = cpu.getRegisterPC();
+        state = state * 31 + cpu.getRegisterA();
+        state = state * 31 + cpu.getRegisterX();
+        state = state * 31 + cpu.getRegisterY();
+        state = state * 31 + cpu.getStatus();
+        state = state * 31 + cpu.getCycles();
+        state = state * 31 + Arrays.hashCode(cpu.ram);
+        state = state * 31 + ppu.getCycle();
+        state = state * 31 + ppu.getScanline();
+        state = state * 31 + ppu.peekPpuStatus();
+        state = state * 31 + ppu.getRegisterV();
+        state = state * 31 + ppu.getRegisterT();
+        state = state * 31 + Arrays.hashCode(ppu.getNametable());
+        state = state * 31 + Arrays.hashCode(ppu.getPrimaryOam());
+        state = state * 31 + console.getApu().getCycles();
+        if (pixels != null) {
+            for (int x = 0; x < 256; x += 3) {
+                for (int y = 0; y < 240; y += 3) {
+                    state = state * 31 + pixels.getPixel(x, y).getRGB();
+                }
+            }
+        }
+
+        return state;
+    }
 }
@@ -19,7 +19,7 @@ public class CpuTest {
     @BeforeEach
     void runBefore() {
         try {
-            bus = Bus.getInstance();
+            bus = new Bus();
             cpu = bus.getCpu();
             bus.loadCartridge(new File("data/test/TestLoadRomTrainerPresent.nes"));
         } catch (IOException e) {
@@ -41,21 +41,21 @@ public class CpuTest {
     @Test
     void testReadMemoryInternalRam() {
         int address = 0x0547;
-        cpu.ram[address] = new Address(157).getValue();
+        cpu.ram[address] = new Address(157).getValue().byteValue();
         assertTrue(cpu.readMemory(address) == 157);
     }
 
     @Test
     void testReadMemoryInternalRamLowerBound() {
         int address = 0x0000;
-        cpu.ram[address] = new Address(157).getValue();
+        cpu.ram[address] = new Address(157).getValue().byteValue();
         assertTrue(cpu.readMemory(address) == 157);
     }
 
     @Test
     void testReadMemoryInternalRamUpperBound() {
         int address = 0x07FF;
-        cpu.ram[address] = new Address(157).getValue();
+        cpu.ram[address] = new Address(157).getValue().byteValue();
         assertTrue(cpu.readMemory(address) == 157);
     }
 
@@ -67,7 +67,7 @@ public class CpuTest {
     @Test
     void testReadMemoryInternalRamMirrors() {
         int baseAddress = 0x0547;
-        cpu.ram[baseAddress] = new Address(157).getValue();
+        cpu.ram[baseAddress] = new Address(157).getValue().byteValue();
         for (int i = 1; i < 4; i++) {
             int address = baseAddress + i * 0x0800;
             assertTrue(cpu.readMemory(address) == 157);
@@ -77,7 +77,7 @@ public class CpuTest {
     @Test
     void testReadMemoryInternalRamMirrorsLowerBound() {
         int baseAddress = 0x0000;
-        cpu.ram[baseAddress] = new Address(157).getValue();
+        cpu.ram[baseAddress] = new Address(157).getValue().byteValue();
         for (int i = 1; i < 4; i++) {
             int address = baseAddress + i * 0x0800;
             assertTrue(cpu.readMemory(address) == 157);
@@ -87,7 +87,7 @@ public class CpuTest {
     @Test
     void testReadMemoryInternalRamMirrorsUpperBound() {
         int baseAddress = 0x07FF;
-        cpu.ram[baseAddress] = new Address(157).getValue();
+        cpu.ram[baseAddress] = new Address(157).getValue().byteValue();
         for (int i = 1; i < 4; i++) {
             int address = baseAddress + i * 0x0800;
             assertTrue(cpu.readMemory(address) == 157);
@@ -137,6 +137,27 @@ public class CpuTest {
         }
     }
 
+    @Test
+    void testReadMemoryCartridgeMatchesMapper() {
+        for (int address = 0x4020; address <= 0xFFFF; address++) {
+            assertEquals(bus.getMapper().readMemoryCpu(address), cpu.readMemory(address));
+        }
+    }
+
+    @Test
+    void testReadMemoryCartridgeUnmapped() {
+        cpu.unmapCartridgePages();
+        for (int address = 0x4020; address <= 0xFFFF; address++) {
+            assertEquals(bus.getMapper().readMemoryCpu(address), cpu.readMemory(address));
+        }
+    }
+
+    @Test
+    void testReadMemoryRegisterA() {
+        cpu.setRegisterA(157);
+        assertEquals(157, cpu.readMemory(CPU.REGISTER_A_ADDRESS));
+    }
+
 
 
 
@@ -147,35 +168,35 @@ public class CpuTest {
     void testWriteMemoryInternalRam() {
         int address = 0x0547;
         cpu.writeMemory(address, 157);
-        assertTrue(cpu.ram[address] == 157);
+        assertTrue((cpu.ram[address] & 0xFF) == 157);
     }
 
     @Test
     void testWriteMemoryInternalRamUnderflow() {
         int address = 0x0547;
         cpu.writeMemory(address, 157 - 256);
-        assertTrue(cpu.ram[address] == 157);
+        assertTrue((cpu.ram[address] & 0xFF) == 157);
     }
 
     @Test
     void testWriteMemoryInternalRamOverflow() {
         int address = 0x0547;
         cpu.writeMemory(address, 157 + 256);
-        assertTrue(cpu.ram[address] == 157);
+        assertTrue((cpu.ram[address] & 0xFF) == 157);
     }
 
     @Test
     void testWriteMemoryInternalRamLowerBound() {
         int address = 0x0000;
         cpu.writeMemory(address, 157 - 256);
-        assertTrue(cpu.ram[address] == 157);
+        assertTrue((cpu.ram[address] & 0xFF) == 157);
     }
 
     @Test
     void testWriteMemoryInternalRamUpperBound() {
         int address = 0x07FF;
         cpu.writeMemory(address, 157 - 256);
-        assertTrue(cpu.ram[address] == 157);
+        assertTrue((cpu.ram[address] & 0xFF) == 157);
     }
 
 
@@ -189,7 +210,7 @@ public class CpuTest {
         for (int i = 1; i < 4; i++) {
             int address = baseAddress + i * 0x0800 - i;
             cpu.writeMemory(address, 157 + i);
-            assertTrue(cpu.ram[baseAddress - i] == 157 + i);
+            assertTrue((cpu.ram[baseAddress - i] & 0xFF) == 157 + i);
         }
     }
 
@@ -199,7 +220,7 @@ public class CpuTest {
         for (int i = 1; i < 4; i++) {
             int address = baseAddress + i * 0x0800 - i;
             cpu.writeMemory(address, 157 + i - 0x0800);
-            assertTrue(cpu.ram[baseAddress - i] == 157 + i);
+            assertTrue((cpu.ram[baseAddress - i] & 0xFF) == 157 + i);
         }
     }
 
@@ -209,7 +230,7 @@ public class CpuTest {
         for (int i = 1; i < 4; i++) {
             int address = baseAddress + i * 0x0800 - i;
             cpu.writeMemory(address, 157 + i + 0x0800);
-            assertTrue(cpu.ram[baseAddress - i] == 157 + i);
+            assertTrue((cpu.ram[baseAddress - i] & 0xFF) == 157 + i);
         }
     }
 
@@ -219,7 +240,7 @@ public class CpuTest {
         for (int i = 1; i < 4; i++) {
             int address = baseAddress + i * 0x0800 + i;
             cpu.writeMemory(address, 157 + i + 0x0800);
-            assertTrue(cpu.ram[baseAddress + i] == 157 + i);
+            assertTrue((cpu.ram[baseAddress + i] & 0xFF) == 157 + i);
         }
     }
 
@@ -229,7 +250,7 @@ public class CpuTest {
         for (int i = 1; i < 4; i++) {
             int address = baseAddress + i * 0x0800 - i;
             cpu.writeMemory(address, 157 + i + 0x0800);
-            assertTrue(cpu.ram[baseAddress - i] == 157 + i);
+            assertTrue((cpu.ram[baseAddress - i] & 0xFF) == 157 + i);
         }
     }
 
@@ -246,6 +267,22 @@ public class CpuTest {
         }
     }
 
+    @Test
+    void testWriteMemoryPrgRam() {
+        cpu.writeMemory(0x6000, 157);
+        cpu.writeMemory(0x7FFF, 158);
+        assertEquals(157, bus.getMapper().readMemoryCpu(0x6000));
+        assertEquals(158, bus.getMapper().readMemoryCpu(0x7FFF));
+        assertEquals(157, cpu.readMemory(0x6000));
+        assertEquals(158, cpu.readMemory(0x7FFF));
+    }
+
+    @Test
+    void testWriteMemoryRegisterA() {
+        cpu.writeMemory(CPU.REGISTER_A_ADDRESS, 157);
+        assertEquals(157, cpu.getRegisterA());
+    }
+
     @Test
     void testWriteMemoryController() {
         bus.setController(new StandardController());
@@ -337,6 +374,29 @@ public class CpuTest {
         assertTrue(cpu.pullStack()    == 0);
     }
 
+    @Test
+    void testSetZeroAndNegative() {
+        cpu.setZeroAndNegative(0x00);
+        assertEquals(1, cpu.getFlagZ());
+        assertEquals(0, cpu.getFlagN());
+
+        cpu.setZeroAndNegative(0x80);
+        assertEquals(0, cpu.getFlagZ());
+        assertEquals(1, cpu.getFlagN());
+
+        cpu.setZeroAndNegative(0x7F - 0xFF);
+        assertEquals(0, cpu.getFlagZ());
+        assertEquals(1, cpu.getFlagN());
+    }
+
+    @Test
+    void testStatusRoundTrip() {
+        for (int status = 0; status <= 0xFF; status++) {
+            cpu.setStatus(status);
+            assertEquals(status | 0b00110000, cpu.getStatus());
+        }
+    }
+
     @Test
     void testGetStatus() {
         int testCpuStatus = 0b11110001;
@@ -381,6 +441,53 @@ public class CpuTest {
         assertEquals(0xAB25, cpu.getRegisterPC());
     }
 
+    @Test
+    void testReadBlock() {
+        for (int i = 0; i < 0x20; i++) {
+            cpu.writeMemory(0x07F0 + i, i);
+        }
+
+        byte[] block = new byte[0x30];
+        cpu.readBlock(0x07F0, block, 0, 0x20);   // crosses into the first RAM mirror
+        cpu.readBlock(0xFFF0, block, 0x20, 0x10); // cartridge space
+        for (int i = 0; i < 0x20; i++) {
+            assertEquals(cpu.readMemory(0x07F0 + i), block[i] & 0xFF);
+        }
+        for (int i = 0; i < 0x10; i++) {
+            assertEquals(cpu.readMemory(0xFFF0 + i), block[0x20 + i] & 0xFF);
+        }
+    }
+
+    @Test
+    void testDMACopiesPage() {
+        for (int i = 0; i < 0x100; i++) {
+            cpu.writeMemory(0x0300 + i, i);
+        }
+
+        bus.getPpu().oamAddr = 0x10;
+        cpu.writeMemory(0x4014, 0x03);
+        for (int i = 0; i < 0x100; i++) {
+            assertEquals(i, bus.getPpu().getPrimaryOam()[(0x10 + i) & 0xFF] & 0xFF);
+        }
+        assertEquals(0x10, bus.getPpu().oamAddr);
+    }
+
+    @Test
+    void testSkipDMA() {
+        long cycles = cpu.getCycles();
+        assertEquals(0, cpu.getDmaCyclesRemaining());
+
+        cpu.writeMemory(0x4014, 0x03);
+        int stall = cpu.getDmaCyclesRemaining();
+        assertEquals(CPU.DMA_CYCLES + cycles % 2, stall);
+
+        cpu.cycle();
+        assertEquals(stall - 1, cpu.getDmaCyclesRemaining());
+        cpu.skipDma(stall - 1);
+        assertEquals(0, cpu.getDmaCyclesRemaining());
+        assertEquals(cycles + stall, cpu.getCycles());
+    }
+
     @Test
     void testHandleDMAOddCycles() {
         // Force the cycles to be odd
@@ -420,4 +527,43 @@ public class CpuTest {
             assertEquals(cpu.getRegisterA(), 0);
         }
     }
+
+    @Test
+    void testForkSharesRamUntilWritten() {
+        cpu.writeMemory(0x0010, 1);
+        CPU fork = bus.fork().getCpu();
+        assertSame(cpu.ram, fork.ram);
+        assertEquals(1, fork.readMemory(0x0010));
+
+        fork.writeMemory(0x0810, 2); // a mirror of 0x0010
+        assertNotSame(cpu.ram, fork.ram);
+        assertEquals(1, cpu.readMemory(0x0010));
+        assertEquals(2, fork.readMemory(0x0010));
+
+        cpu.writeMemory(0x0010, 3);
+        assertEquals(3, cpu.readMemory(0x0010));
+        assertEquals(2, fork.readMemory(0x0010));
+    }
+
+    @Test
+    void testForkCopiesRegisters() {
+        cpu.setRegisterA(0x12);
+        cpu.setRegisterX(0x34);
+        cpu.setRegisterPC(0x0200);
+        cpu.setStatus(0xC3);
+        cpu.addBreakpoint(0xABCD);
+
+        CPU fork = bus.fork().getCpu();
+        assertEquals(0x12,            fork.getRegisterA());
+        assertEquals(0x34,            fork.getRegisterX());
+        assertEquals(0x0200,          fork.getRegisterPC());
+        assertEquals(cpu.getStatus(), fork.getStatus());
+        assertEquals(cpu.getCycles(), fork.getCycles());
+        assertEquals(cpu.getBreakpoints(), fork.getBreakpoints());
+
+        fork.setRegisterA(0x56);
+        fork.getBreakpoints().clear();
+        assertEquals(0x12, cpu.getRegisterA());
+        assertEquals(1,    cpu.getBreakpoints().size());
+    }
 }
@@ -0,0 +1,136 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ppu.PPU;
+import ui.Pixels;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EmulatorTest {
+    private static final File DONKEYKONG = new File("./data/rom/donkeykong.nes");
+
+    private Emulator emulator;
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        emulator = new Emulator();
+        emulator.loadRom(DONKEYKONG);
+    }
+
+    @Test
+    void testRunFrameWithoutCartridge() {
+        Emulator empty = new Emulator();
+        empty.runFrame(0);
+        empty.runUntil(1000);
+        assertEquals(0, empty.getFrames());
+        assertEquals(0, empty.getBus().getCpu().getCycles());
+    }
+
+    @Test
+    void testRunFrameMatchesBus() throws IOException {
+        Bus bus = new Bus();
+        bus.loadCartridge(DONKEYKONG);
+        Pixels pixels = new Pixels(1, 1, Emulator.SCREEN_WIDTH, Emulator.SCREEN_HEIGHT);
+        bus.getPpu().setPixels(pixels);
+
+        for (int frame = 0; frame < 60; frame++) {
+            emulator.runFrame(0);
+            bus.runFrame();
+        }
+
+        assertEquals(60, emulator.getFrames());
+        assertArrayEquals(bus.getCpu().ram, emulator.getRam());
+        int[] frame = emulator.getFrame();
+        assertEquals(Emulator.SCREEN_WIDTH * Emulator.SCREEN_HEIGHT, frame.length);
+        for (int y = 0; y < Emulator.SCREEN_HEIGHT; y++) {
+            for (int x = 0; x < Emulator.SCREEN_WIDTH; x++) {
+                assertEquals(pixels.getPixel(x, y).getRGB(), frame[y * Emulator.SCREEN_WIDTH + x]);
+            }
+        }
+    }
+
+    @Test
+    void testRunFrameEndsInVblank() {
+        PPU ppu = emulator.getBus().getPpu();
+        for (int frame = 0; frame < 120; frame++) {
+            emulator.runFrame(0);
+
+            // vblank has just started: the ppu is at most one bus cycle (6 ppu cycles) past it.
+            assertEquals(241, ppu.getScanline());
+            assertTrue(ppu.getCycle() >= 2 && ppu.getCycle() <= 7);
+        }
+    }
+
+    @Test
+    void testGetRamIsCopy() {
+        emulator.runFrame(0);
+        byte[] ram = emulator.getRam();
+        ram[0] = (byte) (ram[0] + 1);
+        assertNotEquals(ram[0], emulator.getRam()[0]);
+    }
+
+    @Test
+    void testInputReachesGame() {
+        Emulator pressed = new Emulator();
+        try {
+            pressed.loadRom(DONKEYKONG);
+        } catch (IOException e) {
+            fail();
+        }
+
+        for (int frame = 0; frame < 240; frame++) {
+            emulator.runFrame(0);
+            pressed.runFrame(frame % 20 < 10 ? Emulator.BUTTON_START : 0);
+        }
+
+        assertFalse(Arrays.equals(emulator.getRam(), pressed.getRam()));
+    }
+
+    @Test
+    void testRunUntil() {
+        emulator.runUntil(10001);
+        long cycles = emulator.getBus().getCpu().getCycles();
+        assertTrue(cycles >= 10001);
+        assertTrue(cycles < 10001 + 16);
+
+        emulator.runUntil(5000);
+        assertEquals(cycles, emulator.getBus().getCpu().getCycles());
+    }
+
+    @Test
+    void testRunUntilDisabled() {
+        long cycles = emulator.getBus().getCpu().getCycles();
+        emulator.getBus().setEnabled(false);
+        emulator.runUntil(10000);
+        assertEquals(cycles, emulator.getBus().getCpu().getCycles());
+    }
+
+    @Test
+    void testParseButtons() {
+        assertEquals(0, Emulator.parseButtons(""));
+        assertEquals(0, Emulator.parseButtons("   "));
+        assertEquals(Emulator.BUTTON_A, Emulator.parseButtons("A"));
+        assertEquals(Emulator.BUTTON_START | Emulator.BUTTON_RIGHT, Emulator.parseButtons(" right\tStart "));
+        assertEquals(0xFF, Emulator.parseButtons("A B SELECT START UP DOWN LEFT RIGHT"));
+        assertThrows(IllegalArgumentException.class, () -> Emulator.parseButtons("A TURBO"));
+    }
+
+    @Test
+    void testReadInput() throws IOException {
+        Path file = Files.createTempFile("input", ".txt");
+        try {
+            Files.write(file, Arrays.asList("START", "", "A LEFT"));
+            int[] input = HeadlessRunner.readInput(file.toFile());
+            assertArrayEquals(new int[] { Emulator.BUTTON_START, 0, Emulator.BUTTON_A | Emulator.BUTTON_LEFT }, input);
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// Guards the frame loop against allocating: once a game is running, emulating a frame shouldn't create any garbage.
+// The one exception is the block cache, which keeps finding new places to start decoding (mostly where an NMI
+// returned to) long after the game has settled, and allocates one DecodedBlock for each. Those are counted and
+// allowed for. SLACK covers the odd allocation made by the JVM itself, like reading the allocation counter.
+public class FrameAllocationTest {
+    private static final int  WARMUP_FRAMES   = 300;
+    private static final int  MEASURED_FRAMES = 300;
+    private static final long SLACK           = 1024; // bytes
+
+    private com.sun.management.ThreadMXBean threads;
+    private Emulator emulator;
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        emulator = new Emulator();
+        emulator.loadRom(new File("./data/rom/donkeykong.nes"));
+    }
+
+    @Test
+    void testFullScreenFramesDoNotAllocate() {
+        assertFramesDoNotAllocate(WARMUP_FRAMES, MEASURED_FRAMES);
+    }
+
+    @Test
+    void testScanlineFramesDoNotAllocate() {
+        emulator.getBus().getPpu().setCanRenderFullScreen(false);
+        assertFramesDoNotAllocate(WARMUP_FRAMES / 2, MEASURED_FRAMES / 2);
+    }
+
+    @Test
+    void testDotByDotFramesDoNotAllocate() {
+        emulator.getBus().getPpu().setCanRenderFullScreen(false);
+        emulator.getBus().getPpu().setCanRenderScanlines(false);
+        assertFramesDoNotAllocate(WARMUP_FRAMES / 4, MEASURED_FRAMES / 4);
+    }
+
+    @Test
+    void testFramesWithInputDoNotAllocate() {
+        for (int frame = 0; frame < WARMUP_FRAMES; frame++) {
+            emulator.runFrame(frame % 60 < 10 ? Emulator.BUTTON_START : 0);
+        }
+
+        BlockCache blockCache = emulator.getBus().getCpu().getBlockCache();
+        long misses    = blockCache.getMisses();
+        long allocated = allocatedBytes();
+        for (int frame = 0; frame < MEASURED_FRAMES; frame++) {
+            emulator.runFrame(frame % 20 < 10 ? Emulator.BUTTON_RIGHT | Emulator.BUTTON_A : Emulator.BUTTON_LEFT);
+        }
+
+        assertWithinBudget(allocatedBytes() - allocated, blockCache.getMisses() - misses);
+    }
+
+    // EFFECTS: runs warmupFrames frames, and then checks that the next measuredFrames frames don't allocate anything
+    //          except new decoded blocks.
+    private void assertFramesDoNotAllocate(int warmupFrames, int measuredFrames) {
+        for (int frame = 0; frame < warmupFrames; frame++) {
+            emulator.runFrame(0);
+        }
+
+        BlockCache blockCache = emulator.getBus().getCpu().getBlockCache();
+        long misses    = blockCache.getMisses();
+        long allocated = allocatedBytes();
+        for (int frame = 0; frame < measuredFrames; frame++) {
+            emulator.runFrame(0);
+        }
+
+        assertWithinBudget(allocatedBytes() - allocated, blockCache.getMisses() - misses);
+    }
+
+    // EFFECTS: fails if allocated is more than newBlocks decoded blocks (plus SLACK) take up.
+    private void assertWithinBudget(long allocated, long newBlocks) {
+        long budget = newBlocks * MemoryFootprint.estimate(new DecodedBlock(0)) + SLACK;
+        assertTrue(allocated <= budget, allocated + " bytes allocated, but only " + newBlocks
+                + " new blocks were decoded (" + budget + " bytes)");
+    }
+
+    // EFFECTS: returns the number of bytes this thread has allocated so far.
+    private long allocatedBytes() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,146 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+import ppu.PPU;
+import ui.Pixels;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdleLoopsTest {
+    static final int NUM_CHUNKS  = 120;
+    static final int CHUNK_SIZE  = 7445; // bus cycles, about half a frame
+
+    Bus bus;
+    Pixels pixels;
+
+    // EFFECTS: returns a block made of the given instructions, each one given as { opcode, lo, hi, length }, starting
+    //          at address.
+    private DecodedBlock block(int address, int[]... instructions) {
+        DecodedBlock block = new DecodedBlock(address);
+        for (int[] instruction : instructions) {
+            block.add(address, instruction[0], instruction[1], instruction[2], instruction[3], 2);
+            address += instruction[3];
+        }
+
+        return block;
+    }
+
+    @Test
+    void testPpuStatusLoop() {
+        assertTrue(IdleLoops.isIdleLoop(block(0x8000,
+                new int[] { 0xAD, 0x02, 0x20, 3 },   // LDA $2002
+                new int[] { 0x10, 0xFB, 0x00, 2 }))); // BPL $8000
+        assertTrue(IdleLoops.isIdleLoop(block(0x8000,
+                new int[] { 0x2C, 0x0A, 0x3F, 3 },   // BIT $3F0A (mirror of $2002)
+                new int[] { 0x50, 0xFB, 0x00, 2 }))); // BVC $8000
+    }
+
+    @Test
+    void testRamFlagLoop() {
+        assertTrue(IdleLoops.isIdleLoop(block(0xC010,
+                new int[] { 0xA5, 0x20, 0x00, 2 },   // LDA $20
+                new int[] { 0xC9, 0x01, 0x00, 2 },   // CMP #$01
+                new int[] { 0xD0, 0xFA, 0x00, 2 }))); // BNE $C010
+        assertTrue(IdleLoops.isIdleLoop(block(0xC010,
+                new int[] { 0x4C, 0x10, 0xC0, 3 }))); // JMP $C010
+    }
+
+    @Test
+    void testNotIdleLoop() {
+        // Branches somewhere else
+        assertFalse(IdleLoops.isIdleLoop(block(0x8000,
+                new int[] { 0xAD, 0x02, 0x20, 3 },
+                new int[] { 0x10, 0xFA, 0x00, 2 })));
+        // Writes memory
+        assertFalse(IdleLoops.isIdleLoop(block(0x8000,
+                new int[] { 0xE6, 0x20, 0x00, 2 },   // INC $20
+                new int[] { 0xD0, 0xFC, 0x00, 2 })));
+        // Reads the controller, which changes it
+        assertFalse(IdleLoops.isIdleLoop(block(0x8000,
+                new int[] { 0xAD, 0x16, 0x40, 3 },   // LDA $4016
+                new int[] { 0xF0, 0xFB, 0x00, 2 })));
+        // Reads PPUDATA, which changes it
+        assertFalse(IdleLoops.isIdleLoop(block(0x8000,
+                new int[] { 0xAD, 0x07, 0x20, 3 },   // LDA $2007
+                new int[] { 0xF0, 0xFB, 0x00, 2 })));
+        // Counts down, so the state changes every time around
+        assertFalse(IdleLoops.isIdleLoop(block(0x8000,
+                new int[] { 0xCA, 0x00, 0x00, 1 },   // DEX
+                new int[] { 0xD0, 0xFD, 0x00, 2 })));
+    }
+
+    @Test
+    void testSkippingMatchesCycling() {
+        long[] expected = run(false);
+        assertEquals(0, bus.getIdleCyclesSkipped());
+
+        long[] actual = run(true);
+        assertTrue(bus.getIdleCyclesSkipped() > 0);
+        assertTrue(bus.getIdleLoopSkips() > 0);
+        assertTrue(bus.getIdleLoopReport().startsWith("donkeykong.nes: skipped " + bus.getIdleCyclesSkipped()));
+
+        assertArrayEquals(expected, actual);
+    }
+
+    // MODIFIES: bus
+    // EFFECTS:  hard resets the bus and runs donkeykong for NUM_CHUNKS * CHUNK_SIZE bus cycles, either with runCycles
+    //           and idle loop skipping or one cycle() at a time. Returns a hash of the whole cpu, ppu and apu state
+    //           (including what is on the screen) after every chunk.
+    private long[] run(boolean skip) {
+        bus = new Bus();
+        try {
+            bus.loadCartridge(new File("data/rom/donkeykong.nes"));
+        } catch (IOException e) {
+            fail();
+        }
+        pixels = new Pixels(1, 1, 256, 240);
+        bus.getPpu().setPixels(pixels);
+
+        long[] states = new long[NUM_CHUNKS];
+        for (int i = 0; i < NUM_CHUNKS; i++) {
+            if (skip) {
+                bus.runCycles(CHUNK_SIZE);
+            } else {
+                for (int j = 0; j < CHUNK_SIZE; j++) {
+                    bus.cycle();
+                }
+            }
+            states[i] = hash();
+        }
+
+        return states;
+    }
+
+    // EFFECTS: returns a hash of the state of the bus.
+    private long hash() {
+        CPU cpu = bus.getCpu();
+        PPU ppu = bus.getPpu();
+
+        long state = cpu.getRegisterPC();
+        state = state * 31 + cpu.getRegisterA();
+        state = state * 31 + cpu.getRegisterX();
+        state = state * 31 + cpu.getRegisterY();
+        state = state * 31 + cpu.getRegisterS();
+        state = state * 31 + cpu.getStatus();
+        state = state * 31 + cpu.getCycles();
+        state = state * 31 + cpu.cyclesRemaining;
+        state = state * 31 + Arrays.hashCode(cpu.ram);
+        state = state * 31 + ppu.getCycle();
+        state = state * 31 + ppu.getScanline();
+        state = state * 31 + ppu.peekPpuStatus();
+        state = state * 31 + ppu.getRegisterV();
+        state = state * 31 + ppu.getRegisterW();
+        state = state * 31 + Arrays.hashCode(ppu.getPrimaryOam());
+        state = state * 31 + bus.getApu().getCycles();
+        for (int x = 0; x < 256; x += 3) {
+            for (int y = 0; y < 240; y += 3) {
+                state = state * 31 + pixels.getPixel(x, y).getRGB();
+            }
+        }
+        return state;
+    }
+}
@@ -0,0 +1,96 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InstructionHandlersTest {
+    static final int NUM_TRIALS = 64;
+
+    Bus bus;
+    CPU fused;
+    CPU reference;
+    Random random;
+
+    @BeforeEach
+    void runBefore() {
+        try {
+            bus = new Bus();
+            bus.loadCartridge(new File("data/test/TestLoadRomTrainerPresent.nes"));
+        } catch (IOException e) {
+            fail();
+        }
+
+        fused     = new CPU(bus);
+        reference = new CPU(bus);
+        fused.reset();
+        reference.reset();
+        random = new Random(6502);
+    }
+
+    @Test
+    void testEveryOpcodeMatchesReference() {
+        for (int opcode = 0; opcode <= 0xFF; opcode++) {
+            for (int trial = 0; trial < NUM_TRIALS; trial++) {
+                randomize(opcode);
+                fused.processInstruction();
+                reference.processInstructionReference();
+                assertSameState(opcode, trial);
+            }
+        }
+    }
+
+    // MODIFIES: fused, reference
+    // EFFECTS:  puts both cpus into the same random state, with the given opcode at registerPC. Every pointer the
+    //           instruction could follow is kept inside internal RAM so that only the cpu is being tested. RAM is
+    //           written through writeMemory so that the fused cpu's block cache sees the new code.
+    private void randomize(int opcode) {
+        for (int i = 0; i < fused.ram.length; i++) {
+            int value = (i <= 0xFF) ? random.nextInt(0x08) : random.nextInt(0x100);
+            fused.writeMemory(i, value);
+            reference.writeMemory(i, value);
+        }
+
+        int registerPC = 0x0300 + random.nextInt(0x0400);
+        int[] instruction = { opcode, random.nextInt(0x100), random.nextInt(0x08) };
+        for (int i = 0; i < instruction.length; i++) {
+            fused.writeMemory(registerPC + i, instruction[i]);
+            reference.writeMemory(registerPC + i, instruction[i]);
+        }
+
+        int registerA = random.nextInt(0x100);
+        int registerX = random.nextInt(0x100);
+        int registerY = random.nextInt(0x100);
+        int registerS = 0x03 + random.nextInt(0xFA);
+        int status    = random.nextInt(0x100);
+        for (CPU cpu : new CPU[] { fused, reference }) {
+            cpu.setRegisterA(registerA);
+            cpu.setRegisterX(registerX);
+            cpu.setRegisterY(registerY);
+            cpu.setRegisterS(registerS);
+            cpu.setRegisterPC(registerPC);
+            cpu.setStatus(status);
+            cpu.setFlagB(0);
+            cpu.cyclesRemaining = 0;
+        }
+    }
+
+    private void assertSameState(int opcode, int trial) {
+        String message = "opcode 0x" + Integer.toHexString(opcode) + ", trial " + trial;
+        assertEquals(reference.getRegisterA(),  fused.getRegisterA(),  message);
+        assertEquals(reference.getRegisterX(),  fused.getRegisterX(),  message);
+        assertEquals(reference.getRegisterY(),  fused.getRegisterY(),  message);
+        assertEquals(reference.getRegisterS(),  fused.getRegisterS(),  message);
+        assertEquals(reference.getRegisterPC(), fused.getRegisterPC(), message);
+        assertEquals(reference.getStatus(),     fused.getStatus(),     message);
+        assertEquals(reference.getFlagB(),      fused.getFlagB(),      message);
+        assertEquals(reference.isEnabled(),     fused.isEnabled(),     message);
+        assertEquals(reference.cyclesRemaining, fused.cyclesRemaining, message);
+        assertArrayEquals(reference.ram, fused.ram, message);
+    }
+}
@@ -0,0 +1,50 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MemoryFootprintTest {
+    @Test
+    void testEstimatePrimitiveArrays() {
+        assertEquals(16,  MemoryFootprint.estimate(new byte[0]));
+        assertEquals(32,  MemoryFootprint.estimate(new byte[10]));
+        assertEquals(56,  MemoryFootprint.estimate(new int[10]));
+        assertEquals(96,  MemoryFootprint.estimate(new long[10]));
+    }
+
+    @Test
+    void testEstimateCountsSharedObjectsOnce() {
+        byte[] shared = new byte[10];
+        Object[] twice = { shared, shared };
+        assertEquals(24 + 32, MemoryFootprint.estimate(twice));
+    }
+
+    @Test
+    void testMemoryIsStoredAsBytes() throws IOException {
+        Bus bus = new Bus();
+        bus.loadCartridge(new File("./data/rom/nestest.nes"));
+
+        // 2 KB of internal RAM, not 8 KB.
+        assertEquals(16 + 0x800, MemoryFootprint.estimate(bus.getCpu().ram));
+        assertTrue(MemoryFootprint.estimate(bus.getMapper()) < 0x8000 + 0x4000);
+    }
+
+    @Test
+    void testGetReport() throws IOException {
+        Bus bus = new Bus();
+        bus.loadCartridge(new File("./data/rom/nestest.nes"));
+
+        String[] lines = MemoryFootprint.getReport(bus).split("\\R");
+        assertEquals(5, lines.length);
+        assertTrue(lines[0].startsWith("cpu:"));
+        assertTrue(lines[1].startsWith("ppu:"));
+        assertTrue(lines[2].startsWith("apu:"));
+        assertTrue(lines[3].startsWith("mapper:"));
+        assertTrue(lines[4].startsWith("total:"));
+    }
+}
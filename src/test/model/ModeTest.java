@@ -22,7 +22,7 @@ public class ModeTest {
     @BeforeEach
     void runBefore() {
         try {
-            Bus bus = Bus.getInstance();
+            Bus bus = new Bus();
             cpu = bus.getCpu();
             bus.loadCartridge(new File("data/test/TestLoadRomTrainerPresent.nes"));
         } catch (IOException e) {
@@ -21,7 +21,7 @@ public class Nestest {
     @BeforeEach
     void runBefore() {
         try {
-            bus = Bus.getInstance();
+            bus = new Bus();
             cpu = bus.getCpu();
             bus.loadCartridge(new File("data/rom/nestest.nes"));
         } catch (IOException e) {
@@ -49,29 +49,5 @@ public class Nestest {
             assertEquals(cpu.getRegisterPC(), Integer.parseInt(pc.get(i),  16));
             cpu.processInstruction();
         }
-    }/*
-
-    @Test
-    void testNestestRomSpeed() {
-        long totalTime = 0;
-        int test = 0;
-
-        for (int i = 0; i < 100; i++) {
-            cpu.setRegisterPC(0xC000);
-
-            long startTime = System.nanoTime();
-            for (int j = 0; j < 5259; j++) {
-                while (cpu.cyclesRemaining > 1)
-                    cpu.cycle();
-                    test++;
-            }
-
-            long endTime = System.nanoTime();
-
-            totalTime += endTime - startTime;
-        }
-
-        System.out.println("Expected Average Time: " + (float) 525900 / (float) 893415);
-        System.out.println("Actual   Average Time: " + totalTime / 100);
-    }*/
+    }
 }
@@ -20,8 +20,7 @@ class OpcodeTest {
     @BeforeEach
     void runBefore() {
         try {
-            Bus.hardReset();
-            bus = Bus.getInstance();
+            bus = new Bus();
             cpu = bus.getCpu();
             bus.loadCartridge(new File("./data/test/TestLoadRomTrainerPresent.nes"));
         } catch (IOException e) {
@@ -0,0 +1,254 @@
+package model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecompilerTest {
+    static final int NUM_TRIALS       = 16;
+    static final int NUM_INSTRUCTIONS = 5259;
+
+    Bus bus;
+    CPU cpu;
+    Random random;
+
+    @BeforeEach
+    void runBefore() {
+        try {
+            bus = new Bus();
+            cpu = bus.getCpu();
+            bus.loadCartridge(new File("data/rom/nestest.nes"));
+        } catch (IOException e) {
+            fail();
+        }
+
+        random = new Random(6502);
+    }
+
+    @AfterEach
+    void runAfter() {
+        cpu.setRecompilerEnabled(false);
+        cpu.getRecompiler().setHotThreshold(Recompiler.DEFAULT_HOT_THRESHOLD);
+    }
+
+    @Test
+    void testDisabledByDefault() {
+        assertFalse(cpu.isRecompilerEnabled());
+
+        long compiledBlocks = cpu.getRecompiler().getCompiledBlocks();
+        startNestest();
+        for (int i = 0; i < 1000; i++) {
+            cpu.processInstruction();
+        }
+        assertEquals(compiledBlocks, cpu.getRecompiler().getCompiledBlocks());
+    }
+
+    @Test
+    void testNestestMatchesInterpreter() {
+        int[][] expected = new int[NUM_INSTRUCTIONS + 1][];
+        startNestest();
+        long start = cpu.getInstructionCount();
+        for (int i = 0; i < NUM_INSTRUCTIONS; i++) {
+            expected[i] = snapshot(cpu);
+            cpu.processInstruction();
+            assertEquals(start + i + 1, cpu.getInstructionCount());
+        }
+        expected[NUM_INSTRUCTIONS] = snapshot(cpu);
+        byte[] expectedRam = cpu.ram.clone();
+
+        try {
+            bus.loadCartridge(new File("data/rom/nestest.nes"));
+        } catch (IOException e) {
+            fail();
+        }
+        long compiledBlocks = cpu.getRecompiler().getCompiledBlocks();
+        long failedBlocks   = cpu.getRecompiler().getFailedBlocks();
+        cpu.getRecompiler().setHotThreshold(1);
+        cpu.setRecompilerEnabled(true);
+        startNestest();
+        start = cpu.getInstructionCount();
+        long count = 0;
+        int extraCycles = 0;
+        while (count < NUM_INSTRUCTIONS) {
+            cpu.processInstruction();
+            long previousCount = count;
+            count = cpu.getInstructionCount() - start;
+
+            // A compiled block gets the cycle that each instruction after its first would have been processed on.
+            extraCycles += (int) (count - previousCount) - 1;
+            if (count <= NUM_INSTRUCTIONS) {
+                int[] expectedState = expected[(int) count].clone();
+                expectedState[expectedState.length - 1] += extraCycles;
+                assertArrayEquals(expectedState, snapshot(cpu), "instruction " + count);
+            }
+        }
+        cpu.setRecompilerEnabled(false);
+
+        assertTrue(cpu.getRecompiler().getCompiledBlocks() > compiledBlocks);
+        assertEquals(failedBlocks, cpu.getRecompiler().getFailedBlocks());
+        if (count == NUM_INSTRUCTIONS) {
+            assertArrayEquals(expectedRam, cpu.ram);
+        }
+    }
+
+    @Test
+    void testEveryOpcodeMatchesInterpreter() {
+        CPU interpreted = new CPU(bus);
+        CPU compiled    = new CPU(bus);
+        interpreted.reset();
+        compiled.reset();
+
+        for (int opcode = 0; opcode <= 0xFF; opcode++) {
+            for (int trial = 0; trial < NUM_TRIALS; trial++) {
+                int registerPC = 0x0300 + random.nextInt(0x0400);
+                int lo = random.nextInt(0x100);
+                int hi = random.nextInt(0x08);
+                randomize(interpreted, compiled, registerPC, opcode, lo, hi);
+
+                int decoded   = Instruction.DECODE_TABLE[opcode];
+                int length    = ((decoded >> Instruction.DECODED_NUM_ARGUMENTS_SHIFT)
+                                 & Instruction.DECODED_NIBBLE_MASK) + 1;
+                int numCycles = (decoded >> Instruction.DECODED_NUM_CYCLES_SHIFT) & Instruction.DECODED_NIBBLE_MASK;
+                DecodedBlock block = new DecodedBlock(registerPC);
+                block.add(registerPC, opcode, lo, hi, length, numCycles);
+
+                CompiledBlock compiledBlock = new Recompiler().compile(block);
+                if (compiledBlock == null) {
+                    assertFalse(Recompiler.isCompilable(opcode, lo, hi));
+                    continue;
+                }
+
+                interpreted.processInstruction();
+                compiledBlock.run(compiled);
+
+                String message = "opcode 0x" + Integer.toHexString(opcode) + ", trial " + trial;
+                assertArrayEquals(snapshot(interpreted), snapshot(compiled), message);
+                assertArrayEquals(interpreted.ram, compiled.ram, message);
+            }
+        }
+    }
+
+    @Test
+    void testIoIsNotCompiled() {
+        assertFalse(Recompiler.isCompilable(0xAD, 0x02, 0x20)); // LDA $2002
+        assertFalse(Recompiler.isCompilable(0x8D, 0x14, 0x40)); // STA $4014
+        assertFalse(Recompiler.isCompilable(0x8D, 0x00, 0x60)); // STA $6000
+        assertFalse(Recompiler.isCompilable(0xBD, 0x80, 0x1F)); // LDA $1F80,X
+        assertFalse(Recompiler.isCompilable(0xB1, 0x00, 0x00)); // LDA ($00),Y
+        assertFalse(Recompiler.isCompilable(0x6C, 0x00, 0x20)); // JMP ($2000)
+
+        assertTrue(Recompiler.isCompilable(0xAD, 0x00, 0x80));  // LDA $8000
+        assertTrue(Recompiler.isCompilable(0x8D, 0x00, 0x07));  // STA $0700
+        assertTrue(Recompiler.isCompilable(0xBD, 0x00, 0x60));  // LDA $6000,X
+        assertTrue(Recompiler.isCompilable(0x4C, 0x00, 0x20));  // JMP $2000
+    }
+
+    @Test
+    void testCompilesPrefixOfBlock() {
+        // LDX #$01; STX $4016; INX
+        DecodedBlock block = new DecodedBlock(0xC000);
+        block.add(0xC000, 0xA2, 0x01, 0x00, 2, 2);
+        block.add(0xC002, 0x8E, 0x16, 0x40, 3, 4);
+        block.add(0xC005, 0xE8, 0x00, 0x00, 1, 2);
+
+        Recompiler recompiler = new Recompiler();
+        CompiledBlock compiled = recompiler.compile(block);
+        assertNotNull(compiled);
+        assertSame(compiled, block.compiled);
+        assertEquals(1, block.compiledSize);
+        assertTrue(block.compileAttempted);
+        assertEquals(1, recompiler.getCompiledBlocks());
+        assertEquals(1, recompiler.getCompiledInstructions());
+
+        cpu.setRegisterPC(0xC000);
+        cpu.cyclesRemaining = 0;
+        compiled.run(cpu);
+        assertEquals(1, cpu.getRegisterX());
+        assertEquals(0xC002, cpu.getRegisterPC());
+        assertEquals(2, cpu.cyclesRemaining);
+    }
+
+    @Test
+    void testCompiledBlockInMirror() {
+        // LDX #$01; JSR $C100, decoded at 0xC000 and entered through the mirror at 0x8000.
+        DecodedBlock block = new DecodedBlock(0xC000);
+        block.add(0xC000, 0xA2, 0x01, 0x00, 2, 2);
+        block.add(0xC002, 0x20, 0x00, 0xC1, 3, 6);
+        CompiledBlock compiled = new Recompiler().compile(block);
+        assertNotNull(compiled);
+        assertEquals(2, block.compiledSize);
+
+        cpu.setRegisterPC(0x8000);
+        cpu.setRegisterS(0xFD);
+        compiled.run(cpu);
+        assertEquals(1, cpu.getRegisterX());
+        assertEquals(0xC100, cpu.getRegisterPC());
+
+        // JSR pushes the address of its last byte in the mirror it ran in.
+        assertEquals(0x80, cpu.readMemory(0x01FD));
+        assertEquals(0x04, cpu.readMemory(0x01FC));
+    }
+
+    // MODIFIES: cpu
+    // EFFECTS:  puts cpu in the state nestest expects when started at 0xC000.
+    private void startNestest() {
+        cpu.setRegisterPC(0xC000);
+        cpu.setStatus(0x24);
+        cpu.setFlagB(0);
+        cpu.cyclesRemaining = 0;
+    }
+
+    // MODIFIES: interpreted, compiled
+    // EFFECTS:  puts both cpus into the same random state, with the given instruction at registerPC. Pointers are kept
+    //           inside internal RAM.
+    private void randomize(CPU interpreted, CPU compiled, int registerPC, int opcode, int lo, int hi) {
+        for (int i = 0; i < interpreted.ram.length; i++) {
+            int value = (i <= 0xFF) ? random.nextInt(0x08) : random.nextInt(0x100);
+            interpreted.writeMemory(i, value);
+            compiled.writeMemory(i, value);
+        }
+
+        int[] instruction = { opcode, lo, hi };
+        for (int i = 0; i < instruction.length; i++) {
+            interpreted.writeMemory(registerPC + i, instruction[i]);
+            compiled.writeMemory(registerPC + i, instruction[i]);
+        }
+
+        int registerA = random.nextInt(0x100);
+        int registerX = random.nextInt(0x100);
+        int registerY = random.nextInt(0x100);
+        int registerS = 0x03 + random.nextInt(0xFA);
+        int status    = random.nextInt(0x100);
+        for (CPU cpu : new CPU[] { interpreted, compiled }) {
+            cpu.setRegisterA(registerA);
+            cpu.setRegisterX(registerX);
+            cpu.setRegisterY(registerY);
+            cpu.setRegisterS(registerS);
+            cpu.setRegisterPC(registerPC);
+            cpu.setStatus(status);
+            cpu.setFlagB(0);
+            cpu.cyclesRemaining = 0;
+        }
+    }
+
+    // EFFECTS: returns the registers, flags and pending cycles of cpu.
+    private int[] snapshot(CPU cpu) {
+        return new int[] {
+            cpu.getRegisterA(),
+            cpu.getRegisterX(),
+            cpu.getRegisterY(),
+            cpu.getRegisterS(),
+            cpu.getRegisterPC(),
+            cpu.getStatus(),
+            cpu.getFlagB(),
+            cpu.isEnabled() ? 1 : 0,
+            cpu.cyclesRemaining
+        };
+    }
+}
@@ -0,0 +1,106 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SchedulerTest {
+    Scheduler scheduler;
+
+    @BeforeEach
+    void runBefore() {
+        scheduler = new Scheduler();
+    }
+
+    @Test
+    void testConstructor() {
+        assertEquals(0, scheduler.getClock());
+        assertEquals(Scheduler.NEVER, scheduler.getNextEventTime());
+        assertEquals(-1, scheduler.getNextEvent());
+    }
+
+    @Test
+    void testAdvancePastInt() {
+        for (int i = 0; i < 4; i++) {
+            scheduler.advance(Integer.MAX_VALUE);
+        }
+        assertEquals(4L * Integer.MAX_VALUE, scheduler.getClock());
+    }
+
+    @Test
+    void testScheduleOrder() {
+        scheduler.schedule(Scheduler.VBLANK, 500);
+        scheduler.schedule(Scheduler.APU_FRAME_STEP, 100);
+        assertEquals(Scheduler.APU_FRAME_STEP, scheduler.getNextEvent());
+        assertEquals(100, scheduler.getNextEventTime());
+
+        assertEquals(Scheduler.APU_FRAME_STEP, scheduler.popEvent());
+        assertEquals(Scheduler.NEVER, scheduler.getEventTime(Scheduler.APU_FRAME_STEP));
+        assertEquals(Scheduler.VBLANK, scheduler.popEvent());
+        assertEquals(Scheduler.NEVER, scheduler.getNextEventTime());
+    }
+
+    @Test
+    void testReschedule() {
+        scheduler.schedule(Scheduler.VBLANK, 500);
+        scheduler.schedule(Scheduler.APU_FRAME_STEP, 100);
+        scheduler.schedule(Scheduler.APU_FRAME_STEP, 10000000000L);
+        assertEquals(Scheduler.VBLANK, scheduler.getNextEvent());
+
+        scheduler.schedule(Scheduler.VBLANK, 20000000000L);
+        assertEquals(Scheduler.APU_FRAME_STEP, scheduler.getNextEvent());
+        assertEquals(10000000000L, scheduler.getNextEventTime());
+    }
+
+    @Test
+    void testCancel() {
+        scheduler.schedule(Scheduler.VBLANK, 500);
+        scheduler.schedule(Scheduler.APU_FRAME_STEP, 100);
+        scheduler.cancel(Scheduler.APU_FRAME_STEP);
+        scheduler.cancel(Scheduler.APU_FRAME_STEP);
+        assertEquals(Scheduler.VBLANK, scheduler.getNextEvent());
+        assertEquals(500, scheduler.getNextEventTime());
+
+        scheduler.cancel(Scheduler.VBLANK);
+        assertEquals(Scheduler.NEVER, scheduler.getNextEventTime());
+    }
+
+    @Test
+    void testReset() {
+        scheduler.advance(1000);
+        scheduler.schedule(Scheduler.VBLANK, 2000);
+        scheduler.reset();
+        assertEquals(0, scheduler.getClock());
+        assertEquals(Scheduler.NEVER, scheduler.getNextEventTime());
+    }
+
+    @Test
+    void testCopy() {
+        scheduler.advance(1000);
+        scheduler.schedule(Scheduler.VBLANK, 3000);
+        scheduler.schedule(Scheduler.APU_FRAME_STEP, 2000);
+        Scheduler copy = scheduler.copy();
+        assertEquals(1000, copy.getClock());
+        assertEquals(Scheduler.APU_FRAME_STEP, copy.popEvent());
+        assertEquals(3000, copy.getNextEventTime());
+
+        assertEquals(Scheduler.APU_FRAME_STEP, scheduler.getNextEvent());
+        assertEquals(2000, scheduler.getNextEventTime());
+    }
+
+    @Test
+    void testBusSchedulesEvents() throws Exception {
+        Bus bus = new Bus();
+        bus.loadCartridge(new java.io.File("./data/rom/nestest.nes"));
+        bus.getPpu().setPixels(new ui.Pixels(1, 1, 256, 240));
+        bus.runCycles(1000);
+
+        Scheduler busScheduler = bus.getScheduler();
+        assertEquals(1000L * 2 * Scheduler.CPU_TICKS, busScheduler.getClock());
+        assertEquals(busScheduler.getClock() + (long) bus.getPpu().getCyclesUntilNextEvent() * Scheduler.PPU_TICKS,
+                     busScheduler.getEventTime(Scheduler.VBLANK));
+        assertEquals(busScheduler.getClock() + (bus.getApu().getCyclesUntilFrameStep() + 1L) * 2 * Scheduler.CPU_TICKS,
+                     busScheduler.getEventTime(Scheduler.APU_FRAME_STEP));
+    }
+}
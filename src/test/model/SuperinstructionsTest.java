@@ -0,0 +1,169 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ui.Pixels;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SuperinstructionsTest {
+    static final int NUM_BUS_CYCLES = 60 * 29781 / 2;
+
+    Bus bus;
+    CPU cpu;
+
+    @BeforeEach
+    void runBefore() {
+        try {
+            bus = new Bus();
+            cpu = bus.getCpu();
+            bus.loadCartridge(new File("data/test/TestLoadRomTrainerPresent.nes"));
+        } catch (IOException e) {
+            fail();
+        }
+    }
+
+    // EFFECTS: returns a block made of the given instructions, each one given as { opcode, lo, hi, length }, with its
+    //          superinstructions marked.
+    private DecodedBlock block(int[]... instructions) {
+        DecodedBlock block = new DecodedBlock(0x8000);
+        int address = 0x8000;
+        for (int[] instruction : instructions) {
+            block.add(address, instruction[0], instruction[1], instruction[2], instruction[3], 2);
+            address += instruction[3];
+        }
+
+        Superinstructions.fuse(block);
+        return block;
+    }
+
+    @Test
+    void testFuse() {
+        DecodedBlock block = block(
+                new int[] { 0xA9, 0x01, 0x00, 2 },  // LDA #$01
+                new int[] { 0x8D, 0x00, 0x07, 3 },  // STA $0700
+                new int[] { 0x18, 0x00, 0x00, 1 },  // CLC
+                new int[] { 0x69, 0x02, 0x00, 2 },  // ADC #$02
+                new int[] { 0xCA, 0x00, 0x00, 1 },  // DEX
+                new int[] { 0xD0, 0xF5, 0x00, 2 }); // BNE
+        assertEquals(Superinstructions.LDA_STA, block.superinstructions[0]);
+        assertEquals(Superinstructions.NONE,    block.superinstructions[1]);
+        assertEquals(Superinstructions.CLC_ADC, block.superinstructions[2]);
+        assertEquals(Superinstructions.DEX_BNE, block.superinstructions[4]);
+    }
+
+    @Test
+    void testFuseGreedy() {
+        DecodedBlock block = block(
+                new int[] { 0xA5, 0x10, 0x00, 2 },  // LDA $10
+                new int[] { 0xC9, 0x05, 0x00, 2 },  // CMP #$05
+                new int[] { 0xD0, 0xFA, 0x00, 2 }); // BNE
+        assertEquals(Superinstructions.LDA_CMP, block.superinstructions[0]);
+        assertEquals(Superinstructions.NONE,    block.superinstructions[1]);
+        assertEquals(Superinstructions.NONE,    block.superinstructions[2]);
+    }
+
+    @Test
+    void testIoIsNotFused() {
+        DecodedBlock block = block(
+                new int[] { 0xA9, 0x80, 0x00, 2 },  // LDA #$80
+                new int[] { 0x8D, 0x00, 0x20, 3 },  // STA $2000
+                new int[] { 0x18, 0x00, 0x00, 1 },  // CLC
+                new int[] { 0x6D, 0x02, 0x20, 3 }); // ADC $2002
+        assertEquals(Superinstructions.NONE, block.superinstructions[0]);
+        assertEquals(Superinstructions.NONE, block.superinstructions[2]);
+    }
+
+    @Test
+    void testExecuteInMirror() {
+        // Both blocks are decoded at 0x8000, and run through the mirror at 0xC000.
+        DecodedBlock copy = block(
+                new int[] { 0xA9, 0x01, 0x00, 2 },  // LDA #$01
+                new int[] { 0x8D, 0x00, 0x07, 3 }); // STA $0700
+        cpu.setRegisterPC(0xC002);
+        Superinstructions.execute(cpu, copy, 0);
+        assertEquals(0xC005, cpu.getRegisterPC());
+        assertEquals(0x01, cpu.readMemory(0x0700));
+
+        DecodedBlock loop = block(
+                new int[] { 0x88, 0x00, 0x00, 1 },  // DEY
+                new int[] { 0xD0, 0xFD, 0x00, 2 }); // BNE -3
+        cpu.setRegisterY(2);
+        cpu.setRegisterPC(0xC001);
+        Superinstructions.execute(cpu, loop, 0);
+        assertEquals(0xC000, cpu.getRegisterPC());
+    }
+
+    @Test
+    void testProcessInstructionNeverFuses() {
+        // 0x0300: LDX #$03; DEX; BNE $0302 (-3)
+        int[] program = { 0xA2, 0x03, 0xCA, 0xD0, 0xFD };
+        for (int i = 0; i < program.length; i++) {
+            cpu.writeMemory(0x0300 + i, program[i]);
+        }
+        cpu.setRegisterPC(0x0300);
+
+        cpu.processInstruction();
+        cpu.processInstruction();
+        assertEquals(0x0303, cpu.getRegisterPC());
+        cpu.processInstruction();
+        assertEquals(0x0302, cpu.getRegisterPC());
+    }
+
+    @Test
+    void testCycleMatchesInterpreter() {
+        long[] expected = run(false);
+        assertEquals(0, cpu.getSuperinstructionCount("DEY/BNE"));
+
+        long[] actual = run(true);
+        assertTrue(cpu.getSuperinstructionCount("DEY/BNE") > 0);
+        assertTrue(cpu.getSuperinstructionCount("LDA/STA") > 0);
+        for (int i = 0; i < NUM_BUS_CYCLES; i++) {
+            // The cpu is ahead of itself while a superinstruction is pending, so it can only be compared in between.
+            if (actual[i] != -1) {
+                assertEquals(expected[i], actual[i], "bus cycle " + i);
+            }
+        }
+    }
+
+    // MODIFIES: bus
+    // EFFECTS:  hard resets the bus and runs donkeykong for NUM_BUS_CYCLES bus cycles. Returns a hash of the cpu's
+    //           state (registers, flags, pending cycles and RAM) after every one, or -1 if a superinstruction was
+    //           pending then.
+    private long[] run(boolean superinstructionsEnabled) {
+        bus = new Bus();
+        cpu = bus.getCpu();
+        cpu.setSuperinstructionsEnabled(superinstructionsEnabled);
+        try {
+            bus.loadCartridge(new File("data/rom/donkeykong.nes"));
+        } catch (IOException e) {
+            fail();
+        }
+        bus.getPpu().setPixels(new Pixels(1, 1, 256, 240));
+
+        long[] states = new long[NUM_BUS_CYCLES];
+        for (int i = 0; i < NUM_BUS_CYCLES; i++) {
+            bus.cycle();
+            if (cpu.isSuperinstructionPending()) {
+                states[i] = -1;
+                continue;
+            }
+
+            long state = cpu.getRegisterPC();
+            state = state * 31 + cpu.getRegisterA();
+            state = state * 31 + cpu.getRegisterX();
+            state = state * 31 + cpu.getRegisterY();
+            state = state * 31 + cpu.getRegisterS();
+            state = state * 31 + cpu.getStatus();
+            state = state * 31 + cpu.cyclesRemaining;
+            state = state * 31 + Arrays.hashCode(cpu.ram);
+            states[i] = state & Long.MAX_VALUE;
+        }
+
+        return states;
+    }
+}
@@ -0,0 +1,44 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SyncModeReportTest {
+    @Test
+    void testCompareExactModes() throws IOException {
+        SyncModeReport report = SyncModeReport.compare(new File("./data/rom/donkeykong.nes"),
+                SyncMode.LOCKSTEP, SyncMode.CATCH_UP, 30);
+        assertTrue(report.isSafe());
+        assertEquals("donkeykong",  report.getCartridgeName());
+        assertEquals(30,            report.getFrames());
+        assertEquals(0,             report.getDivergedFrames());
+        assertEquals(-1,            report.getFirstDivergedFrame());
+        assertEquals("donkeykong: CATCH_UP matches LOCKSTEP on all 30 frames", report.toString());
+    }
+
+    @Test
+    void testCompareScanlineSafe() throws IOException {
+        SyncModeReport report = SyncModeReport.compare(new File("./data/rom/donkeykong.nes"),
+                SyncMode.CATCH_UP, SyncMode.SCANLINE, 120);
+        assertTrue(report.isSafe());
+    }
+
+    @Test
+    void testCompareScanlineDiverges() throws IOException {
+        // full_palette changes the palette in the middle of every frame, so it needs the exact timing once the ppu
+        // notices and stops rendering the full screen at once.
+        SyncModeReport report = SyncModeReport.compare(new File("./data/rom/full_palette.nes"),
+                SyncMode.CATCH_UP, SyncMode.SCANLINE, 30);
+        assertFalse(report.isSafe());
+        assertEquals(15, report.getFirstDivergedFrame());
+        assertTrue(report.getDivergedFrames() > 0);
+        assertTrue(report.getDivergedFrames() <= 22);
+        assertTrue(report.toString().startsWith("full_palette: SCANLINE differs from CATCH_UP on "));
+    }
+}
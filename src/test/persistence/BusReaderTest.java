@@ -31,7 +31,7 @@ public class BusReaderTest {
     @BeforeAll
     static void runBeforeAll() {
         try {
-            expectedBus = Bus.getInstance();
+            expectedBus = new Bus();
             expectedBus.loadCartridge(new File("./data/rom/nestest.nes"));
             expectedBus.getCpu().addBreakpoint(0xABCD);
 
@@ -41,9 +41,9 @@ public class BusReaderTest {
 
             BusWriter.writeToFile(expectedBus, "test");
 
-            actualBus = Bus.getInstance();
-            actualBus.softReset();
-            actualBus = BusReader.readFromFile("test");
+            actualBus = new Bus();
+            actualBus.loadCartridge(new File("./data/rom/nestest.nes"));
+            actualBus = BusReader.readFromFile(actualBus, "test");
         } catch (IOException e) {
             fail("IOException thrown! Are you sure the file exists?");
         }
@@ -65,10 +65,9 @@ public class BusReaderTest {
     @Test
     void testReadFail() {
         try {
-            Bus.hardReset();
-            Bus bus = Bus.getInstance();
+            Bus bus = new Bus();
             bus.softReset();
-            bus = BusReader.readFromFile("this/file/does/not.exist");
+            bus = BusReader.readFromFile(bus, "this/file/does/not.exist");
         } catch (Exception e) {
             fail("This should be handled by the BusReader!");
         }
@@ -0,0 +1,140 @@
+package persistence;
+
+import model.Bus;
+import model.CPU;
+import model.Recompiler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TranslationCacheReaderTest {
+    Bus bus;
+    CPU cpu;
+    File cacheDirectory;
+    File cacheFile;
+
+    ArrayList<Integer> expectedAddresses;
+    ArrayList<Integer> expectedExecutions;
+
+    @BeforeEach
+    void runBefore() {
+        try {
+            bus = new Bus();
+            cpu = bus.getCpu();
+            bus.loadCartridge(new File("./data/rom/nestest.nes"));
+            cacheDirectory = Files.createTempDirectory("translation-cache").toFile();
+        } catch (IOException e) {
+            fail("IOException thrown! Are you sure the file exists?");
+        }
+
+        cpu.setRegisterPC(0xC000);
+        for (int i = 0; i < 5000; i++) {
+            cpu.processInstruction();
+        }
+
+        expectedAddresses  = cpu.getRomBlockAddresses();
+        expectedExecutions = new ArrayList<>();
+        for (int address : expectedAddresses) {
+            expectedExecutions.add(cpu.getBlockExecutions(address));
+        }
+
+        assertTrue(TranslationCacheWriter.writeToFile(bus, cacheDirectory.getPath()));
+        cacheFile = new File(new File(cacheDirectory, bus.getCartridgeHash()), TranslationCacheWriter.FILE_NAME);
+
+        // Throws away every decoded block.
+        bus.softReset();
+        assertEquals(0, cpu.getRomBlockAddresses().size());
+    }
+
+    @Test
+    void testConstructor() {
+        try {
+            TranslationCacheReader translationCacheReader = new TranslationCacheReader();
+        } catch (Exception e) {
+            fail("Dummy constructor failed!");
+        }
+    }
+
+    @Test
+    void testRead() {
+        assertEquals(expectedAddresses.size(), TranslationCacheReader.readFromFile(bus, cacheDirectory.getPath()));
+        assertEquals(expectedAddresses, cpu.getRomBlockAddresses());
+        for (int i = 0; i < expectedAddresses.size(); i++) {
+            assertEquals(expectedExecutions.get(i), cpu.getBlockExecutions(expectedAddresses.get(i)));
+        }
+    }
+
+    @Test
+    void testReadCompilesHotBlocks() {
+        cpu.setRecompilerEnabled(true);
+        cpu.getRecompiler().setHotThreshold(1);
+        long compiledBlocks = cpu.getRecompiler().getCompiledBlocks();
+        TranslationCacheReader.readFromFile(bus, cacheDirectory.getPath());
+        cpu.getRecompiler().setHotThreshold(Recompiler.DEFAULT_HOT_THRESHOLD);
+        cpu.setRecompilerEnabled(false);
+
+        assertTrue(cpu.getRecompiler().getCompiledBlocks() > compiledBlocks);
+    }
+
+    @Test
+    void testReadMissing() {
+        assertEquals(0, TranslationCacheReader.readFromFile(bus, cacheDirectory.getPath() + "/missing"));
+    }
+
+    @Test
+    void testReadWrongVersion() throws IOException {
+        List<String> lines = Files.readAllLines(cacheFile.toPath());
+        lines.set(0, lines.get(0).replace(" " + Bus.EMULATOR_VERSION + " ", " 0.0 "));
+        Files.write(cacheFile.toPath(), lines);
+
+        assertEquals(0, TranslationCacheReader.readFromFile(bus, cacheDirectory.getPath()));
+    }
+
+    @Test
+    void testReadTruncated() throws IOException {
+        List<String> lines = Files.readAllLines(cacheFile.toPath());
+        Files.write(cacheFile.toPath(), lines.subList(0, lines.size() - 1));
+
+        assertEquals(0, TranslationCacheReader.readFromFile(bus, cacheDirectory.getPath()));
+        assertEquals(0, cpu.getRomBlockAddresses().size());
+    }
+
+    @Test
+    void testReadSkipsCorruptBlocks() throws IOException {
+        List<String> lines = Files.readAllLines(cacheFile.toPath());
+        lines.set(1, "not a block");
+        lines.set(2, lines.get(2) + " 1");
+        // Claims a different opcode at the start of the block than the ROM has.
+        String[] fields = lines.get(3).split(" ");
+        fields[4] = Integer.toString((Integer.parseInt(fields[4]) + 1) & 0xFF);
+        lines.set(3, String.join(" ", fields));
+        Files.write(cacheFile.toPath(), lines);
+
+        assertEquals(expectedAddresses.size() - 3, TranslationCacheReader.readFromFile(bus, cacheDirectory.getPath()));
+    }
+
+    @Test
+    void testLoadCartridgeRestoresCache() throws IOException {
+        // Uses the default cache directory: the first load saves the blocks found so far, the second restores them.
+        bus.setTranslationCacheEnabled(true);
+        try {
+            cpu.setRegisterPC(0xC000);
+            for (int i = 0; i < 5000; i++) {
+                cpu.processInstruction();
+            }
+            bus.loadCartridge(new File("./data/rom/nestest.nes"));
+            bus.loadCartridge(new File("./data/rom/nestest.nes"));
+        } finally {
+            bus.setTranslationCacheEnabled(false);
+        }
+
+        assertEquals(expectedAddresses, cpu.getRomBlockAddresses());
+    }
+}
@@ -0,0 +1,67 @@
+package persistence;
+
+import model.Bus;
+import model.CPU;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TranslationCacheWriterTest {
+    Bus bus;
+    CPU cpu;
+    File cacheDirectory;
+
+    @BeforeEach
+    void runBefore() {
+        try {
+            bus = new Bus();
+            cpu = bus.getCpu();
+            bus.loadCartridge(new File("./data/rom/nestest.nes"));
+            cacheDirectory = Files.createTempDirectory("translation-cache").toFile();
+        } catch (IOException e) {
+            fail("IOException thrown! Are you sure the file exists?");
+        }
+
+        cpu.setRegisterPC(0xC000);
+        for (int i = 0; i < 5000; i++) {
+            cpu.processInstruction();
+        }
+    }
+
+    @Test
+    void testConstructor() {
+        try {
+            TranslationCacheWriter translationCacheWriter = new TranslationCacheWriter();
+        } catch (Exception e) {
+            fail("Dummy constructor failed!");
+        }
+    }
+
+    @Test
+    void testWrite() throws IOException {
+        assertTrue(TranslationCacheWriter.writeToFile(bus, cacheDirectory.getPath()));
+
+        File file = new File(new File(cacheDirectory, bus.getCartridgeHash()), TranslationCacheWriter.FILE_NAME);
+        List<String> lines = Files.readAllLines(file.toPath());
+        int numBlocks = cpu.getRomBlockAddresses().size();
+        assertTrue(numBlocks > 0);
+        assertEquals(TranslationCacheWriter.MAGIC + " " + Bus.EMULATOR_VERSION + " " + bus.getCartridgeHash() + " "
+                + numBlocks, lines.get(0));
+        assertEquals(numBlocks + 2, lines.size());
+        assertEquals(TranslationCacheWriter.END, lines.get(lines.size() - 1));
+
+        // The program starts with JMP $C5F5, which is a block of its own. Blocks are written in address order.
+        assertTrue(lines.contains("49152 1 1 3 76 245 197"));
+    }
+
+    @Test
+    void testWriteFail() {
+        assertFalse(TranslationCacheWriter.writeToFile(bus, "./data/rom/nestest.nes/not/a/directory"));
+    }
+}
@@ -0,0 +1,93 @@
+package ppu;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BackgroundLayerTest {
+    BackgroundLayer backgroundLayer;
+
+    @BeforeEach
+    void runBefore() {
+        backgroundLayer = new BackgroundLayer();
+    }
+
+    @Test
+    void testConstructor() {
+        assertTrue(backgroundLayer.isDirty());
+        for (int tileY = 0; tileY < BackgroundLayer.TILES_DOWN; tileY++) {
+            for (int tileX = 0; tileX < BackgroundLayer.TILES_ACROSS; tileX++) {
+                assertTrue(backgroundLayer.isTileDirty(tileX, tileY, 0));
+            }
+        }
+    }
+
+    @Test
+    void testClean() {
+        backgroundLayer.clean();
+        assertFalse(backgroundLayer.isDirty());
+        assertFalse(backgroundLayer.isTileDirty(10, 20, 0));
+
+        backgroundLayer.markAll();
+        assertTrue(backgroundLayer.isDirty());
+        assertTrue(backgroundLayer.isTileDirty(10, 20, 0));
+    }
+
+    @Test
+    void testMarkNametableByte() {
+        backgroundLayer.clean();
+        backgroundLayer.markNametableByte(3, 5 * 32 + 7);
+
+        assertTrue(backgroundLayer.isDirty());
+        assertTrue(backgroundLayer.isTileDirty(32 + 7, 30 + 5, 0));
+        assertFalse(backgroundLayer.isTileDirty(7, 5, 0));
+        assertFalse(backgroundLayer.isTileDirty(32 + 8, 30 + 5, 0));
+    }
+
+    @Test
+    void testMarkNametableByteAttribute() {
+        backgroundLayer.clean();
+        backgroundLayer.markNametableByte(1, 0x03C0 + 8 * 7 + 2);
+
+        int dirtyTiles = 0;
+        for (int tileY = 0; tileY < BackgroundLayer.TILES_DOWN; tileY++) {
+            for (int tileX = 0; tileX < BackgroundLayer.TILES_ACROSS; tileX++) {
+                if (backgroundLayer.isTileDirty(tileX, tileY, 0)) {
+                    dirtyTiles++;
+                    assertTrue(32 + 8 <= tileX && tileX < 32 + 12);
+                    assertTrue(28 <= tileY && tileY < 30);
+                }
+            }
+        }
+
+        // the last row of attributes only covers two rows of tiles.
+        assertEquals(8, dirtyTiles);
+    }
+
+    @Test
+    void testMarkPattern() {
+        backgroundLayer.clean();
+        backgroundLayer.markPattern(0x123);
+
+        assertTrue(backgroundLayer.isDirty());
+        assertTrue(backgroundLayer.isTileDirty(0, 0, 0x123));
+        assertTrue(backgroundLayer.isTileDirty(63, 59, 0x123));
+        assertFalse(backgroundLayer.isTileDirty(0, 0, 0x124));
+    }
+
+    @Test
+    void testDrawTile() {
+        TileCache tileCache = new TileCache();
+        tileCache.decodeRow(0x123, 5, 0b10010011, 0b01011011);
+        backgroundLayer.drawTile(33, 31, 0x123, 2, tileCache);
+
+        for (int row = 0; row < TileCache.ROWS_PER_TILE; row++) {
+            for (int x = 0; x < TileCache.TILE_WIDTH; x++) {
+                assertEquals(tileCache.getPixel(0x123, row, x) + 8, backgroundLayer.getPixel(33 * 8 + x, 31 * 8 + row));
+            }
+        }
+        assertEquals(0, backgroundLayer.getPixel(33 * 8 - 1, 31 * 8));
+        assertEquals(0, backgroundLayer.getPixel(33 * 8, 31 * 8 + 8));
+    }
+}
@@ -0,0 +1,35 @@
+package ppu;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ColorPaletteTest {
+    @Test
+    void testGetRGBWithoutEmphasis() {
+        for (int color = 0; color < ColorPalette.NUM_COLORS; color++) {
+            assertEquals(ColorPalette.getColor(color).getRGB(), ColorPalette.getRGB(color));
+            assertEquals(ColorPalette.getRGB(color),            ColorPalette.getRGB(color, 0));
+        }
+    }
+
+    @Test
+    void testGetRGBWithEmphasis() {
+        // 0x30 is (236, 238, 236).
+        assertEquals(new Color(236, 194, 193).getRGB(), ColorPalette.getRGB(0x30, 0b001));
+        assertEquals(new Color(193, 238, 193).getRGB(), ColorPalette.getRGB(0x30, 0b010));
+        assertEquals(new Color(193, 194, 236).getRGB(), ColorPalette.getRGB(0x30, 0b100));
+        assertEquals(new Color(236, 238, 193).getRGB(), ColorPalette.getRGB(0x30, 0b011));
+        assertEquals(new Color(236, 238, 236).getRGB(), ColorPalette.getRGB(0x30, 0b111));
+    }
+
+    @Test
+    void testGetRGBBlackIgnoresEmphasis() {
+        for (int emphasis = 0; emphasis < ColorPalette.NUM_EMPHASES; emphasis++) {
+            assertEquals(ColorPalette.getRGB(0x1E), ColorPalette.getRGB(0x1E, emphasis));
+            assertEquals(ColorPalette.getRGB(0x3F), ColorPalette.getRGB(0x3F, emphasis));
+        }
+    }
+}
@@ -23,8 +23,7 @@ public class PpuTest {
 
     @BeforeEach
     void runBefore() {
-        Bus.hardReset();
-        bus = Bus.getInstance();
+        bus = new Bus();
         try {
             bus.loadCartridge(new File("./data/test/TestLoadRomTrainerPresent.nes"));
         } catch (IOException e) {
@@ -43,6 +42,52 @@ public class PpuTest {
         assertEquals(0, ppu.getRegisterW());
     }
 
+    @Test
+    void testGetCyclesLeftInScanline() {
+        ppu.setPixels(new Pixels(1, 1, 256, 240));
+        assertEquals(341, ppu.getCyclesLeftInScanline());
+
+        ppu.runCycles(100);
+        assertEquals(241, ppu.getCyclesLeftInScanline());
+
+        ppu.runCycles(241);
+        assertEquals(0,   ppu.getCycle());
+        assertEquals(341, ppu.getCyclesLeftInScanline());
+    }
+
+    @Test
+    void testSetCanRenderFullScreen() {
+        assertTrue(ppu.getCanRenderFullScreen());
+        ppu.setCanRenderFullScreen(false);
+        assertFalse(ppu.getCanRenderFullScreen());
+
+        ppu.reset();
+        assertTrue(ppu.getCanRenderFullScreen());
+    }
+
+    @Test
+    void testWriteOamWraps() {
+        ppu.oamAddr = 0xFF;
+        ppu.writeOam(7);
+        assertEquals(7, ppu.getPrimaryOam()[0xFF] & 0xFF);
+        assertEquals(0, ppu.oamAddr);
+    }
+
+    @Test
+    void testWriteOamBlock() {
+        byte[] page = new byte[PPU.PRIMARY_OAM_SIZE];
+        for (int i = 0; i < page.length; i++) {
+            page[i] = (byte) i;
+        }
+
+        ppu.oamAddr = 0x10;
+        ppu.writeOamBlock(page);
+        for (int i = 0; i < page.length; i++) {
+            assertEquals(i, ppu.getPrimaryOam()[(0x10 + i) & 0xFF] & 0xFF);
+        }
+        assertEquals(0x10, ppu.oamAddr);
+    }
+
     @Test
     void testReset() {
         ppu.setRegisterT(1);
@@ -228,6 +273,45 @@ public class PpuTest {
         assertEquals(new Color(0,   0,   0),   pixels.getPixel(511, 511));
     }
 
+    @Test
+    void testRenderGreyscale() {
+        Pixels pixels = new Pixels(1, 1, 256 * 2, 256 * 2);
+        ppu.writeMemory(0x3F03, 0x33);
+        ppu.writeRegister(0x2001, 0b00000001);
+
+        ppu.renderPatternTables(pixels, 0);
+        assertEquals(new Color(236, 238, 236), pixels.getPixel(0, 0));
+
+        ppu.writeRegister(0x2001, 0b00000000);
+        ppu.renderPatternTables(pixels, 0);
+        assertEquals(new Color(212, 178, 236), pixels.getPixel(0, 0));
+    }
+
+    @Test
+    void testRenderEmphasis() {
+        Pixels pixels = new Pixels(1, 1, 256 * 2, 256 * 2);
+        ppu.writeRegister(0x2001, 0b00100000);
+        ppu.writeMemory(0x3F03, 0x33);
+
+        ppu.renderPatternTables(pixels, 0);
+        assertEquals(new Color(212, 145, 193), pixels.getPixel(0, 0));
+
+        ppu.writeMemory(0x3F03, 0x0F);
+        ppu.renderPatternTables(pixels, 0);
+        assertEquals(new Color(0, 0, 0), pixels.getPixel(0, 0));
+    }
+
+    @Test
+    void testCopyKeepsPalette() {
+        ppu.writeRegister(0x2001, 0b00000001);
+        ppu.writeMemory(0x3F03, 0x33);
+        PPU copy = ppu.copy(bus);
+
+        Pixels pixels = new Pixels(1, 1, 256 * 2, 256 * 2);
+        copy.renderPatternTables(pixels, 0);
+        assertEquals(new Color(236, 238, 236), pixels.getPixel(0, 0));
+    }
+
     @Test
     void testRenderOAM() {
         ppu.writeOam(0b00000000);
@@ -345,4 +429,273 @@ public class PpuTest {
         ppu.writeMemory(0x3ABC, 0xA2);
         assertEquals(0xA2, ppu.readNametable(0x3ABC));
     }
+
+    @Test
+    void testLoadTiles() {
+        TileCache tileCache = ppu.getTileCache();
+        for (int tile = 0; tile < TileCache.NUM_TILES; tile++) {
+            for (int row = 0; row < TileCache.ROWS_PER_TILE; row++) {
+                int low  = ppu.readMemory((tile << 4) + row);
+                int high = ppu.readMemory((tile << 4) + 8 + row);
+                assertEquals(Util.reverse(low, 8),  tileCache.getLowPlane(tile, row));
+                assertEquals(Util.reverse(high, 8), tileCache.getHighPlane(tile, row));
+                for (int x = 0; x < TileCache.TILE_WIDTH; x++) {
+                    int pixel = Util.getNthBit(low, 7 - x) + (Util.getNthBit(high, 7 - x) << 1);
+                    assertEquals(pixel, tileCache.getPixel(tile, row, x));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testCopySharesTileCache() {
+        PPU copy = ppu.copy(new Bus());
+        assertSame(ppu.getTileCache(), copy.getTileCache());
+    }
+
+    @Test
+    void testWriteMemoryPatternTableUnsharesTileCache() {
+        PPU copy = ppu.copy(bus);
+        TileCache shared = ppu.getTileCache();
+
+        copy.writeMemory(0x1234, 0xA2);
+        assertSame(shared, ppu.getTileCache());
+        assertNotSame(shared, copy.getTileCache());
+        assertEquals(shared.getLowPlane(0x123, 4), copy.getTileCache().getLowPlane(0x123, 4));
+    }
+
+    @Test
+    void testSetCanRenderScanlines() {
+        assertTrue(ppu.getCanRenderScanlines());
+        ppu.setCanRenderScanlines(false);
+        assertFalse(ppu.getCanRenderScanlines());
+
+        ppu.reset();
+        assertFalse(ppu.getCanRenderScanlines());
+    }
+
+    @Test
+    void testScanlineRenderingMatchesDotByDot() {
+        Pixels scanlinePixels = new Pixels(1, 1, 256, 240);
+        Pixels dotPixels      = new Pixels(1, 1, 256, 240);
+        PPU scanlines = runDonkeyKong(true,  scanlinePixels).getPpu();
+        PPU dots      = runDonkeyKong(false, dotPixels).getPpu();
+
+        assertSamePpuState(dots, dotPixels, scanlines, scanlinePixels);
+    }
+
+    @Test
+    void testMidScanlineWriteMatchesDotByDot() {
+        Pixels scanlinePixels = new Pixels(1, 1, 256, 240);
+        Pixels dotPixels      = new Pixels(1, 1, 256, 240);
+        PPU scanlines = runDonkeyKong(true,  scanlinePixels).getPpu();
+        PPU dots      = runDonkeyKong(false, dotPixels).getPpu();
+
+        for (PPU ppu : new PPU[] { scanlines, dots }) {
+            runUntil(ppu, 100, 120);
+            ppu.writeRegister(0x2005, 0b10101101);
+            runUntil(ppu, 100, 200);
+            ppu.writeRegister(0x2001, 0b00011001);
+            runUntil(ppu, 242, 0);
+        }
+
+        assertSamePpuState(dots, dotPixels, scanlines, scanlinePixels);
+    }
+
+    @Test
+    void testMidScanlineCopyMatchesDotByDot() {
+        PPU scanlines = runDonkeyKong(true,  new Pixels(1, 1, 256, 240)).getPpu();
+        PPU dots      = runDonkeyKong(false, new Pixels(1, 1, 256, 240)).getPpu();
+        runUntil(scanlines, 100, 120);
+        runUntil(dots,      100, 120);
+
+        PPU copy = scanlines.copy(new Bus());
+        assertEquals(dots.getRegisterV(),      copy.getRegisterV());
+        assertEquals(dots.getDrawX(),          copy.getDrawX());
+        assertEquals(dots.getLatchNametable(), copy.getLatchNametable());
+        assertEquals(dots.getShiftRegisterLarge0().getValue(), copy.getShiftRegisterLarge0().getValue());
+        assertEquals(dots.getSprites()[0].getCounter(),        copy.getSprites()[0].getCounter());
+    }
+
+    @Test
+    void testSplitSwitchesToScanlines() {
+        ppu.setPixels(new Pixels(1, 1, 256, 240));
+        ppu.writeRegister(0x2001, 0b00001000);
+
+        runUntil(ppu, 100, 0);
+        ppu.writeRegister(0x2005, 0b00001000);
+        assertTrue(ppu.getCanRenderFullScreen());
+
+        runUntil(ppu, 0, 0);
+        assertFalse(ppu.getCanRenderFullScreen());
+    }
+
+    @Test
+    void testVblankWriteKeepsFullScreen() {
+        ppu.setPixels(new Pixels(1, 1, 256, 240));
+        ppu.writeRegister(0x2001, 0b00001000);
+
+        runUntil(ppu, 245, 0);
+        ppu.writeRegister(0x2005, 0b00001000);
+        ppu.writeRegister(0x2000, 0b10000000);
+        runUntil(ppu, 100, 0);
+        ppu.writeRegister(0x2000, 0b00000000);
+        runUntil(ppu, 0, 0);
+
+        assertTrue(ppu.getCanRenderFullScreen());
+    }
+
+    @Test
+    void testGetCyclesUntilNextEventScanlines() {
+        ppu.setPixels(new Pixels(1, 1, 256, 240));
+        ppu.setCanRenderFullScreen(false);
+        runUntil(ppu, 10, 0);
+        assertEquals(341 * (241 - 10) + 1, ppu.getCyclesUntilNextEvent());
+
+        ppu.writeRegister(0x2001, 0b00001000);
+        assertEquals(65, ppu.getCyclesUntilNextEvent());
+        ppu.runCycles(66);
+        assertEquals(341 - 1, ppu.getCyclesUntilNextEvent());
+
+        runUntil(ppu, 239, 100);
+        assertEquals(341 * 2 + 1 - 100, ppu.getCyclesUntilNextEvent());
+
+        ppu.setCanRenderScanlines(false);
+        assertEquals(0, ppu.getCyclesUntilNextEvent());
+    }
+
+    @Test
+    void testGetCyclesUntilVblank() {
+        ppu.setPixels(new Pixels(1, 1, 256, 240));
+        runUntil(ppu, 10, 0);
+        assertEquals(341 * (241 - 10) + 2, ppu.getCyclesUntilVblank());
+
+        runUntil(ppu, 241, 1);
+        assertEquals(1, ppu.getCyclesUntilVblank());
+        ppu.runCycles(1);
+        assertEquals(PPU.CYCLES_PER_FRAME, ppu.getCyclesUntilVblank());
+    }
+
+    @Test
+    void testRenderFullScreenRedrawsDirtyTiles() {
+        ppu.setPixels(new Pixels(1, 1, 256, 240));
+        runUntil(ppu, 245, 0);
+        assertEquals(BackgroundLayer.TILES_ACROSS * BackgroundLayer.TILES_DOWN, ppu.getRedrawnTiles());
+
+        // the four nametables are all mirrored onto the first one, so the byte shows up in each of them.
+        ppu.writeRegister(0x2006, 0x20);
+        ppu.writeRegister(0x2006, 0x45);
+        ppu.writeRegister(0x2007, 0x01);
+        ppu.runCycles(PPU.CYCLES_PER_FRAME);
+        assertEquals(4, ppu.getRedrawnTilesLastFrame());
+
+        ppu.runCycles(PPU.CYCLES_PER_FRAME);
+        assertEquals(0, ppu.getRedrawnTilesLastFrame());
+        assertEquals(BackgroundLayer.TILES_ACROSS * BackgroundLayer.TILES_DOWN + 4, ppu.getRedrawnTiles());
+    }
+
+    @Test
+    void testRenderFullScreenPaletteWriteKeepsTiles() {
+        ppu.setPixels(new Pixels(1, 1, 256, 240));
+        runUntil(ppu, 245, 0);
+
+        ppu.writeMemory(0x3F01, 0x21);
+        ppu.runCycles(PPU.CYCLES_PER_FRAME);
+        assertEquals(0, ppu.getRedrawnTilesLastFrame());
+    }
+
+    @Test
+    void testRenderFullScreenPatternWriteRedrawsTiles() {
+        ppu.setPixels(new Pixels(1, 1, 256, 240));
+        runUntil(ppu, 245, 0);
+        ppu.writeMemory(0x1010, 0xFF);
+        ppu.runCycles(PPU.CYCLES_PER_FRAME);
+        assertEquals(0, ppu.getRedrawnTilesLastFrame());
+
+        // every entry in the nametables is tile 0.
+        ppu.writeMemory(0x0003, 0xFF);
+        ppu.runCycles(PPU.CYCLES_PER_FRAME);
+        assertEquals(BackgroundLayer.TILES_ACROSS * BackgroundLayer.TILES_DOWN, ppu.getRedrawnTilesLastFrame());
+    }
+
+    @Test
+    void testRenderFullScreenScrolls() {
+        Pixels pixels = new Pixels(1, 1, 256, 240);
+        PPU ppu = runDonkeyKong(true, pixels).getPpu();
+        ppu.setCanRenderFullScreen(true);
+        for (int i = 0; i < PPU.PRIMARY_OAM_SIZE; i++) {
+            ppu.setPrimaryOam(i, 0xFF);
+        }
+
+        int[] unscrolled = new int[256 * 240];
+        ppu.setRegisterT(0);
+        ppu.setRegisterX(0);
+        runUntil(ppu, 0, 1);
+        runUntil(ppu, 241, 0);
+        pixels.copyPixels(unscrolled);
+
+        int[] scrolled = new int[256 * 240];
+        ppu.setRegisterT(5 | (3 << 5) | (2 << 12));
+        ppu.setRegisterX(3);
+        runUntil(ppu, 0, 1);
+        runUntil(ppu, 241, 0);
+        pixels.copyPixels(scrolled);
+
+        // the four nametables are all mirrored onto the first one, so the picture wraps around the screen.
+        for (int y = 0; y < 240; y++) {
+            for (int x = 0; x < 256; x++) {
+                assertEquals(unscrolled[(x + 43) % 256 + ((y + 26) % 240) * 256], scrolled[x + y * 256]);
+            }
+        }
+    }
+
+    // MODIFIES: pixels
+    // EFFECTS:  returns a bus that has run Donkey Kong on pixels for long enough to be showing its title screen,
+    //           rendering a scanline at a time (canRenderScanlines) or dot by dot.
+    private Bus runDonkeyKong(boolean canRenderScanlines, Pixels pixels) {
+        Bus bus = new Bus();
+        try {
+            bus.loadCartridge(new File("./data/rom/donkeykong.nes"));
+        } catch (IOException e) {
+            fail("Bus failed to load cartridge!");
+        }
+
+        bus.getPpu().setPixels(pixels);
+        bus.getPpu().setCanRenderFullScreen(false);
+        bus.getPpu().setCanRenderScanlines(canRenderScanlines);
+        for (int frame = 0; frame < 40; frame++) {
+            bus.runCycles((int) Math.ceil(PPU.CYCLES_PER_FRAME / 6.0));
+        }
+        bus.sync();
+        return bus;
+    }
+
+    // MODIFIES: ppu
+    // EFFECTS:  runs the ppu on its own until it gets to the given cycle of the given scanline.
+    private void runUntil(PPU ppu, int scanline, int cycle) {
+        while (ppu.getScanline() != scanline || ppu.getCycle() != cycle) {
+            ppu.runCycles(1);
+        }
+    }
+
+    // MODIFIES: expected, actual
+    // EFFECTS:  fails unless the two ppus have drawn the same picture on their pixels and ended up in the same state,
+    //           once the cycles they put off have run.
+    private void assertSamePpuState(PPU expected, Pixels expectedPixels, PPU actual, Pixels actualPixels) {
+        expected.finishDeferredCycles();
+        actual.finishDeferredCycles();
+        assertEquals(expected.getScanline(),  actual.getScanline());
+        assertEquals(expected.getCycle(),     actual.getCycle());
+        assertEquals(expected.getRegisterV(), actual.getRegisterV());
+        assertEquals(expected.getDrawX(),     actual.getDrawX());
+        assertEquals(expected.getDrawY(),     actual.getDrawY());
+        assertEquals(expected.peekPpuStatus(), actual.peekPpuStatus());
+        assertArrayEquals(expected.getSecondaryOam(), actual.getSecondaryOam());
+
+        int[] expectedFrame = new int[256 * 240];
+        int[] actualFrame   = new int[256 * 240];
+        expectedPixels.copyPixels(expectedFrame);
+        actualPixels.copyPixels(actualFrame);
+        assertArrayEquals(expectedFrame, actualFrame);
+    }
 }
@@ -46,4 +46,37 @@ public class SpriteTest {
             assertEquals(expectedValues[i], sprite.getNextColorAddressAsInt());
         }
     }
+
+    @Test
+    void testPeekColorAddressAsInt() {
+        Sprite mirrored = new Sprite(0b10010011, 0b01011011, 3, 5, 0, true, false);
+        int[] expectedValues         = new int[8];
+        int[] expectedMirroredValues = new int[8];
+        for (int i = 0; i < 8; i++) {
+            expectedValues[i]         = sprite.peekColorAddressAsInt(i);
+            expectedMirroredValues[i] = mirrored.peekColorAddressAsInt(i);
+        }
+
+        for (int i = 0; i < 8; i++) {
+            assertEquals(expectedValues[i],         sprite.getNextColorAddressAsInt());
+            assertEquals(expectedMirroredValues[i], mirrored.getNextColorAddressAsInt());
+        }
+    }
+
+    @Test
+    void testSkipPixels() {
+        Sprite drawn = sprite.copy();
+        for (int i = 0; i < 8; i++) {
+            if (drawn.isActive()) {
+                drawn.getNextColorAddressAsInt();
+            }
+            drawn.decrementCounter();
+        }
+
+        sprite.skipPixels(8);
+        assertEquals(drawn.getCounter(), sprite.getCounter());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(drawn.getNextColorAddressAsInt(), sprite.getNextColorAddressAsInt());
+        }
+    }
 }
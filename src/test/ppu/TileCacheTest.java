@@ -0,0 +1,71 @@
+package ppu;
+
+import model.Util;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TileCacheTest {
+    TileCache tileCache;
+
+    @BeforeEach
+    void runBefore() {
+        tileCache = new TileCache();
+        tileCache.decodeRow(0x123, 5, 0b10010011, 0b01011011);
+    }
+
+    @Test
+    void testConstructor() {
+        TileCache blank = new TileCache();
+        for (int tile = 0; tile < TileCache.NUM_TILES; tile++) {
+            for (int row = 0; row < TileCache.ROWS_PER_TILE; row++) {
+                assertEquals(0, blank.getLowPlane(tile, row));
+                assertEquals(0, blank.getHighPlane(tile, row));
+                for (int x = 0; x < TileCache.TILE_WIDTH; x++) {
+                    assertEquals(0, blank.getPixel(tile, row, x));
+                    assertEquals(0, blank.getFlippedPixel(tile, row, x));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testGetPixel() {
+        int[] expected = { 0b01, 0b10, 0b00, 0b11, 0b10, 0b00, 0b11, 0b11 };
+        for (int x = 0; x < TileCache.TILE_WIDTH; x++) {
+            assertEquals(expected[x], tileCache.getPixel(0x123, 5, x));
+        }
+    }
+
+    @Test
+    void testGetFlippedPixel() {
+        for (int x = 0; x < TileCache.TILE_WIDTH; x++) {
+            assertEquals(tileCache.getPixel(0x123, 5, 7 - x), tileCache.getFlippedPixel(0x123, 5, x));
+        }
+    }
+
+    @Test
+    void testGetPlanes() {
+        assertEquals(Util.reverse(0b10010011, 8), tileCache.getLowPlane(0x123, 5));
+        assertEquals(Util.reverse(0b01011011, 8), tileCache.getHighPlane(0x123, 5));
+    }
+
+    @Test
+    void testDecodeRowOnlyChangesThatRow() {
+        assertEquals(0, tileCache.getLowPlane(0x123, 4));
+        assertEquals(0, tileCache.getLowPlane(0x122, 5));
+        assertEquals(0, tileCache.getPixel(0x124, 5, 0));
+    }
+
+    @Test
+    void testCopy() {
+        TileCache copy = tileCache.copy();
+        assertEquals(tileCache.getLowPlane(0x123, 5),  copy.getLowPlane(0x123, 5));
+        assertEquals(tileCache.getHighPlane(0x123, 5), copy.getHighPlane(0x123, 5));
+
+        copy.decodeRow(0x123, 5, 0, 0);
+        assertEquals(0,                             copy.getPixel(0x123, 5, 0));
+        assertEquals(Util.reverse(0b10010011, 8),   tileCache.getLowPlane(0x123, 5));
+    }
+}
@@ -0,0 +1,134 @@
+package ui;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PixelsTest {
+    private static final int BLACK = new Color(0, 0, 0).getRGB();
+
+    Pixels pixels;
+
+    @BeforeEach
+    void runBefore() {
+        pixels = new Pixels(2, 3, 256, 240);
+    }
+
+    @Test
+    void testConstructor() {
+        assertEquals(512, pixels.getDisplayWidth());
+        assertEquals(720, pixels.getDisplayHeight());
+        assertEquals(BLACK, pixels.getRGB(0, 0));
+        assertEquals(BLACK, pixels.getRGB(255, 239));
+    }
+
+    @Test
+    void testSetPixelOnlyShowsAfterStoreBuffer() {
+        pixels.setPixel(255, 239, 0xFF123456);
+        assertEquals(BLACK, pixels.getRGB(255, 239));
+
+        pixels.storeBuffer();
+        assertEquals(0xFF123456,                pixels.getRGB(255, 239));
+        assertEquals(new Color(0x12, 0x34, 0x56), pixels.getPixel(255, 239));
+    }
+
+    @Test
+    void testSetPixelOutsideGrid() {
+        pixels.setPixel(256, 0,   0xFF123456);
+        pixels.setPixel(0,   240, 0xFF123456);
+        pixels.storeBuffer();
+
+        int[] expected = new int[256 * 240];
+        Arrays.fill(expected, BLACK);
+        int[] actual = new int[256 * 240];
+        pixels.copyPixels(actual);
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    void testCopyPixels() {
+        pixels.setPixel(3, 2, 0xFFABCDEF);
+        pixels.storeBuffer();
+
+        int[] frame = new int[256 * 240];
+        pixels.copyPixels(frame);
+        assertEquals(0xFFABCDEF, frame[2 * 256 + 3]);
+        assertEquals(BLACK,      frame[2 * 256 + 4]);
+    }
+
+    @Test
+    void testDrawingAfterStoreBufferDoesNotChangeLatestFrame() {
+        pixels.setPixel(0, 0, 0xFF111111);
+        pixels.storeBuffer();
+        pixels.setPixel(0, 0, 0xFF222222);
+        assertEquals(0xFF111111, pixels.getRGB(0, 0));
+
+        pixels.storeBuffer();
+        assertEquals(0xFF222222, pixels.getRGB(0, 0));
+    }
+
+    @Test
+    void testDroppedFrames() {
+        pixels.storeBuffer();
+        pixels.storeBuffer();
+        pixels.storeBuffer();
+        assertEquals(2, pixels.getDroppedFrames());
+
+        pixels.getRGB(0, 0);
+        pixels.storeBuffer();
+        assertEquals(2, pixels.getDroppedFrames());
+    }
+
+    @Test
+    void testDuplicatedFrames() {
+        BufferedImage image = new BufferedImage(512, 720, BufferedImage.TYPE_INT_RGB);
+        Graphics graphics = image.createGraphics();
+
+        pixels.setPixel(1, 1, 0xFF123456);
+        pixels.storeBuffer();
+        pixels.paintComponent(graphics);
+        assertEquals(0, pixels.getDuplicatedFrames());
+        assertEquals(0xFF123456, image.getRGB(2, 3));
+
+        pixels.paintComponent(graphics);
+        assertEquals(1, pixels.getDuplicatedFrames());
+        assertEquals(0xFF123456, image.getRGB(2, 3));
+    }
+
+    @Test
+    void testFramesAreNeverTorn() throws InterruptedException {
+        Pixels small = new Pixels(1, 1, 16, 16);
+        int frames = 20000;
+
+        Thread drawer = new Thread(() -> {
+            for (int frame = 1; frame <= frames; frame++) {
+                for (int y = 0; y < 16; y++) {
+                    for (int x = 0; x < 16; x++) {
+                        small.setPixel(x, y, frame);
+                    }
+                }
+                small.storeBuffer();
+            }
+        });
+        drawer.start();
+
+        int[] frame = new int[16 * 16];
+        int last = Integer.MIN_VALUE;
+        while (last != frames) {
+            small.copyPixels(frame);
+            for (int pixel : frame) {
+                assertEquals(frame[0], pixel);
+            }
+            assertTrue(frame[0] >= last);
+            last = frame[0];
+        }
+        drawer.join();
+    }
+}